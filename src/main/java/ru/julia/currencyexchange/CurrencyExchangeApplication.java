@@ -4,9 +4,10 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+import ru.julia.currencyexchange.infrastructure.configuration.RatesConfig;
 
 @SpringBootApplication
-@EnableConfigurationProperties({BotConfig.class})
+@EnableConfigurationProperties({BotConfig.class, RatesConfig.class})
 public class CurrencyExchangeApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,80 @@
+package ru.julia.currencyexchange.application.bot.cluster;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Сессионная advisory-блокировка PostgreSQL. Блокировка живет, пока открыто соединение, поэтому соединение
+ * удерживается отдельно от пула запросов; при обрыве соединения PostgreSQL снимает блокировку сам.
+ */
+public class AdvisoryLock {
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?)";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?)";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource dataSource;
+    private final long key;
+    private Connection connection;
+
+    public AdvisoryLock(DataSource dataSource, long key) {
+        this.dataSource = dataSource;
+        this.key = key;
+    }
+
+    // true, если блокировка удерживается этим процессом: уже была взята и соединение живо, или взята сейчас
+    public synchronized boolean tryAcquire() throws SQLException {
+        if (connection != null) {
+            if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return true;
+            }
+            closeQuietly();
+        }
+
+        Connection candidate = dataSource.getConnection();
+        try {
+            candidate.setAutoCommit(true);
+            if (query(candidate, TRY_LOCK_SQL)) {
+                connection = candidate;
+                return true;
+            }
+        } catch (SQLException e) {
+            candidate.close();
+            throw e;
+        }
+        candidate.close();
+        return false;
+    }
+
+    public synchronized void release() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            query(connection, UNLOCK_SQL);
+        } catch (SQLException ignored) {
+            // Соединение все равно закрывается, а вместе с ним снимается и блокировка
+        }
+        closeQuietly();
+    }
+
+    private boolean query(Connection target, String sql) throws SQLException {
+        try (PreparedStatement statement = target.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Соединение уже недоступно
+        }
+        connection = null;
+    }
+}
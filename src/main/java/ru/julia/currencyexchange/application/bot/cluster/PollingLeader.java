@@ -0,0 +1,110 @@
+package ru.julia.currencyexchange.application.bot.cluster;
+
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.UpdatesListener;
+import com.pengrad.telegrambot.model.Update;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Единственный узел кластера, опрашивающий Telegram: Telegram не допускает параллельных getUpdates одного бота.
+ * Лидер — тот, кто держит advisory-блокировку PostgreSQL; полученные обновления он только складывает
+ * в {@link UpdateWorkQueue}, а обрабатывают их владельцы шардов, включая его самого.
+ */
+@Component
+public class PollingLeader {
+    private static final Logger logger = LoggerFactory.getLogger(PollingLeader.class);
+
+    private final TelegramBot bot;
+    private final AdvisoryLock lock;
+    private final UpdateWorkQueue workQueue;
+    private final boolean enabled;
+    private final Duration processedRetention;
+    private volatile boolean leader;
+
+    @Autowired
+    public PollingLeader(TelegramBot bot, DataSource dataSource, UpdateWorkQueue workQueue, BotConfig botConfig) {
+        this(bot, new AdvisoryLock(dataSource, botConfig.cluster().leaderLockKey()), workQueue,
+                botConfig.cluster().enabled(), botConfig.cluster().processedRetention());
+    }
+
+    PollingLeader(TelegramBot bot, AdvisoryLock lock, UpdateWorkQueue workQueue,
+                  boolean enabled, Duration processedRetention) {
+        this.bot = bot;
+        this.lock = lock;
+        this.workQueue = workQueue;
+        this.enabled = enabled;
+        this.processedRetention = processedRetention;
+    }
+
+    @Scheduled(fixedDelayString = "${bot.cluster.heartbeat-interval:PT5S}")
+    public void elect() {
+        if (!enabled) {
+            return;
+        }
+
+        boolean held;
+        try {
+            held = lock.tryAcquire();
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Failed to check bot polling leadership: {}", e.getMessage());
+            held = false;
+        }
+
+        if (held && !leader) {
+            leader = true;
+            logger.info("This instance became the Telegram polling leader");
+            bot.setUpdatesListener(this::ingest);
+        } else if (!held && leader) {
+            leader = false;
+            logger.warn("This instance lost the Telegram polling leadership");
+            bot.removeGetUpdatesListener();
+        }
+
+        if (leader) {
+            purgeProcessed();
+        }
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    // Подтверждаем Telegram только записанные обновления; при ошибке базы они придут повторно
+    int ingest(List<Update> updates) {
+        try {
+            workQueue.enqueue(updates);
+            return UpdatesListener.CONFIRMED_UPDATES_ALL;
+        } catch (RuntimeException e) {
+            logger.error("Failed to enqueue {} Telegram updates: {}", updates.size(), e.getMessage());
+            return UpdatesListener.CONFIRMED_UPDATES_NONE;
+        }
+    }
+
+    private void purgeProcessed() {
+        try {
+            workQueue.purgeProcessed(processedRetention);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to purge processed Telegram updates: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void resign() {
+        if (leader) {
+            leader = false;
+            bot.removeGetUpdatesListener();
+        }
+        lock.release();
+    }
+}
@@ -0,0 +1,216 @@
+package ru.julia.currencyexchange.application.bot.cluster;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.application.bot.executor.RequestExecutor;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Аренда шардов chatId узлами кластера. Каждый узел раз в heartbeatInterval отмечается в bot_cluster_nodes,
+ * продлевает свои аренды и приводит их число к ceil(shards / живые узлы): лишние отдает, недостающие забирает
+ * из свободных или просроченных.
+ * <p>
+ * Лишний шард отдается в два шага, чтобы обновления одного чата не обрабатывались двумя узлами одновременно:
+ * сначала он помечается draining, и {@link UpdateWorkQueue} перестает выдавать по нему обновления, а аренда
+ * снимается только когда все забранные этим узлом обновления шарда отмечены обработанными. До этого шард
+ * продлевается как обычно. Остановленный узел так же отдает сразу только дообработанные шарды; упавший теряет
+ * все через leaseDuration, и его необработанные обновления забирает новый владелец.
+ * <p>
+ * Heartbeat выполняется в собственном потоке, а не в общем пуле @Scheduled: долгие задачи в пуле
+ * (опрос очереди, обновление курсов) не должны задерживать продление аренды дольше leaseDuration.
+ * Число живых узлов передается в {@link RequestExecutor}, чтобы узлы вместе не превышали лимит отправки бота.
+ */
+@Component
+public class ShardLeases {
+    private static final Logger logger = LoggerFactory.getLogger(ShardLeases.class);
+
+    private static final String SEED_SQL = "INSERT INTO bot_shard_leases (shard, lease_until) " +
+            "SELECT s, now() FROM generate_series(0, ? - 1) s ON CONFLICT (shard) DO NOTHING";
+    private static final String HEARTBEAT_SQL = "INSERT INTO bot_cluster_nodes (node_id, last_seen) VALUES (?, now()) " +
+            "ON CONFLICT (node_id) DO UPDATE SET last_seen = now()";
+    private static final String DELETE_DEAD_NODES_SQL = "DELETE FROM bot_cluster_nodes " +
+            "WHERE last_seen <= now() - ? * INTERVAL '1 millisecond'";
+    private static final String COUNT_NODES_SQL = "SELECT count(*) FROM bot_cluster_nodes";
+    private static final String RENEW_SQL = "UPDATE bot_shard_leases SET lease_until = now() + ? * INTERVAL '1 millisecond' " +
+            "WHERE owner = ? AND shard < ? RETURNING draining";
+    private static final String DRAIN_SQL = "UPDATE bot_shard_leases SET draining = TRUE " +
+            "WHERE shard IN (SELECT shard FROM bot_shard_leases WHERE owner = ? AND NOT draining " +
+            "ORDER BY shard DESC LIMIT ?)";
+    // Шарды без забранных этим узлом и еще не обработанных обновлений
+    private static final String IDLE_SHARD = "NOT EXISTS (SELECT 1 FROM bot_updates u " +
+            "WHERE u.shard = l.shard AND u.claimed_by = l.owner AND u.processed_at IS NULL)";
+    private static final String RELEASE_DRAINED_SQL = "UPDATE bot_shard_leases l " +
+            "SET owner = NULL, draining = FALSE, lease_until = now() WHERE l.owner = ? AND l.draining AND " + IDLE_SHARD;
+    private static final String CLAIM_SQL = "UPDATE bot_shard_leases SET owner = ?, draining = FALSE, " +
+            "lease_until = now() + ? * INTERVAL '1 millisecond' " +
+            "WHERE shard IN (SELECT shard FROM bot_shard_leases " +
+            "WHERE shard < ? AND (owner IS NULL OR lease_until <= now()) ORDER BY shard LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING shard";
+    private static final String RELEASE_ALL_SQL = "UPDATE bot_shard_leases l " +
+            "SET owner = NULL, draining = FALSE, lease_until = now() WHERE l.owner = ? AND " + IDLE_SHARD;
+    private static final String DELETE_NODE_SQL = "DELETE FROM bot_cluster_nodes WHERE node_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String nodeId;
+    private final int shards;
+    private final Duration leaseDuration;
+    private final Duration heartbeatInterval;
+    private final LongConsumer liveNodesListener;
+    private ScheduledExecutorService heartbeats;
+    private volatile boolean seeded;
+    private volatile int ownedShards;
+
+    @Autowired
+    public ShardLeases(JdbcTemplate jdbcTemplate, BotConfig botConfig, RequestExecutor requestExecutor,
+                       MeterRegistry meterRegistry) {
+        this(jdbcTemplate, botConfig.cluster().enabled(), resolveNodeId(botConfig.cluster().nodeId()),
+                botConfig.cluster().shards(), botConfig.cluster().leaseDuration(),
+                botConfig.cluster().heartbeatInterval(), requestExecutor::shareGlobalLimit);
+        Gauge.builder("bot.cluster.shards.owned", this, ShardLeases::ownedShards)
+                .description("Chat shards whose updates this bot instance processes")
+                .register(meterRegistry);
+    }
+
+    ShardLeases(JdbcTemplate jdbcTemplate, boolean enabled, String nodeId, int shards, Duration leaseDuration,
+                Duration heartbeatInterval, LongConsumer liveNodesListener) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.nodeId = nodeId;
+        this.shards = shards;
+        this.leaseDuration = leaseDuration;
+        this.heartbeatInterval = heartbeatInterval;
+        this.liveNodesListener = liveNodesListener;
+    }
+
+    private static String resolveNodeId(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return configured;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "bot";
+        }
+        // Суффикс отличает перезапущенный узел от прежнего, чьи аренды еще не истекли
+        String suffix = "-" + UUID.randomUUID().toString().substring(0, 8);
+        return host.substring(0, Math.min(host.length(), 64 - suffix.length())) + suffix;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        heartbeats = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("bot-cluster-heartbeat").daemon().factory());
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            rebalance();
+        } catch (RuntimeException e) {
+            // Аренды не продлены: через leaseDuration их заберут другие узлы, а этот перестанет забирать обновления
+            logger.error("Failed to renew bot shard leases for node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public int ownedShards() {
+        return ownedShards;
+    }
+
+    private void rebalance() {
+        if (!seeded) {
+            jdbcTemplate.update(SEED_SQL, shards);
+            seeded = true;
+        }
+
+        long leaseMillis = leaseDuration.toMillis();
+        jdbcTemplate.update(HEARTBEAT_SQL, nodeId);
+        jdbcTemplate.update(DELETE_DEAD_NODES_SQL, leaseMillis);
+        Long counted = jdbcTemplate.queryForObject(COUNT_NODES_SQL, Long.class);
+        long nodes = counted != null ? counted : 1;
+        int target = targetShards(nodes);
+        liveNodesListener.accept(nodes);
+
+        List<Boolean> renewed = jdbcTemplate.queryForList(RENEW_SQL, Boolean.class, leaseMillis, nodeId, shards);
+        int owned = renewed.size();
+        int active = (int) renewed.stream().filter(draining -> !draining).count();
+        if (active > target) {
+            jdbcTemplate.update(DRAIN_SQL, nodeId, active - target);
+        } else if (active < target) {
+            List<Integer> claimed = jdbcTemplate.queryForList(CLAIM_SQL, Integer.class,
+                    nodeId, leaseMillis, shards, target - active);
+            owned += claimed.size();
+        }
+        owned -= jdbcTemplate.update(RELEASE_DRAINED_SQL, nodeId);
+
+        if (owned != ownedShards) {
+            logger.info("Bot node {} now owns {} of {} shards ({} nodes alive)", nodeId, owned, shards, nodes);
+        }
+        ownedShards = owned;
+    }
+
+    int targetShards(long nodes) {
+        long alive = Math.max(1, nodes);
+        return (int) ((shards + alive - 1) / alive);
+    }
+
+    // Остановленный узел сразу отдает дообработанные шарды, не дожидаясь истечения аренды: это ускоряет поэтапный деплой.
+    // ShardWorker к этому моменту уже остановлен и отметил завершенные обновления
+    @PreDestroy
+    public void releaseAll() {
+        if (!enabled) {
+            return;
+        }
+
+        // Heartbeat, выполняющийся прямо сейчас, иначе мог бы забрать шарды уже после их освобождения
+        if (heartbeats != null) {
+            heartbeats.shutdown();
+            try {
+                if (!heartbeats.awaitTermination(5, TimeUnit.SECONDS)) {
+                    heartbeats.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                heartbeats.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        ownedShards = 0;
+        try {
+            jdbcTemplate.update(RELEASE_ALL_SQL, nodeId);
+            jdbcTemplate.update(DELETE_NODE_SQL, nodeId);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to release bot shard leases for node {}: {}", nodeId, e.getMessage());
+        }
+    }
+}
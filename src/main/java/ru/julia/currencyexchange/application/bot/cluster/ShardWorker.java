@@ -0,0 +1,150 @@
+package ru.julia.currencyexchange.application.bot.cluster;
+
+import com.pengrad.telegrambot.model.Update;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.application.bot.listener.MessagesListener;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Забирает из {@link UpdateWorkQueue} обновления шардов, арендованных этим узлом, и передает их тому же
+ * {@link MessagesListener}, что и при одиночном запуске. Когда диспетчер переполнен, опрос очереди блокируется,
+ * и необработанные обновления остаются в таблице. Завершенные обновления отмечаются в таблице пачкой
+ * при следующем опросе; пока отметки нет, {@link ShardLeases} не отдаст их шард другому узлу.
+ * Обновления, которые диспетчер не запустил, так же пачкой возвращаются в очередь.
+ */
+@Component
+public class ShardWorker {
+    private static final Logger logger = LoggerFactory.getLogger(ShardWorker.class);
+    private static final long DRAIN_TIMEOUT_SECONDS = 10;
+
+    private final UpdateWorkQueue workQueue;
+    private final ShardLeases shardLeases;
+    private final MessagesListener messagesListener;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Queue<Long> processed = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> failed = new ConcurrentLinkedQueue<>();
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopped;
+    private volatile boolean claimsReset;
+
+    @Autowired
+    public ShardWorker(UpdateWorkQueue workQueue, ShardLeases shardLeases,
+                       MessagesListener messagesListener, BotConfig botConfig) {
+        this(workQueue, shardLeases, messagesListener, botConfig.cluster().enabled(), botConfig.cluster().batchSize());
+    }
+
+    ShardWorker(UpdateWorkQueue workQueue, ShardLeases shardLeases,
+                MessagesListener messagesListener, boolean enabled, int batchSize) {
+        this.workQueue = workQueue;
+        this.shardLeases = shardLeases;
+        this.messagesListener = messagesListener;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${bot.cluster.poll-interval:PT0.5S}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            flushProcessed();
+            if (stopped || shardLeases.ownedShards() == 0) {
+                return;
+            }
+            if (!claimsReset) {
+                workQueue.resetClaims(shardLeases.nodeId());
+                claimsReset = true;
+            }
+
+            List<Update> updates;
+            do {
+                updates = workQueue.claim(shardLeases.nodeId(), batchSize);
+                updates.forEach(this::dispatch);
+                flushProcessed();
+            } while (!stopped && updates.size() == batchSize);
+        } catch (RuntimeException e) {
+            logger.error("Failed to claim Telegram updates for node {}: {}", shardLeases.nodeId(), e.getMessage());
+        }
+    }
+
+    int inFlightUpdates() {
+        return inFlight.size();
+    }
+
+    // В inFlight хранится стадия после записи результата: stop() дожидается, пока обновление попадет в processed
+    private void dispatch(Update update) {
+        long updateId = update.updateId().longValue();
+        CompletableFuture<Void> recorded = messagesListener.dispatch(update).whenComplete((result, error) ->
+                (error == null ? processed : failed).add(updateId));
+        inFlight.add(recorded);
+        recorded.whenComplete((result, error) -> inFlight.remove(recorded));
+    }
+
+    private void flushProcessed() {
+        flush(processed, workQueue::markProcessed);
+        // Не запущенное обновление снова забирается этим узлом или, если шард отдан, его новым владельцем
+        flush(failed, workQueue::releaseClaims);
+    }
+
+    private static void flush(Queue<Long> updates, Consumer<List<Long>> writer) {
+        List<Long> updateIds = new ArrayList<>();
+        for (Long updateId = updates.poll(); updateId != null; updateId = updates.poll()) {
+            updateIds.add(updateId);
+        }
+        if (updateIds.isEmpty()) {
+            return;
+        }
+        try {
+            writer.accept(updateIds);
+        } catch (RuntimeException e) {
+            updates.addAll(updateIds);
+            throw e;
+        }
+    }
+
+    // Останавливается раньше ShardLeases: забранные обновления дорабатываются и отмечаются, и шарды отдаются сразу
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+
+        stopped = true;
+        try {
+            CompletableFuture.allOf(inFlight.stream()
+                            .map(update -> update.handle((result, error) -> null))
+                            .toArray(CompletableFuture[]::new))
+                    .get(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Stopping with {} Telegram updates still in progress; their shards will be taken over "
+                    + "after the lease expires", inFlight.size());
+        }
+        try {
+            flushProcessed();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to mark processed Telegram updates for node {}: {}", shardLeases.nodeId(), e.getMessage());
+        }
+    }
+}
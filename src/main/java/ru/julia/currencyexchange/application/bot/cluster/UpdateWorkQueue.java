@@ -0,0 +1,110 @@
+package ru.julia.currencyexchange.application.bot.cluster;
+
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.utility.BotUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.application.bot.listener.UpdateDispatcher;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Таблица bot_updates: лидер складывает в нее обновления Telegram, узлы забирают обновления своих шардов.
+ * Шард определяется chatId, поэтому все обновления одного чата обрабатывает один узел по порядку update_id.
+ * Забранное обновление помечается claimed_by, а processed_at ставится только после обработки: обновления упавшего
+ * узла заберет следующий владелец шарда. Обработанные хранятся еще processedRetention, чтобы повторная доставка
+ * при смене лидера их не продублировала.
+ */
+@Component
+public class UpdateWorkQueue {
+    private static final String INSERT_SQL = "INSERT INTO bot_updates (update_id, shard, payload) VALUES (?, ?, ?) " +
+            "ON CONFLICT (update_id) DO NOTHING";
+    // Только шарды с действующей арендой этого узла, кроме отдаваемых. Необработанное обновление другого узла
+    // забирается снова: раз аренда шарда у этого узла, прежний владелец ее потерял.
+    // FOR SHARE OF l не дает ShardLeases пометить шард отдаваемым посреди выборки и снять аренду до записи claimed_by
+    private static final String CLAIM_SQL = "UPDATE bot_updates SET claimed_by = ?, claimed_at = now() WHERE update_id IN " +
+            "(SELECT u.update_id FROM bot_updates u JOIN bot_shard_leases l ON l.shard = u.shard " +
+            "WHERE u.processed_at IS NULL AND u.claimed_by IS DISTINCT FROM ? " +
+            "AND l.owner = ? AND l.lease_until > now() AND NOT l.draining " +
+            "ORDER BY u.update_id LIMIT ? FOR UPDATE OF u SKIP LOCKED FOR SHARE OF l) RETURNING update_id, payload";
+    private static final String MARK_PROCESSED_SQL = "UPDATE bot_updates SET processed_at = now() WHERE update_id = ?";
+    private static final String RELEASE_CLAIM_SQL = "UPDATE bot_updates SET claimed_by = NULL " +
+            "WHERE update_id = ? AND processed_at IS NULL";
+    private static final String RESET_CLAIMS_SQL = "UPDATE bot_updates SET claimed_by = NULL " +
+            "WHERE claimed_by = ? AND processed_at IS NULL";
+    private static final String PURGE_SQL = "DELETE FROM bot_updates " +
+            "WHERE processed_at < now() - ? * INTERVAL '1 millisecond'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int shards;
+
+    @Autowired
+    public UpdateWorkQueue(JdbcTemplate jdbcTemplate, BotConfig botConfig) {
+        this(jdbcTemplate, botConfig.cluster().shards());
+    }
+
+    UpdateWorkQueue(JdbcTemplate jdbcTemplate, int shards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+    }
+
+    public void enqueue(List<Update> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(updates.size());
+        for (Update update : updates) {
+            rows.add(new Object[]{update.updateId().longValue(), shardOf(update), BotUtils.toJson(update)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    // Обновления в порядке update_id: RETURNING порядок не гарантирует
+    public List<Update> claim(String nodeId, int limit) {
+        List<ClaimedUpdate> claimed = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new ClaimedUpdate(rs.getLong(1), rs.getString(2)), nodeId, nodeId, nodeId, limit);
+        return claimed.stream()
+                .sorted(Comparator.comparingLong(ClaimedUpdate::updateId))
+                .map(update -> BotUtils.parseUpdate(update.payload()))
+                .toList();
+    }
+
+    public void markProcessed(List<Long> updateIds) {
+        List<Object[]> rows = new ArrayList<>(updateIds.size());
+        for (Long updateId : updateIds) {
+            rows.add(new Object[]{updateId});
+        }
+        jdbcTemplate.batchUpdate(MARK_PROCESSED_SQL, rows);
+    }
+
+    // Обновления, которые узел не смог запустить, возвращаются в очередь и не держат шард отдаваемым
+    public void releaseClaims(List<Long> updateIds) {
+        List<Object[]> rows = new ArrayList<>(updateIds.size());
+        for (Long updateId : updateIds) {
+            rows.add(new Object[]{updateId});
+        }
+        jdbcTemplate.batchUpdate(RELEASE_CLAIM_SQL, rows);
+    }
+
+    // Узел с тем же nodeId после перезапуска не помнит забранных до падения обновлений; они забираются заново
+    public int resetClaims(String nodeId) {
+        return jdbcTemplate.update(RESET_CLAIMS_SQL, nodeId);
+    }
+
+    public int purgeProcessed(Duration retention) {
+        return jdbcTemplate.update(PURGE_SQL, retention.toMillis());
+    }
+
+    int shardOf(Update update) {
+        return Math.floorMod(Long.hashCode(UpdateDispatcher.chatKey(update)), shards);
+    }
+
+    private record ClaimedUpdate(long updateId, String payload) {
+    }
+}
@@ -0,0 +1,60 @@
+package ru.julia.currencyexchange.application.bot.executor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Резервирует время отправки с учетом лимитов Telegram: не чаще одного сообщения в интервал для чата
+ * и не больше заданного числа сообщений в секунду для всего бота. В кластере лимит бота делится поровну
+ * между живыми узлами, см. {@link #shareGlobalLimit}.
+ * Методы возвращают задержку в наносекундах, которую нужно выждать перед отправкой.
+ */
+class OutboundRateLimiter {
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long chatIntervalNanos;
+    private final long botIntervalNanos;
+    private volatile long globalIntervalNanos;
+    private final LongSupplier nanoTime;
+    private final Map<Object, Long> nextChatSlot = new ConcurrentHashMap<>();
+    private final AtomicLong nextGlobalSlot;
+
+    OutboundRateLimiter(int globalMessagesPerSecond, Duration perChatInterval, LongSupplier nanoTime) {
+        this.chatIntervalNanos = perChatInterval.toNanos();
+        this.botIntervalNanos = Duration.ofSeconds(1).toNanos() / globalMessagesPerSecond;
+        this.globalIntervalNanos = botIntervalNanos;
+        this.nanoTime = nanoTime;
+        this.nextGlobalSlot = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    long reserveChatSlot(Object chatKey, long minDelayNanos) {
+        if (chatKey == null) {
+            return minDelayNanos;
+        }
+
+        long now = nanoTime.getAsLong();
+        if (nextChatSlot.size() > PURGE_THRESHOLD) {
+            nextChatSlot.values().removeIf(slot -> slot - now < 0);
+        }
+
+        long earliest = now + minDelayNanos;
+        long slot = nextChatSlot.merge(chatKey, earliest + chatIntervalNanos,
+                (next, ignored) -> Math.max(next, earliest) + chatIntervalNanos) - chatIntervalNanos;
+        return slot - now;
+    }
+
+    // Узлы не согласуют отправку между собой, поэтому каждый получает 1/nodes общего лимита
+    void shareGlobalLimit(long nodes) {
+        globalIntervalNanos = botIntervalNanos * Math.max(1, nodes);
+    }
+
+    long reserveGlobalSlot() {
+        long now = nanoTime.getAsLong();
+        long interval = globalIntervalNanos;
+        long slot = nextGlobalSlot.getAndUpdate(next -> Math.max(next, now) + interval);
+        return Math.max(0, slot - now);
+    }
+}
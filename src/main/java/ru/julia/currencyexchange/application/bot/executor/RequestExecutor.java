@@ -3,15 +3,75 @@ package ru.julia.currencyexchange.application.bot.executor;
 import com.pengrad.telegrambot.TelegramBot;
 import com.pengrad.telegrambot.request.BaseRequest;
 import com.pengrad.telegrambot.response.BaseResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.executor.interfaces.Executor;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class RequestExecutor implements Executor {
+    private static final Logger logger = LoggerFactory.getLogger(RequestExecutor.class);
+    private static final int TOO_MANY_REQUESTS = 429;
+
     private final TelegramBot bot;
+    private final BotConfig.Sender config;
+    private final OutboundRateLimiter rateLimiter;
+    private final Semaphore queueSlots;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService senders;
+    private final Counter rejectedRequests;
+    private final Counter retriedRequests;
+    // Очереди запросов по chat_id; первый элемент — запрос, который отправляется сейчас
+    private final Map<Object, Deque<Outbound<?, ?>>> chatQueues = new ConcurrentHashMap<>();
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
 
-    public RequestExecutor(TelegramBot bot) {
+    public RequestExecutor(TelegramBot bot, BotConfig botConfig, MeterRegistry meterRegistry) {
         this.bot = bot;
+        this.config = botConfig.sender();
+        this.rateLimiter = new OutboundRateLimiter(config.globalMessagesPerSecond(), config.perChatInterval(),
+                System::nanoTime);
+        this.queueSlots = new Semaphore(config.queueCapacity());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("bot-sender-scheduler").daemon().factory());
+        this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bot-sender-", 0).factory());
+        this.rejectedRequests = Counter.builder("bot.outbound.rejected")
+                .description("Outbound Telegram requests dropped because the send queue was full")
+                .register(meterRegistry);
+        this.retriedRequests = Counter.builder("bot.outbound.retried")
+                .description("Outbound Telegram requests retried after 429 or a connection failure")
+                .register(meterRegistry);
+        Gauge.builder("bot.outbound.queued", this, RequestExecutor::queuedRequests)
+                .description("Outbound Telegram requests waiting to be sent")
+                .register(meterRegistry);
+    }
+
+    // Число живых узлов кластера бота; лимит Telegram на отправку общий для всех узлов
+    public void shareGlobalLimit(long nodes) {
+        rateLimiter.shareGlobalLimit(nodes);
     }
 
     @Override
@@ -24,4 +84,178 @@ public class RequestExecutor implements Executor {
 
         return response;
     }
+
+    @Override
+    public <T extends BaseRequest<T, R>, R extends BaseResponse> CompletableFuture<R> executeAsync(
+            BaseRequest<T, R> request) {
+        if (bot == null) {
+            throw new IllegalStateException("Bot not initialized");
+        }
+
+        CompletableFuture<R> result = new CompletableFuture<>();
+        if (!queueSlots.tryAcquire()) {
+            rejectedRequests.increment();
+            result.completeExceptionally(new RejectedExecutionException("Очередь отправки сообщений Telegram переполнена"));
+            return result;
+        }
+        inFlight.add(result);
+        result.whenComplete((response, error) -> {
+            inFlight.remove(result);
+            queueSlots.release();
+        });
+
+        Outbound<T, R> outbound = new Outbound<>(request, result, request.getParameters().get("chat_id"));
+        if (outbound.chatKey == null) {
+            schedule(outbound, 0);
+            return result;
+        }
+
+        // Сообщения одного чата уходят строго по очереди: следующее планируется только после завершения предыдущего
+        boolean[] head = new boolean[1];
+        chatQueues.compute(outbound.chatKey, (key, queue) -> {
+            Deque<Outbound<?, ?>> chatQueue = queue == null ? new ArrayDeque<>() : queue;
+            chatQueue.addLast(outbound);
+            head[0] = chatQueue.size() == 1;
+            return chatQueue;
+        });
+        if (head[0]) {
+            schedule(outbound, 0);
+        }
+        return result;
+    }
+
+    public int queuedRequests() {
+        return config.queueCapacity() - queueSlots.availablePermits();
+    }
+
+    private void schedule(Outbound<?, ?> outbound, long minDelayNanos) {
+        long delay = rateLimiter.reserveChatSlot(outbound.chatKey, minDelayNanos);
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    senders.execute(() -> send(outbound));
+                } catch (RejectedExecutionException e) {
+                    finish(outbound, null, e);
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            finish(outbound, null, e);
+        }
+    }
+
+    private <T extends BaseRequest<T, R>, R extends BaseResponse> void send(Outbound<T, R> outbound) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(rateLimiter.reserveGlobalSlot());
+            R response = bot.execute(outbound.request);
+
+            if (response != null && response.errorCode() == TOO_MANY_REQUESTS && outbound.attempt < config.maxRetries()) {
+                Integer retryAfter = response.parameters() != null ? response.parameters().retryAfter() : null;
+                long delay = retryAfter != null
+                        ? TimeUnit.SECONDS.toNanos(retryAfter)
+                        : backoffNanos(outbound.attempt);
+                logger.warn("Telegram rate limit hit for {}, retrying in {} ms",
+                        outbound.request.getMethod(), TimeUnit.NANOSECONDS.toMillis(delay));
+                retry(outbound, delay);
+                return;
+            }
+            finish(outbound, response, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(outbound, null, e);
+        } catch (RuntimeException e) {
+            if (isConnectFailure(e) && outbound.attempt < config.maxRetries()) {
+                logger.warn("Failed to connect to Telegram for {}, retry {}: {}",
+                        outbound.request.getMethod(), outbound.attempt + 1, e.getMessage());
+                retry(outbound, backoffNanos(outbound.attempt));
+                return;
+            }
+            logger.error("Failed to send {} to Telegram: {}", outbound.request.getMethod(), e.getMessage());
+            finish(outbound, null, e);
+        }
+    }
+
+    // Повтор остается первым в очереди своего чата, поэтому не обгоняет и не пропускает вперед более поздние сообщения
+    private void retry(Outbound<?, ?> outbound, long delayNanos) {
+        retriedRequests.increment();
+        outbound.attempt++;
+        schedule(outbound, delayNanos);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R extends BaseResponse> void finish(Outbound<?, R> outbound, BaseResponse response, Throwable error) {
+        if (error != null) {
+            outbound.result.completeExceptionally(error);
+        } else {
+            outbound.result.complete((R) response);
+        }
+        if (outbound.chatKey == null) {
+            return;
+        }
+
+        Outbound<?, ?>[] next = new Outbound<?, ?>[1];
+        chatQueues.computeIfPresent(outbound.chatKey, (key, queue) -> {
+            queue.pollFirst();
+            next[0] = queue.peekFirst();
+            return queue.isEmpty() ? null : queue;
+        });
+        if (next[0] != null) {
+            schedule(next[0], 0);
+        }
+    }
+
+    // Повторяются только ошибки соединения: запрос до Telegram не дошел. После таймаута чтения сообщение
+    // могло быть уже доставлено, и повтор sendMessage продублировал бы его
+    static boolean isConnectFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                    || cause instanceof NoRouteToHostException) {
+                return true;
+            }
+            if (cause instanceof SocketTimeoutException && cause.getMessage() != null
+                    && cause.getMessage().toLowerCase(Locale.ROOT).contains("connect")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long backoffNanos(int attempt) {
+        return config.retryBackoff().toNanos() << Math.min(attempt, 10);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Dropping {} delayed Telegram requests on shutdown", scheduler.shutdownNow().size());
+            }
+            senders.shutdown();
+            senders.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdownNow();
+
+        // Неотправленные запросы завершаются ошибкой: иначе вызывающие ждали бы вечно, а места в очереди не освободились
+        RejectedExecutionException stopped = new RejectedExecutionException("Отправка сообщений Telegram остановлена");
+        for (CompletableFuture<?> result : List.copyOf(inFlight)) {
+            result.completeExceptionally(stopped);
+        }
+        chatQueues.clear();
+    }
+
+    private static final class Outbound<T extends BaseRequest<T, R>, R extends BaseResponse> {
+        private final BaseRequest<T, R> request;
+        private final CompletableFuture<R> result;
+        private final Object chatKey;
+        private int attempt;
+
+        private Outbound(BaseRequest<T, R> request, CompletableFuture<R> result, Object chatKey) {
+            this.request = request;
+            this.result = result;
+            this.chatKey = chatKey;
+        }
+    }
 }
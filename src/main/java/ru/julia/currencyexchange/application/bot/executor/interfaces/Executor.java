@@ -3,6 +3,10 @@ package ru.julia.currencyexchange.application.bot.executor.interfaces;
 import com.pengrad.telegrambot.request.BaseRequest;
 import com.pengrad.telegrambot.response.BaseResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface Executor {
     <T extends BaseRequest<T, R>, R extends BaseResponse> R execute(BaseRequest<T, R> request);
-}
\ No newline at end of file
+
+    <T extends BaseRequest<T, R>, R extends BaseResponse> CompletableFuture<R> executeAsync(BaseRequest<T, R> request);
+}
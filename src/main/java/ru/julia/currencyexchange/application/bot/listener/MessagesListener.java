@@ -8,212 +8,156 @@ import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.executor.interfaces.Executor;
+import ru.julia.currencyexchange.application.bot.listener.callback.CallbackArguments;
+import ru.julia.currencyexchange.application.bot.listener.callback.CallbackRouter;
 import ru.julia.currencyexchange.application.bot.messages.DefaultMessages;
 import ru.julia.currencyexchange.infrastructure.configuration.Constants;
 
 import java.util.List;
-import java.util.function.Function;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 
 @Component
 public class MessagesListener implements UpdatesListener {
+    private static final long REDELIVERY_WAIT_MILLIS = 1000;
+
     private final Executor executor;
     private final DefaultMessages defaultMessages;
+    private final UpdateDispatcher updateDispatcher;
+    private final CallbackRouter callbackRouter;
+    // Принятые обновления, которые еще не подтверждены Telegram, по update_id
+    private final ConcurrentSkipListMap<Integer, CompletableFuture<Void>> unconfirmed = new ConcurrentSkipListMap<>();
 
     @Autowired
-    public MessagesListener(Executor executor, DefaultMessages defaultMessages) {
+    public MessagesListener(Executor executor, DefaultMessages defaultMessages, UpdateDispatcher updateDispatcher) {
         this.executor = executor;
         this.defaultMessages = defaultMessages;
+        this.updateDispatcher = updateDispatcher;
+        this.callbackRouter = createCallbackRouter();
     }
 
+    // Подтверждаются только обновления до первого необработанного: после падения Telegram пришлет остальные заново
     @Override
     public int process(List<Update> list) {
-        list.forEach(update -> {
-            try {
-                if (update.callbackQuery() != null) {
-                    if (handleCallback(update)) {
-                        return;
-                    }
-                }
-
-                SendMessage sendMessage = defaultMessages.sendMessage(update);
-                if (sendMessage != null && sendMessage.getParameters() != null) {
-                    sendMessage.parseMode(ParseMode.Markdown);
-                    executor.execute(sendMessage);
-                }
-            } catch (Exception e) {
-
+        boolean accepted = false;
+        for (Update update : list) {
+            Integer updateId = update.updateId();
+            if (updateId == null) {
+                dispatch(update);
+            } else if (!unconfirmed.containsKey(updateId)) {
+                // Неподтвержденные обновления приходят повторно; уже принятые второй раз не запускаются
+                unconfirmed.put(updateId, dispatch(update));
+                accepted = true;
             }
-        });
-
-        return CONFIRMED_UPDATES_ALL;
-    }
-
-    boolean handleCallback(Update update) {
-        String callbackData = update.callbackQuery().data();
-        if (callbackData == null) {
-            return false;
-        }
-
-        if (handlePaginationCallback(update, callbackData, "currencies_page_",
-                page -> defaultMessages.getCurrenciesCommand().getCallbackHandler().handleCallback(update, page))) {
-            return true;
         }
-
-        if (handlePaginationCallback(update, callbackData, "history_page_",
-                page -> defaultMessages.getHistoryCallbackHandler().handleCallback(update, page))) {
-            return true;
-        }
-
-        if (handleFindByDatePaginationCallback(update, callbackData)) {
-            return true;
-        }
-
-        if (handleUsersPaginationCallback(update, callbackData)) {
-            return true;
-        }
-
-        if (handleUsersSwitchModeCallback(update, callbackData)) {
-            return true;
-        }
-
-        if (handleBanUserCallback(update, callbackData)) {
-            return true;
-        }
-
-        if (handleSetFeeCallback(update, callbackData)) {
-            return true;
+        if (!accepted) {
+            awaitOldest();
         }
+        return confirmCompleted();
+    }
 
-        if (callbackData.startsWith("currency_to_rub_")) {
-            return handleSimpleCallback(update,
-                    () -> defaultMessages.getCurrencyToRubCallbackHandler().handleCallback(update));
+    private int confirmCompleted() {
+        int confirmed = CONFIRMED_UPDATES_NONE;
+        Map.Entry<Integer, CompletableFuture<Void>> oldest;
+        while ((oldest = unconfirmed.firstEntry()) != null && oldest.getValue().isDone()) {
+            unconfirmed.remove(oldest.getKey());
+            confirmed = oldest.getKey();
         }
+        return confirmed;
+    }
 
-        if (callbackData.startsWith("convert_")) {
-            return handleSimpleCallback(update,
-                    () -> defaultMessages.getCurrencyConvertCallbackHandler().handleCallback(update));
+    // Пока самое старое обновление обрабатывается, Telegram сразу возвращает те же обновления; ждем, чтобы не опрашивать вхолостую
+    private void awaitOldest() {
+        Map.Entry<Integer, CompletableFuture<Void>> oldest = unconfirmed.firstEntry();
+        if (oldest == null) {
+            return;
         }
-
-        if (callbackData.equals(Constants.CALLBACK_CONFIRM) || callbackData.equals(Constants.CALLBACK_CANCEL)) {
-            executor.execute(defaultMessages.getDeleteAccountCallbackHandler().handleCallback(update.callbackQuery()));
-            return true;
+        try {
+            oldest.getValue().get(REDELIVERY_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Результат проверит confirmCompleted
         }
+    }
 
-        return false;
+    // Завершается, когда обновление обработано
+    public CompletableFuture<Void> dispatch(Update update) {
+        return updateDispatcher.dispatch(update, () -> handleUpdate(update));
     }
 
-    private boolean handlePaginationCallback(Update update, String callbackData, String prefix,
-                                             Function<Integer, EditMessageText> callbackHandler) {
-        if (callbackData.startsWith(prefix)) {
-            try {
-                int page = Integer.parseInt(callbackData.substring(prefix.length()));
-                EditMessageText editMessage = callbackHandler.apply(page);
-                if (editMessage != null && editMessage.getParameters() != null) {
-                    editMessage.parseMode(ParseMode.Markdown);
-                    executor.execute(editMessage);
+    void handleUpdate(Update update) {
+        try {
+            if (update.callbackQuery() != null) {
+                if (handleCallback(update)) {
+                    return;
                 }
-                return true;
-            } catch (NumberFormatException e) {
-                // Игнорируем некорректные callback'и
             }
-        }
-        return false;
-    }
 
-    private boolean handleFindByDatePaginationCallback(Update update, String callbackData) {
-        if (callbackData.startsWith("findByDate_page_")) {
-            try {
-                String[] parts = callbackData.substring("findByDate_page_".length()).split("_");
-                if (parts.length >= 4) {
-                    String dateStr = parts[0] + "-" + parts[1] + "-" + parts[2];
-                    int page = Integer.parseInt(parts[3]);
-
-                    EditMessageText editMessage = defaultMessages.getFindByDateCallbackHandler()
-                            .handleCallback(update, page, dateStr);
-                    if (editMessage != null && editMessage.getParameters() != null) {
-                        editMessage.parseMode(ParseMode.Markdown);
-                        executor.execute(editMessage);
-                    }
-                    return true;
-                }
-            } catch (NumberFormatException e) {
-                // Игнорируем некорректные callback'и
+            SendMessage sendMessage = defaultMessages.sendMessage(update);
+            if (sendMessage != null && sendMessage.getParameters() != null) {
+                sendMessage.parseMode(ParseMode.Markdown);
+                executor.executeAsync(sendMessage);
             }
+        } catch (Exception e) {
+
         }
-        return false;
     }
 
-    private boolean handleUsersPaginationCallback(Update update, String callbackData) {
-        if (callbackData.startsWith("users_page_")) {
-            try {
-                String[] parts = callbackData.substring("users_page_".length()).split("_");
-                if (parts.length >= 2) {
-                    boolean useCompactFormat = "compact".equals(parts[0]);
-                    int page = Integer.parseInt(parts[1]);
-
-                    EditMessageText editMessage = defaultMessages.getUsersCallbackHandler()
-                            .handleCallback(update, page, useCompactFormat);
-                    if (editMessage != null && editMessage.getParameters() != null) {
-                        editMessage.parseMode(ParseMode.Markdown);
-                        executor.execute(editMessage);
-                    }
-                    return true;
-                }
-            } catch (NumberFormatException e) {
-                // Игнорируем некорректные callback'и
-            }
-        }
-        return false;
+    boolean handleCallback(Update update) {
+        return callbackRouter.dispatch(update, update.callbackQuery().data());
     }
 
-    private boolean handleUsersSwitchModeCallback(Update update, String callbackData) {
-        if (callbackData.startsWith("users_switch_")) {
-            try {
-                String[] parts = callbackData.substring("users_switch_".length()).split("_");
-                if (parts.length >= 2) {
-                    boolean useCompactFormat = "compact".equals(parts[0]);
-                    int page = Integer.parseInt(parts[1]);
-
-                    EditMessageText editMessage = defaultMessages.getUsersCallbackHandler()
-                            .handleCallback(update, page, useCompactFormat);
-                    if (editMessage != null && editMessage.getParameters() != null) {
-                        editMessage.parseMode(ParseMode.Markdown);
-                        executor.execute(editMessage);
-                    }
-                    return true;
-                }
-            } catch (NumberFormatException e) {
-                // Игнорируем некорректные callback'и
-            }
-        }
-        return false;
+    private CallbackRouter createCallbackRouter() {
+        return CallbackRouter.builder()
+                .prefix("currencies_page_", CallbackArguments::page, (update, page) -> sendEdit(
+                        defaultMessages.getCurrenciesCommand().getCallbackHandler().handleCallback(update, page)))
+                .prefix("history_page_", CallbackArguments::page, (update, page) -> sendEdit(
+                        defaultMessages.getHistoryCallbackHandler().handleCallback(update, page)))
+                .prefix("findByDate_page_", CallbackArguments::datePage, (update, argument) -> sendEdit(
+                        defaultMessages.getFindByDateCallbackHandler()
+                                .handleCallback(update, argument.page(), argument.date())))
+                .prefix("users_page_", CallbackArguments::usersPage, this::handleUsersPage)
+                .prefix("users_switch_", CallbackArguments::usersPage, this::handleUsersPage)
+                .prefix("ban_user_", CallbackArguments::raw, (update, data) -> handleSimpleCallback(
+                        () -> defaultMessages.getBanUserCallbackHandler().handleCallback(update)))
+                .prefix("set_fee_", CallbackArguments::raw, (update, data) -> handleSimpleCallback(
+                        () -> defaultMessages.getSetFeeCallbackHandler().handleCallback(update)))
+                .prefix("currency_to_rub_", CallbackArguments::raw, (update, data) -> handleSimpleCallback(
+                        () -> defaultMessages.getCurrencyToRubCallbackHandler().handleCallback(update)))
+                .prefix("convert_", CallbackArguments::raw, (update, data) -> handleSimpleCallback(
+                        () -> defaultMessages.getCurrencyConvertCallbackHandler().handleCallback(update)))
+                .exact(Constants.CALLBACK_CONFIRM, this::handleDeleteAccount)
+                .exact(Constants.CALLBACK_CANCEL, this::handleDeleteAccount)
+                .build();
     }
 
-    private boolean handleBanUserCallback(Update update, String callbackData) {
-        if (callbackData.startsWith("ban_user_")) {
-            return handleSimpleCallback(update,
-                    () -> defaultMessages.getBanUserCallbackHandler().handleCallback(update));
-        }
-        return false;
+    private boolean handleUsersPage(Update update, CallbackArguments.UsersPage argument) {
+        return sendEdit(defaultMessages.getUsersCallbackHandler()
+                .handleCallback(update, argument.page(), argument.compact()));
     }
 
-    private boolean handleSetFeeCallback(Update update, String callbackData) {
-        if (callbackData.startsWith("set_fee_")) {
-            return handleSimpleCallback(update,
-                    () -> defaultMessages.getSetFeeCallbackHandler().handleCallback(update));
+    private boolean handleDeleteAccount(Update update, String data) {
+        executor.executeAsync(defaultMessages.getDeleteAccountCallbackHandler().handleCallback(update.callbackQuery()));
+        return true;
+    }
+
+    private boolean sendEdit(EditMessageText editMessage) {
+        if (editMessage != null && editMessage.getParameters() != null) {
+            editMessage.parseMode(ParseMode.Markdown);
+            executor.executeAsync(editMessage);
         }
-        return false;
+        return true;
     }
 
-    private boolean handleSimpleCallback(Update update, Supplier<EditMessageText> callbackHandler) {
+    private boolean handleSimpleCallback(Supplier<EditMessageText> callbackHandler) {
         try {
-            EditMessageText editMessage = callbackHandler.get();
-            if (editMessage != null && editMessage.getParameters() != null) {
-                editMessage.parseMode(ParseMode.Markdown);
-                executor.execute(editMessage);
-            }
-            return true;
+            return sendEdit(callbackHandler.get());
         } catch (Exception e) {
             return false;
         }
@@ -0,0 +1,164 @@
+package ru.julia.currencyexchange.application.bot.listener;
+
+import com.pengrad.telegrambot.model.CallbackQuery;
+import com.pengrad.telegrambot.model.Update;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Распределяет обновления Telegram по рабочим потокам.
+ * Обновления одного чата выполняются строго по очереди, разных чатов — параллельно в пределах concurrency.
+ * Когда необработанных обновлений становится maxPendingUpdates, {@link #dispatch} блокирует поток опроса.
+ */
+@Component
+public class UpdateDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(UpdateDispatcher.class);
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    private final Executor workers;
+    private final Semaphore running;
+    private final Semaphore pending;
+    private final int maxPendingUpdates;
+    // Последняя задача каждого чата; следующая задача этого чата запускается после нее
+    private final Map<Long, CompletableFuture<Void>> chatTails = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UpdateDispatcher(BotConfig botConfig, MeterRegistry meterRegistry) {
+        this(createWorkers(botConfig.dispatcher()),
+                botConfig.dispatcher().concurrency(),
+                botConfig.dispatcher().maxPendingUpdates());
+        Gauge.builder("bot.updates.pending", this, UpdateDispatcher::pendingUpdates)
+                .description("Accepted Telegram updates that have not been processed yet")
+                .register(meterRegistry);
+    }
+
+    UpdateDispatcher(Executor workers, int concurrency, int maxPendingUpdates) {
+        this.workers = workers;
+        this.running = new Semaphore(concurrency);
+        this.pending = new Semaphore(maxPendingUpdates);
+        this.maxPendingUpdates = maxPendingUpdates;
+    }
+
+    private static ExecutorService createWorkers(BotConfig.Dispatcher config) {
+        if (config.virtualThreads()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bot-update-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(config.concurrency(), Thread.ofPlatform().name("bot-update-", 0).factory());
+    }
+
+    // Завершается после выполнения задачи, в том числе неудачного; с ошибкой — только если задача не запускалась
+    public CompletableFuture<Void> dispatch(Update update, Runnable task) {
+        try {
+            pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long chatKey = chatKey(update);
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        // Хвост очереди чата заменяется атомарно, а задача планируется уже вне операции над картой:
+        // при отказе пула execute выполняет ее в вызывающем потоке, и блокировка карты при этом не удерживается
+        CompletableFuture<Void> tail = chatTails.put(chatKey, next);
+        // whenComplete, а не thenRun: обновление выполняется, даже если предыдущее в чате завершилось ошибкой
+        (tail == null ? COMPLETED : tail).whenComplete((result, error) -> {
+            try {
+                execute(() -> {
+                    try {
+                        run(task);
+                    } finally {
+                        next.complete(null);
+                    }
+                });
+            } catch (RuntimeException e) {
+                next.completeExceptionally(e);
+            }
+        });
+        return next.whenComplete((result, error) -> {
+            if (error != null) {
+                logger.error("Telegram update for chat {} failed: {}", chatKey, error.getMessage(), error);
+            }
+            pending.release();
+            chatTails.remove(chatKey, next);
+        });
+    }
+
+    public int pendingUpdates() {
+        return maxPendingUpdates - pending.availablePermits();
+    }
+
+    // При остановке пул отклоняет задачи; без выполнения задача никогда бы не завершилась и оборвала очередь чата
+    private void execute(Runnable command) {
+        try {
+            workers.execute(command);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Update workers rejected a task, running it on the calling thread");
+            command.run();
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            running.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            task.run();
+        } catch (Exception e) {
+            logger.error("Failed to process Telegram update: {}", e.getMessage(), e);
+        } finally {
+            running.release();
+        }
+    }
+
+    // Обновления без чата не требуют упорядочивания, поэтому получают собственный ключ
+    public static long chatKey(Update update) {
+        if (update.message() != null && update.message().chat() != null) {
+            return update.message().chat().id();
+        }
+        CallbackQuery callbackQuery = update.callbackQuery();
+        if (callbackQuery != null) {
+            if (callbackQuery.message() != null && callbackQuery.message().chat() != null) {
+                return callbackQuery.message().chat().id();
+            }
+            if (callbackQuery.from() != null) {
+                return callbackQuery.from().id();
+            }
+        }
+        Integer updateId = update.updateId();
+        return Long.MIN_VALUE + (updateId == null ? 0 : updateId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            try {
+                if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                    executorService.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executorService.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.julia.currencyexchange.application.bot.listener.callback;
+
+@FunctionalInterface
+public interface CallbackArgumentParser<A> {
+    /**
+     * Разбирает аргумент callback'а, начинающийся сразу после префикса маршрута.
+     *
+     * @return аргумент или {@code null}, если данные некорректны
+     */
+    A parse(String data, int offset);
+}
@@ -0,0 +1,103 @@
+package ru.julia.currencyexchange.application.bot.listener.callback;
+
+/**
+ * Разбор аргументов callback'ов прямо по символам строки, без split и регулярных выражений.
+ */
+public final class CallbackArguments {
+    private static final char SEPARATOR = '_';
+
+    private CallbackArguments() {
+    }
+
+    public record DatePage(String date, int page) {
+    }
+
+    public record UsersPage(boolean compact, int page) {
+    }
+
+    public static String raw(String data, int offset) {
+        return data;
+    }
+
+    // currencies_page_3
+    public static Integer page(String data, int offset) {
+        return parseInt(data, offset, data.length());
+    }
+
+    // findByDate_page_2024_01_15_3 → дата 2024-01-15, страница 3
+    public static DatePage datePage(String data, int offset) {
+        int monthStart = data.indexOf(SEPARATOR, offset) + 1;
+        int dayStart = monthStart == 0 ? 0 : data.indexOf(SEPARATOR, monthStart) + 1;
+        int pageStart = dayStart == 0 ? 0 : data.indexOf(SEPARATOR, dayStart) + 1;
+        if (pageStart == 0) {
+            return null;
+        }
+
+        Integer page = parseInt(data, pageStart, segmentEnd(data, pageStart));
+        if (page == null) {
+            return null;
+        }
+
+        String date = new StringBuilder(pageStart - offset - 1)
+                .append(data, offset, monthStart - 1).append('-')
+                .append(data, monthStart, dayStart - 1).append('-')
+                .append(data, dayStart, pageStart - 1)
+                .toString();
+        return new DatePage(date, page);
+    }
+
+    // users_page_compact_2 / users_switch_full_0
+    public static UsersPage usersPage(String data, int offset) {
+        int modeEnd = data.indexOf(SEPARATOR, offset);
+        if (modeEnd < 0) {
+            return null;
+        }
+
+        Integer page = parseInt(data, modeEnd + 1, segmentEnd(data, modeEnd + 1));
+        if (page == null) {
+            return null;
+        }
+
+        boolean compact = modeEnd - offset == 7 && data.startsWith("compact", offset);
+        return new UsersPage(compact, page);
+    }
+
+    private static int segmentEnd(String data, int from) {
+        int end = data.indexOf(SEPARATOR, from);
+        return end < 0 ? data.length() : end;
+    }
+
+    // Та же грамматика, что у Integer.parseInt: необязательный знак и десятичные цифры в пределах int
+    static Integer parseInt(String data, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+
+        boolean negative = false;
+        char first = data.charAt(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++from == to) {
+                return null;
+            }
+        }
+
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = data.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return null;
+            }
+        }
+
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            return null;
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.julia.currencyexchange.application.bot.listener.callback;
+
+import com.pengrad.telegrambot.model.Update;
+
+@FunctionalInterface
+public interface CallbackHandler<A> {
+    /**
+     * @return {@code true}, если callback обработан; иначе обновление обрабатывается как обычное сообщение
+     */
+    boolean handle(Update update, A argument);
+}
@@ -0,0 +1,116 @@
+package ru.julia.currencyexchange.application.bot.listener.callback;
+
+import com.pengrad.telegrambot.model.Update;
+
+import java.util.Arrays;
+
+/**
+ * Маршрутизатор callback'ов по префиксу.
+ * Префиксы собираются в префиксное дерево при построении, поиск выбирает самый длинный совпавший префикс
+ * за один проход по строке и ничего не выделяет в памяти.
+ */
+public final class CallbackRouter {
+    private final Node root;
+
+    private CallbackRouter(Node root) {
+        this.root = root;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean dispatch(Update update, String data) {
+        if (data == null) {
+            return false;
+        }
+
+        Node node = root;
+        Route<?> match = null;
+        int matchEnd = 0;
+        int length = data.length();
+        for (int i = 0; i < length; i++) {
+            node = node.child(data.charAt(i));
+            if (node == null) {
+                break;
+            }
+            Route<?> route = node.route;
+            if (route != null && (!route.exact || i + 1 == length)) {
+                match = route;
+                matchEnd = i + 1;
+            }
+        }
+
+        return match != null && match.dispatch(update, data, matchEnd);
+    }
+
+    private record Route<A>(CallbackArgumentParser<A> parser, CallbackHandler<A> handler, boolean exact) {
+        boolean dispatch(Update update, String data, int offset) {
+            A argument = parser.parse(data, offset);
+            return argument != null && handler.handle(update, argument);
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Route<?> route;
+
+        Node child(char key) {
+            char[] keys = this.keys;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(char key) {
+            Node child = child(key);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+
+    public static final class Builder {
+        private final Node root = new Node();
+
+        private Builder() {
+        }
+
+        public <A> Builder prefix(String prefix, CallbackArgumentParser<A> parser, CallbackHandler<A> handler) {
+            return add(prefix, new Route<>(parser, handler, false));
+        }
+
+        public Builder exact(String data, CallbackHandler<String> handler) {
+            return add(data, new Route<>(CallbackArguments::raw, handler, true));
+        }
+
+        private Builder add(String key, Route<?> route) {
+            if (key == null || key.isEmpty()) {
+                throw new IllegalArgumentException("Callback prefix must not be empty");
+            }
+
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+            }
+            if (node.route != null) {
+                throw new IllegalStateException("Callback route already registered: " + key);
+            }
+            node.route = route;
+            return this;
+        }
+
+        public CallbackRouter build() {
+            return new CallbackRouter(root);
+        }
+    }
+}
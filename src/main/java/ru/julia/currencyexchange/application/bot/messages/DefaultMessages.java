@@ -4,6 +4,7 @@ import com.pengrad.telegrambot.model.Update;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.bot.settings.enums.RegistrationState;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.application.service.bot.RegistrationStateService;
@@ -13,6 +14,8 @@ import ru.julia.currencyexchange.infrastructure.bot.command.RegisterCommand;
 import ru.julia.currencyexchange.infrastructure.bot.command.handler.*;
 import ru.julia.currencyexchange.infrastructure.bot.command.interfaces.BotCommandHandler;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,7 +24,11 @@ public class DefaultMessages {
     private final MessageConverter messageConverter;
     private final RegistrationStateService registrationStateService;
     private final UserService userService;
-    private final List<BotCommandHandler> botCommands;
+    private final RegisterCommand registerCommand;
+    // Команды, совпадающие только по имени, — по первому слову сообщения
+    private final Map<String, IndexedCommand> commandsByName;
+    // Команды, которым нужен полный matches(): зависящие от состояния диалога или без имени
+    private final List<IndexedCommand> scannedCommands;
 
     private final CurrenciesCommand currenciesCommand;
     private final CurrencyToRubCallbackHandler currencyToRubCallbackHandler;
@@ -49,7 +56,18 @@ public class DefaultMessages {
         this.messageConverter = messageConverter;
         this.registrationStateService = registrationStateService;
         this.userService = userService;
-        this.botCommands = botCommands;
+        this.registerCommand = findRegisterCommand(botCommands);
+        this.commandsByName = new HashMap<>();
+        this.scannedCommands = new ArrayList<>();
+        for (int i = 0; i < botCommands.size(); i++) {
+            BotCommandHandler command = botCommands.get(i);
+            IndexedCommand indexed = new IndexedCommand(i, command);
+            if (command.isStateful() || command.getCommand() == null) {
+                scannedCommands.add(indexed);
+            } else {
+                commandsByName.putIfAbsent(command.getCommand(), indexed);
+            }
+        }
         this.currenciesCommand = currenciesCommand;
         this.currencyToRubCallbackHandler = currencyToRubCallbackHandler;
         this.currencyConvertCallbackHandler = currencyConvertCallbackHandler;
@@ -61,6 +79,15 @@ public class DefaultMessages {
         this.setFeeCallbackHandler = setFeeCallbackHandler;
     }
 
+    private static RegisterCommand findRegisterCommand(List<BotCommandHandler> botCommands) {
+        for (BotCommandHandler botCommand : botCommands) {
+            if (botCommand instanceof RegisterCommand registerCommand) {
+                return registerCommand;
+            }
+        }
+        return null;
+    }
+
     public CurrenciesCommand getCurrenciesCommand() {
         return currenciesCommand;
     }
@@ -105,25 +132,21 @@ public class DefaultMessages {
         Long chatId = update.message().chat().id();
         String message = update.message().text();
 
-        if (registrationStateService.getState(chatId) != RegistrationState.NONE) {
-            for (BotCommandHandler botCommand : botCommands) {
-                if (botCommand instanceof RegisterCommand) {
-                    return botCommand.handle(update);
-                }
-            }
+        if (registerCommand != null && registrationStateService.getState(chatId) != RegistrationState.NONE) {
+            return registerCommand.handle(update);
         }
 
-        for (BotCommandHandler botCommand : botCommands) {
-            if (botCommand.matches(update)) {
-                if (!isCommandAccessible(botCommand, chatId)) {
-                    String accessDeniedMessage = messageConverter.resolve("command.access_denied");
-                    if (accessDeniedMessage == null || accessDeniedMessage.trim().isEmpty()) {
-                        accessDeniedMessage = "❌ У вас нет доступа к этой команде.";
-                    }
-                    return new SendMessage(chatId, accessDeniedMessage);
+        BotCommandHandler botCommand = findCommand(update, message);
+        if (botCommand != null) {
+            User user = userService.findOptionalUserByChatId(chatId).orElse(null);
+            if (!isCommandAccessible(botCommand, user)) {
+                String accessDeniedMessage = messageConverter.resolve("command.access_denied");
+                if (accessDeniedMessage == null || accessDeniedMessage.trim().isEmpty()) {
+                    accessDeniedMessage = "❌ У вас нет доступа к этой команде.";
                 }
-                return botCommand.handle(update);
+                return new SendMessage(chatId, accessDeniedMessage);
             }
+            return botCommand.handle(update, UserContext.of(chatId, user));
         }
 
         String unknownCommandMessage = messageConverter.resolve(
@@ -134,16 +157,46 @@ public class DefaultMessages {
         return new SendMessage(chatId, unknownCommandMessage);
     }
 
-    private boolean isCommandAccessible(BotCommandHandler command, Long chatId) {
-        if (!userService.existsByChatId(chatId)) {
+    // Как и прежний перебор списка, побеждает первая подходящая команда в порядке botCommands
+    private BotCommandHandler findCommand(Update update, String message) {
+        IndexedCommand named = message == null ? null : commandsByName.get(commandName(message));
+
+        for (IndexedCommand scanned : scannedCommands) {
+            if (named != null && scanned.position() > named.position()) {
+                break;
+            }
+            if (scanned.handler().matches(update)) {
+                return scanned.handler();
+            }
+        }
+
+        return named == null ? null : named.handler();
+    }
+
+    // Первое слово сообщения — то же, что words[0] после trim().split("\\s+") в BotCommandHandler.matches
+    static String commandName(String message) {
+        String text = message.trim();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                return text.substring(0, i);
+            }
+        }
+        return text;
+    }
+
+    private boolean isCommandAccessible(BotCommandHandler command, User user) {
+        if (user == null) {
             return command.isAccessible(null);
         }
 
-        User user = userService.findUserByChatId(chatId);
-        if (user == null || user.isBanned()) {
+        if (user.isBanned()) {
             return false;
         }
 
         return command.isAccessible(user);
     }
+
+    private record IndexedCommand(int position, BotCommandHandler handler) {
+    }
 }
@@ -0,0 +1,100 @@
+package ru.julia.currencyexchange.application.bot.messages.converter;
+
+import ru.julia.currencyexchange.infrastructure.configuration.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сообщение, заранее разобранное на литералы и слоты параметров вида %name%.
+ * Подстановка идет одним проходом в переданный StringBuilder, без промежуточной строки на каждый параметр.
+ */
+final class MessageTemplate {
+    private static final char PLACEHOLDER = Constants.PLACEHOLDER_SYMBOL.charAt(0);
+    // Ожидаемая длина значения параметра: коды валют, суммы, даты
+    private static final int PARAMETER_LENGTH_HINT = 16;
+
+    private final String source;
+    // literals[i] идет перед слотом names[i], последний литерал — после всех слотов
+    private final String[] literals;
+    private final String[] names;
+    private final String[] placeholders;
+    private final int expectedLength;
+
+    private MessageTemplate(String source, String[] literals, String[] names) {
+        this.source = source;
+        this.literals = literals;
+        this.names = names;
+        this.placeholders = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            placeholders[i] = PLACEHOLDER + names[i] + PLACEHOLDER;
+        }
+        int literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        this.expectedLength = literalLength + names.length * PARAMETER_LENGTH_HINT;
+    }
+
+    static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int position = message.indexOf(PLACEHOLDER);
+
+        while (position >= 0) {
+            int nameEnd = position + 1;
+            while (nameEnd < message.length() && isNameChar(message.charAt(nameEnd))) {
+                nameEnd++;
+            }
+
+            // Одиночный % (например, в "5%") остается литералом
+            if (nameEnd == position + 1 || nameEnd == message.length() || message.charAt(nameEnd) != PLACEHOLDER) {
+                position = message.indexOf(PLACEHOLDER, position + 1);
+                continue;
+            }
+
+            literals.add(message.substring(literalStart, position));
+            names.add(message.substring(position + 1, nameEnd));
+            literalStart = nameEnd + 1;
+            position = message.indexOf(PLACEHOLDER, literalStart);
+        }
+        literals.add(message.substring(literalStart));
+
+        return new MessageTemplate(message, literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    boolean hasParameters() {
+        return names.length > 0;
+    }
+
+    String source() {
+        return source;
+    }
+
+    // Начальная емкость буфера, при которой типичное сообщение собирается без расширения массива
+    int expectedLength() {
+        return expectedLength;
+    }
+
+    // Параметр без значения в params оставляет плейсхолдер как есть; значение null — ошибка, как и прежде
+    void appendTo(StringBuilder target, Map<String, String> params) {
+        for (int i = 0; i < names.length; i++) {
+            target.append(literals[i]);
+            String value = params.get(names[i]);
+            if (value != null) {
+                target.append(value);
+            } else if (params.containsKey(names[i])) {
+                throw new NullPointerException("Parameter " + names[i] + " is null");
+            } else {
+                target.append(placeholders[i]);
+            }
+        }
+        target.append(literals[names.length]);
+    }
+
+    private static boolean isNameChar(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
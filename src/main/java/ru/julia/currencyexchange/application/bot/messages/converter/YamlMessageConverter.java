@@ -1,38 +1,94 @@
 package ru.julia.currencyexchange.application.bot.messages.converter;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.NoSuchMessageException;
 import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
-import ru.julia.currencyexchange.infrastructure.configuration.Constants;
 
 import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Сообщения из bot/message.yml разбираются в шаблоны один раз при старте, а не на каждый resolve.
+ * Сообщения, которых нет в bot/message.yml, запрашиваются у него при первом обращении и тоже кэшируются.
+ */
 @Component
 public class YamlMessageConverter implements MessageConverter {
+    private static final Locale LOCALE = Locale.of("ru");
+
     private final ResourceBundleMessageSource messageSource;
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
 
-    public YamlMessageConverter(ResourceBundleMessageSource messageSource) {
+    public YamlMessageConverter(ResourceBundleMessageSource messageSource,
+                                @Qualifier("botMessages") Properties botMessages) {
         this.messageSource = messageSource;
+        precompile(botMessages);
     }
 
     @Override
     public String resolve(String id, Map<String, String> params) {
+        MessageTemplate template;
         try {
-            String message = messageSource.getMessage(id, null, Locale.of("ru"));
-
-            return replacePlaceholders(message, params);
+            template = template(id);
         } catch (NoSuchMessageException e) {
             return id;
         }
+        if (template == null) {
+            return null;
+        }
+        if (!template.hasParameters()) {
+            return template.source();
+        }
+
+        // Обновления обрабатываются в виртуальных потоках, и буфер в ThreadLocal создавался бы заново на каждое;
+        // локальный буфер нужного размера дешевле. Переиспользовать буфер можно через resolveTo
+        StringBuilder buffer = new StringBuilder(template.expectedLength());
+        template.appendTo(buffer, params);
+        return buffer.toString();
+    }
+
+    @Override
+    public void resolveTo(StringBuilder target, String id, Map<String, String> params) {
+        MessageTemplate template;
+        try {
+            template = template(id);
+        } catch (NoSuchMessageException e) {
+            target.append(id);
+            return;
+        }
+        if (template == null) {
+            target.append((String) null);
+            return;
+        }
+        template.appendTo(target, params);
+    }
+
+    public int templateCount() {
+        return templates.size();
+    }
+
+    private MessageTemplate template(String id) {
+        MessageTemplate template = templates.get(id);
+        if (template != null) {
+            return template;
+        }
+
+        String message = messageSource.getMessage(id, null, LOCALE);
+        if (message == null) {
+            return null;
+        }
+        return templates.computeIfAbsent(id, key -> MessageTemplate.compile(message));
     }
 
-    private String replacePlaceholders(String message, Map<String, String> params) {
-        for (Map.Entry<String, String> entry : params.entrySet()) {
-            String placeholder = Constants.PLACEHOLDER_SYMBOL + entry.getKey() + Constants.PLACEHOLDER_SYMBOL;
-            message = message.replace(placeholder, entry.getValue());
+    private void precompile(Properties messages) {
+        if (messages == null) {
+            return;
+        }
+        for (String id : messages.stringPropertyNames()) {
+            templates.put(id, MessageTemplate.compile(messages.getProperty(id)));
         }
-        return message;
     }
-}
\ No newline at end of file
+}
@@ -8,4 +8,9 @@ public interface MessageConverter {
     }
 
     String resolve(String id, Map<String, String> params);
+
+    // Дописывает сообщение в target: для длинных списков строк без отдельной строки на каждую
+    default void resolveTo(StringBuilder target, String id, Map<String, String> params) {
+        target.append(resolve(id, params));
+    }
 }
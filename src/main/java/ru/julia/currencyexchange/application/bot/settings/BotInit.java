@@ -5,26 +5,33 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.listener.MessagesListener;
 import ru.julia.currencyexchange.application.service.bot.CommandRegistryService;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
 
 @Component
 public class BotInit {
     private final TelegramBot bot;
     private final MessagesListener messagesListener;
     private final CommandRegistryService commandRegistryService;
+    private final BotConfig botConfig;
 
     public BotInit(TelegramBot bot,
                    MessagesListener messagesListener,
-                   CommandRegistryService commandRegistryService) {
+                   CommandRegistryService commandRegistryService,
+                   BotConfig botConfig) {
         this.bot = bot;
         this.messagesListener = messagesListener;
         this.commandRegistryService = commandRegistryService;
+        this.botConfig = botConfig;
     }
 
     @PostConstruct
     public void start() {
         commandRegistryService.init();
 
-        bot.setUpdatesListener(messagesListener);
+        // В кластере Telegram опрашивает только лидер (PollingLeader), а обновления приходят через ShardWorker
+        if (!botConfig.cluster().enabled()) {
+            bot.setUpdatesListener(messagesListener);
+        }
     }
 
     public void close() {
@@ -1,7 +1,11 @@
 package ru.julia.currencyexchange.application.bot.settings;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class RegistrationData {
     private String email;
+    // Пароль нужен только на шаге создания пользователя и не должен попадать в общее хранилище состояний
+    @JsonIgnore
     private String password;
     private String verificationCode;
 
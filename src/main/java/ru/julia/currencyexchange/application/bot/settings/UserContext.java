@@ -0,0 +1,54 @@
+package ru.julia.currencyexchange.application.bot.settings;
+
+import ru.julia.currencyexchange.application.exceptions.UserNotFoundException;
+import ru.julia.currencyexchange.application.service.UserService;
+import ru.julia.currencyexchange.domain.model.User;
+
+/**
+ * Пользователь, от которого пришло обновление. DefaultMessages загружает его один раз при проверке доступа
+ * и передает в команду; при прямом вызове команды пользователь подгружается из UserService по требованию.
+ */
+public final class UserContext {
+    private final Long chatId;
+    private final UserService userService;
+    private User user;
+    private boolean resolved;
+
+    private UserContext(Long chatId, UserService userService, User user, boolean resolved) {
+        this.chatId = chatId;
+        this.userService = userService;
+        this.user = user;
+        this.resolved = resolved;
+    }
+
+    public static UserContext of(Long chatId, User user) {
+        return new UserContext(chatId, null, user, true);
+    }
+
+    public static UserContext lookup(Long chatId, UserService userService) {
+        return new UserContext(chatId, userService, null, false);
+    }
+
+    public Long chatId() {
+        return chatId;
+    }
+
+    public boolean exists() {
+        if (resolved) {
+            return user != null;
+        }
+        return userService.existsByChatId(chatId);
+    }
+
+    public User user() {
+        if (!resolved) {
+            user = userService.findUserByChatId(chatId);
+            resolved = true;
+            return user;
+        }
+        if (user == null) {
+            throw new UserNotFoundException("User with chatId " + chatId + " not found");
+        }
+        return user;
+    }
+}
@@ -3,6 +3,9 @@ package ru.julia.currencyexchange.application.dto;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class CurrencyRate {
     @JacksonXmlProperty(localName = "CharCode")
@@ -17,6 +20,8 @@ public class CurrencyRate {
     @JacksonXmlProperty(localName = "Value")
     private String value;
 
+    private BigDecimal decimalValue;
+
     public CurrencyRate() {
     }
 
@@ -27,6 +32,13 @@ public class CurrencyRate {
         this.value = value;
     }
 
+    public CurrencyRate(String charCode, int nominal, String name, BigDecimal decimalValue) {
+        this.charCode = charCode;
+        this.nominal = nominal;
+        this.name = name;
+        this.decimalValue = decimalValue;
+    }
+
     public String getCharCode() {
         return charCode;
     }
@@ -40,9 +52,21 @@ public class CurrencyRate {
     }
 
     public double getValue() {
+        return getDecimalValue().doubleValue();
+    }
+
+    public BigDecimal getDecimalValue() {
+        if (decimalValue != null) {
+            return decimalValue;
+        }
         if (value == null || value.isEmpty()) {
-            return 0.0;
+            return BigDecimal.ZERO;
         }
-        return Double.parseDouble(value.replace(",", "."));
+        return new BigDecimal(value.replace(",", "."));
+    }
+
+    // Курс за одну единицу валюты; номинал проверяется вызывающим кодом
+    public BigDecimal getUnitRate() {
+        return getDecimalValue().divide(BigDecimal.valueOf(nominal), 6, RoundingMode.HALF_UP);
     }
 }
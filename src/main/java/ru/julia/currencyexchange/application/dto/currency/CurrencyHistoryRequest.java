@@ -1,16 +1,22 @@
 package ru.julia.currencyexchange.application.dto.currency;
 
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
-@Schema(description = "Запрос на поиск истории конвертаций по валюте и дате")
+@Schema(description = "Запрос на поиск истории конвертаций по дате или периоду")
 public class CurrencyHistoryRequest {
-    @Schema(description = "Дата в формате YYYY-MM-DD", example = "2024-01-01")
-    @NotBlank(message = "Дата не может быть пустой")
+    @Schema(description = "Дата в формате YYYY-MM-DD; если не указана, используется период from–to", example = "2024-01-01")
     @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Дата должна быть в формате YYYY-MM-DD")
     private String timestamp;
 
+    @Schema(description = "Начало периода в формате YYYY-MM-DD (включительно)", example = "2024-01-01")
+    @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Дата должна быть в формате YYYY-MM-DD")
+    private String from;
+
+    @Schema(description = "Конец периода в формате YYYY-MM-DD (включительно)", example = "2024-01-31")
+    @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Дата должна быть в формате YYYY-MM-DD")
+    private String to;
+
     public CurrencyHistoryRequest() {
     }
 
@@ -18,6 +24,11 @@ public class CurrencyHistoryRequest {
         this.timestamp = timestamp;
     }
 
+    public CurrencyHistoryRequest(String from, String to) {
+        this.from = from;
+        this.to = to;
+    }
+
     public String getTimestamp() {
         return timestamp;
     }
@@ -25,4 +36,20 @@ public class CurrencyHistoryRequest {
     public void setTimestamp(String timestamp) {
         this.timestamp = timestamp;
     }
-} 
\ No newline at end of file
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+}
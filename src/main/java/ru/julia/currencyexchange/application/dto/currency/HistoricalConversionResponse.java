@@ -0,0 +1,88 @@
+package ru.julia.currencyexchange.application.dto.currency;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Schema(description = "Расчет конвертации по курсам на дату")
+public class HistoricalConversionResponse {
+    @Schema(description = "Исходная валюта", example = "USD")
+    private String sourceCurrency;
+
+    @Schema(description = "Целевая валюта", example = "EUR")
+    private String targetCurrency;
+
+    @Schema(description = "Исходная сумма", example = "100.50")
+    private BigDecimal amount;
+
+    @Schema(description = "Конвертированная сумма без комиссии", example = "85.25")
+    private BigDecimal convertedAmount;
+
+    @Schema(description = "Курс конвертации на дату", example = "0.8525")
+    private BigDecimal conversionRate;
+
+    @Schema(description = "Дата курсов", example = "2024-01-15")
+    private LocalDate date;
+
+    public HistoricalConversionResponse() {
+    }
+
+    public HistoricalConversionResponse(String sourceCurrency, String targetCurrency, BigDecimal amount,
+                                        BigDecimal convertedAmount, BigDecimal conversionRate, LocalDate date) {
+        this.sourceCurrency = sourceCurrency;
+        this.targetCurrency = targetCurrency;
+        this.amount = amount;
+        this.convertedAmount = convertedAmount;
+        this.conversionRate = conversionRate;
+        this.date = date;
+    }
+
+    public String getSourceCurrency() {
+        return sourceCurrency;
+    }
+
+    public void setSourceCurrency(String sourceCurrency) {
+        this.sourceCurrency = sourceCurrency;
+    }
+
+    public String getTargetCurrency() {
+        return targetCurrency;
+    }
+
+    public void setTargetCurrency(String targetCurrency) {
+        this.targetCurrency = targetCurrency;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public BigDecimal getConvertedAmount() {
+        return convertedAmount;
+    }
+
+    public void setConvertedAmount(BigDecimal convertedAmount) {
+        this.convertedAmount = convertedAmount;
+    }
+
+    public BigDecimal getConversionRate() {
+        return conversionRate;
+    }
+
+    public void setConversionRate(BigDecimal conversionRate) {
+        this.conversionRate = conversionRate;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+}
@@ -0,0 +1,125 @@
+package ru.julia.currencyexchange.application.dto.currency;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Schema(description = "Задание загрузки архива курсов")
+public class RateBackfillJobResponse {
+    @Schema(description = "Идентификатор задания", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6")
+    private UUID id;
+
+    @Schema(description = "Способ загрузки", example = "DYNAMIC")
+    private String mode;
+
+    @Schema(description = "Начало периода", example = "2024-01-01")
+    private LocalDate from;
+
+    @Schema(description = "Конец периода", example = "2024-12-31")
+    private LocalDate to;
+
+    @Schema(description = "Состояние: QUEUED, RUNNING, COMPLETED или FAILED", example = "COMPLETED")
+    private String status;
+
+    @Schema(description = "Сколько записей загружено", example = "8784")
+    private int loaded;
+
+    @Schema(description = "Причина ошибки, если загрузка не удалась")
+    private String error;
+
+    @Schema(description = "Когда задание создано")
+    private Instant createdAt;
+
+    @Schema(description = "Когда задание завершилось")
+    private Instant finishedAt;
+
+    public RateBackfillJobResponse() {
+    }
+
+    public RateBackfillJobResponse(UUID id, String mode, LocalDate from, LocalDate to, String status,
+                                   int loaded, String error, Instant createdAt, Instant finishedAt) {
+        this.id = id;
+        this.mode = mode;
+        this.from = from;
+        this.to = to;
+        this.status = status;
+        this.loaded = loaded;
+        this.error = error;
+        this.createdAt = createdAt;
+        this.finishedAt = finishedAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getLoaded() {
+        return loaded;
+    }
+
+    public void setLoaded(int loaded) {
+        this.loaded = loaded;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
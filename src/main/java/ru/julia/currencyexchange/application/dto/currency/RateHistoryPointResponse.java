@@ -0,0 +1,39 @@
+package ru.julia.currencyexchange.application.dto.currency;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Schema(description = "Курс валюты к рублю на дату")
+public class RateHistoryPointResponse {
+    @Schema(description = "Дата, с которой действует курс", example = "2024-01-15")
+    private LocalDate date;
+
+    @Schema(description = "Курс за единицу валюты в рублях", example = "89.6883")
+    private BigDecimal exchangeRate;
+
+    public RateHistoryPointResponse() {
+    }
+
+    public RateHistoryPointResponse(LocalDate date, BigDecimal exchangeRate) {
+        this.date = date;
+        this.exchangeRate = exchangeRate;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public BigDecimal getExchangeRate() {
+        return exchangeRate;
+    }
+
+    public void setExchangeRate(BigDecimal exchangeRate) {
+        this.exchangeRate = exchangeRate;
+    }
+}
@@ -0,0 +1,12 @@
+package ru.julia.currencyexchange.application.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class RateBackfillJobNotFoundException extends RuntimeException {
+
+    public RateBackfillJobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.julia.currencyexchange.application.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.julia.currencyexchange.domain.model.User;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Кратковременный кэш пользователей по chatId: одно обновление бота обычно несколько раз запрашивает
+ * одного и того же пользователя. Отсутствующие пользователи не кэшируются, поэтому регистрация видна сразу;
+ * изменения пользователя сбрасывают запись, а TTL ограничивает устаревание при нескольких экземплярах.
+ */
+@Component
+public class ChatUserCache {
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Меняется при каждом сбросе, чтобы загрузка, начатая до сброса, не вернула в кэш устаревшие данные
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public ChatUserCache(@Value("${users.chat-cache-ttl:PT30S}") Duration ttl) {
+        this(ttl, System::nanoTime);
+    }
+
+    ChatUserCache(Duration ttl, LongSupplier nanoTime) {
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    public Optional<User> get(Long chatId, Supplier<Optional<User>> loader) {
+        if (chatId == null) {
+            return loader.get();
+        }
+
+        long now = nanoTime.getAsLong();
+        Entry entry = entries.get(chatId);
+        if (entry != null && entry.expiresAt() - now > 0) {
+            return Optional.of(entry.user());
+        }
+
+        long loadGeneration = generation.get();
+        Optional<User> user = loader.get();
+        if (user.isPresent() && generation.get() == loadGeneration) {
+            if (entries.size() > PURGE_THRESHOLD) {
+                entries.values().removeIf(cached -> cached.expiresAt() - now <= 0);
+            }
+            entries.put(chatId, new Entry(user.get(), now + ttlNanos));
+        }
+        return user;
+    }
+
+    public Optional<User> peek(Long chatId) {
+        Entry entry = chatId == null ? null : entries.get(chatId);
+        if (entry == null || entry.expiresAt() - nanoTime.getAsLong() <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.user());
+    }
+
+    // Сбрасывает запись сразу и еще раз после коммита, чтобы параллельное чтение не закэшировало старую строку
+    public void invalidate(Long chatId) {
+        if (chatId == null) {
+            return;
+        }
+        evict(chatId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(chatId);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(Long chatId) {
+        generation.incrementAndGet();
+        entries.remove(chatId);
+    }
+
+    private record Entry(User user, long expiresAt) {
+    }
+}
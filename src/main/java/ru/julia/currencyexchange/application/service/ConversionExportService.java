@@ -0,0 +1,114 @@
+package ru.julia.currencyexchange.application.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.julia.currencyexchange.domain.enums.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Выгрузка всей истории конвертаций пользователя в CSV или NDJSON.
+ * Строки читаются курсором порциями по fetchSize и сразу пишутся в поток, поэтому память не зависит от размера истории.
+ */
+@Service
+public class ConversionExportService {
+    static final String EXPORT_SQL = "SELECT c.id, s.code, t.code, c.amount, c.converted_amount, " +
+            "c.conversion_rate, c.timestamp " +
+            "FROM currency_conversions c " +
+            "JOIN currencies s ON s.id = c.source_currency_id " +
+            "JOIN currencies t ON t.id = c.target_currency_id " +
+            "WHERE c.user_id = ? ORDER BY c.timestamp, c.id";
+    static final String CSV_HEADER = "id,sourceCurrency,targetCurrency,amount,convertedAmount,conversionRate,timestamp";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public ConversionExportService(JdbcTemplate jdbcTemplate, @Value("${export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    // Драйвер PostgreSQL читает курсором только внутри транзакции, иначе весь результат загружается в память
+    @Transactional(readOnly = true)
+    public long exportHistory(String userId, ExportFormat format, OutputStream output) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        RowWriter rowWriter = new RowWriter(writer, format);
+
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setString(1, userId);
+                return statement;
+            }, rowWriter);
+            // Поток не закрываем: им владеет вызывающий код
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return rowWriter.rows;
+    }
+
+    private static final class RowWriter implements RowCallbackHandler {
+        private final Writer writer;
+        private final ExportFormat format;
+        private long rows;
+
+        private RowWriter(Writer writer, ExportFormat format) {
+            this.writer = writer;
+            this.format = format;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String id = rs.getString(1);
+            String sourceCode = rs.getString(2);
+            String targetCode = rs.getString(3);
+            String amount = plain(rs.getBigDecimal(4));
+            String convertedAmount = plain(rs.getBigDecimal(5));
+            String conversionRate = plain(rs.getBigDecimal(6));
+            LocalDateTime timestamp = rs.getObject(7, LocalDateTime.class);
+
+            try {
+                if (format == ExportFormat.CSV) {
+                    writer.write(id + ',' + sourceCode + ',' + targetCode + ',' + amount + ',' +
+                            convertedAmount + ',' + conversionRate + ',' + timestamp);
+                } else {
+                    writer.write("{\"id\":\"" + id + "\",\"sourceCurrency\":\"" + sourceCode +
+                            "\",\"targetCurrency\":\"" + targetCode + "\",\"amount\":" + amount +
+                            ",\"convertedAmount\":" + convertedAmount + ",\"conversionRate\":" + conversionRate +
+                            ",\"timestamp\":\"" + timestamp + "\"}");
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                // Клиент оборвал соединение: прерываем чтение курсора
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+        }
+
+        private static String plain(BigDecimal value) {
+            return value == null ? "" : value.toPlainString();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.julia.currencyexchange.application.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживает помесячные секции currency_conversions: заранее создает секции на ближайшие месяцы
+ * и отключает (или удаляет) секции старше срока хранения.
+ * Сама секция создается SQL-функцией из миграции, чтобы миграция и приложение делали это одинаково.
+ */
+@Component
+public class ConversionPartitionMaintenance {
+    private static final Logger logger = LoggerFactory.getLogger(ConversionPartitionMaintenance.class);
+    private static final Pattern PARTITION_NAME = Pattern.compile("currency_conversions_p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String LIST_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'currency_conversions'::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean archive;
+    private final Clock clock;
+
+    @Autowired
+    public ConversionPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                          @Value("${conversions.partitions.months-ahead:3}") int monthsAhead,
+                                          @Value("${conversions.partitions.retention-months:0}") int retentionMonths,
+                                          @Value("${conversions.partitions.archive:true}") boolean archive) {
+        this(jdbcTemplate, monthsAhead, retentionMonths, archive, Clock.systemDefaultZone());
+    }
+
+    ConversionPartitionMaintenance(JdbcTemplate jdbcTemplate, int monthsAhead, int retentionMonths, boolean archive,
+                                   Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archive = archive;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${conversions.partitions.maintenance-cron:0 0 3 * * *}")
+    public void maintain() {
+        try {
+            createFuturePartitions();
+            applyRetention();
+        } catch (Exception e) {
+            logger.error("Conversion partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    void createFuturePartitions() {
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            Boolean created = jdbcTemplate.queryForObject("SELECT create_currency_conversion_partition(?)",
+                    Boolean.class, Date.valueOf(month.atDay(1)));
+            if (Boolean.TRUE.equals(created)) {
+                logger.info("Created conversion partition for {}", month);
+            }
+        }
+    }
+
+    // retention-months = 0 отключает очистку: история хранится целиком
+    void applyRetention() {
+        if (retentionMonths <= 0) {
+            return;
+        }
+
+        YearMonth oldestKept = YearMonth.now(clock).minusMonths(retentionMonths);
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches() || !YearMonth.parse(matcher.group(1), PARTITION_MONTH).isBefore(oldestKept)) {
+                continue;
+            }
+
+            // Отключенная секция остается обычной таблицей, ее можно выгрузить в архив и удалить вручную
+            jdbcTemplate.execute("ALTER TABLE currency_conversions DETACH PARTITION " + partition);
+            if (archive) {
+                logger.info("Detached conversion partition {} for archiving", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                logger.info("Dropped conversion partition {}", partition);
+            }
+        }
+    }
+}
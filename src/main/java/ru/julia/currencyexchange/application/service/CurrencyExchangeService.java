@@ -1,9 +1,16 @@
 package ru.julia.currencyexchange.application.service;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import ru.julia.currencyexchange.application.exceptions.CurrencyNotFoundException;
 import ru.julia.currencyexchange.application.exceptions.InvalidDateFormatException;
+import ru.julia.currencyexchange.application.exceptions.InvalidParameterException;
 import ru.julia.currencyexchange.application.exceptions.UserNotFoundException;
+import ru.julia.currencyexchange.application.service.rates.CrossRateMatrix;
+import ru.julia.currencyexchange.application.service.rates.RateSnapshot;
+import ru.julia.currencyexchange.application.service.rates.RateSnapshotService;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 import ru.julia.currencyexchange.domain.model.User;
@@ -14,25 +21,28 @@ import ru.julia.currencyexchange.infrastructure.repository.jpa.UserRepository;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 public class CurrencyExchangeService {
-    private final CurrencyService currencyService;
+    private final RateSnapshotService rateSnapshotService;
     private final CurrencyRepository currencyRepository;
     private final ConversionRepository conversionRepository;
     private final UserRepository userRepository;
     private final SettingsService settingsService;
 
-    public CurrencyExchangeService(CurrencyService currencyService,
+    public CurrencyExchangeService(RateSnapshotService rateSnapshotService,
                                    CurrencyRepository currencyRepository,
                                    ConversionRepository conversionRepository,
                                    UserRepository userRepository,
                                    SettingsService settingsService) {
-        this.currencyService = currencyService;
+        this.rateSnapshotService = rateSnapshotService;
         this.currencyRepository = currencyRepository;
         this.conversionRepository = conversionRepository;
         this.userRepository = userRepository;
@@ -40,24 +50,31 @@ public class CurrencyExchangeService {
     }
 
     public CurrencyConversion convert(String userId, String from, String to, BigDecimal amount) {
-        currencyService.updateExchangeRates();
-
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
 
-        Currency fromCurrency = currencyRepository.findByCode(from)
-                .orElseThrow(() -> new CurrencyNotFoundException("Currency " + from + " not found"));
-
-        Currency toCurrency = currencyRepository.findByCode(to)
-                .orElseThrow(() -> new CurrencyNotFoundException("Currency " + to + " not found"));
-
-        if (toCurrency.getExchangeRate().compareTo(BigDecimal.ZERO) == 0) {
-            throw new ArithmeticException("Exchange rate for currency " + to + " is zero, cannot divide");
+        RateSnapshot snapshot = rateSnapshotService.getSnapshot();
+        CrossRateMatrix crossRates = snapshot.crossRates();
+        int fromOrdinal = crossRates.ordinalOf(from);
+        int toOrdinal = crossRates.ordinalOf(to);
+
+        Currency fromCurrency;
+        Currency toCurrency;
+        BigDecimal rate;
+        if (fromOrdinal != CrossRateMatrix.UNKNOWN && toOrdinal != CrossRateMatrix.UNKNOWN) {
+            fromCurrency = crossRates.currency(fromOrdinal);
+            toCurrency = crossRates.currency(toOrdinal);
+            rate = crossRates.rate(fromOrdinal, toOrdinal);
+            if (rate == null) {
+                throw new ArithmeticException("Exchange rate for currency " + to + " is zero, cannot divide");
+            }
+        } else {
+            // Валюты нет в снимке (например, она появилась в БД после загрузки) — считаем курс напрямую
+            fromCurrency = findCurrency(snapshot, from);
+            toCurrency = findCurrency(snapshot, to);
+            rate = calculateRate(fromCurrency, toCurrency);
         }
 
-        BigDecimal rate = fromCurrency.getExchangeRate()
-                .divide(toCurrency.getExchangeRate(), 6, RoundingMode.HALF_UP);
-
         BigDecimal convertedAmount = amount.multiply(rate);
 
         double feePercent = settingsService.getGlobalConversionFeePercent();
@@ -75,27 +92,107 @@ public class CurrencyExchangeService {
         return conversionRepository.save(conversion);
     }
 
-    public List<CurrencyConversion> getUserHistory(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
+    private BigDecimal calculateRate(Currency fromCurrency, Currency toCurrency) {
+        if (toCurrency.getExchangeRate().compareTo(BigDecimal.ZERO) == 0) {
+            throw new ArithmeticException("Exchange rate for currency " + toCurrency.getCode() + " is zero, cannot divide");
+        }
+
+        return fromCurrency.getExchangeRate()
+                .divide(toCurrency.getExchangeRate(), CrossRateMatrix.RATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private Currency findCurrency(RateSnapshot snapshot, String code) {
+        Currency currency = snapshot.find(code);
+        if (currency != null) {
+            return currency;
+        }
 
-        return conversionRepository.findConversionByUserId(user.getId());
+        return currencyRepository.findByCode(code)
+                .orElseThrow(() -> new CurrencyNotFoundException("Currency " + code + " not found"));
     }
 
-    public List<CurrencyConversion> findByCurrencyDate(String userId, String timestamp) {
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
+    public long countUserHistory(String userId) {
+        return conversionRepository.countByUserId(userId);
+    }
 
-        try {
-            LocalDate parsedTimestamp = LocalDate.parse(timestamp, formatter);
+    public List<ConversionHistoryItem> getUserHistoryPage(String userId, int page, int pageSize, long totalCount) {
+        return loadPage(page, pageSize, totalCount,
+                pageable -> conversionRepository.findLatestByUserId(userId, pageable),
+                pageable -> conversionRepository.findOldestByUserId(userId, pageable));
+    }
+
+    // Конвертации старше переданной (timestamp, id); без курсора возвращает самые новые
+    public List<ConversionHistoryItem> getUserHistoryBefore(String userId, LocalDateTime timestamp, String id, int limit) {
+        Pageable firstRows = PageRequest.of(0, limit);
+        if (timestamp == null || id == null) {
+            return conversionRepository.findLatestByUserId(userId, firstRows);
+        }
+        return conversionRepository.findByUserIdBefore(userId, timestamp, id, firstRows);
+    }
+
+    public List<ConversionHistoryItem> findByCurrencyDate(String userId, String timestamp) {
+        TimestampRange range = TimestampRange.ofDay(parseDate(timestamp));
+        return conversionRepository.findByTimestampRange(userId, range.from(), range.to());
+    }
+
+    // Конвертации за период по датам from и to включительно, старше переданной (timestamp, id);
+    // без курсора возвращает самые новые
+    public List<ConversionHistoryItem> findByPeriodBefore(String userId, LocalDate from, LocalDate to,
+                                                          LocalDateTime timestamp, String id, int limit) {
+        TimestampRange range = TimestampRange.ofDays(from, to);
+        Pageable firstRows = PageRequest.of(0, limit);
+        if (timestamp == null || id == null) {
+            return conversionRepository.findLatestByTimestampRange(userId, range.from(), range.to(), firstRows);
+        }
+        return conversionRepository.findByTimestampRangeBefore(userId, range.from(), range.to(), timestamp, id, firstRows);
+    }
+
+    public long countByCurrencyDate(String userId, String timestamp) {
+        TimestampRange range = TimestampRange.ofDay(parseDate(timestamp));
+        return conversionRepository.countByTimestampRange(userId, range.from(), range.to());
+    }
+
+    public List<ConversionHistoryItem> findByCurrencyDatePage(String userId, String timestamp,
+                                                           int page, int pageSize, long totalCount) {
+        TimestampRange range = TimestampRange.ofDay(parseDate(timestamp));
+        return loadPage(page, pageSize, totalCount,
+                pageable -> conversionRepository.findLatestByTimestampRange(userId, range.from(), range.to(), pageable),
+                pageable -> conversionRepository.findOldestByTimestampRange(userId, range.from(), range.to(), pageable));
+    }
 
-            return conversionRepository.findByCurrencyDate(parsedTimestamp, userId);
+    private LocalDate parseDate(String timestamp) {
+        try {
+            return LocalDate.parse(timestamp, DateTimeFormatter.ISO_LOCAL_DATE);
         } catch (DateTimeParseException e) {
             throw new InvalidDateFormatException("Invalid date format: " + timestamp);
         }
     }
 
+    // Первая и последняя страницы читаются с соответствующего конца индекса без OFFSET.
+    // Кнопки бота передают только номер страницы, поэтому промежуточные страницы идут через OFFSET
+    private static List<ConversionHistoryItem> loadPage(int page, int pageSize, long totalCount,
+                                                     Function<Pageable, List<ConversionHistoryItem>> newestFirst,
+                                                     Function<Pageable, List<ConversionHistoryItem>> oldestFirst) {
+        if (totalCount <= 0) {
+            return List.of();
+        }
+
+        int lastPage = (int) ((totalCount - 1) / pageSize);
+        int currentPage = Math.max(0, Math.min(page, lastPage));
+        if (currentPage == 0) {
+            return newestFirst.apply(PageRequest.of(0, pageSize));
+        }
+        if (currentPage == lastPage) {
+            int remaining = (int) (totalCount - (long) lastPage * pageSize);
+            List<ConversionHistoryItem> tail = new ArrayList<>(oldestFirst.apply(PageRequest.of(0, remaining)));
+            Collections.reverse(tail);
+            return tail;
+        }
+        return newestFirst.apply(PageRequest.of(currentPage, pageSize));
+    }
+
     public List<Currency> updateCurrencyRates(String userId) {
-        return currencyService.updateExchangeRates();
+        return rateSnapshotService.refresh();
     }
 
     public List<Currency> getAllCurrencies() {
@@ -108,4 +205,18 @@ public class CurrencyExchangeService {
     public Currency getCurrencyByCode(String code) {
         return currencyRepository.findByCode(code).orElse(null);
     }
+
+    // Полуинтервал [from, to): сравнение колонки напрямую, без DATE(timestamp), позволяет использовать индекс
+    private record TimestampRange(LocalDateTime from, LocalDateTime to) {
+        static TimestampRange ofDay(LocalDate date) {
+            return ofDays(date, date);
+        }
+
+        static TimestampRange ofDays(LocalDate firstDay, LocalDate lastDay) {
+            if (lastDay.isBefore(firstDay)) {
+                throw new InvalidParameterException("Конечная дата не может быть раньше начальной");
+            }
+            return new TimestampRange(firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay());
+        }
+    }
 }
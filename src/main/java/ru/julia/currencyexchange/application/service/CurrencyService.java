@@ -1,78 +1,144 @@
 package ru.julia.currencyexchange.application.service;
 
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.julia.currencyexchange.application.dto.CurrencyRate;
-import ru.julia.currencyexchange.application.dto.CurrencyRatesList;
 import ru.julia.currencyexchange.application.exceptions.CurrencyRateFetchException;
 import ru.julia.currencyexchange.application.exceptions.CurrencyRateParsingException;
 import ru.julia.currencyexchange.application.exceptions.CurrencyRateSaveException;
+import ru.julia.currencyexchange.application.service.rates.CbrDailyRates;
+import ru.julia.currencyexchange.application.service.rates.CbrRatesClient;
+import ru.julia.currencyexchange.application.service.rates.CbrRatesXmlParser;
+import ru.julia.currencyexchange.application.service.rates.RateHistoryService;
+import ru.julia.currencyexchange.application.service.rates.RatesFeedLog;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.infrastructure.repository.jpa.CurrencyRepository;
 
-import java.io.IOException;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class CurrencyService {
-    private static final String CBR_URL = "http://www.cbr.ru/scripts/XML_daily.asp";
-    private final RestTemplate restTemplate;
+    private static final String FETCH_METRIC = "currency.rates.fetch";
+
     private final CurrencyRepository currencyRepository;
+    private final CbrRatesClient ratesClient;
+    private final CbrRatesXmlParser ratesXmlParser;
+    private final RateHistoryService rateHistoryService;
+    private final RatesFeedLog feedLog;
+    private final Counter changedCounter;
+    private final Counter notModifiedCounter;
+    private final Counter unchangedCounter;
+
+    private volatile FeedState feedState = FeedState.EMPTY;
 
     @Autowired
-    public CurrencyService(CurrencyRepository currencyRepository) {
+    public CurrencyService(CurrencyRepository currencyRepository,
+                           CbrRatesClient ratesClient,
+                           CbrRatesXmlParser ratesXmlParser,
+                           RateHistoryService rateHistoryService,
+                           RatesFeedLog feedLog,
+                           MeterRegistry meterRegistry) {
         this.currencyRepository = currencyRepository;
-        this.restTemplate = new RestTemplate();
+        this.ratesClient = ratesClient;
+        this.ratesXmlParser = ratesXmlParser;
+        this.rateHistoryService = rateHistoryService;
+        this.feedLog = feedLog;
+        this.changedCounter = fetchCounter(meterRegistry, "changed");
+        this.notModifiedCounter = fetchCounter(meterRegistry, "not_modified");
+        this.unchangedCounter = fetchCounter(meterRegistry, "unchanged");
+    }
+
+    private static Counter fetchCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(FETCH_METRIC)
+                .description("Результаты загрузки курсов валют ЦБ РФ")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     @Transactional
     public List<Currency> updateExchangeRates() {
         try {
-            String xmlResponse = fetchCurrencyRatesXml();
-            Map<String, CurrencyRate> rates = parseCurrencyRates(xmlResponse);
-            saveCurrencyRates(rates);
-            return (List<Currency>) currencyRepository.findAll();
+            FeedState state = feedState;
+            CbrRatesClient.FetchResult response = fetchCurrencyRates(state);
+            // Ответ ЦБ РФ получен: курсы в базе актуальны на этот момент, даже если не изменились
+            feedLog.recordFetch(Instant.now());
+
+            if (response.notModified()) {
+                notModifiedCounter.increment();
+                return currencyRepository.findAll();
+            }
+
+            String bodyHash = hash(response.body());
+            if (bodyHash.equals(state.bodyHash())) {
+                unchangedCounter.increment();
+                commitFeedState(new FeedState(response.etag(), response.lastModified(), bodyHash));
+                return currencyRepository.findAll();
+            }
+
+            CbrDailyRates rates = parseCurrencyRates(response.body());
+            Map<String, BigDecimal> changedRates = saveCurrencyRates(rates.rates());
+            // Архив пополняется в той же транзакции, только изменившимися курсами
+            rateHistoryService.record(rates.date() != null ? rates.date() : LocalDate.now(), changedRates);
+            commitFeedState(new FeedState(response.etag(), response.lastModified(), bodyHash));
+            changedCounter.increment();
+            return currencyRepository.findAll();
         } catch (Exception e) {
             throw new CurrencyRateSaveException("Не удалось обновить курсы валют: " + e.getMessage(), e);
         }
     }
 
-    String fetchCurrencyRatesXml() {
-        try {
-            return restTemplate.getForObject(CBR_URL, String.class);
-        } catch (RestClientException e) {
-            throw new CurrencyRateFetchException("Ошибка при получении курсов валют от ЦБ РФ: " + e.getMessage());
+    // Состояние фида запоминается только после коммита, чтобы неудачная запись повторилась при следующем обновлении
+    private void commitFeedState(FeedState state) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            feedState = state;
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                feedState = state;
+            }
+        });
     }
 
-    Map<String, CurrencyRate> parseCurrencyRates(String xmlResponse) {
-        try {
-            XmlMapper xmlMapper = new XmlMapper();
-            CurrencyRatesList ratesList = xmlMapper.readValue(xmlResponse, CurrencyRatesList.class);
-
-            Map<String, CurrencyRate> rates = new HashMap<>();
-            rates.put("RUB", new CurrencyRate("RUB", 1, "Российский рубль", "1.0"));
-
-            for (CurrencyRate rate : ratesList.getValute()) {
-                rates.put(rate.getCharCode(), rate);
-            }
+    CbrRatesClient.FetchResult fetchCurrencyRates(FeedState state) {
+        return ratesClient.fetchDaily(state.etag(), state.lastModified());
+    }
 
-            return rates;
-        } catch (IOException e) {
-            throw new CurrencyRateParsingException("Ошибка парсинга XML с курсами валют: " + e.getMessage());
+    CbrDailyRates parseCurrencyRates(byte[] xmlResponse) {
+        if (xmlResponse == null) {
+            throw new CurrencyRateParsingException("Пустой ответ ЦБ РФ с курсами валют");
         }
+        return ratesXmlParser.parseDaily(new ByteArrayInputStream(xmlResponse));
     }
 
-    void saveCurrencyRates(Map<String, CurrencyRate> rates) {
+    // Возвращает новые курсы добавленных и изменившихся валют
+    Map<String, BigDecimal> saveCurrencyRates(Map<String, CurrencyRate> rates) {
+        Map<String, Currency> existing = new HashMap<>();
+        for (Currency currency : currencyRepository.findAll()) {
+            existing.put(currency.getCode(), currency);
+        }
+
+        List<Currency> changed = new ArrayList<>();
+        Map<String, BigDecimal> changedRates = new LinkedHashMap<>();
         for (Map.Entry<String, CurrencyRate> entry : rates.entrySet()) {
             String code = entry.getKey();
             CurrencyRate rate = entry.getValue();
@@ -82,27 +148,56 @@ public class CurrencyService {
                 throw new ArithmeticException("Номинал валюты " + rate.getCharCode() + " равен 0, деление невозможно.");
             }
 
-            BigDecimal exchangeRate = calculateExchangeRate(rate);
+            BigDecimal exchangeRate = rate.getUnitRate();
 
-            Currency currency = currencyRepository.findByCode(code).orElse(null);
+            Currency currency = existing.get(code);
 
             if (currency == null) {
-                currency = new Currency(code, currencyName, exchangeRate);
-            } else {
+                changed.add(new Currency(code, currencyName, exchangeRate));
+                changedRates.put(code, exchangeRate);
+                continue;
+            }
+
+            boolean rateChanged = currency.getExchangeRate() == null
+                    || currency.getExchangeRate().compareTo(exchangeRate) != 0;
+            boolean nameChanged = !Objects.equals(currency.getName(), currencyName);
+
+            if (rateChanged) {
                 currency.setExchangeRate(exchangeRate);
+                changedRates.put(code, exchangeRate);
+            }
+            if (nameChanged) {
                 currency.setName(currencyName);
             }
-
-            try {
-                currencyRepository.save(currency);
-            } catch (DataIntegrityViolationException e) {
-                throw new DataIntegrityViolationException("Ошибка сохранения валюты в БД: " + e.getMessage(), e);
+            if (rateChanged || nameChanged) {
+                changed.add(currency);
             }
         }
+
+        if (changed.isEmpty()) {
+            return changedRates;
+        }
+
+        try {
+            currencyRepository.saveAll(changed);
+        } catch (DataIntegrityViolationException e) {
+            throw new DataIntegrityViolationException("Ошибка сохранения валюты в БД: " + e.getMessage(), e);
+        }
+        return changedRates;
+    }
+
+    private static String hash(byte[] body) {
+        if (body == null) {
+            throw new CurrencyRateFetchException("Пустой ответ ЦБ РФ с курсами валют");
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-    private BigDecimal calculateExchangeRate(CurrencyRate rate) {
-        return BigDecimal.valueOf(rate.getValue())
-                .divide(BigDecimal.valueOf(rate.getNominal()), 6, RoundingMode.HALF_UP);
+    record FeedState(String etag, long lastModified, String bodyHash) {
+        static final FeedState EMPTY = new FeedState(null, -1, "");
     }
 }
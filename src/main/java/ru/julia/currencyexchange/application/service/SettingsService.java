@@ -1,13 +1,24 @@
 package ru.julia.currencyexchange.application.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.julia.currencyexchange.domain.model.Settings;
 import ru.julia.currencyexchange.infrastructure.repository.jpa.SettingsRepository;
 
 @Service
 public class SettingsService {
+    private static final Logger logger = LoggerFactory.getLogger(SettingsService.class);
+
     private final SettingsRepository settingsRepository;
+    // Комиссия читается при каждой конвертации, поэтому хранится в памяти; null — еще не загружена
+    private volatile Double cachedFeePercent;
+    // Меняется при каждой записи новой комиссии, чтобы чтение из БД, начатое до записи, не вернуло старое значение
+    private long generation;
 
     public SettingsService(SettingsRepository settingsRepository) {
         this.settingsRepository = settingsRepository;
@@ -19,11 +30,66 @@ public class SettingsService {
         settings.setUser(null);
         settings.setConversionFeePercent(feePercent);
         settingsRepository.save(settings);
+        cacheAfterCommit(feePercent);
     }
 
     public double getGlobalConversionFeePercent() {
+        Double feePercent = cachedFeePercent;
+        if (feePercent == null) {
+            long loadGeneration = currentGeneration();
+            feePercent = loadGlobalConversionFeePercent();
+            cacheLoaded(loadGeneration, feePercent);
+        }
+        return feePercent;
+    }
+
+    // Другие экземпляры приложения меняют комиссию в общей БД, поэтому кэш периодически сверяется с ней
+    @Scheduled(fixedDelayString = "${settings.fee-refresh-interval:PT30S}",
+            initialDelayString = "${settings.fee-refresh-interval:PT30S}")
+    public void reloadGlobalConversionFee() {
+        long loadGeneration = currentGeneration();
+        double feePercent = loadGlobalConversionFeePercent();
+        Double previous = cachedFeePercent;
+        if (cacheLoaded(loadGeneration, feePercent) && previous != null && previous != feePercent) {
+            logger.info("Global conversion fee changed externally: {} -> {}", previous, feePercent);
+        }
+    }
+
+    private double loadGlobalConversionFeePercent() {
         return settingsRepository.findFirst()
                 .map(Settings::getConversionFeePercent)
                 .orElse(0.0);
     }
-} 
\ No newline at end of file
+
+    // Новое значение видно остальным потокам только после коммита, чтобы откат не оставил его в кэше
+    private void cacheAfterCommit(double feePercent) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheWritten(feePercent);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheWritten(feePercent);
+            }
+        });
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private synchronized void cacheWritten(double feePercent) {
+        generation++;
+        cachedFeePercent = feePercent;
+    }
+
+    // false, если за время чтения комиссию успели изменить: прочитанное значение уже устарело
+    private synchronized boolean cacheLoaded(long loadGeneration, double feePercent) {
+        if (generation != loadGeneration) {
+            return false;
+        }
+        cachedFeePercent = feePercent;
+        return true;
+    }
+}
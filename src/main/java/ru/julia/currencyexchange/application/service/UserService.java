@@ -14,23 +14,37 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class UserService {
     private final UserRepository userRepository;
+    private final ChatUserCache chatUserCache;
+    private final UsernameTracker usernameTracker;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, ChatUserCache chatUserCache, UsernameTracker usernameTracker) {
         this.userRepository = userRepository;
+        this.chatUserCache = chatUserCache;
+        this.usernameTracker = usernameTracker;
     }
 
     public User findUserByChatId(Long chatId) {
         if (chatId == null) {
             throw new IllegalArgumentException("ChatId cannot be null");
         }
-        return userRepository.findByChatId(chatId)
+        return chatUserCache.get(chatId, () -> userRepository.findByChatId(chatId))
                 .orElseThrow(() -> new UserNotFoundException("User with chatId " + chatId + " not found"));
     }
 
+    public Optional<User> findOptionalUserByChatId(Long chatId) {
+        if (chatId == null) {
+            throw new IllegalArgumentException("ChatId cannot be null");
+        }
+        return chatUserCache.get(chatId, () -> userRepository.findByChatId(chatId));
+    }
+
     public boolean existsByChatId(Long chatId) {
         if (chatId == null) {
             throw new IllegalArgumentException("ChatId cannot be null");
         }
+        if (chatUserCache.peek(chatId).isPresent()) {
+            return true;
+        }
         return userRepository.existsByChatId(chatId);
     }
 
@@ -45,6 +59,7 @@ public class UserService {
 
         user.setDeleted(true);
         user.setVerified(false);
+        chatUserCache.invalidate(user.getChatId());
         return userRepository.save(user);
     }
 
@@ -59,6 +74,7 @@ public class UserService {
 
         user.setDeleted(true);
         user.setVerified(false);
+        chatUserCache.invalidate(chatId);
         userRepository.save(user);
     }
 
@@ -83,6 +99,7 @@ public class UserService {
 
         if (user.isPresent() && user.get().getVerificationCode().equals(code)) {
             user.get().setVerified(true);
+            chatUserCache.invalidate(user.get().getChatId());
             userRepository.save(user.get());
             return true;
         }
@@ -90,18 +107,13 @@ public class UserService {
     }
 
     public String getUserIdByChatId(Long chatId) {
-        return userRepository.findByChatId(chatId)
+        return chatUserCache.get(chatId, () -> userRepository.findByChatId(chatId))
                 .orElseThrow(() -> new UserNotFoundException("User with chatId " + chatId + " not found"))
                 .getId();
     }
 
     public void updateUsernameIfChanged(Long chatId, String newUsername) {
-        userRepository.findByChatId(chatId).ifPresent(user -> {
-            if (!java.util.Objects.equals(user.getUsername(), newUsername)) {
-                user.setUsername(newUsername);
-                userRepository.save(user);
-            }
-        });
+        usernameTracker.track(chatId, newUsername);
     }
 
     public User findUserByEmail(String email) {
@@ -115,6 +127,8 @@ public class UserService {
 
     @Transactional
     public User saveUser(User user) {
+        chatUserCache.invalidate(user.getChatId());
+        usernameTracker.forget(user.getChatId());
         return userRepository.save(user);
     }
 }
@@ -0,0 +1,123 @@
+package ru.julia.currencyexchange.application.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.domain.model.User;
+import ru.julia.currencyexchange.infrastructure.repository.jpa.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отслеживает имена пользователей Telegram с отложенной записью.
+ * Первое появление chatId сверяется с базой и сохраняется сразу, как и раньше;
+ * дальше имя сравнивается с последним увиденным в памяти, а реальные изменения пишутся пачкой по расписанию.
+ */
+@Component
+public class UsernameTracker {
+    private static final Logger logger = LoggerFactory.getLogger(UsernameTracker.class);
+    private static final int PURGE_THRESHOLD = 100_000;
+    private static final String UPDATE_USERNAME_SQL = "UPDATE users SET username = ? WHERE chat_id = ?";
+
+    private final UserRepository userRepository;
+    private final ChatUserCache chatUserCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, String> lastSeen = new ConcurrentHashMap<>();
+    private final Map<Long, String> pending = new ConcurrentHashMap<>();
+
+    public UsernameTracker(UserRepository userRepository, ChatUserCache chatUserCache, JdbcTemplate jdbcTemplate) {
+        this.userRepository = userRepository;
+        this.chatUserCache = chatUserCache;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void track(Long chatId, String username) {
+        // Колонка username не допускает NULL, такое имя записать все равно нельзя
+        if (chatId == null || username == null) {
+            return;
+        }
+
+        String seen = lastSeen.get(chatId);
+        if (seen == null) {
+            syncFirstSighting(chatId, username);
+            return;
+        }
+        if (!seen.equals(username)) {
+            lastSeen.put(chatId, username);
+            pending.put(chatId, username);
+        }
+    }
+
+    public void forget(Long chatId) {
+        if (chatId != null) {
+            lastSeen.remove(chatId);
+        }
+    }
+
+    public void clear() {
+        lastSeen.clear();
+        pending.clear();
+    }
+
+    public int pendingUpdates() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${users.username-flush-interval:PT5S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, String>> batch = pending.entrySet().stream()
+                .map(change -> Map.entry(change.getKey(), change.getValue()))
+                .toList();
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_USERNAME_SQL, batch, batch.size(), (statement, change) -> {
+                statement.setString(1, change.getValue());
+                statement.setLong(2, change.getKey());
+            });
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush {} username updates, will retry: {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        for (Map.Entry<Long, String> change : batch) {
+            // Имя, изменившееся во время записи, остается в очереди до следующего сброса
+            pending.remove(change.getKey(), change.getValue());
+            chatUserCache.invalidate(change.getKey());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void syncFirstSighting(Long chatId, String username) {
+        Optional<User> cached = chatUserCache.peek(chatId);
+        if (cached.isEmpty() || !Objects.equals(cached.get().getUsername(), username)) {
+            Optional<User> user = userRepository.findByChatId(chatId);
+            if (user.isEmpty()) {
+                return;
+            }
+            if (!Objects.equals(user.get().getUsername(), username)) {
+                user.get().setUsername(username);
+                chatUserCache.invalidate(chatId);
+                userRepository.save(user.get());
+            }
+        }
+
+        if (lastSeen.size() > PURGE_THRESHOLD) {
+            lastSeen.clear();
+        }
+        lastSeen.put(chatId, username);
+    }
+}
@@ -6,6 +6,7 @@ import ru.julia.currencyexchange.application.bot.settings.enums.ConversionState;
 import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.SettingsService;
 import ru.julia.currencyexchange.application.service.UserService;
+import ru.julia.currencyexchange.application.service.bot.state.ConversationStateStore;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 import ru.julia.currencyexchange.domain.model.User;
@@ -17,7 +18,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class CurrencyConvertService {
@@ -27,22 +27,22 @@ public class CurrencyConvertService {
     private final CurrencyEmojiUtils currencyEmojiUtils;
     private final CurrencyFormatUtils currencyFormatUtils;
     private final MessageConverter messageConverter;
-    
-    private final Map<Long, ConversionState> userStates = new ConcurrentHashMap<>();
-    private final Map<Long, ConversionData> userData = new ConcurrentHashMap<>();
+    private final ConversationStateStore.Flow<ConversionSession> sessions;
 
     public CurrencyConvertService(CurrencyExchangeService currencyExchangeService,
                                   UserService userService,
                                   SettingsService settingsService,
                                   CurrencyEmojiUtils currencyEmojiUtils,
                                   CurrencyFormatUtils currencyFormatUtils,
-                                  MessageConverter messageConverter) {
+                                  MessageConverter messageConverter,
+                                  ConversationStateStore conversationStateStore) {
         this.currencyExchangeService = currencyExchangeService;
         this.userService = userService;
         this.settingsService = settingsService;
         this.currencyEmojiUtils = currencyEmojiUtils;
         this.currencyFormatUtils = currencyFormatUtils;
         this.messageConverter = messageConverter;
+        this.sessions = conversationStateStore.flow("convert", ConversionSession.class);
     }
 
     public boolean hasCurrencies() {
@@ -138,26 +138,33 @@ public class CurrencyConvertService {
     }
 
     public ConversionState getState(Long chatId) {
-        return userStates.getOrDefault(chatId, ConversionState.NONE);
+        ConversionSession session = sessions.get(chatId);
+        return session != null && session.state() != null ? session.state() : ConversionState.NONE;
     }
 
     public void setState(Long chatId, ConversionState state) {
-        userStates.put(chatId, state);
+        ConversionSession session = sessions.get(chatId);
+        sessions.put(chatId, new ConversionSession(state, session != null ? session.data() : null));
     }
 
     public void setData(Long chatId, String fromCurrency, String toCurrency) {
-        userData.put(chatId, new ConversionData(fromCurrency, toCurrency));
+        ConversionSession session = sessions.get(chatId);
+        sessions.put(chatId, new ConversionSession(session != null ? session.state() : null,
+                new ConversionData(fromCurrency, toCurrency)));
     }
 
     public ConversionData getData(Long chatId) {
-        return userData.get(chatId);
+        ConversionSession session = sessions.get(chatId);
+        return session != null ? session.data() : null;
     }
 
     public void clearData(Long chatId) {
-        userStates.remove(chatId);
-        userData.remove(chatId);
+        sessions.remove(chatId);
     }
 
     public record ConversionData(String fromCurrency, String toCurrency) {
     }
+
+    record ConversionSession(ConversionState state, ConversionData data) {
+    }
 } 
\ No newline at end of file
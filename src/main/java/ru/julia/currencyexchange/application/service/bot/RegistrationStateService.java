@@ -3,41 +3,62 @@ package ru.julia.currencyexchange.application.service.bot;
 import org.springframework.stereotype.Service;
 import ru.julia.currencyexchange.application.bot.settings.RegistrationData;
 import ru.julia.currencyexchange.application.bot.settings.enums.RegistrationState;
+import ru.julia.currencyexchange.application.service.bot.state.ConversationStateStore;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 public class RegistrationStateService {
-    private final Map<Long, RegistrationState> userStates = new ConcurrentHashMap<>();
-    private final Map<Long, RegistrationData> userData = new ConcurrentHashMap<>();
+    private final ConversationStateStore.Flow<RegistrationSession> sessions;
+
+    public RegistrationStateService(ConversationStateStore conversationStateStore) {
+        this.sessions = conversationStateStore.flow("registration", RegistrationSession.class);
+    }
 
     public RegistrationState getState(Long chatId) {
-        return userStates.getOrDefault(chatId, RegistrationState.NONE);
+        RegistrationSession session = sessions.get(chatId);
+        return session != null && session.state() != null ? session.state() : RegistrationState.NONE;
     }
 
     public void setState(Long chatId, RegistrationState state) {
-        userStates.put(chatId, state);
+        RegistrationSession session = sessions.get(chatId);
+        sessions.put(chatId, new RegistrationSession(state, session != null ? session.data() : null));
     }
 
     public void clearData(Long chatId) {
-        userStates.remove(chatId);
-        userData.remove(chatId);
+        sessions.remove(chatId);
     }
 
     public void setEmail(Long chatId, String email) {
-        getData(chatId).setEmail(email);
+        updateData(chatId, data -> data.setEmail(email));
     }
 
     public RegistrationData getData(Long chatId) {
-        return userData.computeIfAbsent(chatId, k -> new RegistrationData());
+        RegistrationSession session = sessions.get(chatId);
+        if (session != null && session.data() != null) {
+            return session.data();
+        }
+
+        RegistrationData data = new RegistrationData();
+        sessions.put(chatId, new RegistrationSession(session != null ? session.state() : null, data));
+        return data;
     }
 
     public void setPassword(Long chatId, String password) {
-        getData(chatId).setPassword(password);
+        updateData(chatId, data -> data.setPassword(password));
     }
 
     public void setVerificationCode(Long chatId, String code) {
-        getData(chatId).setVerificationCode(code);
+        updateData(chatId, data -> data.setVerificationCode(code));
+    }
+
+    // Изменение записывается обратно: хранилище может держать копию, а не сам объект
+    private void updateData(Long chatId, Consumer<RegistrationData> change) {
+        RegistrationData data = getData(chatId);
+        change.accept(data);
+        sessions.put(chatId, new RegistrationSession(getState(chatId), data));
+    }
+
+    record RegistrationSession(RegistrationState state, RegistrationData data) {
     }
-} 
\ No newline at end of file
+}
@@ -2,16 +2,19 @@ package ru.julia.currencyexchange.application.service.bot;
 
 import org.springframework.stereotype.Service;
 import ru.julia.currencyexchange.application.bot.settings.enums.SetFeeState;
-
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import ru.julia.currencyexchange.application.service.bot.state.ConversationStateStore;
 
 @Service
 public class SetFeeStateService {
-    private final Map<Long, SetFeeState> userStates = new ConcurrentHashMap<>();
+    private final ConversationStateStore.Flow<SetFeeState> userStates;
+
+    public SetFeeStateService(ConversationStateStore conversationStateStore) {
+        this.userStates = conversationStateStore.flow("set_fee", SetFeeState.class);
+    }
 
     public SetFeeState getState(Long chatId) {
-        return userStates.getOrDefault(chatId, SetFeeState.NONE);
+        SetFeeState state = userStates.get(chatId);
+        return state != null ? state : SetFeeState.NONE;
     }
 
     public void setState(Long chatId, SetFeeState state) {
@@ -21,4 +24,4 @@ public class SetFeeStateService {
     public void clearState(Long chatId) {
         userStates.remove(chatId);
     }
-} 
\ No newline at end of file
+}
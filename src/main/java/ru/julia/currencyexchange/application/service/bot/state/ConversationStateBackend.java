@@ -0,0 +1,24 @@
+package ru.julia.currencyexchange.application.service.bot.state;
+
+import java.time.Duration;
+
+/**
+ * Хранилище состояний диалогов бота: значение на пару (сценарий, chatId) со сроком жизни.
+ * Реализации — в памяти процесса или в таблице PostgreSQL, общей для нескольких экземпляров и переживающей перезапуск.
+ */
+public interface ConversationStateBackend {
+    // null, если состояния нет или его срок истек
+    <T> T get(String flow, long chatId, Class<T> type);
+
+    void put(String flow, long chatId, Object state, Duration ttl);
+
+    void remove(String flow, long chatId);
+
+    long size(String flow);
+
+    // Удаляет истекшие записи и записи сверх лимита размера
+    Evictions sweep(String flow);
+
+    record Evictions(int expired, int overflow) {
+    }
+}
@@ -0,0 +1,105 @@
+package ru.julia.currencyexchange.application.service.bot.state;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Общее хранилище состояний пошаговых сценариев бота (/convert, /register, /set_fee).
+ * Состояние брошенного сценария истекает через ttl после последней записи, число состояний на сценарий ограничено;
+ * истекшие записи периодически удаляются. Где лежат состояния, определяет ConversationStateBackend.
+ */
+@Component
+public class ConversationStateStore {
+    private static final Logger logger = LoggerFactory.getLogger(ConversationStateStore.class);
+
+    private final ConversationStateBackend backend;
+    private final Duration ttl;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Flow<?>> flows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConversationStateStore(ConversationStateBackend backend, BotConfig botConfig, MeterRegistry meterRegistry) {
+        this(backend, botConfig.conversation().ttl(), meterRegistry);
+    }
+
+    public ConversationStateStore(ConversationStateBackend backend, Duration ttl, MeterRegistry meterRegistry) {
+        this.backend = backend;
+        this.ttl = ttl;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Flow<T> flow(String name, Class<T> type) {
+        Flow<T> flow = new Flow<>(name, type);
+        if (flows.putIfAbsent(name, flow) != null) {
+            throw new IllegalStateException("Conversation flow " + name + " is already registered");
+        }
+        Gauge.builder("bot.conversation.states", backend, states -> states.size(name))
+                .description("Conversation states kept for unfinished bot flows")
+                .tag("flow", name)
+                .register(meterRegistry);
+        return flow;
+    }
+
+    @Scheduled(fixedDelayString = "${bot.conversation.sweep-interval:PT1M}")
+    public void sweep() {
+        for (Flow<?> flow : flows.values()) {
+            try {
+                ConversationStateBackend.Evictions evictions = backend.sweep(flow.name);
+                flow.expired.increment(evictions.expired());
+                flow.overflow.increment(evictions.overflow());
+            } catch (RuntimeException e) {
+                logger.error("Failed to sweep {} conversation states: {}", flow.name, e.getMessage());
+            }
+        }
+    }
+
+    // Состояния одного сценария, по chatId
+    public final class Flow<T> {
+        private final String name;
+        private final Class<T> type;
+        private final Counter expired;
+        private final Counter overflow;
+
+        private Flow(String name, Class<T> type) {
+            this.name = name;
+            this.type = type;
+            this.expired = evictionCounter(name, "expired");
+            this.overflow = evictionCounter(name, "size");
+        }
+
+        public T get(long chatId) {
+            return backend.get(name, chatId, type);
+        }
+
+        public void put(long chatId, T state) {
+            backend.put(name, chatId, state, ttl);
+        }
+
+        public void remove(long chatId) {
+            backend.remove(name, chatId);
+        }
+
+        public long size() {
+            return backend.size(name);
+        }
+    }
+
+    private Counter evictionCounter(String flow, String cause) {
+        return Counter.builder("bot.conversation.evicted")
+                .description("Conversation states evicted after the TTL or over the size limit")
+                .tag("flow", flow)
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.julia.currencyexchange.application.service.bot.state;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Состояния в памяти процесса. На каждый сценарий — набор сегментов с LongStateMap под своей блокировкой,
+ * чтобы параллельные чаты не ждали друг друга. Лимит размера делится между сегментами поровну.
+ */
+public class InMemoryConversationStateBackend implements ConversationStateBackend {
+    private static final int SEGMENTS = 16;
+
+    private final int maxEntriesPerSegment;
+    private final LongSupplier nanoTime;
+    private final Map<String, LongStateMap[]> flows = new ConcurrentHashMap<>();
+
+    public InMemoryConversationStateBackend(int maxEntries, LongSupplier nanoTime) {
+        this.maxEntriesPerSegment = Math.max(1, maxEntries / SEGMENTS);
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public <T> T get(String flow, long chatId, Class<T> type) {
+        LongStateMap segment = segment(flow, chatId);
+        synchronized (segment) {
+            return type.cast(segment.get(chatId, nanoTime.getAsLong()));
+        }
+    }
+
+    @Override
+    public void put(String flow, long chatId, Object state, Duration ttl) {
+        LongStateMap segment = segment(flow, chatId);
+        long now = nanoTime.getAsLong();
+        synchronized (segment) {
+            segment.put(chatId, state, now + ttl.toNanos(), now);
+        }
+    }
+
+    @Override
+    public void remove(String flow, long chatId) {
+        LongStateMap segment = segment(flow, chatId);
+        synchronized (segment) {
+            segment.remove(chatId);
+        }
+    }
+
+    @Override
+    public long size(String flow) {
+        long size = 0;
+        for (LongStateMap segment : segments(flow)) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Evictions sweep(String flow) {
+        int expired = 0;
+        int overflow = 0;
+        long now = nanoTime.getAsLong();
+        for (LongStateMap segment : segments(flow)) {
+            synchronized (segment) {
+                expired += segment.removeExpired(now) + segment.drainExpiredEvictions();
+                overflow += segment.drainOverflowEvictions();
+            }
+        }
+        return new Evictions(expired, overflow);
+    }
+
+    private LongStateMap segment(String flow, long chatId) {
+        // Старшие биты хэша выбирают сегмент, младшие — ячейку внутри него
+        return segments(flow)[(LongStateMap.hash(chatId) >>> 28) & (SEGMENTS - 1)];
+    }
+
+    private LongStateMap[] segments(String flow) {
+        return flows.computeIfAbsent(flow, name -> {
+            LongStateMap[] segments = new LongStateMap[SEGMENTS];
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new LongStateMap(maxEntriesPerSegment);
+            }
+            return segments;
+        });
+    }
+}
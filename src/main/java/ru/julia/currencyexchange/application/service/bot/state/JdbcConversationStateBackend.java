@@ -0,0 +1,94 @@
+package ru.julia.currencyexchange.application.service.bot.state;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Состояния в таблице bot_conversation_states в виде JSON: переживают перезапуск и видны всем экземплярам бота.
+ * Сроки считаются по часам базы (now()), чтобы экземпляры с расходящимися часами видели одно и то же.
+ * Лимит размера применяется при периодической очистке, а не на каждой записи.
+ */
+public class JdbcConversationStateBackend implements ConversationStateBackend {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcConversationStateBackend.class);
+
+    private static final String SELECT_SQL = "SELECT payload FROM bot_conversation_states " +
+            "WHERE flow = ? AND chat_id = ? AND expires_at > now()";
+    private static final String UPSERT_SQL = "INSERT INTO bot_conversation_states (flow, chat_id, payload, expires_at) " +
+            "VALUES (?, ?, ?, now() + ? * INTERVAL '1 millisecond') " +
+            "ON CONFLICT (flow, chat_id) DO UPDATE SET payload = EXCLUDED.payload, expires_at = EXCLUDED.expires_at";
+    private static final String DELETE_SQL = "DELETE FROM bot_conversation_states WHERE flow = ? AND chat_id = ?";
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM bot_conversation_states " +
+            "WHERE flow = ? AND expires_at <= now()";
+    // Оставляет maxEntries записей с самым поздним сроком, как и вытеснение в памяти
+    private static final String DELETE_OVERFLOW_SQL = "DELETE FROM bot_conversation_states WHERE flow = ? AND chat_id IN " +
+            "(SELECT chat_id FROM bot_conversation_states WHERE flow = ? ORDER BY expires_at DESC OFFSET ?)";
+    private static final String COUNT_SQL = "SELECT count(*) FROM bot_conversation_states WHERE flow = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    // Размер на момент последней очистки: метрика не должна ходить в базу при каждом опросе
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+
+    public JdbcConversationStateBackend(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public <T> T get(String flow, long chatId, Class<T> type) {
+        List<String> payloads = jdbcTemplate.queryForList(SELECT_SQL, String.class, flow, chatId);
+        if (payloads.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(payloads.getFirst(), type);
+        } catch (JsonProcessingException e) {
+            // Формат состояния изменился между версиями: начинаем сценарий заново
+            logger.warn("Dropping unreadable {} conversation state for chat {}: {}", flow, chatId, e.getMessage());
+            remove(flow, chatId);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String flow, long chatId, Object state, Duration ttl) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        jdbcTemplate.update(UPSERT_SQL, flow, chatId, payload, ttl.toMillis());
+    }
+
+    @Override
+    public void remove(String flow, long chatId) {
+        jdbcTemplate.update(DELETE_SQL, flow, chatId);
+    }
+
+    @Override
+    public long size(String flow) {
+        return sizes.getOrDefault(flow, 0L);
+    }
+
+    @Override
+    public Evictions sweep(String flow) {
+        int expired = jdbcTemplate.update(DELETE_EXPIRED_SQL, flow);
+        int overflow = jdbcTemplate.update(DELETE_OVERFLOW_SQL, flow, flow, maxEntries);
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, flow);
+        sizes.put(flow, count != null ? count : 0L);
+        return new Evictions(expired, overflow);
+    }
+}
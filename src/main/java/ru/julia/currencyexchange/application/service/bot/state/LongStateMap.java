@@ -0,0 +1,192 @@
+package ru.julia.currencyexchange.application.service.bot.state;
+
+/**
+ * Хэш-таблица с открытой адресацией по примитивному ключу long: без упаковки chatId в Long и без узла на запись.
+ * У каждой записи есть срок жизни (в единицах переданного времени, обычно System.nanoTime), число записей
+ * ограничено maxEntries. Класс не потокобезопасен: синхронизация — на стороне вызывающего.
+ */
+final class LongStateMap {
+    private static final int MIN_CAPACITY = 16;
+
+    private final int maxEntries;
+    private long[] keys;
+    // null в values означает свободную ячейку
+    private Object[] values;
+    private long[] expiresAt;
+    private int mask;
+    private int size;
+    // Вытеснения с момента последнего drain: по истечении срока и по лимиту размера
+    private int expiredEvictions;
+    private int overflowEvictions;
+
+    LongStateMap(int maxEntries) {
+        this.maxEntries = maxEntries;
+        allocate(MIN_CAPACITY);
+    }
+
+    Object get(long key, long now) {
+        int slot = find(key);
+        if (slot < 0 || isExpired(slot, now)) {
+            return null;
+        }
+        return values[slot];
+    }
+
+    void put(long key, Object value, long expires, long now) {
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            expiresAt[slot] = expires;
+            return;
+        }
+
+        if (size >= maxEntries) {
+            expiredEvictions += removeExpired(now);
+            // Все записи живы: вытесняем ту, что истекает раньше всех. Полный проход по таблице,
+            // но только при переполнении, а таблица ограничена 2 * maxEntries ячейками
+            if (size >= maxEntries) {
+                removeSlot(earliestExpiringSlot());
+                overflowEvictions++;
+            }
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+
+        slot = index(key);
+        while (values[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        expiresAt[slot] = expires;
+        size++;
+    }
+
+    boolean remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    // Возвращает число удаленных записей
+    int removeExpired(long now) {
+        int before = size;
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] oldExpiresAt = expiresAt;
+
+        allocate(oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null && oldExpiresAt[i] - now > 0) {
+                insertFresh(oldKeys[i], oldValues[i], oldExpiresAt[i]);
+            }
+        }
+        return before - size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int drainExpiredEvictions() {
+        int drained = expiredEvictions;
+        expiredEvictions = 0;
+        return drained;
+    }
+
+    int drainOverflowEvictions() {
+        int drained = overflowEvictions;
+        overflowEvictions = 0;
+        return drained;
+    }
+
+    private boolean isExpired(int slot, long now) {
+        return expiresAt[slot] - now <= 0;
+    }
+
+    private int find(long key) {
+        int slot = index(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Удаление со сдвигом следующих записей цепочки назад, без «надгробий»
+    private void removeSlot(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = index(keys[next]);
+            // Запись можно перенести в gap, если gap лежит между ее домашней ячейкой и текущей позицией
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                expiresAt[gap] = expiresAt[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+    }
+
+    private int earliestExpiringSlot() {
+        int earliest = -1;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && (earliest < 0 || expiresAt[i] - expiresAt[earliest] < 0)) {
+                earliest = i;
+            }
+        }
+        return earliest;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] oldExpiresAt = expiresAt;
+
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                insertFresh(oldKeys[i], oldValues[i], oldExpiresAt[i]);
+            }
+        }
+    }
+
+    private void insertFresh(long key, Object value, long expires) {
+        int slot = index(key);
+        while (values[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        expiresAt[slot] = expires;
+        size++;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        expiresAt = new long[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int index(long key) {
+        return hash(key) & mask;
+    }
+
+    // Перемешивание битов: последовательные chatId не должны ложиться в соседние ячейки
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,14 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import ru.julia.currencyexchange.application.dto.CurrencyRate;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Курсы из ежедневного файла ЦБ РФ.
+ * {@code date} — дата, на которую установлены курсы (атрибут Date), {@code null}, если его нет в файле;
+ * {@code valuteIds} — внутренние коды валют ЦБ РФ (R01235 и т.п.), нужные для запроса динамики курса.
+ */
+public record CbrDailyRates(LocalDate date, Map<String, CurrencyRate> rates, Map<String, String> valuteIds) {
+}
@@ -0,0 +1,121 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import ru.julia.currencyexchange.application.dto.CurrencyRate;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateFetchException;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateParsingException;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Заполняет архив курсов за прошедшие даты из ЦБ РФ.
+ * Посуточная загрузка делает по запросу XML_daily.asp на каждый день; загрузка динамики — один запрос
+ * XML_dynamic.asp на валюту за весь период, что выгоднее для длинных периодов.
+ */
+@Service
+public class CbrRateHistoryLoader {
+    private static final Logger logger = LoggerFactory.getLogger(CbrRateHistoryLoader.class);
+    private static final String RUB = "RUB";
+
+    private final CbrRatesClient ratesClient;
+    private final CbrRatesXmlParser ratesXmlParser;
+    private final RateHistoryService rateHistoryService;
+
+    public CbrRateHistoryLoader(CbrRatesClient ratesClient,
+                                CbrRatesXmlParser ratesXmlParser,
+                                RateHistoryService rateHistoryService) {
+        this.ratesClient = ratesClient;
+        this.ratesXmlParser = ratesXmlParser;
+        this.rateHistoryService = rateHistoryService;
+    }
+
+    // Возвращает число дат, за которые записаны курсы
+    public int loadDaily(LocalDate from, LocalDate to) {
+        return loadDaily(from, to, Instant.MAX);
+    }
+
+    // Загрузка прерывается перед очередным запросом к ЦБ РФ, если наступил deadline
+    public int loadDaily(LocalDate from, LocalDate to, Instant deadline) {
+        Set<LocalDate> loaded = new HashSet<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            checkDeadline(deadline);
+            CbrDailyRates daily = fetchDaily(day);
+            LocalDate rateDate = daily.date() != null ? daily.date() : day;
+            // На выходные и праздники ЦБ РФ повторяет курсы последнего рабочего дня
+            if (!loaded.add(rateDate)) {
+                continue;
+            }
+            rateHistoryService.record(rateDate, unitRates(daily.rates()));
+        }
+        logger.info("Loaded CBR daily rates for {} dates between {} and {}", loaded.size(), from, to);
+        return loaded.size();
+    }
+
+    // Возвращает число записанных курсов по всем валютам
+    public int loadDynamic(LocalDate from, LocalDate to) {
+        return loadDynamic(from, to, Instant.MAX);
+    }
+
+    public int loadDynamic(LocalDate from, LocalDate to, Instant deadline) {
+        CbrDailyRates latest = fetchDaily(to);
+        Set<LocalDate> dates = new HashSet<>();
+        int recorded = 0;
+
+        for (Map.Entry<String, String> valute : latest.valuteIds().entrySet()) {
+            checkDeadline(deadline);
+            List<RatePoint> points = parseDynamic(ratesClient.fetchDynamic(valute.getValue(), from, to));
+            rateHistoryService.recordSeries(valute.getKey(), points);
+            points.forEach(point -> dates.add(point.date()));
+            recorded += points.size();
+        }
+
+        // Рубль в ответах ЦБ РФ не приходит, но нужен снимку для кросс-курсов на каждую дату
+        List<RatePoint> rub = new ArrayList<>(dates.size());
+        dates.stream().sorted().forEach(date -> rub.add(new RatePoint(date, BigDecimal.ONE)));
+        rateHistoryService.recordSeries(RUB, rub);
+
+        logger.info("Loaded CBR rate dynamics for {} currencies between {} and {}",
+                latest.valuteIds().size(), from, to);
+        return recorded + rub.size();
+    }
+
+    private static void checkDeadline(Instant deadline) {
+        if (Thread.currentThread().isInterrupted() || !Instant.now().isBefore(deadline)) {
+            throw new CurrencyRateFetchException("Загрузка архива курсов прервана: превышено время ожидания");
+        }
+    }
+
+    private CbrDailyRates fetchDaily(LocalDate date) {
+        byte[] body = ratesClient.fetchDailyOn(date);
+        return ratesXmlParser.parseDaily(new ByteArrayInputStream(body));
+    }
+
+    private List<RatePoint> parseDynamic(byte[] body) {
+        if (body == null) {
+            throw new CurrencyRateFetchException("Пустой ответ ЦБ РФ с динамикой курса");
+        }
+        return ratesXmlParser.parseDynamic(new ByteArrayInputStream(body));
+    }
+
+    private static Map<String, BigDecimal> unitRates(Map<String, CurrencyRate> rates) {
+        Map<String, BigDecimal> unitRates = new LinkedHashMap<>();
+        for (CurrencyRate rate : rates.values()) {
+            if (rate.getNominal() <= 0) {
+                throw new CurrencyRateParsingException("Номинал валюты " + rate.getCharCode() + " должен быть больше 0");
+            }
+            unitRates.put(rate.getCharCode(), rate.getUnitRate());
+        }
+        return unitRates;
+    }
+}
@@ -0,0 +1,161 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateFetchException;
+import ru.julia.currencyexchange.infrastructure.configuration.RatesConfig;
+
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+public class CbrRatesClient {
+    private static final String CBR_URL = "http://www.cbr.ru/scripts/XML_daily.asp";
+    private static final String CBR_DYNAMIC_URL = "http://www.cbr.ru/scripts/XML_dynamic.asp";
+    private static final DateTimeFormatter CBR_REQUEST_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final RestTemplate restTemplate;
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final ProviderCircuitBreaker circuitBreaker;
+    // Загрузка архива идет отдельным каналом: один запрос за раз и свой circuit breaker,
+    // чтобы сбои ЦБ РФ при длинной загрузке не останавливали обновление текущих курсов
+    private final Semaphore backfillPermits = new Semaphore(1);
+    private final ProviderCircuitBreaker backfillCircuitBreaker;
+
+    public CbrRatesClient(RatesConfig ratesConfig, MeterRegistry meterRegistry) {
+        RatesConfig.Http http = ratesConfig.http();
+
+        // HttpClient из JDK держит пул keep-alive соединений и переиспользует их между запросами
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(http.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(http.readTimeout());
+
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.permits = new Semaphore(http.maxConcurrentRequests());
+        this.acquireTimeoutMs = http.acquireTimeout().toMillis();
+        this.circuitBreaker = new ProviderCircuitBreaker(
+                http.circuitFailureThreshold(), http.circuitOpenDuration(), Clock.systemUTC());
+        this.backfillCircuitBreaker = new ProviderCircuitBreaker(
+                http.circuitFailureThreshold(), http.circuitOpenDuration(), Clock.systemUTC());
+
+        Gauge.builder("currency.rates.circuit.open", circuitBreaker, breaker -> breaker.isOpen() ? 1 : 0)
+                .description("Открыт ли circuit breaker запросов к ЦБ РФ")
+                .register(meterRegistry);
+        Gauge.builder("currency.rates.backfill.circuit.open", backfillCircuitBreaker, breaker -> breaker.isOpen() ? 1 : 0)
+                .description("Открыт ли circuit breaker запросов к ЦБ РФ при загрузке архива курсов")
+                .register(meterRegistry);
+    }
+
+    public FetchResult fetchDaily(String etag, long lastModified) {
+        return guarded(permits, circuitBreaker, () -> execute(etag, lastModified));
+    }
+
+    // Курсы, установленные на дату; на выходные ЦБ РФ отдает последний рабочий день со своей датой
+    public byte[] fetchDailyOn(LocalDate date) {
+        String url = CBR_URL + "?date_req=" + date.format(CBR_REQUEST_DATE);
+        return guarded(backfillPermits, backfillCircuitBreaker, () -> get(url));
+    }
+
+    // Динамика курса одной валюты за период одним запросом, valuteId — внутренний код ЦБ РФ
+    public byte[] fetchDynamic(String valuteId, LocalDate from, LocalDate to) {
+        String url = CBR_DYNAMIC_URL + "?date_req1=" + from.format(CBR_REQUEST_DATE)
+                + "&date_req2=" + to.format(CBR_REQUEST_DATE) + "&VAL_NM_RQ=" + valuteId;
+        return guarded(backfillPermits, backfillCircuitBreaker, () -> get(url));
+    }
+
+    <T> T guarded(Semaphore permits, ProviderCircuitBreaker circuitBreaker, Supplier<T> request) {
+        acquirePermit(permits);
+        try {
+            if (!circuitBreaker.tryAcquire()) {
+                throw new CurrencyRateFetchException("ЦБ РФ временно недоступен, запросы приостановлены");
+            }
+
+            // Любое исключение, а не только CurrencyRateFetchException, считается ошибкой: иначе пробный запрос
+            // half-open так и остался бы незавершенным, и запросы к ЦБ РФ не возобновились бы до перезапуска
+            boolean succeeded = false;
+            try {
+                T result = request.get();
+                circuitBreaker.onSuccess();
+                succeeded = true;
+                return result;
+            } finally {
+                if (!succeeded) {
+                    circuitBreaker.onFailure();
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquirePermit(Semaphore permits) {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new CurrencyRateFetchException("Превышено число одновременных запросов к ЦБ РФ");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CurrencyRateFetchException("Запрос к ЦБ РФ прерван");
+        }
+    }
+
+    private FetchResult execute(String etag, long lastModified) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        if (lastModified > 0) {
+            headers.setIfModifiedSince(lastModified);
+        }
+
+        try {
+            ResponseEntity<byte[]> response = restTemplate.exchange(
+                    CBR_URL, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                return FetchResult.notModified(etag, lastModified);
+            }
+
+            return new FetchResult(false, response.getBody(),
+                    response.getHeaders().getETag(), response.getHeaders().getLastModified());
+        } catch (RestClientException e) {
+            throw new CurrencyRateFetchException("Ошибка при получении курсов валют от ЦБ РФ: " + e.getMessage());
+        }
+    }
+
+    private byte[] get(String url) {
+        try {
+            byte[] body = restTemplate.getForObject(url, byte[].class);
+            if (body == null) {
+                throw new CurrencyRateFetchException("Пустой ответ ЦБ РФ с курсами валют");
+            }
+            return body;
+        } catch (RestClientException e) {
+            throw new CurrencyRateFetchException("Ошибка при получении курсов валют от ЦБ РФ: " + e.getMessage());
+        }
+    }
+
+    public record FetchResult(boolean notModified, byte[] body, String etag, long lastModified) {
+        public static FetchResult notModified(String etag, long lastModified) {
+            return new FetchResult(true, null, etag, lastModified);
+        }
+    }
+}
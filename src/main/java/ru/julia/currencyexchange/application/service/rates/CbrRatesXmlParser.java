@@ -0,0 +1,202 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.application.dto.CurrencyRate;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateParsingException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class CbrRatesXmlParser {
+    private static final String VALUTE = "Valute";
+    private static final String CHAR_CODE = "CharCode";
+    private static final String NOMINAL = "Nominal";
+    private static final String NAME = "Name";
+    private static final String VALUE = "Value";
+    private static final String VAL_CURS = "ValCurs";
+    private static final String RECORD = "Record";
+    private static final String DATE = "Date";
+    private static final String ID = "ID";
+    private static final DateTimeFormatter CBR_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final XMLInputFactory inputFactory;
+
+    public CbrRatesXmlParser() {
+        XMLInputFactory factory = new WstxInputFactory();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.inputFactory = factory;
+    }
+
+    public Map<String, CurrencyRate> parse(InputStream inputStream) {
+        return parseDaily(inputStream).rates();
+    }
+
+    // Ежедневный файл (XML_daily.asp) вместе с датой курсов и внутренними кодами валют ЦБ РФ
+    public CbrDailyRates parseDaily(InputStream inputStream) {
+        Map<String, CurrencyRate> rates = new LinkedHashMap<>();
+        Map<String, String> valuteIds = new HashMap<>();
+        rates.put("RUB", new CurrencyRate("RUB", 1, "Российский рубль", BigDecimal.ONE));
+        LocalDate date = null;
+
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.createXMLStreamReader(inputStream);
+
+            String valuteId = null;
+            String charCode = null;
+            String name = null;
+            int nominal = 0;
+            BigDecimal value = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case VAL_CURS -> date = readDate(reader);
+                        case VALUTE -> {
+                            valuteId = reader.getAttributeValue(null, ID);
+                            charCode = null;
+                            name = null;
+                            nominal = 0;
+                            value = null;
+                        }
+                        case CHAR_CODE -> charCode = reader.getElementText().trim();
+                        case NAME -> name = reader.getElementText().trim();
+                        case NOMINAL -> nominal = (int) readDecimal(reader).longValueExact();
+                        case VALUE -> value = readDecimal(reader);
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && VALUTE.equals(reader.getLocalName())) {
+                    if (charCode == null || value == null) {
+                        throw new CurrencyRateParsingException("Неполная запись Valute в XML с курсами валют");
+                    }
+                    rates.put(charCode, new CurrencyRate(charCode, nominal, name, value));
+                    if (valuteId != null) {
+                        valuteIds.put(charCode, valuteId);
+                    }
+                }
+            }
+
+            return new CbrDailyRates(date, rates, valuteIds);
+        } catch (XMLStreamException | ArithmeticException | DateTimeParseException e) {
+            throw new CurrencyRateParsingException("Ошибка парсинга XML с курсами валют: " + e.getMessage());
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    // Динамика курса одной валюты (XML_dynamic.asp): курс за единицу валюты на каждую дату
+    public List<RatePoint> parseDynamic(InputStream inputStream) {
+        List<RatePoint> points = new ArrayList<>();
+
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.createXMLStreamReader(inputStream);
+
+            LocalDate date = null;
+            int nominal = 0;
+            BigDecimal value = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case RECORD -> {
+                            date = readDate(reader);
+                            nominal = 0;
+                            value = null;
+                        }
+                        case NOMINAL -> nominal = (int) readDecimal(reader).longValueExact();
+                        case VALUE -> value = readDecimal(reader);
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && RECORD.equals(reader.getLocalName())) {
+                    if (date == null || value == null || nominal <= 0) {
+                        throw new CurrencyRateParsingException("Неполная запись Record в XML с динамикой курса");
+                    }
+                    points.add(new RatePoint(date, value.divide(BigDecimal.valueOf(nominal), 6, RoundingMode.HALF_UP)));
+                }
+            }
+
+            return points;
+        } catch (XMLStreamException | ArithmeticException | DateTimeParseException e) {
+            throw new CurrencyRateParsingException("Ошибка парсинга XML с динамикой курса: " + e.getMessage());
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    private LocalDate readDate(XMLStreamReader reader) {
+        String date = reader.getAttributeValue(null, DATE);
+        return date == null ? null : LocalDate.parse(date.trim(), CBR_DATE);
+    }
+
+    // Разбирает число вида "83,8653" прямо из буфера парсера, без промежуточной строки
+    private BigDecimal readDecimal(XMLStreamReader reader) throws XMLStreamException {
+        long unscaled = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean hasDigits = false;
+
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.CHARACTERS) {
+                char[] chars = reader.getTextCharacters();
+                int end = reader.getTextStart() + reader.getTextLength();
+
+                for (int i = reader.getTextStart(); i < end; i++) {
+                    char c = chars[i];
+                    if (c >= '0' && c <= '9') {
+                        unscaled = Math.addExact(Math.multiplyExact(unscaled, 10), c - '0');
+                        hasDigits = true;
+                        if (fraction) {
+                            scale++;
+                        }
+                    } else if ((c == ',' || c == '.') && !fraction) {
+                        fraction = true;
+                    } else if (!Character.isWhitespace(c)) {
+                        throw new XMLStreamException("Некорректное числовое значение", reader.getLocation());
+                    }
+                }
+            }
+            event = reader.next();
+        }
+
+        if (!hasDigits) {
+            throw new XMLStreamException("Пустое числовое значение", reader.getLocation());
+        }
+
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private void closeQuietly(XMLStreamReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (XMLStreamException ignored) {
+        }
+    }
+}
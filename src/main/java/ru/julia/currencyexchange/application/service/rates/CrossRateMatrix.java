@@ -0,0 +1,76 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import ru.julia.currencyexchange.domain.model.Currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Плотная матрица кросс-курсов N×N, построенная один раз для снимка курсов.
+ * Ячейка [from * N + to] хранит курс from/to с той же точностью, что и прежнее деление при конвертации;
+ * {@code null} означает нулевой курс целевой валюты.
+ */
+public final class CrossRateMatrix {
+    public static final int RATE_SCALE = 6;
+    public static final int UNKNOWN = -1;
+    static final CrossRateMatrix EMPTY = new CrossRateMatrix(Map.of(), new Currency[0], new BigDecimal[0]);
+
+    private final Map<String, Integer> ordinals;
+    private final Currency[] currencies;
+    private final BigDecimal[] rates;
+
+    private CrossRateMatrix(Map<String, Integer> ordinals, Currency[] currencies, BigDecimal[] rates) {
+        this.ordinals = ordinals;
+        this.currencies = currencies;
+        this.rates = rates;
+    }
+
+    static CrossRateMatrix build(Collection<Currency> source) {
+        if (source.isEmpty()) {
+            return EMPTY;
+        }
+
+        int size = source.size();
+        Currency[] currencies = source.toArray(new Currency[0]);
+        Map<String, Integer> ordinals = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            ordinals.put(currencies[i].getCode(), i);
+        }
+
+        BigDecimal[] rates = new BigDecimal[size * size];
+        for (int from = 0; from < size; from++) {
+            BigDecimal fromRate = currencies[from].getExchangeRate();
+            for (int to = 0; to < size; to++) {
+                BigDecimal toRate = currencies[to].getExchangeRate();
+                if (toRate.signum() != 0) {
+                    rates[from * size + to] = fromRate.divide(toRate, RATE_SCALE, RoundingMode.HALF_UP);
+                }
+            }
+        }
+
+        return new CrossRateMatrix(Map.copyOf(ordinals), currencies, rates);
+    }
+
+    public int ordinalOf(String code) {
+        if (code == null) {
+            return UNKNOWN;
+        }
+        Integer ordinal = ordinals.get(code);
+        return ordinal == null ? UNKNOWN : ordinal;
+    }
+
+    public Currency currency(int ordinal) {
+        return currencies[ordinal];
+    }
+
+    public BigDecimal rate(int from, int to) {
+        return rates[from * currencies.length + to];
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+}
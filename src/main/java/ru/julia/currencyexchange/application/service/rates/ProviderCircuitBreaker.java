@@ -0,0 +1,51 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+public class ProviderCircuitBreaker {
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean trialInFlight;
+
+    public ProviderCircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    // После истечения openDuration пропускается один пробный запрос (half-open)
+    public synchronized boolean tryAcquire() {
+        if (openedAt == null) {
+            return true;
+        }
+        if (trialInFlight || clock.instant().isBefore(openedAt.plus(openDuration))) {
+            return false;
+        }
+        trialInFlight = true;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        openedAt = null;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (trialInFlight || consecutiveFailures >= failureThreshold) {
+            openedAt = clock.instant();
+        }
+        trialInFlight = false;
+    }
+
+    public synchronized boolean isOpen() {
+        return openedAt != null;
+    }
+}
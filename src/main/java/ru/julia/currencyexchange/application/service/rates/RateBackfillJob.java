@@ -0,0 +1,34 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Состояние фоновой загрузки архива курсов; каждое изменение публикуется новым экземпляром
+public record RateBackfillJob(UUID id, RateBackfillJob.Mode mode, LocalDate from, LocalDate to, Status status,
+                              int loaded, String error, Instant createdAt, Instant finishedAt) {
+
+    public enum Mode {
+        DAILY,
+        DYNAMIC
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    RateBackfillJob running() {
+        return new RateBackfillJob(id, mode, from, to, Status.RUNNING, 0, null, createdAt, null);
+    }
+
+    RateBackfillJob completed(int loaded, Instant finishedAt) {
+        return new RateBackfillJob(id, mode, from, to, Status.COMPLETED, loaded, null, createdAt, finishedAt);
+    }
+
+    RateBackfillJob failed(String error, Instant finishedAt) {
+        return new RateBackfillJob(id, mode, from, to, Status.FAILED, 0, error, createdAt, finishedAt);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ru.julia.currencyexchange.infrastructure.configuration.RatesConfig;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Загрузка архива курсов вне потока запроса: задания выполняются по одному, результат запрашивается по id
+@Service
+public class RateBackfillService {
+    private static final Logger logger = LoggerFactory.getLogger(RateBackfillService.class);
+    private static final int MAX_TRACKED_JOBS = 50;
+
+    private final CbrRateHistoryLoader rateHistoryLoader;
+    private final Duration timeout;
+    private final Executor executor;
+    private final Clock clock;
+    // Последние задания по порядку создания; самые старые вытесняются
+    private final Map<UUID, RateBackfillJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, RateBackfillJob> eldest) {
+            return size() > MAX_TRACKED_JOBS;
+        }
+    };
+
+    @Autowired
+    public RateBackfillService(CbrRateHistoryLoader rateHistoryLoader, RatesConfig ratesConfig) {
+        this(rateHistoryLoader, ratesConfig.history().backfillTimeout(),
+                Executors.newSingleThreadExecutor(Thread.ofPlatform().name("rate-backfill").daemon().factory()),
+                Clock.systemUTC());
+    }
+
+    RateBackfillService(CbrRateHistoryLoader rateHistoryLoader, Duration timeout, Executor executor, Clock clock) {
+        this.rateHistoryLoader = rateHistoryLoader;
+        this.timeout = timeout;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    public RateBackfillJob start(RateBackfillJob.Mode mode, LocalDate from, LocalDate to) {
+        RateBackfillJob job = new RateBackfillJob(UUID.randomUUID(), mode, from, to,
+                RateBackfillJob.Status.QUEUED, 0, null, clock.instant(), null);
+        update(job);
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    public Optional<RateBackfillJob> find(UUID id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+    }
+
+    private void run(RateBackfillJob job) {
+        update(job.running());
+        // Отсчет времени начинается с запуска, а не с постановки в очередь
+        Instant deadline = clock.instant().plus(timeout);
+        try {
+            int loaded = job.mode() == RateBackfillJob.Mode.DAILY
+                    ? rateHistoryLoader.loadDaily(job.from(), job.to(), deadline)
+                    : rateHistoryLoader.loadDynamic(job.from(), job.to(), deadline);
+            update(job.completed(loaded, clock.instant()));
+        } catch (RuntimeException e) {
+            logger.warn("Rate backfill {} for {}..{} failed", job.id(), job.from(), job.to(), e);
+            update(job.failed(e.getMessage(), clock.instant()));
+        }
+    }
+
+    private void update(RateBackfillJob job) {
+        synchronized (jobs) {
+            jobs.put(job.id(), job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+}
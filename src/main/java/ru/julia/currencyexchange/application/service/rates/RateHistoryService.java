@@ -0,0 +1,189 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.julia.currencyexchange.application.exceptions.CurrencyNotFoundException;
+import ru.julia.currencyexchange.domain.model.Currency;
+import ru.julia.currencyexchange.infrastructure.configuration.RatesConfig;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Архив курсов валют к рублю по датам. Строка (валюта, дата) означает курс, действующий с этой даты
+ * до следующей строки той же валюты, поэтому при обновлении записываются только изменившиеся курсы.
+ * Снимки курсов на недавние даты держатся в памяти, чтобы конвертации на дату не обращались к базе каждый раз.
+ */
+@Service
+public class RateHistoryService {
+    // Снимок версии 0: курсы на дату из архива, а не текущий снимок RateSnapshotService
+    public static final long HISTORICAL_VERSION = 0;
+
+    private static final String UPSERT_SQL = "INSERT INTO currency_rate_history (currency_code, rate_date, exchange_rate) " +
+            "VALUES (?, ?, ?) ON CONFLICT (currency_code, rate_date) DO UPDATE SET exchange_rate = EXCLUDED.exchange_rate";
+    // По одному поиску в индексе первичного ключа на валюту вместо чтения всей истории
+    private static final String SNAPSHOT_SQL = "SELECT c.code, c.name, h.exchange_rate FROM currencies c " +
+            "CROSS JOIN LATERAL (SELECT exchange_rate FROM currency_rate_history " +
+            "WHERE currency_code = c.code AND rate_date <= ? ORDER BY rate_date DESC LIMIT 1) h";
+    private static final String SERIES_SQL = "(SELECT rate_date, exchange_rate FROM currency_rate_history " +
+            "WHERE currency_code = ? AND rate_date <= ? ORDER BY rate_date DESC LIMIT 1) " +
+            "UNION ALL (SELECT rate_date, exchange_rate FROM currency_rate_history " +
+            "WHERE currency_code = ? AND rate_date > ? AND rate_date <= ?) ORDER BY 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int cacheDays;
+    private final Clock clock;
+    private final Map<LocalDate, RateSnapshot> snapshots = new ConcurrentHashMap<>();
+    // Меняется при каждой записи в архив, чтобы загрузка, начатая до записи, не попала в кэш
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public RateHistoryService(JdbcTemplate jdbcTemplate, RatesConfig ratesConfig) {
+        this(jdbcTemplate, ratesConfig.history().cacheDays(), Clock.systemDefaultZone());
+    }
+
+    RateHistoryService(JdbcTemplate jdbcTemplate, int cacheDays, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheDays = cacheDays;
+        this.clock = clock;
+    }
+
+    public void record(LocalDate date, Map<String, BigDecimal> rates) {
+        if (rates.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(rates.size());
+        rates.forEach((code, rate) -> rows.add(new Object[]{code, Date.valueOf(date), rate}));
+        upsert(rows, date);
+    }
+
+    public void recordSeries(String code, List<RatePoint> points) {
+        if (points.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(points.size());
+        LocalDate earliest = points.getFirst().date();
+        for (RatePoint point : points) {
+            rows.add(new Object[]{code, Date.valueOf(point.date()), point.rate()});
+            if (point.date().isBefore(earliest)) {
+                earliest = point.date();
+            }
+        }
+        upsert(rows, earliest);
+    }
+
+    public RateSnapshot snapshotAt(LocalDate date) {
+        if (!isCacheable(date)) {
+            return loadSnapshot(date);
+        }
+
+        RateSnapshot cached = snapshots.get(date);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        RateSnapshot snapshot = loadSnapshot(date);
+        if (generation.get() == loadGeneration) {
+            LocalDate oldestCached = today().minusDays(cacheDays);
+            snapshots.keySet().removeIf(cachedDate -> cachedDate.isBefore(oldestCached));
+            snapshots.put(date, snapshot);
+        }
+        return snapshot;
+    }
+
+    // Курс from/to на дату по тем же правилам, что и текущая конвертация
+    public BigDecimal rateAt(String from, String to, LocalDate date) {
+        CrossRateMatrix crossRates = snapshotAt(date).crossRates();
+        int fromOrdinal = crossRates.ordinalOf(from);
+        int toOrdinal = crossRates.ordinalOf(to);
+        if (fromOrdinal == CrossRateMatrix.UNKNOWN) {
+            throw new CurrencyNotFoundException("Currency " + from + " has no rate on " + date);
+        }
+        if (toOrdinal == CrossRateMatrix.UNKNOWN) {
+            throw new CurrencyNotFoundException("Currency " + to + " has no rate on " + date);
+        }
+
+        BigDecimal rate = crossRates.rate(fromOrdinal, toOrdinal);
+        if (rate == null) {
+            throw new ArithmeticException("Exchange rate for currency " + to + " is zero, cannot divide");
+        }
+        return rate;
+    }
+
+    // Точки графика за [from, to]; первая точка — курс, действовавший на начало периода
+    public List<RatePoint> series(String code, LocalDate from, LocalDate to) {
+        List<RatePoint> points = jdbcTemplate.query(SERIES_SQL,
+                (rs, rowNum) -> new RatePoint(rs.getDate(1).toLocalDate(), rs.getBigDecimal(2)),
+                code, Date.valueOf(from), code, Date.valueOf(from), Date.valueOf(to));
+
+        if (!points.isEmpty() && points.getFirst().date().isBefore(from)) {
+            List<RatePoint> clamped = new ArrayList<>(points);
+            clamped.set(0, new RatePoint(from, points.getFirst().rate()));
+            return clamped;
+        }
+        return points;
+    }
+
+    public void clearCache() {
+        invalidateFrom(LocalDate.MIN);
+    }
+
+    public int cachedSnapshots() {
+        return snapshots.size();
+    }
+
+    private void upsert(List<Object[]> rows, LocalDate earliest) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+
+        // Запись задним числом меняет курсы на все последующие даты до следующего изменения
+        invalidateFrom(earliest);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateFrom(earliest);
+                }
+            });
+        }
+    }
+
+    private void invalidateFrom(LocalDate date) {
+        generation.incrementAndGet();
+        snapshots.keySet().removeIf(cachedDate -> !cachedDate.isBefore(date));
+    }
+
+    private RateSnapshot loadSnapshot(LocalDate date) {
+        List<Currency> currencies = jdbcTemplate.query(SNAPSHOT_SQL,
+                (rs, rowNum) -> new Currency(rs.getString(1), rs.getString(2), rs.getBigDecimal(3)),
+                Date.valueOf(date));
+        return RateSnapshot.of(HISTORICAL_VERSION, currencies, date.atStartOfDay(zone()).toInstant());
+    }
+
+    // Кэшируются только недавние прошедшие дни: курсы на будущие даты еще могут появиться
+    private boolean isCacheable(LocalDate date) {
+        LocalDate today = today();
+        return !date.isAfter(today) && !date.isBefore(today.minusDays(cacheDays));
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private ZoneId zone() {
+        return clock.getZone();
+    }
+}
@@ -0,0 +1,8 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Курс одной валюты к рублю за единицу валюты на дату
+public record RatePoint(LocalDate date, BigDecimal rate) {
+}
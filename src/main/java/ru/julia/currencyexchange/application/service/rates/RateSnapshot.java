@@ -0,0 +1,64 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import ru.julia.currencyexchange.domain.model.Currency;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public record RateSnapshot(long version, Map<String, Currency> currencies, Instant loadedAt,
+                           CrossRateMatrix crossRates) {
+    public static final RateSnapshot EMPTY = new RateSnapshot(0, Map.of(), Instant.EPOCH);
+
+    public RateSnapshot {
+        currencies = Map.copyOf(currencies);
+        Objects.requireNonNull(crossRates);
+    }
+
+    public RateSnapshot(long version, Map<String, Currency> currencies, Instant loadedAt) {
+        this(version, currencies, loadedAt, CrossRateMatrix.build(currencies.values()));
+    }
+
+    public static RateSnapshot of(long version, List<Currency> currencies, Instant loadedAt) {
+        Map<String, Currency> byCode = new LinkedHashMap<>();
+        for (Currency currency : currencies) {
+            byCode.put(currency.getCode(), currency);
+        }
+        return new RateSnapshot(version, byCode, loadedAt);
+    }
+
+    public RateSnapshot withLoadedAt(Instant instant) {
+        return new RateSnapshot(version, currencies, instant, crossRates);
+    }
+
+    public boolean hasSameRates(List<Currency> other) {
+        if (other.size() != currencies.size()) {
+            return false;
+        }
+        for (Currency currency : other) {
+            Currency known = currencies.get(currency.getCode());
+            if (known == null
+                    || !Objects.equals(known.getId(), currency.getId())
+                    || known.getExchangeRate().compareTo(currency.getExchangeRate()) != 0
+                    || !Objects.equals(known.getName(), currency.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Currency find(String code) {
+        return code == null ? null : currencies.get(code);
+    }
+
+    public boolean isEmpty() {
+        return currencies.isEmpty();
+    }
+
+    public boolean isOlderThan(Duration maxAge, Instant now) {
+        return loadedAt.plus(maxAge).isBefore(now);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.domain.model.Currency;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public class RateSnapshotHolder {
+    private final AtomicReference<RateSnapshot> current = new AtomicReference<>(RateSnapshot.EMPTY);
+    private final Clock clock;
+
+    public RateSnapshotHolder() {
+        this(Clock.systemUTC());
+    }
+
+    RateSnapshotHolder(Clock clock) {
+        this.clock = clock;
+    }
+
+    public RateSnapshot current() {
+        return current.get();
+    }
+
+    public RateSnapshot publish(List<Currency> currencies) {
+        return publish(currencies, clock.instant());
+    }
+
+    // loadedAt — момент, на который курсы были актуальны; от него считается устаревание снимка
+    public RateSnapshot publish(List<Currency> currencies, Instant loadedAt) {
+        return current.updateAndGet(previous -> previous.hasSameRates(currencies)
+                ? previous.withLoadedAt(loadedAt)
+                : RateSnapshot.of(previous.version() + 1, currencies, loadedAt));
+    }
+}
@@ -0,0 +1,150 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateFetchException;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateSaveException;
+import ru.julia.currencyexchange.application.service.CurrencyService;
+import ru.julia.currencyexchange.domain.model.Currency;
+import ru.julia.currencyexchange.infrastructure.configuration.RatesConfig;
+import ru.julia.currencyexchange.infrastructure.repository.jpa.CurrencyRepository;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class RateSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(RateSnapshotService.class);
+
+    private final CurrencyService currencyService;
+    private final CurrencyRepository currencyRepository;
+    private final RatesFeedLog feedLog;
+    private final RateSnapshotHolder snapshotHolder;
+    private final RatesConfig ratesConfig;
+    private final Clock clock;
+    private final Counter coalescedRefreshes;
+    // Обновление, выполняемое прямо сейчас; параллельные вызовы ждут его результата
+    private final AtomicReference<CompletableFuture<List<Currency>>> inFlightRefresh = new AtomicReference<>();
+
+    public RateSnapshotService(CurrencyService currencyService,
+                               CurrencyRepository currencyRepository,
+                               RatesFeedLog feedLog,
+                               RateSnapshotHolder snapshotHolder,
+                               RatesConfig ratesConfig,
+                               MeterRegistry meterRegistry) {
+        this.currencyService = currencyService;
+        this.currencyRepository = currencyRepository;
+        this.feedLog = feedLog;
+        this.snapshotHolder = snapshotHolder;
+        this.ratesConfig = ratesConfig;
+        this.clock = Clock.systemUTC();
+        this.coalescedRefreshes = Counter.builder("currency.rates.refresh.coalesced")
+                .description("Rate refresh calls that joined an already running refresh")
+                .register(meterRegistry);
+    }
+
+    public RateSnapshot getSnapshot() {
+        RateSnapshot snapshot = snapshotHolder.current();
+
+        if (!snapshot.isEmpty() && snapshot.isOlderThan(ratesConfig.maxStaleness(), clock.instant())) {
+            if (ratesConfig.stalenessPolicy() == RatesConfig.StalenessPolicy.REJECT) {
+                throw new CurrencyRateFetchException("Курсы валют устарели: последнее обновление " + snapshot.loadedAt());
+            }
+            logger.warn("Serving stale exchange rates, version {} loaded at {}", snapshot.version(), snapshot.loadedAt());
+        }
+
+        return snapshot;
+    }
+
+    public List<Currency> refresh() {
+        CompletableFuture<List<Currency>> ownFuture = new CompletableFuture<>();
+        CompletableFuture<List<Currency>> running = inFlightRefresh.compareAndExchange(null, ownFuture);
+
+        if (running != null) {
+            coalescedRefreshes.increment();
+            return awaitRefresh(running);
+        }
+
+        try {
+            List<Currency> currencies = doRefresh();
+            ownFuture.complete(currencies);
+            return currencies;
+        } catch (Throwable e) {
+            // Включая Error: иначе присоединившиеся вызовы навсегда останутся ждать результата
+            ownFuture.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRefresh.set(null);
+        }
+    }
+
+    private List<Currency> awaitRefresh(CompletableFuture<List<Currency>> running) {
+        try {
+            return new ArrayList<>(running.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private List<Currency> doRefresh() {
+        List<Currency> currencies;
+        try {
+            currencies = currencyService.updateExchangeRates();
+        } catch (CurrencyRateSaveException e) {
+            RateSnapshot snapshot = snapshotHolder.current();
+            if (!(e.getCause() instanceof CurrencyRateFetchException) || snapshot.isEmpty()) {
+                throw e;
+            }
+            // Поставщик курсов недоступен: продолжаем работать на последнем успешном снимке
+            logger.warn("Rate provider is degraded, serving snapshot version {}: {}",
+                    snapshot.version(), e.getCause().getMessage());
+            return new ArrayList<>(snapshot.currencies().values());
+        }
+        snapshotHolder.publish(currencies);
+        return currencies;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        // Время снимка из БД — последняя успешная загрузка курсов, а не момент запуска: иначе после перезапуска
+        // давно не обновлявшиеся курсы считались бы свежими именно тогда, когда ЦБ РФ недоступен.
+        // Время изменения курсов не подходит: после выходных без новых курсов оно отстает на несколько дней
+        List<Currency> persisted = currencyRepository.findAll();
+        snapshotHolder.publish(persisted, feedLog.lastFetch().orElseGet(clock::instant));
+
+        if (ratesConfig.refreshEnabled()) {
+            scheduledRefresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rates.refresh-interval:PT1H}", initialDelayString = "${rates.refresh-interval:PT1H}")
+    public void scheduledRefresh() {
+        if (!ratesConfig.refreshEnabled()) {
+            return;
+        }
+
+        try {
+            refresh();
+            logger.info("Exchange rates refreshed, snapshot version {}", snapshotHolder.current().version());
+        } catch (Exception e) {
+            logger.error("Scheduled exchange rate refresh failed, keeping snapshot version {}: {}",
+                    snapshotHolder.current().version(), e.getMessage());
+        }
+    }
+}
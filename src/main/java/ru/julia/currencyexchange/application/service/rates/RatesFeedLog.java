@@ -0,0 +1,35 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Момент последней успешной загрузки курсов ЦБ РФ. В отличие от currencies.last_updated, он сдвигается
+ * и когда курсы не изменились (выходные, праздники), поэтому по нему после перезапуска судят об устаревании снимка.
+ */
+@Component
+public class RatesFeedLog {
+    private static final String UPSERT_SQL = "INSERT INTO currency_rates_feed (id, fetched_at) VALUES (1, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET fetched_at = EXCLUDED.fetched_at";
+    private static final String SELECT_SQL = "SELECT fetched_at FROM currency_rates_feed WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RatesFeedLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void recordFetch(Instant fetchedAt) {
+        jdbcTemplate.update(UPSERT_SQL, Timestamp.from(fetchedAt));
+    }
+
+    public Optional<Instant> lastFetch() {
+        List<Timestamp> fetched = jdbcTemplate.queryForList(SELECT_SQL, Timestamp.class);
+        return fetched.stream().findFirst().map(Timestamp::toInstant);
+    }
+}
@@ -2,7 +2,10 @@ package ru.julia.currencyexchange.application.util;
 
 import ru.julia.currencyexchange.application.dto.currency.CurrencyConversionResponse;
 import ru.julia.currencyexchange.application.dto.currency.CurrencyResponse;
+import ru.julia.currencyexchange.application.dto.currency.RateBackfillJobResponse;
 import ru.julia.currencyexchange.application.dto.user.UserResponse;
+import ru.julia.currencyexchange.application.service.rates.RateBackfillJob;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 import ru.julia.currencyexchange.domain.model.User;
@@ -33,6 +36,19 @@ public class DtoMapper {
         );
     }
 
+    public static CurrencyConversionResponse mapToCurrencyConversionResponse(ConversionHistoryItem conversion) {
+        return new CurrencyConversionResponse(
+                conversion.id(),
+                conversion.userId(),
+                conversion.sourceCurrencyCode(),
+                conversion.targetCurrencyCode(),
+                conversion.amount(),
+                conversion.convertedAmount(),
+                conversion.conversionRate(),
+                conversion.timestamp()
+        );
+    }
+
     public static UserResponse mapToUserResponse(User user) {
         return new UserResponse(
                 user.getId(),
@@ -47,4 +63,18 @@ public class DtoMapper {
                 user.getCreatedAt()
         );
     }
-} 
\ No newline at end of file
+
+    public static RateBackfillJobResponse mapToRateBackfillJobResponse(RateBackfillJob job) {
+        return new RateBackfillJobResponse(
+                job.id(),
+                job.mode().name(),
+                job.from(),
+                job.to(),
+                job.status().name(),
+                job.loaded(),
+                job.error(),
+                job.createdAt(),
+                job.finishedAt()
+        );
+    }
+}
@@ -1,7 +1,12 @@
 package ru.julia.currencyexchange.application.util;
 
+import ru.julia.currencyexchange.application.exceptions.InvalidDateFormatException;
 import ru.julia.currencyexchange.application.exceptions.InvalidParameterException;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
 public class ValidationUtil {
     
     public static void validateNotEmpty(String value, String parameterName) {
@@ -28,6 +33,15 @@ public class ValidationUtil {
         validateNotEmpty(timestamp, "Дата");
     }
     
+    public static LocalDate parseDate(String value, String parameterName) {
+        validateNotEmpty(value, parameterName);
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidDateFormatException("Invalid date format: " + value);
+        }
+    }
+    
     public static void validateChatId(Long chatId) {
         if (chatId == null || chatId <= 0) {
             throw new InvalidParameterException("Некорректный chatId");
@@ -39,4 +53,21 @@ public class ValidationUtil {
             throw new InvalidParameterException("Некорректный username");
         }
     }
-} 
\ No newline at end of file
+    
+    public static void validatePageLimit(int limit, int maxLimit) {
+        if (limit <= 0 || limit > maxLimit) {
+            throw new InvalidParameterException("Размер страницы должен быть от 1 до " + maxLimit);
+        }
+    }
+    
+    public static void validateDateRange(LocalDate from, LocalDate to, int maxDays) {
+        validateNotNull(from, "Начальная дата");
+        validateNotNull(to, "Конечная дата");
+        if (from.isAfter(to)) {
+            throw new InvalidParameterException("Начальная дата не может быть позже конечной");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new InvalidParameterException("Период не может быть длиннее " + maxDays + " дней");
+        }
+    }
+}
@@ -5,23 +5,44 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.julia.currencyexchange.application.dto.common.ApiResponseDto;
 import ru.julia.currencyexchange.application.dto.currency.ConvertRequest;
 import ru.julia.currencyexchange.application.dto.currency.CurrencyConversionResponse;
 import ru.julia.currencyexchange.application.dto.currency.CurrencyHistoryRequest;
 import ru.julia.currencyexchange.application.dto.currency.CurrencyResponse;
+import ru.julia.currencyexchange.application.dto.currency.HistoricalConversionResponse;
+import ru.julia.currencyexchange.application.dto.currency.RateBackfillJobResponse;
+import ru.julia.currencyexchange.application.dto.currency.RateHistoryPointResponse;
+import ru.julia.currencyexchange.application.exceptions.InvalidParameterException;
+import ru.julia.currencyexchange.application.exceptions.RateBackfillJobNotFoundException;
+import ru.julia.currencyexchange.application.service.ConversionExportService;
 import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
+import ru.julia.currencyexchange.application.service.rates.RateBackfillJob;
+import ru.julia.currencyexchange.application.service.rates.RateBackfillService;
+import ru.julia.currencyexchange.application.service.rates.RateHistoryService;
 import ru.julia.currencyexchange.application.util.DtoMapper;
 import ru.julia.currencyexchange.application.util.ValidationUtil;
+import ru.julia.currencyexchange.domain.enums.ExportFormat;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RestController
@@ -29,12 +50,28 @@ import java.util.stream.Collectors;
 @Validated
 @Tag(name = "Currency Controller", description = "API для работы с валютными операциями")
 public class CurrencyController {
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final int DEFAULT_HISTORY_LIMIT = 50;
+    private static final int MAX_HISTORY_LIMIT = 500;
+    private static final int MAX_HISTORY_PERIOD_DAYS = 366;
+    private static final int MAX_RATE_SERIES_DAYS = 3660;
+    private static final int MAX_DAILY_BACKFILL_DAYS = 366;
+
     private final CurrencyExchangeService converterService;
     private final UserService userService;
-
-    public CurrencyController(CurrencyExchangeService converterService, UserService userService) {
+    private final ConversionExportService conversionExportService;
+    private final RateHistoryService rateHistoryService;
+    private final RateBackfillService rateBackfillService;
+
+    public CurrencyController(CurrencyExchangeService converterService, UserService userService,
+                              ConversionExportService conversionExportService,
+                              RateHistoryService rateHistoryService,
+                              RateBackfillService rateBackfillService) {
         this.converterService = converterService;
         this.userService = userService;
+        this.conversionExportService = conversionExportService;
+        this.rateHistoryService = rateHistoryService;
+        this.rateBackfillService = rateBackfillService;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -91,50 +128,110 @@ public class CurrencyController {
 
     @PreAuthorize("hasRole('USER')")
     @GetMapping("/history")
-    @Operation(summary = "История конвертаций пользователя", description = "Получает историю всех конвертаций для указанного пользователя")
+    @Operation(summary = "История конвертаций пользователя",
+            description = "Получает страницу истории конвертаций от новых к старым. Следующая страница запрашивается " +
+                    "по timestamp и id последней полученной записи; общее число записей возвращается в заголовке " +
+                    TOTAL_COUNT_HEADER)
     @ApiResponse(responseCode = "200", description = "История конвертаций получена")
     public ResponseEntity<ApiResponseDto<List<CurrencyConversionResponse>>> getUserHistory(
             @Parameter(description = "Chat ID пользователя Telegram", example = "123456789")
             @RequestParam Long chatId,
             @Parameter(description = "Username пользователя Telegram", example = "telegram_user")
-            @RequestParam String username) {
+            @RequestParam String username,
+            @Parameter(description = "Размер страницы", example = "50")
+            @RequestParam(defaultValue = "" + DEFAULT_HISTORY_LIMIT) int limit,
+            @Parameter(description = "Время последней полученной конвертации", example = "2024-01-01T12:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+            @Parameter(description = "ID последней полученной конвертации", example = "550e8400-e29b-41d4-a716-446655440000")
+            @RequestParam(required = false) String beforeId) {
         ValidationUtil.validateChatId(chatId);
         ValidationUtil.validateUsername(username);
+        ValidationUtil.validatePageLimit(limit, MAX_HISTORY_LIMIT);
 
         userService.updateUsernameIfChanged(chatId, username);
         String userId = userService.getUserIdByChatId(chatId);
 
-        List<CurrencyConversion> conversions = converterService.getUserHistory(userId);
+        long totalCount = converterService.countUserHistory(userId);
+        List<ConversionHistoryItem> conversions = converterService.getUserHistoryBefore(userId, beforeTimestamp, beforeId, limit);
 
         List<CurrencyConversionResponse> responses = conversions.stream()
                 .map(DtoMapper::mapToCurrencyConversionResponse)
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(ApiResponseDto.success("История конвертаций получена", responses));
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(totalCount))
+                .body(ApiResponseDto.success("История конвертаций получена", responses));
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/history/export")
+    @Operation(summary = "Выгрузка истории конвертаций",
+            description = "Отдает всю историю конвертаций пользователя файлом CSV или NDJSON, читая строки из базы потоком")
+    @ApiResponse(responseCode = "200", description = "Файл истории конвертаций")
+    public ResponseEntity<StreamingResponseBody> exportUserHistory(
+            @Parameter(description = "Chat ID пользователя Telegram", example = "123456789")
+            @RequestParam Long chatId,
+            @Parameter(description = "Username пользователя Telegram", example = "telegram_user")
+            @RequestParam String username,
+            @Parameter(description = "Формат файла: csv или ndjson", example = "csv")
+            @RequestParam(defaultValue = "csv") String format) {
+        ValidationUtil.validateChatId(chatId);
+        ValidationUtil.validateUsername(username);
+        ExportFormat exportFormat = ExportFormat.fromName(format)
+                .orElseThrow(() -> new InvalidParameterException("Неподдерживаемый формат выгрузки: " + format));
+
+        userService.updateUsernameIfChanged(chatId, username);
+        String userId = userService.getUserIdByChatId(chatId);
+
+        StreamingResponseBody body = output -> conversionExportService.exportHistory(userId, exportFormat, output);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("conversions." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
     }
 
     @PreAuthorize("hasRole('USER')")
     @PostMapping("/history/find")
-    @Operation(summary = "Поиск конвертаций по дате", description = "Находит конвертаций по дате для пользователя")
+    @Operation(summary = "Поиск конвертаций по дате",
+            description = "Находит конвертации пользователя за дату или за период from–to не длиннее " +
+                    MAX_HISTORY_PERIOD_DAYS + " дней. Результаты за период отдаются страницами от новых к старым; " +
+                    "следующая страница запрашивается по timestamp и id последней полученной записи")
     @ApiResponse(responseCode = "200", description = "Конвертации найдены")
     public ResponseEntity<ApiResponseDto<List<CurrencyConversionResponse>>> findByCurrencyDate(
             @Parameter(description = "Chat ID пользователя Telegram", example = "123456789")
             @RequestParam Long chatId,
             @Parameter(description = "Username пользователя Telegram", example = "telegram_user")
             @RequestParam String username,
+            @Parameter(description = "Размер страницы при поиске за период", example = "50")
+            @RequestParam(defaultValue = "" + DEFAULT_HISTORY_LIMIT) int limit,
+            @Parameter(description = "Время последней полученной конвертации", example = "2024-01-01T12:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+            @Parameter(description = "ID последней полученной конвертации", example = "550e8400-e29b-41d4-a716-446655440000")
+            @RequestParam(required = false) String beforeId,
             @Valid @RequestBody CurrencyHistoryRequest request) {
         ValidationUtil.validateChatId(chatId);
         ValidationUtil.validateUsername(username);
 
         userService.updateUsernameIfChanged(chatId, username);
 
-        ValidationUtil.validateTimestamp(request.getTimestamp());
-        String userId = userService.getUserIdByChatId(chatId);
-
-        List<CurrencyConversion> conversions = converterService.findByCurrencyDate(
-                userId,
-                request.getTimestamp()
-        );
+        String userId;
+        List<ConversionHistoryItem> conversions;
+        if (request.getTimestamp() != null) {
+            ValidationUtil.validateTimestamp(request.getTimestamp());
+            userId = userService.getUserIdByChatId(chatId);
+            conversions = converterService.findByCurrencyDate(userId, request.getTimestamp());
+        } else {
+            LocalDate from = ValidationUtil.parseDate(request.getFrom(), "Начальная дата");
+            LocalDate to = ValidationUtil.parseDate(request.getTo(), "Конечная дата");
+            ValidationUtil.validateDateRange(from, to, MAX_HISTORY_PERIOD_DAYS);
+            ValidationUtil.validatePageLimit(limit, MAX_HISTORY_LIMIT);
+            userId = userService.getUserIdByChatId(chatId);
+            conversions = converterService.findByPeriodBefore(userId, from, to, beforeTimestamp, beforeId, limit);
+        }
 
         List<CurrencyConversionResponse> responses = conversions.stream()
                 .map(DtoMapper::mapToCurrencyConversionResponse)
@@ -179,4 +276,98 @@ public class CurrencyController {
 
         return ResponseEntity.ok(ApiResponseDto.success("Курс валюты к рублю получен", response));
     }
+
+    @PreAuthorize("permitAll()")
+    @GetMapping("/rates/history")
+    @Operation(summary = "Динамика курса валюты", description = "Возвращает курсы валюты к рублю из архива за период")
+    @ApiResponse(responseCode = "200", description = "Динамика курса получена")
+    public ResponseEntity<ApiResponseDto<List<RateHistoryPointResponse>>> getRateHistory(
+            @Parameter(description = "Код валюты", example = "USD")
+            @RequestParam String currencyCode,
+            @Parameter(description = "Начало периода", example = "2024-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Конец периода", example = "2024-12-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ValidationUtil.validateCurrencyCode(currencyCode);
+        ValidationUtil.validateDateRange(from, to, MAX_RATE_SERIES_DAYS);
+
+        List<RateHistoryPointResponse> points = rateHistoryService.series(currencyCode.toUpperCase(), from, to).stream()
+                .map(point -> new RateHistoryPointResponse(point.date(), point.rate()))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(ApiResponseDto.success("Динамика курса получена", points));
+    }
+
+    @PreAuthorize("permitAll()")
+    @GetMapping("/rates/convert-at")
+    @Operation(summary = "Конвертация по курсам на дату",
+            description = "Считает сумму по архивным курсам на указанную дату без комиссии и без записи в историю")
+    @ApiResponse(responseCode = "200", description = "Конвертация на дату рассчитана")
+    public ResponseEntity<ApiResponseDto<HistoricalConversionResponse>> convertAt(
+            @Parameter(description = "Исходная валюта", example = "USD")
+            @RequestParam String fromCurrency,
+            @Parameter(description = "Целевая валюта", example = "EUR")
+            @RequestParam String toCurrency,
+            @Parameter(description = "Сумма", example = "100")
+            @RequestParam BigDecimal amount,
+            @Parameter(description = "Дата курсов", example = "2024-01-15")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        ValidationUtil.validateCurrencyCode(fromCurrency);
+        ValidationUtil.validateCurrencyCode(toCurrency);
+        if (amount.signum() <= 0) {
+            throw new InvalidParameterException("Сумма должна быть больше 0");
+        }
+
+        String from = fromCurrency.toUpperCase();
+        String to = toCurrency.toUpperCase();
+        BigDecimal rate = rateHistoryService.rateAt(from, to, date);
+        HistoricalConversionResponse response = new HistoricalConversionResponse(
+                from, to, amount, amount.multiply(rate), rate, date);
+
+        return ResponseEntity.ok(ApiResponseDto.success("Конвертация на дату рассчитана", response));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rates/backfill")
+    @Operation(summary = "Загрузить архив курсов",
+            description = "Запускает фоновую загрузку курсов ЦБ РФ за прошедшие даты: по дням (daily) или динамикой по валютам (dynamic)")
+    @ApiResponse(responseCode = "202", description = "Загрузка архива курсов запущена")
+    public ResponseEntity<ApiResponseDto<RateBackfillJobResponse>> backfillRates(
+            @Parameter(description = "Начало периода", example = "2024-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Конец периода", example = "2024-12-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Способ загрузки: daily или dynamic", example = "dynamic")
+            @RequestParam(defaultValue = "dynamic") String mode) {
+        RateBackfillJob.Mode backfillMode;
+        if ("daily".equalsIgnoreCase(mode)) {
+            ValidationUtil.validateDateRange(from, to, MAX_DAILY_BACKFILL_DAYS);
+            backfillMode = RateBackfillJob.Mode.DAILY;
+        } else if ("dynamic".equalsIgnoreCase(mode)) {
+            ValidationUtil.validateDateRange(from, to, MAX_RATE_SERIES_DAYS);
+            backfillMode = RateBackfillJob.Mode.DYNAMIC;
+        } else {
+            throw new InvalidParameterException("Неподдерживаемый способ загрузки: " + mode);
+        }
+
+        RateBackfillJob job = rateBackfillService.start(backfillMode, from, to);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponseDto.success("Загрузка архива курсов запущена",
+                        DtoMapper.mapToRateBackfillJobResponse(job)));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/rates/backfill/{id}")
+    @Operation(summary = "Состояние загрузки архива курсов", description = "Возвращает состояние задания загрузки архива курсов")
+    @ApiResponse(responseCode = "200", description = "Состояние задания получено")
+    @ApiResponse(responseCode = "404", description = "Задание не найдено")
+    public ResponseEntity<ApiResponseDto<RateBackfillJobResponse>> getBackfillJob(
+            @Parameter(description = "Идентификатор задания")
+            @PathVariable UUID id) {
+        RateBackfillJob job = rateBackfillService.find(id)
+                .orElseThrow(() -> new RateBackfillJobNotFoundException("Задание загрузки архива курсов не найдено: " + id));
+
+        return ResponseEntity.ok(ApiResponseDto.success("Состояние загрузки архива курсов",
+                DtoMapper.mapToRateBackfillJobResponse(job)));
+    }
 }
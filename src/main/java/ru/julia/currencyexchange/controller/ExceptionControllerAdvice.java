@@ -78,6 +78,12 @@ public class ExceptionControllerAdvice {
                 .body(ApiResponseDto.error(ex.getMessage(), 404));
     }
 
+    @ExceptionHandler(RateBackfillJobNotFoundException.class)
+    public ResponseEntity<ApiResponseDto<String>> handleRateBackfillJobNotFound(RateBackfillJobNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponseDto.error(ex.getMessage(), 404));
+    }
+
     @ExceptionHandler(CurrencyRateFetchException.class)
     public ResponseEntity<ApiResponseDto<String>> handleCurrencyRateFetchException(CurrencyRateFetchException ex) {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
@@ -0,0 +1,24 @@
+package ru.julia.currencyexchange.domain.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Строка истории конвертаций только для чтения: коды валют и суммы без загрузки
+ * связанных сущностей пользователя и валют.
+ */
+public record ConversionHistoryItem(String id,
+                                    String userId,
+                                    String sourceCurrencyCode,
+                                    String targetCurrencyCode,
+                                    BigDecimal amount,
+                                    BigDecimal convertedAmount,
+                                    BigDecimal conversionRate,
+                                    LocalDateTime timestamp) {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
+
+    public String formattedTimestamp() {
+        return timestamp.format(FORMATTER);
+    }
+}
@@ -5,6 +5,7 @@ import com.pengrad.telegrambot.model.request.ParseMode;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.abstracts.AbstractCommandHandler;
@@ -31,8 +32,13 @@ public class BanUserCommand extends AbstractCommandHandler {
 
     @Override
     public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
         Long chatId = update.message().chat().id();
-        User user = userService.findUserByChatId(chatId);
+        User user = userContext.user();
         if (!isAccessible(user)) {
             return new SendMessage(chatId, messageConverter.resolve("command.banUser.no_access"));
         }
@@ -6,6 +6,7 @@ import com.pengrad.telegrambot.model.request.ParseMode;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.bot.settings.enums.ConversionState;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.application.service.bot.CurrencyConvertService;
@@ -38,12 +39,17 @@ public class ConvertCommand extends AbstractCommandHandler {
 
     @Override
     public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
         Long chatId = update.message().chat().id();
         String username = update.message().chat().username();
         String text = update.message().text();
 
         try {
-            if (!validateUser(chatId)) {
+            if (!validateUser(userContext)) {
                 return new SendMessage(chatId, messageConverter.resolve("command.convert.error"));
             }
 
@@ -84,6 +90,11 @@ public class ConvertCommand extends AbstractCommandHandler {
         return currencyConvertService.getState(chatId) != ConversionState.NONE;
     }
 
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
     @Override
     public String getCommand() {
         return "/convert";
@@ -139,11 +150,11 @@ public class ConvertCommand extends AbstractCommandHandler {
         }
     }
 
-    private boolean validateUser(Long chatId) {
-        if (!userService.existsByChatId(chatId)) {
+    private boolean validateUser(UserContext userContext) {
+        if (!userContext.exists()) {
             return false;
         }
-        User user = userService.findUserByChatId(chatId);
+        User user = userContext.user();
         return !user.isBanned() && !user.isDeleted() && user.isVerified();
     }
 
@@ -5,6 +5,7 @@ import com.pengrad.telegrambot.model.request.ParseMode;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.application.service.bot.CurrencyToRubService;
 import ru.julia.currencyexchange.domain.model.Currency;
@@ -34,16 +35,21 @@ public class CurrencyToRubCommand extends AbstractCommandHandler {
 
     @Override
     public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
         Long chatId = update.message().chat().id();
         String username = update.message().chat().username();
         String text = update.message().text();
 
         try {
-            if (!userService.existsByChatId(chatId)) {
+            if (!userContext.exists()) {
                 return new SendMessage(chatId, messageConverter.resolve("command.currencyToRub.error"));
             }
 
-            User user = userService.findUserByChatId(chatId);
+            User user = userContext.user();
             if (user.isBanned() || user.isDeleted() || !user.isVerified()) {
                 return new SendMessage(chatId, messageConverter.resolve("command.currencyToRub.error"));
             }
@@ -0,0 +1,142 @@
+package ru.julia.currencyexchange.infrastructure.bot.command;
+
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.model.request.ParseMode;
+import com.pengrad.telegrambot.request.SendDocument;
+import com.pengrad.telegrambot.request.SendMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.application.bot.executor.interfaces.Executor;
+import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
+import ru.julia.currencyexchange.application.service.ConversionExportService;
+import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
+import ru.julia.currencyexchange.application.service.UserService;
+import ru.julia.currencyexchange.domain.enums.ExportFormat;
+import ru.julia.currencyexchange.domain.model.User;
+import ru.julia.currencyexchange.infrastructure.bot.command.abstracts.AbstractCommandHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class ExportCommand extends AbstractCommandHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ExportCommand.class);
+
+    private final CurrencyExchangeService currencyExchangeService;
+    private final ConversionExportService conversionExportService;
+    private final UserService userService;
+    private final Executor executor;
+
+    public ExportCommand(MessageConverter messageConverter,
+                         CurrencyExchangeService currencyExchangeService,
+                         ConversionExportService conversionExportService,
+                         UserService userService,
+                         Executor executor) {
+        super(messageConverter);
+        this.currencyExchangeService = currencyExchangeService;
+        this.conversionExportService = conversionExportService;
+        this.userService = userService;
+        this.executor = executor;
+    }
+
+    @Override
+    public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
+        Long chatId = update.message().chat().id();
+        String username = update.message().chat().username();
+        String text = update.message().text();
+
+        try {
+            if (!userContext.exists()) {
+                return new SendMessage(chatId, messageConverter.resolve("command.export.error"));
+            }
+
+            User user = userContext.user();
+            if (user.isBanned() || user.isDeleted() || !user.isVerified()) {
+                return new SendMessage(chatId, messageConverter.resolve("command.export.error"));
+            }
+
+            userService.updateUsernameIfChanged(chatId, username);
+
+            String[] parts = text.trim().split("\\s+");
+            if (parts.length > 2) {
+                return new SendMessage(chatId, messageConverter.resolve("command.export.usage"));
+            }
+
+            Optional<ExportFormat> format = parts.length == 2 ? ExportFormat.fromName(parts[1]) : Optional.of(ExportFormat.CSV);
+            if (format.isEmpty()) {
+                return new SendMessage(chatId, messageConverter.resolve("command.export.usage"));
+            }
+
+            if (currencyExchangeService.countUserHistory(user.getId()) == 0) {
+                return new SendMessage(chatId, messageConverter.resolve("command.export.no_conversions"));
+            }
+
+            // Выгрузка пишется во временный файл потоком, в память целиком не попадает
+            Path file = Files.createTempFile("conversions-", "." + format.get().getExtension());
+            long rows;
+            try (OutputStream output = Files.newOutputStream(file)) {
+                rows = conversionExportService.exportHistory(user.getId(), format.get(), output);
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(file);
+                throw e;
+            }
+
+            SendDocument document = new SendDocument(chatId, file.toFile())
+                    .fileName("conversions." + format.get().getExtension())
+                    .caption(messageConverter.resolve("command.export.caption",
+                            Map.of("format", format.get().name())));
+            // Уведомление ставится в очередь чата раньше файла, иначе пользователь получит его уже после документа
+            executor.executeAsync(new SendMessage(chatId, messageConverter.resolve("command.export.sending",
+                    Map.of("count", String.valueOf(rows)))).parseMode(ParseMode.Markdown));
+            executor.executeAsync(document).whenComplete((response, error) -> {
+                deleteQuietly(file);
+                if (error != null || response == null || !response.isOk()) {
+                    logger.warn("Failed to send export to chat {}: {}", chatId,
+                            error != null ? error.getMessage() : response == null ? "no response" : response.description());
+                    executor.executeAsync(new SendMessage(chatId, messageConverter.resolve("command.export.error"))
+                            .parseMode(ParseMode.Markdown));
+                }
+            });
+
+            // Ответ уже отправлен выше
+            return null;
+
+        } catch (Exception e) {
+            return new SendMessage(chatId, messageConverter.resolve("command.export.error"));
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete export file {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public String getCommand() {
+        return "/export";
+    }
+
+    @Override
+    public String getDescription() {
+        return "command.export.description";
+    }
+
+    @Override
+    public boolean isAccessible(User user) {
+        return user != null && "USER".equals(getUserRole(user)) && !user.isDeleted() && user.isVerified();
+    }
+}
@@ -5,9 +5,10 @@ import com.pengrad.telegrambot.model.request.ParseMode;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
-import ru.julia.currencyexchange.domain.model.CurrencyConversion;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.abstracts.AbstractCommandHandler;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.HistoryMessageBuilder;
@@ -40,16 +41,21 @@ public class FindByDateCommand extends AbstractCommandHandler {
 
     @Override
     public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
         Long chatId = update.message().chat().id();
         String username = update.message().chat().username();
         String text = update.message().text();
 
         try {
-            if (!userService.existsByChatId(chatId)) {
+            if (!userContext.exists()) {
                 return new SendMessage(chatId, messageConverter.resolve("command.findByDate.error"));
             }
 
-            User user = userService.findUserByChatId(chatId);
+            User user = userContext.user();
             if (user.isBanned() || user.isDeleted() || !user.isVerified()) {
                 return new SendMessage(chatId, messageConverter.resolve("command.findByDate.error"));
             }
@@ -65,19 +71,24 @@ public class FindByDateCommand extends AbstractCommandHandler {
             String dateStr = parts[1];
             LocalDate date = parseDate(dateStr);
 
-            List<CurrencyConversion> conversions = currencyExchangeService.findByCurrencyDate(user.getId(), dateStr);
+            long totalConversions = currencyExchangeService.countByCurrencyDate(user.getId(), dateStr);
 
-            if (conversions.isEmpty()) {
+            if (totalConversions == 0) {
                 return new SendMessage(chatId, messageConverter.resolve("command.findByDate.no_conversions",
                         java.util.Map.of("date", date.format(DateTimeFormatter.ofPattern("dd.MM.yyyy")))));
             }
 
-            boolean useCompactFormat = conversions.size() > 20;
+            boolean useCompactFormat = totalConversions > Constants.COMPACT_FORMAT_THRESHOLD;
             int conversionsPerPage = useCompactFormat ? Constants.COMPACT_CONVERSIONS_PER_PAGE : Constants.DEFAULT_CONVERSIONS_PER_PAGE;
 
-            String messageText = historyMessageBuilder.buildFindByDateMessage(conversions, 0, useCompactFormat, conversionsPerPage, dateStr);
+            List<ConversionHistoryItem> conversions = currencyExchangeService.findByCurrencyDatePage(
+                    user.getId(), dateStr, 0, conversionsPerPage, totalConversions);
+
+            String messageText = historyMessageBuilder.buildFindByDateMessage(
+                    conversions, 0, useCompactFormat, conversionsPerPage, totalConversions, dateStr);
 
-            var keyboard = paginationKeyboardBuilder.buildFindByDatePaginationKeyboard(conversions.size(), 0, conversionsPerPage, dateStr);
+            var keyboard = paginationKeyboardBuilder.buildFindByDatePaginationKeyboard(
+                    (int) totalConversions, 0, conversionsPerPage, dateStr);
 
             SendMessage sendMessage = new SendMessage(chatId, messageText)
                     .parseMode(ParseMode.Markdown);
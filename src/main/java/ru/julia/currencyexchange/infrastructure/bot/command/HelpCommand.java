@@ -4,6 +4,7 @@ import com.pengrad.telegrambot.model.Update;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.abstracts.AbstractCommandHandler;
@@ -19,11 +20,16 @@ public class HelpCommand extends AbstractCommandHandler {
 
     @Override
     public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
         Long chatId = update.message().chat().id();
 
         try {
-            if (userService.existsByChatId(chatId)) {
-                User user = userService.findUserByChatId(chatId);
+            if (userContext.exists()) {
+                User user = userContext.user();
 
                 if (user.isBanned()) {
                     return new SendMessage(chatId, messageConverter.resolve("command.help.banned_message"));
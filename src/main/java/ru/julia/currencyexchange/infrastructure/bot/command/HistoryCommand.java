@@ -5,9 +5,10 @@ import com.pengrad.telegrambot.model.request.ParseMode;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
-import ru.julia.currencyexchange.domain.model.CurrencyConversion;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.abstracts.AbstractCommandHandler;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.HistoryMessageBuilder;
@@ -41,33 +42,43 @@ public class HistoryCommand extends AbstractCommandHandler {
 
     @Override
     public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
         Long chatId = update.message().chat().id();
         String username = update.message().chat().username();
 
         try {
-            if (!userService.existsByChatId(chatId)) {
+            if (!userContext.exists()) {
                 return new SendMessage(chatId, messageConverter.resolve("command.history.error"));
             }
 
-            User user = userService.findUserByChatId(chatId);
+            User user = userContext.user();
             if (user.isBanned() || user.isDeleted() || !user.isVerified()) {
                 return new SendMessage(chatId, messageConverter.resolve("command.history.error"));
             }
 
             userService.updateUsernameIfChanged(chatId, username);
 
-            List<CurrencyConversion> conversions = currencyExchangeService.getUserHistory(user.getId());
+            long totalConversions = currencyExchangeService.countUserHistory(user.getId());
 
-            if (conversions.isEmpty()) {
+            if (totalConversions == 0) {
                 return new SendMessage(chatId, messageConverter.resolve("command.history.no_conversions"));
             }
 
-            boolean useCompactFormat = conversions.size() > 20;
+            boolean useCompactFormat = totalConversions > Constants.COMPACT_FORMAT_THRESHOLD;
             int conversionsPerPage = useCompactFormat ? Constants.COMPACT_CONVERSIONS_PER_PAGE : Constants.DEFAULT_CONVERSIONS_PER_PAGE;
 
-            String messageText = historyMessageBuilder.buildHistoryMessage(conversions, 0, useCompactFormat, conversionsPerPage);
+            List<ConversionHistoryItem> conversions = currencyExchangeService.getUserHistoryPage(
+                    user.getId(), 0, conversionsPerPage, totalConversions);
+
+            String messageText = historyMessageBuilder.buildHistoryMessage(
+                    conversions, 0, useCompactFormat, conversionsPerPage, totalConversions);
 
-            var keyboard = paginationKeyboardBuilder.buildHistoryPaginationKeyboard(conversions.size(), 0, conversionsPerPage);
+            var keyboard = paginationKeyboardBuilder.buildHistoryPaginationKeyboard(
+                    (int) totalConversions, 0, conversionsPerPage);
 
             SendMessage sendMessage = new SendMessage(chatId, messageText)
                     .parseMode(ParseMode.Markdown);
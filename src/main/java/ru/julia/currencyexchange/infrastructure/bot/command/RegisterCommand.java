@@ -127,6 +127,11 @@ public class RegisterCommand extends AbstractCommandHandler {
         return registrationStateService.getState(chatId) != RegistrationState.NONE;
     }
 
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
     @Override
     public String getCommand() {
         return "/register";
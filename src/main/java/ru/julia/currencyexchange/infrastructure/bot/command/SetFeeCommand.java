@@ -5,6 +5,7 @@ import com.pengrad.telegrambot.model.request.ParseMode;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.bot.settings.enums.SetFeeState;
 import ru.julia.currencyexchange.application.service.SettingsService;
 import ru.julia.currencyexchange.application.service.UserService;
@@ -40,10 +41,15 @@ public class SetFeeCommand extends AbstractCommandHandler {
 
     @Override
     public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
         Long chatId = update.message().chat().id();
+        User user = userContext.user();
         String text = update.message().text();
-        User user = userService.findUserByChatId(chatId);
-        
+
         if (!isAccessible(user)) {
             return new SendMessage(chatId, messageConverter.resolve("command.setFee.no_access"));
         }
@@ -80,6 +86,11 @@ public class SetFeeCommand extends AbstractCommandHandler {
         return setFeeStateService.getState(chatId) != SetFeeState.NONE;
     }
 
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
     @Override
     public String getCommand() {
         return "/setFee";
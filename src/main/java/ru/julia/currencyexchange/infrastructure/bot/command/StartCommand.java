@@ -4,6 +4,7 @@ import com.pengrad.telegrambot.model.Update;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.abstracts.AbstractCommandHandler;
@@ -21,12 +22,17 @@ public class StartCommand extends AbstractCommandHandler {
 
     @Override
     public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
         Long chatId = update.message().chat().id();
         String firstName = update.message().chat().firstName();
 
         try {
-            if (userService.existsByChatId(chatId)) {
-                User user = userService.findUserByChatId(chatId);
+            if (userContext.exists()) {
+                User user = userContext.user();
 
                 if (user.isBanned()) {
                     return new SendMessage(chatId, messageConverter.resolve("command.start.banned_message"));
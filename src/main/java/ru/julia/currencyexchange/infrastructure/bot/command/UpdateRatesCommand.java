@@ -5,6 +5,7 @@ import com.pengrad.telegrambot.model.request.ParseMode;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.domain.model.Currency;
@@ -31,17 +32,22 @@ public class UpdateRatesCommand extends AbstractCommandHandler {
 
     @Override
     public SendMessage handle(Update update) {
+        return handle(update, UserContext.lookup(update.message().chat().id(), userService));
+    }
+
+    @Override
+    public SendMessage handle(Update update, UserContext userContext) {
         Long chatId = update.message().chat().id();
         String username = update.message().chat().username();
 
         try {
-            if (!validateUser(chatId)) {
+            if (!validateUser(userContext)) {
                 return new SendMessage(chatId, messageConverter.resolve("command.updateRates.error"));
             }
 
             userService.updateUsernameIfChanged(chatId, username);
 
-            User user = userService.findUserByChatId(chatId);
+            User user = userContext.user();
 
             List<Currency> updatedCurrencies = currencyExchangeService.updateCurrencyRates(user.getId());
 
@@ -57,12 +63,12 @@ public class UpdateRatesCommand extends AbstractCommandHandler {
         }
     }
 
-    private boolean validateUser(Long chatId) {
-        if (!userService.existsByChatId(chatId)) {
+    private boolean validateUser(UserContext userContext) {
+        if (!userContext.exists()) {
             return false;
         }
         
-        User user = userService.findUserByChatId(chatId);
+        User user = userContext.user();
         return user != null && "ADMIN".equals(getUserRole(user)) && !user.isDeleted() && !user.isBanned();
     }
 
@@ -0,0 +1,61 @@
+package ru.julia.currencyexchange.infrastructure.bot.command.builder;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.infrastructure.configuration.Constants;
+
+/**
+ * Готовые страницы /currencies: текст и клавиатура одинаковы для всех пользователей до следующего обновления курсов.
+ * Страницы хранятся в списке валют {@link CurrencyListingCache} по ключу (страница, компактный режим),
+ * поэтому листание страниц сводится к поиску в словаре. Клавиатура страницы общая для всех ответов
+ * и поэтому неизменяема ({@link SharedKeyboardMarkup}).
+ */
+@Component
+public class CurrenciesPageCache {
+    private static final int COMPACT_THRESHOLD = 50;
+
+    private final CurrencyListingCache listingCache;
+    private final CurrencyMessageBuilder currencyMessageBuilder;
+    private final PaginationKeyboardBuilder paginationKeyboardBuilder;
+
+    public CurrenciesPageCache(CurrencyListingCache listingCache,
+                               CurrencyMessageBuilder currencyMessageBuilder,
+                               PaginationKeyboardBuilder paginationKeyboardBuilder) {
+        this.listingCache = listingCache;
+        this.currencyMessageBuilder = currencyMessageBuilder;
+        this.paginationKeyboardBuilder = paginationKeyboardBuilder;
+    }
+
+    // Страница с номером, приведенным к допустимому диапазону; null, если валют нет
+    public CurrenciesPage page(int page) {
+        CurrencyListingCache.CurrencyListing listing = listingCache.current();
+        if (listing.isEmpty()) {
+            return null;
+        }
+
+        boolean compact = listing.currencies().size() > COMPACT_THRESHOLD;
+        int perPage = compact ? Constants.CURRENCIES_PER_PAGE_COMPACT : Constants.CURRENCIES_PER_PAGE;
+        int maxPage = (listing.currencies().size() - 1) / perPage;
+        int clampedPage = Math.max(0, Math.min(page, maxPage));
+        return listing.computeIfAbsent(new PageKey(clampedPage, compact),
+                () -> render(listing, clampedPage, compact, perPage));
+    }
+
+    public int cachedPages() {
+        return listingCache.cachedEntries(PageKey.class);
+    }
+
+    private CurrenciesPage render(CurrencyListingCache.CurrencyListing listing, int page, boolean compact, int perPage) {
+        String text = currencyMessageBuilder.buildCurrenciesMessage(listing.currencies(), page, compact, perPage);
+        InlineKeyboardMarkup keyboard = SharedKeyboardMarkup.freeze(paginationKeyboardBuilder.buildPaginationKeyboard(
+                listing.currencies().size(), page, perPage));
+        return new CurrenciesPage(page, text, keyboard);
+    }
+
+    // keyboard равна null, если все валюты помещаются на одну страницу
+    public record CurrenciesPage(int page, String text, InlineKeyboardMarkup keyboard) {
+    }
+
+    private record PageKey(int page, boolean compact) {
+    }
+}
@@ -0,0 +1,56 @@
+package ru.julia.currencyexchange.infrastructure.bot.command.builder;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import org.springframework.stereotype.Component;
+
+/**
+ * Готовые клавиатуры выбора валют для /convert, общие для всех пользователей.
+ * Клавиатуры хранятся в списке валют {@link CurrencyListingCache} по ключу (выбранная исходная валюта,
+ * популярные или все валюты). Клавиатуры из кэша нельзя менять: одна разметка уходит во многие ответы ({@link SharedKeyboardMarkup}).
+ */
+@Component
+public class CurrencyConvertKeyboardCache {
+    private final CurrencyListingCache listingCache;
+    private final CurrencyConvertKeyboardBuilder keyboardBuilder;
+
+    public CurrencyConvertKeyboardCache(CurrencyListingCache listingCache,
+                                        CurrencyConvertKeyboardBuilder keyboardBuilder) {
+        this.listingCache = listingCache;
+        this.keyboardBuilder = keyboardBuilder;
+    }
+
+    public InlineKeyboardMarkup fromCurrencyKeyboard(boolean popular) {
+        CurrencyListingCache.CurrencyListing listing = listingCache.current();
+        return listing.computeIfAbsent(new KeyboardKey(null, popular), () -> SharedKeyboardMarkup.freeze(buildFrom(listing, popular)));
+    }
+
+    public InlineKeyboardMarkup toCurrencyKeyboard(String fromCurrency, boolean popular) {
+        CurrencyListingCache.CurrencyListing listing = listingCache.current();
+        // Код приходит из callback-данных: неизвестные валюты не кэшируются, чтобы кэш не рос без ограничений
+        if (!listing.codes().contains(fromCurrency)) {
+            return buildTo(listing, fromCurrency, popular);
+        }
+        return listing.computeIfAbsent(new KeyboardKey(fromCurrency, popular),
+                () -> SharedKeyboardMarkup.freeze(buildTo(listing, fromCurrency, popular)));
+    }
+
+    public int cachedKeyboards() {
+        return listingCache.cachedEntries(KeyboardKey.class);
+    }
+
+    private InlineKeyboardMarkup buildFrom(CurrencyListingCache.CurrencyListing listing, boolean popular) {
+        return popular
+                ? keyboardBuilder.buildFromCurrencyKeyboard(listing.popular())
+                : keyboardBuilder.buildAllFromCurrenciesKeyboard(listing.currencies());
+    }
+
+    private InlineKeyboardMarkup buildTo(CurrencyListingCache.CurrencyListing listing, String fromCurrency,
+                                         boolean popular) {
+        return popular
+                ? keyboardBuilder.buildToCurrencyKeyboard(listing.popular(), fromCurrency)
+                : keyboardBuilder.buildAllToCurrenciesKeyboard(listing.currencies(), fromCurrency);
+    }
+
+    private record KeyboardKey(String fromCurrency, boolean popular) {
+    }
+}
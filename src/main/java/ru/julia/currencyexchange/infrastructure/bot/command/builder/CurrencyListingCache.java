@@ -0,0 +1,113 @@
+package ru.julia.currencyexchange.infrastructure.bot.command.builder;
+
+import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
+import ru.julia.currencyexchange.application.service.rates.RateSnapshotHolder;
+import ru.julia.currencyexchange.domain.model.Currency;
+import ru.julia.currencyexchange.infrastructure.configuration.Constants;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Список валют для ответов бота, прочитанный из базы один раз на версию снимка курсов.
+ * Построенные по нему страницы и клавиатуры хранятся в самом списке, поэтому новая версия снимка или сброс
+ * вытесняют их вместе со списком. Пустой список и все, что построено по нему, не кэшируются:
+ * валюты появятся после первого обновления курсов.
+ */
+@Component
+public class CurrencyListingCache {
+    private final CurrencyExchangeService currencyExchangeService;
+    private final RateSnapshotHolder snapshotHolder;
+    private volatile CurrencyListing listing;
+    // Меняется при сбросе кэша, чтобы список, загруженный до сброса, не попал в кэш
+    private final AtomicLong generation = new AtomicLong();
+
+    public CurrencyListingCache(CurrencyExchangeService currencyExchangeService, RateSnapshotHolder snapshotHolder) {
+        this.currencyExchangeService = currencyExchangeService;
+        this.snapshotHolder = snapshotHolder;
+    }
+
+    public CurrencyListing current() {
+        long version = snapshotHolder.current().version();
+        CurrencyListing current = listing;
+        if (current != null && current.version() == version) {
+            return current;
+        }
+
+        long loadGeneration = generation.get();
+        List<Currency> currencies = List.copyOf(currencyExchangeService.getAllCurrencies());
+        CurrencyListing loaded = new CurrencyListing(version, currencies, !currencies.isEmpty());
+        if (loaded.cacheable && generation.get() == loadGeneration) {
+            listing = loaded;
+        }
+        return loaded;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        listing = null;
+    }
+
+    // Сколько значений с ключом данного типа построено по текущему закэшированному списку
+    int cachedEntries(Class<?> keyType) {
+        CurrencyListing current = listing;
+        if (current == null) {
+            return 0;
+        }
+        return (int) current.derived.keySet().stream().filter(keyType::isInstance).count();
+    }
+
+    public static final class CurrencyListing {
+        private final long version;
+        private final List<Currency> currencies;
+        private final List<Currency> popular;
+        private final Set<String> codes;
+        private final boolean cacheable;
+        private final Map<Object, Object> derived = new ConcurrentHashMap<>();
+
+        private CurrencyListing(long version, List<Currency> currencies, boolean cacheable) {
+            this.version = version;
+            this.currencies = currencies;
+            this.popular = currencies.stream()
+                    .filter(currency -> Constants.POPULAR_CURRENCIES.contains(currency.getCode()))
+                    .toList();
+            this.codes = currencies.stream().map(Currency::getCode).collect(Collectors.toUnmodifiableSet());
+            this.cacheable = cacheable;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public List<Currency> currencies() {
+            return currencies;
+        }
+
+        public List<Currency> popular() {
+            return popular;
+        }
+
+        public Set<String> codes() {
+            return codes;
+        }
+
+        public boolean isEmpty() {
+            return currencies.isEmpty();
+        }
+
+        // Значение, построенное по этому списку; ключи разных кэшей должны быть разных типов
+        @SuppressWarnings("unchecked")
+        public <V> V computeIfAbsent(Object key, Supplier<V> factory) {
+            if (!cacheable) {
+                return factory.get();
+            }
+            return (V) derived.computeIfAbsent(key, ignored -> factory.get());
+        }
+    }
+}
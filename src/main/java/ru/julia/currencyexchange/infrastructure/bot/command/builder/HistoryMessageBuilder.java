@@ -2,7 +2,7 @@ package ru.julia.currencyexchange.infrastructure.bot.command.builder;
 
 import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
-import ru.julia.currencyexchange.domain.model.CurrencyConversion;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.infrastructure.bot.command.utils.CurrencyEmojiUtils;
 import ru.julia.currencyexchange.infrastructure.bot.command.utils.CurrencyFormatUtils;
 import ru.julia.currencyexchange.infrastructure.configuration.Constants;
@@ -24,20 +24,24 @@ public class HistoryMessageBuilder {
         this.currencyFormatUtils = currencyFormatUtils;
     }
 
-    public String buildHistoryMessage(List<CurrencyConversion> conversions, int page, boolean useCompactFormat, int conversionsPerPage) {
-        return buildConversionMessage(conversions, page, useCompactFormat, conversionsPerPage, 
+    // conversions — уже выбранная страница, totalConversions — общее число найденных конвертаций
+    public String buildHistoryMessage(List<ConversionHistoryItem> conversions, int page, boolean useCompactFormat,
+                                      int conversionsPerPage, long totalConversions) {
+        return buildConversionMessage(conversions, page, totalConversions, useCompactFormat, conversionsPerPage,
                 "command.history.title", "command.history.subtitle", null, 
                 "command.history.pagination");
     }
 
-    public String buildFindByDateMessage(List<CurrencyConversion> conversions, int page, boolean useCompactFormat, int conversionsPerPage, String dateStr) {
+    public String buildFindByDateMessage(List<ConversionHistoryItem> conversions, int page, boolean useCompactFormat,
+                                         int conversionsPerPage, long totalConversions, String dateStr) {
         String formattedDate = formatDate(dateStr);
-        return buildConversionMessage(conversions, page, useCompactFormat, conversionsPerPage, 
+        return buildConversionMessage(conversions, page, totalConversions, useCompactFormat, conversionsPerPage,
                 "command.findByDate.title", "command.findByDate.subtitle", formattedDate, 
                 "command.findByDate.pagination");
     }
 
-    private String buildConversionMessage(List<CurrencyConversion> conversions, int page, boolean useCompactFormat, int conversionsPerPage,
+    private String buildConversionMessage(List<ConversionHistoryItem> conversions, int page, long totalConversions,
+                                        boolean useCompactFormat, int conversionsPerPage,
                                         String titleKey, String subtitleKey, String dateParam, String paginationKey) {
         StringBuilder message = new StringBuilder();
 
@@ -50,38 +54,27 @@ public class HistoryMessageBuilder {
         }
         message.append(Constants.LINE_SEPARATOR);
 
-        int startIndex = page * conversionsPerPage;
-        int endIndex = Math.min(startIndex + conversionsPerPage, conversions.size());
-        int totalPages = (conversions.size() - 1) / conversionsPerPage + 1;
-
-        for (int i = startIndex; i < endIndex; i++) {
-            CurrencyConversion conversion = conversions.get(i);
-
-            String conversionLine;
-            if (useCompactFormat) {
-                conversionLine = messageConverter.resolve("command.history.conversion_format_compact",
-                        Map.of(
-                                "from_emoji", currencyEmojiUtils.getCurrencyEmoji(conversion.getSourceCurrency().getCode()),
-                                "from_code", conversion.getSourceCurrency().getCode(),
-                                "to_emoji", currencyEmojiUtils.getCurrencyEmoji(conversion.getTargetCurrency().getCode()),
-                                "to_code", conversion.getTargetCurrency().getCode(),
-                                "amount", currencyFormatUtils.formatAmount(conversion.getAmount()),
-                                "result", currencyFormatUtils.formatAmount(conversion.getConvertedAmount()),
-                                "date", conversion.getFormattedTimestamp()
-                        ));
-            } else {
-                conversionLine = messageConverter.resolve("command.history.conversion_format",
-                        Map.of(
-                                "from_emoji", currencyEmojiUtils.getCurrencyEmoji(conversion.getSourceCurrency().getCode()),
-                                "from_code", conversion.getSourceCurrency().getCode(),
-                                "to_emoji", currencyEmojiUtils.getCurrencyEmoji(conversion.getTargetCurrency().getCode()),
-                                "to_code", conversion.getTargetCurrency().getCode(),
-                                "amount", currencyFormatUtils.formatAmount(conversion.getAmount()),
-                                "result", currencyFormatUtils.formatAmount(conversion.getConvertedAmount()),
-                                "date", conversion.getFormattedTimestamp()
-                        ));
-            }
-            message.append(conversionLine).append(Constants.LINE_SEPARATOR);
+        int endIndex = conversions.size();
+        long totalPages = (totalConversions - 1) / conversionsPerPage + 1;
+
+        for (int i = 0; i < endIndex; i++) {
+            ConversionHistoryItem conversion = conversions.get(i);
+
+            String formatKey = useCompactFormat
+                    ? "command.history.conversion_format_compact"
+                    : "command.history.conversion_format";
+            // Строка записи дописывается прямо в сообщение, без отдельной строки на каждую конвертацию
+            messageConverter.resolveTo(message, formatKey,
+                    Map.of(
+                            "from_emoji", currencyEmojiUtils.getCurrencyEmoji(conversion.sourceCurrencyCode()),
+                            "from_code", conversion.sourceCurrencyCode(),
+                            "to_emoji", currencyEmojiUtils.getCurrencyEmoji(conversion.targetCurrencyCode()),
+                            "to_code", conversion.targetCurrencyCode(),
+                            "amount", currencyFormatUtils.formatAmount(conversion.amount()),
+                            "result", currencyFormatUtils.formatAmount(conversion.convertedAmount()),
+                            "date", conversion.formattedTimestamp()
+                    ));
+            message.append(Constants.LINE_SEPARATOR);
 
             if (!useCompactFormat && i < endIndex - 1) {
                 message.append(Constants.LINE_SEPARATOR);
@@ -92,7 +85,7 @@ public class HistoryMessageBuilder {
         message.append(messageConverter.resolve(paginationKey + ".page_info",
                 Map.of("current", String.valueOf(page + 1), "total", String.valueOf(totalPages))));
         message.append(" | ").append(messageConverter.resolve(paginationKey + ".total_conversions",
-                Map.of("count", String.valueOf(conversions.size()))));
+                Map.of("count", String.valueOf(totalConversions))));
 
         if (useCompactFormat) {
             message.append(" | ").append(messageConverter.resolve(paginationKey + ".compact_mode"));
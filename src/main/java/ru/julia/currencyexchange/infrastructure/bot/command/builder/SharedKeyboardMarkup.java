@@ -0,0 +1,55 @@
+package ru.julia.currencyexchange.infrastructure.bot.command.builder;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardButton;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+
+/**
+ * Клавиатура из кэша, общая для многих ответов. Строки нельзя добавить, а {@link #inlineKeyboard()} отдает
+ * копии кнопок, поэтому изменения у одного получателя не попадают в ответы другим.
+ */
+final class SharedKeyboardMarkup extends InlineKeyboardMarkup {
+    // transient: поле не должно попасть в JSON запроса к Telegram
+    private final transient boolean frozen;
+
+    private SharedKeyboardMarkup(InlineKeyboardButton[][] rows) {
+        super(copy(rows));
+        this.frozen = true;
+    }
+
+    static InlineKeyboardMarkup freeze(InlineKeyboardMarkup keyboard) {
+        return keyboard == null || keyboard instanceof SharedKeyboardMarkup
+                ? keyboard
+                : new SharedKeyboardMarkup(keyboard.inlineKeyboard());
+    }
+
+    @Override
+    public InlineKeyboardMarkup addRow(InlineKeyboardButton... keyboard) {
+        if (frozen) {
+            throw new UnsupportedOperationException("Shared keyboard cannot be modified");
+        }
+        return super.addRow(keyboard);
+    }
+
+    @Override
+    public InlineKeyboardButton[][] inlineKeyboard() {
+        return copy(super.inlineKeyboard());
+    }
+
+    private static InlineKeyboardButton[][] copy(InlineKeyboardButton[][] rows) {
+        InlineKeyboardButton[][] copy = new InlineKeyboardButton[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            copy[i] = new InlineKeyboardButton[rows[i].length];
+            for (int j = 0; j < rows[i].length; j++) {
+                copy[i][j] = copy(rows[i][j]);
+            }
+        }
+        return copy;
+    }
+
+    private static InlineKeyboardButton copy(InlineKeyboardButton button) {
+        return new InlineKeyboardButton(button.text(), button.url(), button.loginUrl(), button.callbackData(),
+                button.switchInlineQuery(), button.switchInlineQueryCurrentChat(),
+                button.switchInlineQueryChosenChat(), button.callbackGame(), button.getPay(), button.webApp(),
+                button.copyText());
+    }
+}
@@ -9,13 +9,12 @@ import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
 import ru.julia.currencyexchange.application.bot.settings.enums.ConversionState;
 import ru.julia.currencyexchange.application.service.bot.CurrencyConvertService;
-import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyConvertKeyboardBuilder;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyConvertKeyboardCache;
 import ru.julia.currencyexchange.infrastructure.configuration.Constants;
 
 import java.math.BigDecimal;
-import java.util.List;
 import java.util.Map;
 
 @Component
@@ -23,13 +22,16 @@ public class CurrencyConvertCallbackHandler {
 
     private final CurrencyConvertService currencyConvertService;
     private final CurrencyConvertKeyboardBuilder keyboardBuilder;
+    private final CurrencyConvertKeyboardCache keyboardCache;
     private final MessageConverter messageConverter;
 
     public CurrencyConvertCallbackHandler(CurrencyConvertService currencyConvertService,
                                           CurrencyConvertKeyboardBuilder keyboardBuilder,
+                                          CurrencyConvertKeyboardCache keyboardCache,
                                           MessageConverter messageConverter) {
         this.currencyConvertService = currencyConvertService;
         this.keyboardBuilder = keyboardBuilder;
+        this.keyboardCache = keyboardCache;
         this.messageConverter = messageConverter;
     }
 
@@ -80,15 +82,9 @@ public class CurrencyConvertCallbackHandler {
 
     private EditMessageText showCurrencySelection(CallbackQuery callbackQuery, boolean isFromCurrency,
                                                   boolean showPopular, String fromCurrency) {
-        List<Currency> currencies = showPopular ?
-                currencyConvertService.getPopularCurrencies() :
-                currencyConvertService.getAllCurrencies();
-
         InlineKeyboardMarkup keyboard = isFromCurrency ?
-                (showPopular ? keyboardBuilder.buildFromCurrencyKeyboard(currencies) :
-                        keyboardBuilder.buildAllFromCurrenciesKeyboard(currencies)) :
-                (showPopular ? keyboardBuilder.buildToCurrencyKeyboard(currencies, fromCurrency) :
-                        keyboardBuilder.buildAllToCurrenciesKeyboard(currencies, fromCurrency));
+                keyboardCache.fromCurrencyKeyboard(showPopular) :
+                keyboardCache.toCurrencyKeyboard(fromCurrency, showPopular);
 
         String messageText = buildCurrencySelectionMessage(isFromCurrency, fromCurrency);
 
@@ -7,7 +7,7 @@ import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
 import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
-import ru.julia.currencyexchange.domain.model.CurrencyConversion;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.HistoryMessageBuilder;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.PaginationKeyboardBuilder;
@@ -52,17 +52,19 @@ public class FindByDateCallbackHandler {
                 return createErrorResponse(chatId, messageId, "command.findByDate.error");
             }
 
-            List<CurrencyConversion> conversions = currencyExchangeService.findByCurrencyDate(user.getId(), dateStr);
+            long totalConversions = currencyExchangeService.countByCurrencyDate(user.getId(), dateStr);
 
-            if (conversions.isEmpty()) {
+            if (totalConversions == 0) {
                 LocalDate date = LocalDate.parse(dateStr);
                 return createErrorResponse(chatId, messageId, "command.findByDate.no_conversions", 
                     java.util.Map.of("date", date.format(DateTimeFormatter.ofPattern("dd.MM.yyyy"))));
             }
 
-            PaginationParams paginationParams = calculatePaginationParams(conversions.size(), page);
+            PaginationParams paginationParams = calculatePaginationParams(totalConversions, page);
+            List<ConversionHistoryItem> conversions = currencyExchangeService.findByCurrencyDatePage(user.getId(), dateStr,
+                    paginationParams.currentPage, paginationParams.conversionsPerPage, totalConversions);
 
-            return buildFindByDateResponse(chatId, messageId, conversions, paginationParams, dateStr);
+            return buildFindByDateResponse(chatId, messageId, conversions, totalConversions, paginationParams, dateStr);
 
         } catch (Exception e) {
             return createErrorResponse(chatId, messageId, "command.findByDate.error");
@@ -91,18 +93,19 @@ public class FindByDateCallbackHandler {
         return user;
     }
 
-    private PaginationParams calculatePaginationParams(int totalConversions, int requestedPage) {
+    private PaginationParams calculatePaginationParams(long totalConversions, int requestedPage) {
         boolean useCompactFormat = totalConversions > Constants.COMPACT_FORMAT_THRESHOLD;
         int conversionsPerPage = useCompactFormat ? Constants.COMPACT_CONVERSIONS_PER_PAGE : Constants.DEFAULT_CONVERSIONS_PER_PAGE;
 
-        int maxPage = Math.max(0, (totalConversions - 1) / conversionsPerPage);
+        int maxPage = (int) Math.max(0, (totalConversions - 1) / conversionsPerPage);
         int validatedPage = Math.max(0, Math.min(requestedPage, maxPage));
 
         return new PaginationParams(validatedPage, conversionsPerPage, useCompactFormat, maxPage);
     }
 
     private EditMessageText buildFindByDateResponse(Long chatId, Integer messageId,
-                                                    List<CurrencyConversion> conversions,
+                                                    List<ConversionHistoryItem> conversions,
+                                                    long totalConversions,
                                                     PaginationParams paginationParams,
                                                     String dateStr) {
         String messageText = historyMessageBuilder.buildFindByDateMessage(
@@ -110,11 +113,12 @@ public class FindByDateCallbackHandler {
                 paginationParams.currentPage,
                 paginationParams.useCompactFormat,
                 paginationParams.conversionsPerPage,
+                totalConversions,
                 dateStr
         );
 
         var keyboard = paginationKeyboardBuilder.buildFindByDatePaginationKeyboard(
-                conversions.size(),
+                (int) totalConversions,
                 paginationParams.currentPage,
                 paginationParams.conversionsPerPage,
                 dateStr
@@ -7,7 +7,7 @@ import org.springframework.stereotype.Component;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
 import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
-import ru.julia.currencyexchange.domain.model.CurrencyConversion;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.HistoryMessageBuilder;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.PaginationKeyboardBuilder;
@@ -50,15 +50,17 @@ public class HistoryCallbackHandler {
                 return createErrorResponse(chatId, messageId, "command.history.error");
             }
 
-            List<CurrencyConversion> conversions = currencyExchangeService.getUserHistory(user.getId());
+            long totalConversions = currencyExchangeService.countUserHistory(user.getId());
 
-            if (conversions.isEmpty()) {
+            if (totalConversions == 0) {
                 return createErrorResponse(chatId, messageId, "command.history.no_conversions");
             }
 
-            PaginationParams paginationParams = calculatePaginationParams(conversions.size(), page);
+            PaginationParams paginationParams = calculatePaginationParams(totalConversions, page);
+            List<ConversionHistoryItem> conversions = currencyExchangeService.getUserHistoryPage(user.getId(),
+                    paginationParams.currentPage, paginationParams.conversionsPerPage, totalConversions);
 
-            return buildHistoryResponse(chatId, messageId, conversions, paginationParams);
+            return buildHistoryResponse(chatId, messageId, conversions, totalConversions, paginationParams);
 
         } catch (Exception e) {
             return createErrorResponse(chatId, messageId, "command.history.error");
@@ -83,28 +85,30 @@ public class HistoryCallbackHandler {
         return user;
     }
 
-    private PaginationParams calculatePaginationParams(int totalConversions, int requestedPage) {
+    private PaginationParams calculatePaginationParams(long totalConversions, int requestedPage) {
         boolean useCompactFormat = totalConversions > Constants.COMPACT_FORMAT_THRESHOLD;
         int conversionsPerPage = useCompactFormat ? Constants.COMPACT_CONVERSIONS_PER_PAGE : Constants.DEFAULT_CONVERSIONS_PER_PAGE;
 
-        int maxPage = Math.max(0, (totalConversions - 1) / conversionsPerPage);
+        int maxPage = (int) Math.max(0, (totalConversions - 1) / conversionsPerPage);
         int validatedPage = Math.max(0, Math.min(requestedPage, maxPage));
 
         return new PaginationParams(validatedPage, conversionsPerPage, useCompactFormat, maxPage);
     }
 
     private EditMessageText buildHistoryResponse(Long chatId, Integer messageId,
-                                                 List<CurrencyConversion> conversions,
+                                                 List<ConversionHistoryItem> conversions,
+                                                 long totalConversions,
                                                  PaginationParams paginationParams) {
         String messageText = historyMessageBuilder.buildHistoryMessage(
                 conversions,
                 paginationParams.currentPage,
                 paginationParams.useCompactFormat,
-                paginationParams.conversionsPerPage
+                paginationParams.conversionsPerPage,
+                totalConversions
         );
 
         var keyboard = paginationKeyboardBuilder.buildHistoryPaginationKeyboard(
-                conversions.size(),
+                (int) totalConversions,
                 paginationParams.currentPage,
                 paginationParams.conversionsPerPage
         );
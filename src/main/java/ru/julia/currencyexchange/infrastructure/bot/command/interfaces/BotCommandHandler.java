@@ -3,11 +3,17 @@ package ru.julia.currencyexchange.infrastructure.bot.command.interfaces;
 import com.pengrad.telegrambot.model.BotCommand;
 import com.pengrad.telegrambot.model.Update;
 import com.pengrad.telegrambot.request.SendMessage;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.domain.model.User;
 
 public interface BotCommandHandler {
     SendMessage handle(Update update);
 
+    // Пользователь уже загружен при проверке доступа, повторно его запрашивать не нужно
+    default SendMessage handle(Update update, UserContext userContext) {
+        return handle(update);
+    }
+
     default boolean matches(Update update) {
         if (update.message() == null || update.message().text() == null) {
             return false;
@@ -20,6 +26,11 @@ public interface BotCommandHandler {
 
     String getCommand();
 
+    // Команда может совпасть не по имени, а по состоянию диалога, поэтому ее matches проверяется для любого текста
+    default boolean isStateful() {
+        return false;
+    }
+
     default BotCommand toBotCommand() {
         return new BotCommand(getCommand(), getDescription());
     }
@@ -1,10 +1,75 @@
 package ru.julia.currencyexchange.infrastructure.configuration;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+
 @Validated
 @ConfigurationProperties(prefix = "bot", ignoreUnknownFields = false)
-public record BotConfig(@NotEmpty String telegramToken) {
+public record BotConfig(@NotEmpty String telegramToken,
+                        @Valid @NotNull @DefaultValue Dispatcher dispatcher,
+                        @Valid @NotNull @DefaultValue Sender sender,
+                        @Valid @NotNull @DefaultValue Conversation conversation,
+                        @Valid @NotNull @DefaultValue Cluster cluster) {
+    public record Dispatcher(
+            // Обрабатывать обновления в виртуальных потоках; иначе — в фиксированном пуле размером concurrency
+            @DefaultValue("true") boolean virtualThreads,
+            // Сколько обновлений разных чатов обрабатывается одновременно
+            @Positive @DefaultValue("16") int concurrency,
+            // Сколько принятых, но еще не обработанных обновлений допускается до остановки опроса Telegram;
+            // Telegram подтверждаются только обработанные, поэтому после падения остальные будут получены заново
+            @Positive @DefaultValue("1000") int maxPendingUpdates) {
+    }
+
+    public record Sender(
+            // Сколько исходящих запросов может ожидать отправки; сверх этого запросы отклоняются
+            @Positive @DefaultValue("1000") int queueCapacity,
+            // Общий лимит Telegram на отправку сообщений ботом
+            @Positive @DefaultValue("30") int globalMessagesPerSecond,
+            // Минимальный интервал между сообщениями в один чат
+            @NotNull @DefaultValue("PT1S") Duration perChatInterval,
+            // Повторы при ответе 429 или сетевой ошибке
+            @PositiveOrZero @DefaultValue("3") int maxRetries,
+            @NotNull @DefaultValue("PT1S") Duration retryBackoff) {
+    }
+
+    public record Conversation(
+            // Где хранить состояния пошаговых сценариев: в памяти процесса или в PostgreSQL
+            @NotNull @DefaultValue("MEMORY") Backend backend,
+            // Состояние брошенного сценария удаляется через ttl после последнего шага
+            @NotNull @DefaultValue("PT30M") Duration ttl,
+            // Предел числа состояний на сценарий; сверх него вытесняются истекающие раньше всех
+            @Positive @DefaultValue("10000") int maxEntries,
+            @NotNull @DefaultValue("PT1M") Duration sweepInterval) {
+    }
+
+    public record Cluster(
+            // Несколько экземпляров бота: опрашивает Telegram только лидер, обработка делится по chatId между узлами
+            @DefaultValue("false") boolean enabled,
+            // Имя узла в таблице аренды шардов; если не задано — имя хоста и случайный суффикс
+            String nodeId,
+            // Ключ advisory-блокировки PostgreSQL, которую держит лидер
+            @DefaultValue("7262010001") long leaderLockKey,
+            // Число шардов chatId; менять только при остановленных узлах, иначе необработанные обновления потеряются
+            @Positive @DefaultValue("64") int shards,
+            @NotNull @DefaultValue("PT5S") Duration heartbeatInterval,
+            // Аренда шарда, не продленная за это время, переходит к другим узлам
+            @NotNull @DefaultValue("PT15S") Duration leaseDuration,
+            @NotNull @DefaultValue("PT0.5S") Duration pollInterval,
+            @Positive @DefaultValue("100") int batchSize,
+            // Сколько хранятся обработанные обновления, чтобы повторно полученные при смене лидера не обработались снова
+            @NotNull @DefaultValue("PT10M") Duration processedRetention) {
+    }
+
+    public enum Backend {
+        MEMORY,
+        POSTGRES
+    }
 }
@@ -0,0 +1,28 @@
+package ru.julia.currencyexchange.infrastructure.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.julia.currencyexchange.application.service.bot.state.ConversationStateBackend;
+import ru.julia.currencyexchange.application.service.bot.state.InMemoryConversationStateBackend;
+import ru.julia.currencyexchange.application.service.bot.state.JdbcConversationStateBackend;
+
+@Configuration
+public class ConversationStateConfig {
+    // Хранилище состояний сценариев выбирается настройкой bot.conversation.backend
+    @Bean
+    public ConversationStateBackend conversationStateBackend(BotConfig botConfig,
+                                                             JdbcTemplate jdbcTemplate,
+                                                             ObjectMapper objectMapper) {
+        BotConfig.Conversation conversation = botConfig.conversation();
+        // При перебалансировке шардов и поэтапном деплое чат переходит на другой узел вместе с незавершенным сценарием
+        if (botConfig.cluster().enabled() && conversation.backend() != BotConfig.Backend.POSTGRES) {
+            throw new IllegalStateException("bot.cluster.enabled=true requires bot.conversation.backend=POSTGRES");
+        }
+        return switch (conversation.backend()) {
+            case MEMORY -> new InMemoryConversationStateBackend(conversation.maxEntries(), System::nanoTime);
+            case POSTGRES -> new JdbcConversationStateBackend(jdbcTemplate, objectMapper, conversation.maxEntries());
+        };
+    }
+}
@@ -6,15 +6,23 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.core.io.ClassPathResource;
 
+import java.util.Properties;
+
 @Configuration
 public class MessageConfig {
+    // Сообщения бота из bot/message.yml; YamlMessageConverter разбирает их в шаблоны при старте
     @Bean
-    public ResourceBundleMessageSource messageSource() {
+    public Properties botMessages() {
         YamlPropertiesFactoryBean propertiesFactoryBean = new YamlPropertiesFactoryBean();
         propertiesFactoryBean.setResources(new ClassPathResource("bot/message.yml"));
 
+        return propertiesFactoryBean.getObject();
+    }
+
+    @Bean
+    public ResourceBundleMessageSource messageSource(Properties botMessages) {
         ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
-        messageSource.setCommonMessages(propertiesFactoryBean.getObject());
+        messageSource.setCommonMessages(botMessages);
 
         return messageSource;
     }
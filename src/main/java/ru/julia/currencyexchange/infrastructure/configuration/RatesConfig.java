@@ -0,0 +1,42 @@
+package ru.julia.currencyexchange.infrastructure.configuration;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "rates", ignoreUnknownFields = false)
+public record RatesConfig(@DefaultValue("true") boolean refreshEnabled,
+                          @NotNull @DefaultValue("PT1H") Duration refreshInterval,
+                          @NotNull @DefaultValue("PT24H") Duration maxStaleness,
+                          @NotNull @DefaultValue("SERVE_STALE") StalenessPolicy stalenessPolicy,
+                          @Valid @NotNull @DefaultValue Http http,
+                          @Valid @NotNull @DefaultValue History history) {
+
+    public record Http(@NotNull @DefaultValue("PT3S") Duration connectTimeout,
+                       @NotNull @DefaultValue("PT5S") Duration readTimeout,
+                       @Positive @DefaultValue("2") int maxConcurrentRequests,
+                       @NotNull @DefaultValue("PT1S") Duration acquireTimeout,
+                       @Positive @DefaultValue("3") int circuitFailureThreshold,
+                       @NotNull @DefaultValue("PT5M") Duration circuitOpenDuration) {
+    }
+
+    public record History(
+            // Сколько последних дней архива курсов держать в памяти снимками
+            @Positive @DefaultValue("31") int cacheDays,
+            // Предел времени одной фоновой загрузки архива из ЦБ РФ
+            @NotNull @DefaultValue("PT10M") Duration backfillTimeout) {
+    }
+
+    public enum StalenessPolicy {
+        // Отдавать последние известные курсы, даже если они устарели
+        SERVE_STALE,
+        // Отклонять конвертации, пока курсы не будут обновлены
+        REJECT
+    }
+}
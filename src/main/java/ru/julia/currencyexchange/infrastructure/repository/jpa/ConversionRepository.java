@@ -1,22 +1,90 @@
 package ru.julia.currencyexchange.infrastructure.repository.jpa;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ConversionRepository extends JpaRepository<CurrencyConversion, String> {
-    // Поиск по дате и пользователю
-    @Query("SELECT c FROM CurrencyConversion c WHERE FUNCTION('DATE', c.timestamp) = :date AND c.user.id = :userId")
-    List<CurrencyConversion> findByCurrencyDate(
-            @Param("date") LocalDate date,
-            @Param("userId") String userId
+    // Проекция истории: только скалярные колонки, без EAGER-загрузки пользователя и валют
+    String HISTORY_ITEM_SELECT = "SELECT new ru.julia.currencyexchange.domain.model.ConversionHistoryItem(" +
+            "c.id, c.user.id, s.code, t.code, c.amount, c.convertedAmount, c.conversionRate, c.timestamp) " +
+            "FROM CurrencyConversion c JOIN c.sourceCurrency s JOIN c.targetCurrency t ";
+
+    // Условия по timestamp без функций над колонкой, чтобы работали индекс (user_id, timestamp, id)
+    // и отсечение помесячных секций таблицы
+    @Query(HISTORY_ITEM_SELECT + "WHERE c.user.id = :userId " +
+            "AND c.timestamp >= :from AND c.timestamp < :to ORDER BY c.timestamp DESC, c.id DESC")
+    List<ConversionHistoryItem> findByTimestampRange(
+            @Param("userId") String userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
     );
 
-    // Поиск конвертаций по userId
-    @Query("SELECT c FROM CurrencyConversion c WHERE c.user.id = :userId")
-    List<CurrencyConversion> findConversionByUserId(@Param("userId") String userId);
-}
\ No newline at end of file
+    // Постраничная история: порядок (timestamp, id) от новых к старым
+    @Query("SELECT COUNT(c) FROM CurrencyConversion c WHERE c.user.id = :userId")
+    long countByUserId(@Param("userId") String userId);
+
+    @Query(HISTORY_ITEM_SELECT + "WHERE c.user.id = :userId ORDER BY c.timestamp DESC, c.id DESC")
+    List<ConversionHistoryItem> findLatestByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Query(HISTORY_ITEM_SELECT + "WHERE c.user.id = :userId ORDER BY c.timestamp ASC, c.id ASC")
+    List<ConversionHistoryItem> findOldestByUserId(@Param("userId") String userId, Pageable pageable);
+
+    // Следующая страница после последней показанной записи (keyset).
+    // Отдельное условие timestamp <= :timestamp отсекает помесячные секции новее курсора
+    @Query(HISTORY_ITEM_SELECT + "WHERE c.user.id = :userId AND c.timestamp <= :timestamp " +
+            "AND (c.timestamp < :timestamp OR (c.timestamp = :timestamp AND c.id < :id)) " +
+            "ORDER BY c.timestamp DESC, c.id DESC")
+    List<ConversionHistoryItem> findByUserIdBefore(
+            @Param("userId") String userId,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") String id,
+            Pageable pageable
+    );
+
+    @Query("SELECT COUNT(c) FROM CurrencyConversion c WHERE c.user.id = :userId " +
+            "AND c.timestamp >= :from AND c.timestamp < :to")
+    long countByTimestampRange(
+            @Param("userId") String userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    @Query(HISTORY_ITEM_SELECT + "WHERE c.user.id = :userId AND c.timestamp >= :from AND c.timestamp < :to " +
+            "ORDER BY c.timestamp DESC, c.id DESC")
+    List<ConversionHistoryItem> findLatestByTimestampRange(
+            @Param("userId") String userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Pageable pageable
+    );
+
+    // Следующая страница периода после последней показанной записи (keyset), как findByUserIdBefore
+    @Query(HISTORY_ITEM_SELECT + "WHERE c.user.id = :userId AND c.timestamp >= :from AND c.timestamp < :to " +
+            "AND c.timestamp <= :timestamp " +
+            "AND (c.timestamp < :timestamp OR (c.timestamp = :timestamp AND c.id < :id)) " +
+            "ORDER BY c.timestamp DESC, c.id DESC")
+    List<ConversionHistoryItem> findByTimestampRangeBefore(
+            @Param("userId") String userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") String id,
+            Pageable pageable
+    );
+
+    @Query(HISTORY_ITEM_SELECT + "WHERE c.user.id = :userId AND c.timestamp >= :from AND c.timestamp < :to " +
+            "ORDER BY c.timestamp ASC, c.id ASC")
+    List<ConversionHistoryItem> findOldestByTimestampRange(
+            @Param("userId") String userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Pageable pageable
+    );
+}
@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+
+-- changeset accou:1760774400000-1
+CREATE INDEX idx_currency_conversions_user_timestamp
+    ON currency_conversions (user_id, timestamp, id);
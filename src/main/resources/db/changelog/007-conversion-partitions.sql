@@ -0,0 +1,110 @@
+-- liquibase formatted sql
+
+-- changeset accou:1760860800000-1
+ALTER TABLE currency_conversions RENAME TO currency_conversions_legacy;
+ALTER TABLE currency_conversions_legacy RENAME CONSTRAINT pk_currency_conversions TO pk_currency_conversions_legacy;
+ALTER INDEX idx_currency_conversions_user_timestamp RENAME TO idx_currency_conversions_legacy_user_timestamp;
+
+-- changeset accou:1760860800000-2
+CREATE TABLE currency_conversions
+(
+    id                 VARCHAR(255)                NOT NULL,
+    user_id            VARCHAR(255)                NOT NULL,
+    source_currency_id VARCHAR(255)                NOT NULL,
+    target_currency_id VARCHAR(255)                NOT NULL,
+    amount             DECIMAL(18, 6)              NOT NULL,
+    converted_amount   DECIMAL(18, 6)              NOT NULL,
+    conversion_rate    DECIMAL(18, 6)              NOT NULL,
+    timestamp          TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_currency_conversions PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER TABLE currency_conversions
+    ADD CONSTRAINT FK_CURRENCY_CONVERSIONS_ON_SOURCE_CURRENCY FOREIGN KEY (source_currency_id) REFERENCES currencies (id);
+
+ALTER TABLE currency_conversions
+    ADD CONSTRAINT FK_CURRENCY_CONVERSIONS_ON_TARGET_CURRENCY FOREIGN KEY (target_currency_id) REFERENCES currencies (id);
+
+ALTER TABLE currency_conversions
+    ADD CONSTRAINT FK_CURRENCY_CONVERSIONS_ON_USER FOREIGN KEY (user_id) REFERENCES users (id);
+
+CREATE INDEX idx_currency_conversions_user_timestamp
+    ON currency_conversions (user_id, timestamp, id);
+
+-- Страховочная секция для строк вне созданных месяцев; при создании месяца строки из нее переносятся
+CREATE TABLE currency_conversions_default PARTITION OF currency_conversions DEFAULT;
+
+-- changeset accou:1760860800000-3 splitStatements:false
+CREATE OR REPLACE FUNCTION create_currency_conversion_partition(month_start DATE)
+    RETURNS BOOLEAN
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    range_from     TIMESTAMP := date_trunc('month', month_start::TIMESTAMP);
+    range_to       TIMESTAMP := date_trunc('month', month_start::TIMESTAMP) + INTERVAL '1 month';
+    partition_name TEXT      := 'currency_conversions_p' || to_char(month_start, 'YYYYMM');
+BEGIN
+    -- Несколько экземпляров приложения могут запустить обслуживание одновременно
+    PERFORM pg_advisory_xact_lock(hashtext('currency_conversions_partitions'));
+
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    -- Создание отдельной таблицы и ATTACH не блокируют запись в родительскую таблицу целиком
+    EXECUTE format('CREATE TABLE %I (LIKE currency_conversions INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM currency_conversions_default WHERE timestamp >= %L AND timestamp < %L RETURNING *) ' ||
+                   'INSERT INTO %I SELECT * FROM moved', range_from, range_to, partition_name);
+    EXECUTE format('ALTER TABLE currency_conversions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_from, range_to);
+    RETURN TRUE;
+END;
+$$;
+
+-- changeset accou:1760860800000-4 splitStatements:false
+DO
+$$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE((SELECT MIN(timestamp) FROM currency_conversions_legacy), LOCALTIMESTAMP));
+BEGIN
+    WHILE month_start <= date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months'
+        LOOP
+            PERFORM create_currency_conversion_partition(month_start);
+            month_start := month_start + INTERVAL '1 month';
+        END LOOP;
+END;
+$$;
+
+-- changeset accou:1760860800000-5
+-- Помесячный перенос ниже выбирает строки старой таблицы по timestamp
+CREATE INDEX idx_currency_conversions_legacy_timestamp ON currency_conversions_legacy (timestamp);
+
+-- changeset accou:1760860800000-6 runInTransaction:false splitStatements:false
+-- Строки переносятся помесячно, каждый месяц в своей транзакции: одна транзакция на всю таблицу долго держала бы
+-- блокировки секций и не давала бы очищать старые версии строк, пока идет запись в новую таблицу.
+-- Перенесенные строки удаляются из старой таблицы, поэтому после сбоя перенос продолжается с оставшихся.
+-- COMMIT внутри DO допустим только вне транзакции, поэтому блок — единственная команда changeset
+DO
+$$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', (SELECT MIN(timestamp) FROM currency_conversions_legacy));
+    last_month  TIMESTAMP := date_trunc('month', (SELECT MAX(timestamp) FROM currency_conversions_legacy));
+BEGIN
+    WHILE month_start <= last_month
+        LOOP
+            WITH moved AS (DELETE FROM currency_conversions_legacy
+                           WHERE timestamp >= month_start AND timestamp < month_start + INTERVAL '1 month'
+                           RETURNING id, user_id, source_currency_id, target_currency_id, amount, converted_amount,
+                               conversion_rate, timestamp)
+            INSERT INTO currency_conversions
+            SELECT id, user_id, source_currency_id, target_currency_id, amount, converted_amount, conversion_rate, timestamp
+            FROM moved;
+            COMMIT;
+            month_start := month_start + INTERVAL '1 month';
+        END LOOP;
+END;
+$$;
+
+-- changeset accou:1760860800000-7
+DROP TABLE currency_conversions_legacy;
@@ -0,0 +1,18 @@
+-- liquibase formatted sql
+
+-- changeset accou:1760947200000-1
+CREATE TABLE currency_rate_history
+(
+    currency_code VARCHAR(10)    NOT NULL,
+    rate_date     DATE           NOT NULL,
+    exchange_rate DECIMAL(18, 6) NOT NULL,
+    CONSTRAINT pk_currency_rate_history PRIMARY KEY (currency_code, rate_date)
+);
+
+CREATE INDEX idx_currency_rate_history_date
+    ON currency_rate_history (rate_date);
+
+-- changeset accou:1760947200000-2
+INSERT INTO currency_rate_history (currency_code, rate_date, exchange_rate)
+SELECT code, CAST(last_updated AS DATE), exchange_rate
+FROM currencies;
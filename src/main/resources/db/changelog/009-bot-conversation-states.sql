@@ -0,0 +1,14 @@
+-- liquibase formatted sql
+
+-- changeset accou:1761033600000-1
+CREATE TABLE bot_conversation_states
+(
+    flow       VARCHAR(32) NOT NULL,
+    chat_id    BIGINT      NOT NULL,
+    payload    TEXT        NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_bot_conversation_states PRIMARY KEY (flow, chat_id)
+);
+
+CREATE INDEX idx_bot_conversation_states_expires
+    ON bot_conversation_states (flow, expires_at);
@@ -0,0 +1,39 @@
+-- liquibase formatted sql
+
+-- changeset accou:1761120000000-1
+-- Обновление считается обработанным только после завершения обработчика, а не в момент, когда его забрали
+CREATE TABLE bot_updates
+(
+    update_id    BIGINT      NOT NULL,
+    shard        INT         NOT NULL,
+    payload      TEXT        NOT NULL,
+    received_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    claimed_by   VARCHAR(64),
+    claimed_at   TIMESTAMPTZ,
+    processed_at TIMESTAMPTZ,
+    CONSTRAINT pk_bot_updates PRIMARY KEY (update_id)
+);
+
+CREATE INDEX idx_bot_updates_unprocessed
+    ON bot_updates (shard, update_id) WHERE processed_at IS NULL;
+
+CREATE INDEX idx_bot_updates_processed
+    ON bot_updates (processed_at) WHERE processed_at IS NOT NULL;
+
+-- changeset accou:1761120000000-2
+-- Шард, который узел отдает (draining): новые обновления по нему не забираются, аренда снимается после обработки забранных
+CREATE TABLE bot_shard_leases
+(
+    shard       INT         NOT NULL,
+    owner       VARCHAR(64),
+    lease_until TIMESTAMPTZ NOT NULL,
+    draining    BOOLEAN     NOT NULL DEFAULT FALSE,
+    CONSTRAINT pk_bot_shard_leases PRIMARY KEY (shard)
+);
+
+CREATE TABLE bot_cluster_nodes
+(
+    node_id   VARCHAR(64) NOT NULL,
+    last_seen TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_bot_cluster_nodes PRIMARY KEY (node_id)
+);
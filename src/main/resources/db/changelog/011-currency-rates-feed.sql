@@ -0,0 +1,17 @@
+-- liquibase formatted sql
+
+-- changeset accou:1761206400000-1
+-- Время последней успешной загрузки курсов ЦБ РФ, в том числе без изменений; одна строка с id = 1
+CREATE TABLE currency_rates_feed
+(
+    id         SMALLINT    NOT NULL,
+    fetched_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_currency_rates_feed PRIMARY KEY (id),
+    CONSTRAINT chk_currency_rates_feed_single CHECK (id = 1)
+);
+
+-- Для уже работающей базы точнее ничего нет: последнее изменение курсов
+INSERT INTO currency_rates_feed (id, fetched_at)
+SELECT 1, max(last_updated)
+FROM currencies
+HAVING max(last_updated) IS NOT NULL;
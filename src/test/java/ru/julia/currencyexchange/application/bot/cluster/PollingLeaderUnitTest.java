@@ -0,0 +1,110 @@
+package ru.julia.currencyexchange.application.bot.cluster;
+
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.UpdatesListener;
+import com.pengrad.telegrambot.model.Update;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PollingLeaderUnitTest {
+    @Mock
+    private TelegramBot bot;
+    @Mock
+    private AdvisoryLock lock;
+    @Mock
+    private UpdateWorkQueue workQueue;
+    private PollingLeader leader;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        leader = new PollingLeader(bot, lock, workQueue, true, Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Узел, взявший блокировку, начинает опрос Telegram один раз")
+    void elect_acquiresLeadership() throws Exception {
+        when(lock.tryAcquire()).thenReturn(true);
+
+        leader.elect();
+        leader.elect();
+
+        assertThat(leader.isLeader()).isTrue();
+        verify(bot, times(1)).setUpdatesListener(any(UpdatesListener.class));
+        verify(workQueue, times(2)).purgeProcessed(Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Без блокировки узел не опрашивает Telegram")
+    void elect_followerDoesNotPoll() throws Exception {
+        when(lock.tryAcquire()).thenReturn(false);
+
+        leader.elect();
+
+        assertThat(leader.isLeader()).isFalse();
+        verifyNoInteractions(bot, workQueue);
+    }
+
+    @Test
+    @DisplayName("Потеря соединения с блокировкой останавливает опрос")
+    void elect_losesLeadership() throws Exception {
+        when(lock.tryAcquire()).thenReturn(true).thenThrow(new SQLException("connection lost"));
+
+        leader.elect();
+        leader.elect();
+
+        assertThat(leader.isLeader()).isFalse();
+        verify(bot).removeGetUpdatesListener();
+    }
+
+    @Test
+    @DisplayName("Обновления подтверждаются Telegram только после записи в очередь")
+    void ingest_confirmsOnlyStoredUpdates() throws Exception {
+        when(lock.tryAcquire()).thenReturn(true);
+        leader.elect();
+        ArgumentCaptor<UpdatesListener> listener = ArgumentCaptor.forClass(UpdatesListener.class);
+        verify(bot).setUpdatesListener(listener.capture());
+        List<Update> updates = List.of(new Update());
+
+        assertThat(listener.getValue().process(updates)).isEqualTo(UpdatesListener.CONFIRMED_UPDATES_ALL);
+        verify(workQueue).enqueue(updates);
+
+        doThrow(new RuntimeException("db down")).when(workQueue).enqueue(updates);
+        assertThat(listener.getValue().process(updates)).isEqualTo(UpdatesListener.CONFIRMED_UPDATES_NONE);
+    }
+
+    @Test
+    @DisplayName("При остановке лидер прекращает опрос и снимает блокировку")
+    void resign() throws Exception {
+        when(lock.tryAcquire()).thenReturn(true);
+        leader.elect();
+
+        leader.resign();
+
+        verify(bot).removeGetUpdatesListener();
+        verify(lock).release();
+        assertThat(leader.isLeader()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Выключенный кластер не участвует в выборах")
+    void elect_disabled() {
+        leader = new PollingLeader(bot, lock, workQueue, false, Duration.ofMinutes(10));
+
+        leader.elect();
+
+        verifyNoInteractions(bot, lock, workQueue);
+    }
+}
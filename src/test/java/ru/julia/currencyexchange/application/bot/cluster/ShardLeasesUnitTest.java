@@ -0,0 +1,129 @@
+package ru.julia.currencyexchange.application.bot.cluster;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class ShardLeasesUnitTest {
+    private static final long LEASE_MILLIS = 15_000;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    private final AtomicLong liveNodes = new AtomicLong();
+    private ShardLeases shardLeases;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        shardLeases = new ShardLeases(jdbcTemplate, true, "node-a", 64, Duration.ofMillis(LEASE_MILLIS),
+                Duration.ofSeconds(5), liveNodes::set);
+    }
+
+    private void givenNodes(long nodes, int owned) {
+        givenNodes(nodes, owned, 0);
+    }
+
+    private void givenNodes(long nodes, int active, int draining) {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*)"), eq(Long.class))).thenReturn(nodes);
+        List<Boolean> renewed = new ArrayList<>(Collections.nCopies(active, false));
+        renewed.addAll(Collections.nCopies(draining, true));
+        when(jdbcTemplate.queryForList(contains("RETURNING draining"), eq(Boolean.class), eq(LEASE_MILLIS), eq("node-a"), eq(64)))
+                .thenReturn(renewed);
+    }
+
+    @Test
+    @DisplayName("Целевое число шардов — ceil(shards / живые узлы)")
+    void targetShards() {
+        assertThat(shardLeases.targetShards(1)).isEqualTo(64);
+        assertThat(shardLeases.targetShards(3)).isEqualTo(22);
+        assertThat(shardLeases.targetShards(0)).isEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("Единственный узел забирает все свободные шарды")
+    void heartbeat_claimsFreeShards() {
+        givenNodes(1, 0);
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE SKIP LOCKED"), eq(Integer.class),
+                eq("node-a"), eq(LEASE_MILLIS), eq(64), eq(64)))
+                .thenReturn(Collections.nCopies(64, 0));
+
+        shardLeases.heartbeat();
+
+        verify(jdbcTemplate).update(contains("generate_series"), eq(64));
+        verify(jdbcTemplate).update(contains("bot_cluster_nodes (node_id"), eq("node-a"));
+        assertThat(shardLeases.ownedShards()).isEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("При появлении второго узла лишние шарды сначала перестают выдавать обновления")
+    void heartbeat_drainsExtraShards() {
+        givenNodes(2, 64);
+
+        shardLeases.heartbeat();
+
+        verify(jdbcTemplate).update(contains("SET draining = TRUE"), eq("node-a"), eq(32));
+        assertThat(shardLeases.ownedShards()).isEqualTo(64);
+        assertThat(liveNodes).hasValue(2);
+        verify(jdbcTemplate, never()).queryForList(contains("FOR UPDATE SKIP LOCKED"), eq(Integer.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Аренда отдаваемого шарда снимается только без необработанных обновлений этого узла")
+    void heartbeat_releasesDrainedShards() {
+        givenNodes(2, 32, 32);
+        when(jdbcTemplate.update(contains("l.draining AND NOT EXISTS"), eq("node-a"))).thenReturn(20);
+
+        shardLeases.heartbeat();
+
+        assertThat(shardLeases.ownedShards()).isEqualTo(44);
+        verify(jdbcTemplate, never()).update(contains("SET draining = TRUE"), any(Object[].class));
+        verify(jdbcTemplate, never()).queryForList(contains("FOR UPDATE SKIP LOCKED"), eq(Integer.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Ошибка базы не пробрасывается из планировщика")
+    void heartbeat_databaseError() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenThrow(new RuntimeException("db down"));
+
+        shardLeases.heartbeat();
+
+        assertThat(shardLeases.ownedShards()).isZero();
+    }
+
+    @Test
+    @DisplayName("Выключенный кластер не обращается к базе")
+    void heartbeat_disabled() {
+        shardLeases = new ShardLeases(jdbcTemplate, false, "node-a", 64, Duration.ofMillis(LEASE_MILLIS),
+                Duration.ofSeconds(5), liveNodes::set);
+
+        shardLeases.start();
+        shardLeases.heartbeat();
+        shardLeases.releaseAll();
+
+        verifyNoInteractions(jdbcTemplate);
+        assertThat(liveNodes).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("При остановке узел отдает дообработанные шарды и удаляется из списка узлов")
+    void releaseAll() {
+        shardLeases.releaseAll();
+
+        verify(jdbcTemplate).update(contains("WHERE l.owner = ? AND NOT EXISTS"), eq("node-a"));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM bot_cluster_nodes WHERE node_id"), eq("node-a"));
+        assertThat(shardLeases.ownedShards()).isZero();
+    }
+}
@@ -0,0 +1,148 @@
+package ru.julia.currencyexchange.application.bot.cluster;
+
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.utility.BotUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import ru.julia.currencyexchange.application.bot.listener.MessagesListener;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class ShardWorkerUnitTest {
+    @Mock
+    private UpdateWorkQueue workQueue;
+    @Mock
+    private ShardLeases shardLeases;
+    @Mock
+    private MessagesListener messagesListener;
+    private ShardWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        when(shardLeases.nodeId()).thenReturn("node-a");
+        when(shardLeases.ownedShards()).thenReturn(32);
+        when(messagesListener.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+        worker = new ShardWorker(workQueue, shardLeases, messagesListener, true, 2);
+    }
+
+    private static Update update(int updateId) {
+        return BotUtils.parseUpdate("{\"update_id\":" + updateId + "}");
+    }
+
+    @Test
+    @DisplayName("Полные пачки забираются подряд, пока очередь не опустеет")
+    void poll_drainsFullBatches() {
+        List<Update> full = List.of(update(1), update(2));
+        List<Update> partial = List.of(update(3));
+        when(workQueue.claim("node-a", 2)).thenReturn(full, partial);
+
+        worker.poll();
+
+        verify(messagesListener, times(3)).dispatch(any());
+        verify(workQueue, times(2)).claim("node-a", 2);
+    }
+
+    @Test
+    @DisplayName("Обновление отмечается обработанным только после завершения обработчика")
+    void poll_marksProcessedAfterCompletion() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        when(messagesListener.dispatch(any())).thenReturn(done);
+        when(workQueue.claim("node-a", 2)).thenReturn(List.of(update(7)), List.of());
+
+        worker.poll();
+
+        verify(workQueue, never()).markProcessed(anyList());
+        assertThat(worker.inFlightUpdates()).isEqualTo(1);
+
+        done.complete(null);
+        worker.poll();
+
+        verify(workQueue).markProcessed(List.of(7L));
+        assertThat(worker.inFlightUpdates()).isZero();
+    }
+
+    @Test
+    @DisplayName("Отметки, не записанные из-за ошибки базы, записываются при следующем опросе")
+    void poll_retriesFailedMarks() {
+        when(workQueue.claim("node-a", 2)).thenReturn(List.of(update(7)), List.of());
+        doThrow(new RuntimeException("db down")).doNothing().when(workQueue).markProcessed(anyList());
+
+        worker.poll();
+        worker.poll();
+
+        verify(workQueue, times(2)).markProcessed(List.of(7L));
+    }
+
+    @Test
+    @DisplayName("Не запущенное диспетчером обновление возвращается в очередь, а не остается за узлом")
+    void poll_releasesFailedDispatch() {
+        when(messagesListener.dispatch(any())).thenReturn(CompletableFuture.failedFuture(new InterruptedException()));
+        when(workQueue.claim("node-a", 2)).thenReturn(List.of(update(7)), List.of());
+
+        worker.poll();
+
+        verify(workQueue).releaseClaims(List.of(7L));
+        verify(workQueue, never()).markProcessed(anyList());
+        assertThat(worker.inFlightUpdates()).isZero();
+    }
+
+    @Test
+    @DisplayName("Забранные до перезапуска обновления узла возвращаются в очередь один раз")
+    void poll_resetsOwnClaimsOnce() {
+        when(workQueue.claim("node-a", 2)).thenReturn(List.of());
+
+        worker.poll();
+        worker.poll();
+
+        verify(workQueue, times(1)).resetClaims("node-a");
+    }
+
+    @Test
+    @DisplayName("Узел без шардов не опрашивает очередь")
+    void poll_noShards() {
+        when(shardLeases.ownedShards()).thenReturn(0);
+
+        worker.poll();
+
+        verifyNoInteractions(workQueue, messagesListener);
+    }
+
+    @Test
+    @DisplayName("Ошибка базы не пробрасывается из планировщика")
+    void poll_databaseError() {
+        when(workQueue.claim(anyString(), anyInt())).thenThrow(new RuntimeException("db down"));
+
+        worker.poll();
+
+        verifyNoInteractions(messagesListener);
+    }
+
+    @Test
+    @DisplayName("При остановке узел дожидается обработки забранных обновлений, отмечает их и больше не забирает новые")
+    void stop_drainsInFlightUpdates() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        when(messagesListener.dispatch(any())).thenReturn(done);
+        when(workQueue.claim("node-a", 2)).thenReturn(List.of(update(7)), List.of());
+        worker.poll();
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS).execute(() -> done.complete(null));
+
+        worker.stop();
+        worker.poll();
+
+        verify(workQueue).markProcessed(List.of(7L));
+        verify(workQueue, times(1)).claim("node-a", 2);
+    }
+}
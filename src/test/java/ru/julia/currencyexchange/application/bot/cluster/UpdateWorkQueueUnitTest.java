@@ -0,0 +1,137 @@
+package ru.julia.currencyexchange.application.bot.cluster;
+
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.utility.BotUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class UpdateWorkQueueUnitTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    private UpdateWorkQueue workQueue;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        workQueue = new UpdateWorkQueue(jdbcTemplate, 64);
+    }
+
+    private static Update message(int updateId, long chatId, String text) {
+        return BotUtils.parseUpdate("{\"update_id\":" + updateId + ",\"message\":{\"message_id\":1,\"date\":0," +
+                "\"chat\":{\"id\":" + chatId + ",\"type\":\"private\"},\"text\":\"" + text + "\"}}");
+    }
+
+    private static Update callback(int updateId, long chatId, String data) {
+        return BotUtils.parseUpdate("{\"update_id\":" + updateId + ",\"callback_query\":{\"id\":\"q\"," +
+                "\"from\":{\"id\":" + chatId + ",\"is_bot\":false,\"first_name\":\"u\"}," +
+                "\"message\":{\"message_id\":2,\"date\":1,\"chat\":{\"id\":" + chatId + ",\"type\":\"private\"}}," +
+                "\"data\":\"" + data + "\"}}");
+    }
+
+    @Test
+    @DisplayName("Сообщения и callback одного чата попадают в один шард из допустимого диапазона")
+    void shardOf_sameChatSameShard() {
+        for (long chatId : new long[]{1L, 123456789L, -1001234567890L}) {
+            int shard = workQueue.shardOf(message(1, chatId, "/start"));
+
+            assertThat(shard).isBetween(0, 63);
+            assertThat(workQueue.shardOf(callback(2, chatId, "convert_USD"))).isEqualTo(shard);
+        }
+    }
+
+    @Test
+    @DisplayName("enqueue пишет обновления одной пачкой, повторные update_id игнорируются базой")
+    @SuppressWarnings("unchecked")
+    void enqueue_batchInsert() {
+        Update update = message(10, 42L, "/convert");
+
+        workQueue.enqueue(List.of(update));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("ON CONFLICT (update_id) DO NOTHING"), rows.capture());
+        Object[] row = rows.getValue().getFirst();
+        assertThat(row[0]).isEqualTo(10L);
+        assertThat(row[1]).isEqualTo(workQueue.shardOf(update));
+        assertThat(BotUtils.parseUpdate((String) row[2])).isEqualTo(update);
+    }
+
+    @Test
+    @DisplayName("Пустой список не пишется в базу")
+    void enqueue_empty() {
+        workQueue.enqueue(List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("claim восстанавливает обновления и упорядочивает их по update_id")
+    @SuppressWarnings("unchecked")
+    void claim_restoresInOrder() throws Exception {
+        Update first = callback(5, 42L, "convert_USD");
+        Update second = message(7, 42L, "100");
+        when(jdbcTemplate.query(contains("FOR UPDATE OF u SKIP LOCKED"), any(RowMapper.class),
+                eq("node"), eq("node"), eq("node"), eq(10)))
+                .thenAnswer(invocation -> {
+                    RowMapper<Object> mapper = invocation.getArgument(1);
+                    return List.of(mapper.mapRow(row(7, BotUtils.toJson(second)), 0),
+                            mapper.mapRow(row(5, BotUtils.toJson(first)), 1));
+                });
+
+        List<Update> claimed = workQueue.claim("node", 10);
+
+        assertThat(claimed).containsExactly(first, second);
+        assertThat(claimed.getFirst().callbackQuery().data()).isEqualTo("convert_USD");
+    }
+
+    @Test
+    @DisplayName("Обработанные обновления отмечаются одной пачкой")
+    @SuppressWarnings("unchecked")
+    void markProcessed_batchUpdate() {
+        workQueue.markProcessed(List.of(5L, 7L));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("SET processed_at = now()"), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[0]).containsExactly(5L, 7L);
+    }
+
+    @Test
+    @DisplayName("Не запущенные обновления возвращаются в очередь одной пачкой, обработанные не затрагиваются")
+    @SuppressWarnings("unchecked")
+    void releaseClaims_batchUpdate() {
+        workQueue.releaseClaims(List.of(5L, 7L));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("SET claimed_by = NULL WHERE update_id = ? AND processed_at IS NULL"),
+                rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[0]).containsExactly(5L, 7L);
+    }
+
+    @Test
+    @DisplayName("Очищаются только обработанные обновления")
+    void purgeProcessed_byProcessedAt() {
+        workQueue.purgeProcessed(Duration.ofMinutes(10));
+
+        verify(jdbcTemplate).update(contains("WHERE processed_at <"), eq(600_000L));
+    }
+
+    private static ResultSet row(long updateId, String payload) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(updateId);
+        when(resultSet.getString(2)).thenReturn(payload);
+        return resultSet;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.julia.currencyexchange.application.bot.executor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboundRateLimiterUnitTest {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final OutboundRateLimiter limiter = new OutboundRateLimiter(30, Duration.ofSeconds(1), now::get);
+
+    @Test
+    @DisplayName("Сообщения одного чата разносятся на интервал")
+    void reserveChatSlot_spacesMessagesInChat() {
+        assertThat(limiter.reserveChatSlot(1L, 0)).isZero();
+        assertThat(limiter.reserveChatSlot(1L, 0)).isEqualTo(SECOND);
+        assertThat(limiter.reserveChatSlot(1L, 0)).isEqualTo(2 * SECOND);
+    }
+
+    @Test
+    @DisplayName("Разные чаты не ждут друг друга")
+    void reserveChatSlot_independentChats() {
+        limiter.reserveChatSlot(1L, 0);
+
+        assertThat(limiter.reserveChatSlot(2L, 0)).isZero();
+    }
+
+    @Test
+    @DisplayName("Слот чата освобождается по прошествии интервала")
+    void reserveChatSlot_freeAfterInterval() {
+        limiter.reserveChatSlot(1L, 0);
+        now.addAndGet(2 * SECOND);
+
+        assertThat(limiter.reserveChatSlot(1L, 0)).isZero();
+    }
+
+    @Test
+    @DisplayName("Минимальная задержка (retry_after) учитывается")
+    void reserveChatSlot_respectsMinDelay() {
+        assertThat(limiter.reserveChatSlot(1L, 5 * SECOND)).isEqualTo(5 * SECOND);
+        assertThat(limiter.reserveChatSlot(1L, 0)).isEqualTo(6 * SECOND);
+    }
+
+    @Test
+    @DisplayName("Общий лимит — не больше 30 сообщений в секунду")
+    void reserveGlobalSlot_limitsRate() {
+        long last = 0;
+        for (int i = 0; i < 31; i++) {
+            last = limiter.reserveGlobalSlot();
+        }
+
+        assertThat(last).isEqualTo(30 * (SECOND / 30));
+    }
+
+    @Test
+    @DisplayName("В кластере из трех узлов каждый отправляет не больше 10 сообщений в секунду")
+    void shareGlobalLimit_dividesRateBetweenNodes() {
+        limiter.shareGlobalLimit(3);
+
+        long last = 0;
+        for (int i = 0; i < 11; i++) {
+            last = limiter.reserveGlobalSlot();
+        }
+
+        assertThat(last).isEqualTo(10 * 3 * (SECOND / 30));
+    }
+}
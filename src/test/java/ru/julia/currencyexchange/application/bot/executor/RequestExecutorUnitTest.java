@@ -1,28 +1,69 @@
 package ru.julia.currencyexchange.application.bot.executor;
 
 import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.model.ResponseParameters;
 import com.pengrad.telegrambot.request.BaseRequest;
 import com.pengrad.telegrambot.response.BaseResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
 class RequestExecutorUnitTest {
     @Mock
     private TelegramBot bot;
-    @InjectMocks
+
     private RequestExecutor executor;
 
     @BeforeEach
     void setUp() {
         openMocks(this);
+        executor = createExecutor(bot, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private static RequestExecutor createExecutor(TelegramBot bot, int queueCapacity) {
+        BotConfig config = new BotConfig("token",
+                new BotConfig.Dispatcher(true, 4, 100),
+                new BotConfig.Sender(queueCapacity, 1000, Duration.ofMillis(1), 2, Duration.ofMillis(1)),
+                new BotConfig.Conversation(BotConfig.Backend.MEMORY, Duration.ofMinutes(30), 100, Duration.ofMinutes(1)),
+                new BotConfig.Cluster(false, null, 1, 64, Duration.ofSeconds(5), Duration.ofSeconds(15),
+                        Duration.ofMillis(500), 100, Duration.ofMinutes(10)));
+        return new RequestExecutor(bot, config, new SimpleMeterRegistry());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BaseRequest<?, BaseResponse> request(long chatId) {
+        BaseRequest<?, BaseResponse> request = mock(BaseRequest.class);
+        when(request.getParameters()).thenReturn(Map.of("chat_id", chatId));
+        when(request.getMethod()).thenReturn("sendMessage");
+        return request;
     }
 
     @Test
@@ -41,9 +82,131 @@ class RequestExecutorUnitTest {
     @Test
     @DisplayName("Bot не инициализирован")
     void execute_shouldThrowIfBotIsNull() {
-        RequestExecutor nullExecutor = new RequestExecutor(null);
+        RequestExecutor nullExecutor = createExecutor(null, 10);
         BaseRequest request = mock(BaseRequest.class);
 
         assertThrows(IllegalStateException.class, () -> nullExecutor.execute(request));
+        assertThrows(IllegalStateException.class, () -> nullExecutor.executeAsync(request));
+        nullExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Асинхронная отправка возвращает ответ Telegram")
+    void executeAsync_sendsRequest() throws Exception {
+        BaseRequest request = request(1L);
+        BaseResponse response = mock(BaseResponse.class);
+        when(bot.execute(request)).thenReturn(response);
+
+        CompletableFuture<BaseResponse> result = executor.executeAsync(request);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(executor.queuedRequests()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ответ 429 повторяется после retry_after")
+    void executeAsync_retriesOnTooManyRequests() throws Exception {
+        BaseRequest request = request(1L);
+        BaseResponse limited = mock(BaseResponse.class);
+        ResponseParameters parameters = mock(ResponseParameters.class);
+        when(limited.errorCode()).thenReturn(429);
+        when(limited.parameters()).thenReturn(parameters);
+        when(parameters.retryAfter()).thenReturn(0);
+        BaseResponse ok = mock(BaseResponse.class);
+        when(bot.execute(request)).thenReturn(limited, ok);
+
+        assertThat(executor.executeAsync(request).get(5, TimeUnit.SECONDS)).isSameAs(ok);
+        verify(bot, times(2)).execute(request);
+    }
+
+    @Test
+    @DisplayName("Ошибка соединения повторяется ограниченное число раз")
+    void executeAsync_givesUpAfterMaxRetries() {
+        BaseRequest request = request(1L);
+        when(bot.execute(request)).thenThrow(new RuntimeException(new ConnectException("Connection refused")));
+
+        CompletableFuture<BaseResponse> result = executor.executeAsync(request);
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("Connection refused");
+        verify(bot, times(3)).execute(request);
+    }
+
+    @Test
+    @DisplayName("Таймаут чтения не повторяется: сообщение могло быть уже доставлено")
+    void executeAsync_doesNotRetryReadTimeout() {
+        BaseRequest request = request(1L);
+        when(bot.execute(request)).thenThrow(new RuntimeException(new SocketTimeoutException("Read timed out")));
+
+        CompletableFuture<BaseResponse> result = executor.executeAsync(request);
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        verify(bot, times(1)).execute(request);
+    }
+
+    @Test
+    @DisplayName("Повтор после 429 не обгоняется следующими сообщениями того же чата")
+    void executeAsync_retryKeepsChatOrder() throws Exception {
+        BaseRequest first = request(1L);
+        BaseRequest second = request(1L);
+        BaseResponse limited = mock(BaseResponse.class);
+        ResponseParameters parameters = mock(ResponseParameters.class);
+        when(limited.errorCode()).thenReturn(429);
+        when(limited.parameters()).thenReturn(parameters);
+        when(parameters.retryAfter()).thenReturn(0);
+        List<BaseRequest> sent = new CopyOnWriteArrayList<>();
+        when(bot.execute(any(BaseRequest.class))).thenAnswer(invocation -> {
+            BaseRequest request = invocation.getArgument(0);
+            sent.add(request);
+            return request == first && sent.size() == 1 ? limited : mock(BaseResponse.class);
+        });
+
+        CompletableFuture<BaseResponse> firstResult = executor.executeAsync(first);
+        CompletableFuture<BaseResponse> secondResult = executor.executeAsync(second);
+        CompletableFuture.allOf(firstResult, secondResult).get(5, TimeUnit.SECONDS);
+
+        assertThat(sent).containsExactly(first, first, second);
+    }
+
+    @Test
+    @DisplayName("Остановка завершает ошибкой неотправленные запросы и освобождает очередь")
+    void shutdown_completesPendingRequests() {
+        CountDownLatch release = new CountDownLatch(1);
+        BaseRequest first = request(1L);
+        when(bot.execute(first)).thenAnswer(invocation -> {
+            release.await(20, TimeUnit.SECONDS);
+            return mock(BaseResponse.class);
+        });
+        BaseRequest delayed = request(1L);
+
+        executor.executeAsync(first);
+        CompletableFuture<BaseResponse> pending = executor.executeAsync(delayed);
+        executor.shutdown();
+
+        assertThat(pending).isCompletedExceptionally();
+        assertThat(executor.queuedRequests()).isZero();
+        verify(bot, never()).execute(delayed);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Переполненная очередь отклоняет новые запросы")
+    void executeAsync_rejectsWhenQueueFull() throws Exception {
+        RequestExecutor smallExecutor = createExecutor(bot, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        BaseRequest first = request(1L);
+        when(bot.execute(first)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return mock(BaseResponse.class);
+        });
+
+        CompletableFuture<BaseResponse> pending = smallExecutor.executeAsync(first);
+        CompletableFuture<BaseResponse> rejected = smallExecutor.executeAsync(request(2L));
+
+        assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+        pending.get(5, TimeUnit.SECONDS);
+        smallExecutor.shutdown();
     }
-} 
\ No newline at end of file
+}
@@ -1,19 +1,26 @@
 package ru.julia.currencyexchange.application.bot.listener;
 
+import com.pengrad.telegrambot.UpdatesListener;
 import com.pengrad.telegrambot.model.CallbackQuery;
+import com.pengrad.telegrambot.model.Chat;
+import com.pengrad.telegrambot.model.Message;
 import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.EditMessageText;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import ru.julia.currencyexchange.application.bot.executor.interfaces.Executor;
 import ru.julia.currencyexchange.application.bot.messages.DefaultMessages;
+import ru.julia.currencyexchange.infrastructure.bot.command.handler.FindByDateCallbackHandler;
 
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -22,16 +29,16 @@ class MessagesListenerUnitTest {
     private Executor executor;
     @Mock
     private DefaultMessages defaultMessages;
-    @InjectMocks
     private MessagesListener listener;
 
     @BeforeEach
     void setUp() {
         openMocks(this);
+        listener = new MessagesListener(executor, defaultMessages, new UpdateDispatcher(Runnable::run, 1, 10));
     }
 
     @Test
-    @DisplayName("Обычное сообщение: вызывается sendMessage и executor.execute")
+    @DisplayName("Обычное сообщение: вызывается sendMessage и executor.executeAsync")
     void process_shouldCallSendMessageAndExecute() {
         Update update = mock(Update.class);
         SendMessage sendMessage = mock(SendMessage.class);
@@ -43,7 +50,7 @@ class MessagesListenerUnitTest {
         listener.process(List.of(update));
 
         verify(defaultMessages).sendMessage(update);
-        verify(executor).execute(sendMessage);
+        verify(executor).executeAsync(sendMessage);
     }
 
     @Test
@@ -55,7 +62,7 @@ class MessagesListenerUnitTest {
 
         listener.process(List.of(update));
 
-        verify(executor, never()).execute(any());
+        verify(executor, never()).executeAsync(any());
     }
 
     @Test
@@ -69,11 +76,11 @@ class MessagesListenerUnitTest {
 
         spyListener.process(List.of(update));
 
-        verify(executor, never()).execute(any());
+        verify(executor, never()).executeAsync(any());
     }
 
     @Test
-    @DisplayName("executor.execute выбрасывает исключение — процесс не падает")
+    @DisplayName("executor.executeAsync выбрасывает исключение — процесс не падает")
     void process_executorThrows_noCrash() {
         Update update = mock(Update.class);
         SendMessage sendMessage = mock(SendMessage.class);
@@ -82,7 +89,7 @@ class MessagesListenerUnitTest {
         when(defaultMessages.sendMessage(update)).thenReturn(sendMessage);
         when(sendMessage.getParameters()).thenReturn(Map.of());
 
-        doThrow(new RuntimeException("fail")).when(executor).execute(sendMessage);
+        doThrow(new RuntimeException("fail")).when(executor).executeAsync(sendMessage);
 
         listener.process(List.of(update));
     }
@@ -92,7 +99,7 @@ class MessagesListenerUnitTest {
     void process_emptyList_noExecute() {
         listener.process(List.of());
 
-        verify(executor, never()).execute(any());
+        verify(executor, never()).executeAsync(any());
     }
 
     @Test
@@ -106,6 +113,91 @@ class MessagesListenerUnitTest {
 
         listener.process(List.of(update));
 
-        verify(executor, never()).execute(any());
+        verify(executor, never()).executeAsync(any());
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("CallbackQuery findByDate: дата и страница передаются обработчику")
+    void handleCallback_findByDatePage() {
+        Update update = mock(Update.class);
+        CallbackQuery callbackQuery = mock(CallbackQuery.class);
+        FindByDateCallbackHandler handler = mock(FindByDateCallbackHandler.class);
+        EditMessageText editMessage = mock(EditMessageText.class);
+
+        when(update.callbackQuery()).thenReturn(callbackQuery);
+        when(callbackQuery.data()).thenReturn("findByDate_page_2024_03_01_2");
+        when(defaultMessages.getFindByDateCallbackHandler()).thenReturn(handler);
+        when(handler.handleCallback(update, 2, "2024-03-01")).thenReturn(editMessage);
+        when(editMessage.getParameters()).thenReturn(Map.of());
+
+        listener.process(List.of(update));
+
+        verify(executor).executeAsync(editMessage);
+        verify(defaultMessages, never()).sendMessage(any());
+    }
+
+    @Test
+    @DisplayName("CallbackQuery с некорректной страницей обрабатывается как обычное сообщение")
+    void handleCallback_invalidPage_fallsBackToSendMessage() {
+        Update update = mock(Update.class);
+        CallbackQuery callbackQuery = mock(CallbackQuery.class);
+
+        when(update.callbackQuery()).thenReturn(callbackQuery);
+        when(callbackQuery.data()).thenReturn("history_page_x");
+
+        listener.process(List.of(update));
+
+        verify(defaultMessages, never()).getHistoryCallbackHandler();
+        verify(defaultMessages).sendMessage(update);
+    }
+
+    @Test
+    @DisplayName("Подтверждаются только обновления до первого необработанного, повторно присланные не запускаются")
+    void process_confirmsOnlyCompletedPrefix() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        MessagesListener deferred = new MessagesListener(executor, defaultMessages,
+                new UpdateDispatcher(tasks::add, 2, 10));
+        Update first = update(1, 100L);
+        Update second = update(2, 200L);
+
+        assertThat(deferred.process(List.of(first, second))).isEqualTo(UpdatesListener.CONFIRMED_UPDATES_NONE);
+        assertThat(tasks).hasSize(2);
+
+        tasks.remove();
+        tasks.remove().run();
+        assertThat(deferred.process(List.of(first, second))).isEqualTo(UpdatesListener.CONFIRMED_UPDATES_NONE);
+        assertThat(tasks).isEmpty();
+        verify(defaultMessages, times(1)).sendMessage(second);
+    }
+
+    @Test
+    @DisplayName("После обработки самого старого обновления подтверждается вся завершенная цепочка")
+    void process_confirmsUpToLastCompleted() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        MessagesListener deferred = new MessagesListener(executor, defaultMessages,
+                new UpdateDispatcher(tasks::add, 2, 10));
+        Update first = update(1, 100L);
+        Update second = update(2, 200L);
+        Update third = update(3, 300L);
+
+        deferred.process(List.of(first, second, third));
+        Runnable firstTask = tasks.remove();
+        tasks.remove().run();
+        firstTask.run();
+
+        assertThat(deferred.process(List.of(third))).isEqualTo(2);
+        tasks.remove().run();
+        assertThat(deferred.process(List.of(third))).isEqualTo(3);
+    }
+
+    private static Update update(int updateId, long chatId) {
+        Update update = mock(Update.class);
+        Message message = mock(Message.class);
+        Chat chat = mock(Chat.class);
+        when(update.updateId()).thenReturn(updateId);
+        when(update.message()).thenReturn(message);
+        when(message.chat()).thenReturn(chat);
+        when(chat.id()).thenReturn(chatId);
+        return update;
+    }
+}
@@ -0,0 +1,184 @@
+package ru.julia.currencyexchange.application.bot.listener;
+
+import com.pengrad.telegrambot.model.Chat;
+import com.pengrad.telegrambot.model.Message;
+import com.pengrad.telegrambot.model.Update;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UpdateDispatcherUnitTest {
+    private final ExecutorService workers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    private static Update messageFrom(long chatId) {
+        Update update = mock(Update.class);
+        Message message = mock(Message.class);
+        Chat chat = mock(Chat.class);
+        when(update.message()).thenReturn(message);
+        when(message.chat()).thenReturn(chat);
+        when(chat.id()).thenReturn(chatId);
+        return update;
+    }
+
+    @Test
+    @DisplayName("Обновления одного чата выполняются по порядку")
+    void dispatch_keepsOrderWithinChat() throws Exception {
+        UpdateDispatcher dispatcher = new UpdateDispatcher(workers, 4, 100);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            int index = i;
+            dispatcher.dispatch(messageFrom(1L), () -> {
+                processed.add(index);
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processed).isSorted().hasSize(20);
+    }
+
+    @Test
+    @DisplayName("Медленное обновление одного чата не задерживает другие чаты")
+    void dispatch_slowChatDoesNotBlockOthers() throws Exception {
+        UpdateDispatcher dispatcher = new UpdateDispatcher(workers, 4, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherChat = new CountDownLatch(1);
+
+        dispatcher.dispatch(messageFrom(1L), () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        dispatcher.dispatch(messageFrom(2L), otherChat::countDown);
+
+        assertThat(otherChat.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Результат dispatch завершается после выполнения задачи, даже неудачного")
+    void dispatch_completesAfterTask() throws Exception {
+        UpdateDispatcher dispatcher = new UpdateDispatcher(workers, 4, 100);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> slow = dispatcher.dispatch(messageFrom(1L), () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CompletableFuture<Void> failing = dispatcher.dispatch(messageFrom(1L), () -> {
+            throw new IllegalStateException("handler");
+        });
+
+        assertThat(slow).isNotDone();
+        release.countDown();
+        failing.get(5, TimeUnit.SECONDS);
+        assertThat(slow).isCompleted();
+        assertThat(dispatcher.pendingUpdates()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ошибка обработки не прерывает очередь чата")
+    void dispatch_failureDoesNotBreakChain() throws Exception {
+        UpdateDispatcher dispatcher = new UpdateDispatcher(workers, 4, 100);
+        CountDownLatch next = new CountDownLatch(1);
+
+        dispatcher.dispatch(messageFrom(1L), () -> {
+            throw new IllegalStateException("fail");
+        });
+        dispatcher.dispatch(messageFrom(1L), next::countDown);
+
+        assertThat(next.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("При переполнении очереди поток опроса ждет освобождения места")
+    void dispatch_appliesBackpressure() throws Exception {
+        UpdateDispatcher dispatcher = new UpdateDispatcher(workers, 4, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondDispatched = new CountDownLatch(1);
+
+        dispatcher.dispatch(messageFrom(1L), () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread poller = new Thread(() -> {
+            dispatcher.dispatch(messageFrom(2L), () -> {
+            });
+            secondDispatched.countDown();
+        });
+        poller.start();
+
+        assertThat(secondDispatched.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(dispatcher.pendingUpdates()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(secondDispatched.await(5, TimeUnit.SECONDS)).isTrue();
+        poller.join(5000);
+    }
+
+    @Test
+    @DisplayName("Error в обработке не отменяет следующие обновления чата")
+    void dispatch_errorDoesNotDropQueuedUpdates() throws Exception {
+        UpdateDispatcher dispatcher = new UpdateDispatcher(workers, 4, 100);
+        CountDownLatch next = new CountDownLatch(1);
+
+        dispatcher.dispatch(messageFrom(1L), () -> {
+            throw new StackOverflowError("handler");
+        });
+        dispatcher.dispatch(messageFrom(1L), next::countDown);
+
+        assertThat(next.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitNoPending(dispatcher);
+    }
+
+    @Test
+    @DisplayName("Отклоненные остановленным пулом обновления выполняются, а не теряются")
+    void dispatch_rejectedTaskStillRuns() throws Exception {
+        ExecutorService stopped = Executors.newSingleThreadExecutor();
+        stopped.shutdown();
+        UpdateDispatcher dispatcher = new UpdateDispatcher(stopped, 4, 100);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+
+        dispatcher.dispatch(messageFrom(1L), () -> processed.add(1));
+        dispatcher.dispatch(messageFrom(1L), () -> processed.add(2));
+
+        assertThat(processed).containsExactly(1, 2);
+        assertThat(dispatcher.pendingUpdates()).isZero();
+    }
+
+    private static void awaitNoPending(UpdateDispatcher dispatcher) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.pendingUpdates() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dispatcher.pendingUpdates()).isZero();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.julia.currencyexchange.application.bot.listener.callback;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CallbackRouterUnitTest {
+    private final List<Object> calls = new ArrayList<>();
+
+    private final CallbackRouter router = CallbackRouter.builder()
+            .prefix("currencies_page_", CallbackArguments::page, (update, page) -> calls.add("currencies:" + page))
+            .prefix("currency_to_rub_", CallbackArguments::raw, (update, data) -> calls.add("rub:" + data))
+            .prefix("findByDate_page_", CallbackArguments::datePage, (update, argument) -> calls.add(argument))
+            .prefix("users_page_", CallbackArguments::usersPage, (update, argument) -> calls.add(argument))
+            .prefix("convert_", CallbackArguments::raw, (update, data) -> calls.add("convert"))
+            .prefix("convert_amount_", CallbackArguments::raw, (update, data) -> calls.add("amount"))
+            .exact("delete_account_confirm", (update, data) -> calls.add("confirm"))
+            .build();
+
+    @Test
+    @DisplayName("Маршрут выбирается по префиксу, аргумент разбирается после него")
+    void dispatch_pageArgument() {
+        assertThat(router.dispatch(null, "currencies_page_12")).isTrue();
+        assertThat(calls).containsExactly("currencies:12");
+    }
+
+    @Test
+    @DisplayName("Похожие префиксы различаются")
+    void dispatch_sharedPrefixes() {
+        router.dispatch(null, "currency_to_rub_USD");
+        router.dispatch(null, "convert_currency_USD");
+        router.dispatch(null, "convert_amount_100");
+
+        assertThat(calls).containsExactly("rub:currency_to_rub_USD", "convert", "amount");
+    }
+
+    @Test
+    @DisplayName("Дата и страница findByDate разбираются без split")
+    void dispatch_datePage() {
+        router.dispatch(null, "findByDate_page_2024_01_15_3");
+
+        assertThat(calls).containsExactly(new CallbackArguments.DatePage("2024-01-15", 3));
+    }
+
+    @Test
+    @DisplayName("Режим и страница списка пользователей")
+    void dispatch_usersPage() {
+        router.dispatch(null, "users_page_compact_2");
+        router.dispatch(null, "users_page_full_0");
+
+        assertThat(calls).containsExactly(new CallbackArguments.UsersPage(true, 2),
+                new CallbackArguments.UsersPage(false, 0));
+    }
+
+    @Test
+    @DisplayName("Некорректный аргумент не обрабатывается")
+    void dispatch_invalidArgument() {
+        assertThat(router.dispatch(null, "currencies_page_abc")).isFalse();
+        assertThat(router.dispatch(null, "currencies_page_")).isFalse();
+        assertThat(router.dispatch(null, "findByDate_page_2024_01_15")).isFalse();
+        assertThat(router.dispatch(null, "users_page_compact")).isFalse();
+        assertThat(calls).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Точный маршрут не срабатывает на продолжение строки")
+    void dispatch_exactRoute() {
+        assertThat(router.dispatch(null, "delete_account_confirm")).isTrue();
+        assertThat(router.dispatch(null, "delete_account_confirm_2")).isFalse();
+        assertThat(calls).containsExactly("confirm");
+    }
+
+    @Test
+    @DisplayName("Неизвестный и пустой callback не обрабатываются")
+    void dispatch_unknown() {
+        assertThat(router.dispatch(null, "unknown")).isFalse();
+        assertThat(router.dispatch(null, "")).isFalse();
+        assertThat(router.dispatch(null, null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Повторная регистрация префикса запрещена")
+    void builder_duplicatePrefix() {
+        assertThatThrownBy(() -> CallbackRouter.builder()
+                .prefix("a_", CallbackArguments::raw, (update, data) -> true)
+                .prefix("a_", CallbackArguments::raw, (update, data) -> true))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Разбор числа повторяет Integer.parseInt")
+    void parseInt_matchesIntegerParseInt() {
+        for (String value : List.of("0", "7", "-3", "+4", "2147483647", "-2147483648")) {
+            assertThat(CallbackArguments.parseInt(value, 0, value.length())).isEqualTo(Integer.parseInt(value));
+        }
+        for (String value : List.of("", "-", "2147483648", "-2147483649", "1a", "99999999999999999999")) {
+            assertThat(CallbackArguments.parseInt(value, 0, value.length())).isNull();
+        }
+    }
+}
@@ -9,13 +9,16 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.bot.settings.enums.RegistrationState;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.application.service.bot.RegistrationStateService;
+import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.RegisterCommand;
 import ru.julia.currencyexchange.infrastructure.bot.command.interfaces.BotCommandHandler;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -96,7 +99,7 @@ class DefaultMessagesUnitTest {
         when(message.text()).thenReturn("/admin");
         when(registrationStateService.getState(2L)).thenReturn(RegistrationState.NONE);
         when(otherCommand.matches(update)).thenReturn(true);
-        when(userService.existsByChatId(2L)).thenReturn(false);
+        when(userService.findOptionalUserByChatId(2L)).thenReturn(Optional.empty());
         when(otherCommand.isAccessible(null)).thenReturn(false);
         when(messageConverter.resolve("command.access_denied")).thenReturn("Нет доступа");
 
@@ -136,11 +139,11 @@ class DefaultMessagesUnitTest {
         when(message.text()).thenReturn("/start");
         when(registrationStateService.getState(4L)).thenReturn(RegistrationState.NONE);
         when(otherCommand.matches(update)).thenReturn(true);
-        when(userService.existsByChatId(4L)).thenReturn(false);
+        when(userService.findOptionalUserByChatId(4L)).thenReturn(Optional.empty());
         when(otherCommand.isAccessible(null)).thenReturn(true);
 
         SendMessage expected = new SendMessage(4L, "Добро пожаловать!");
-        when(otherCommand.handle(update)).thenReturn(expected);
+        when(otherCommand.handle(eq(update), any(UserContext.class))).thenReturn(expected);
 
         SendMessage result = defaultMessages.sendMessage(update);
         assertThat(result).isEqualTo(expected);
@@ -159,7 +162,7 @@ class DefaultMessagesUnitTest {
         when(message.text()).thenReturn("/admin");
         when(registrationStateService.getState(5L)).thenReturn(RegistrationState.NONE);
         when(otherCommand.matches(update)).thenReturn(true);
-        when(userService.existsByChatId(5L)).thenReturn(false);
+        when(userService.findOptionalUserByChatId(5L)).thenReturn(Optional.empty());
         when(otherCommand.isAccessible(null)).thenReturn(false);
         when(messageConverter.resolve("command.access_denied")).thenReturn("");
 
@@ -185,4 +188,95 @@ class DefaultMessagesUnitTest {
         SendMessage result = defaultMessages.sendMessage(update);
         assertThat(result.getParameters().toString()).contains("Неизвестная команда. Посмотрите список доступных команд, написав /help.");
     }
-} 
\ No newline at end of file
+
+    private static Update textUpdate(long chatId, String text) {
+        Update update = mock(Update.class);
+        Message message = mock(Message.class);
+        Chat chat = mock(Chat.class);
+        when(update.message()).thenReturn(message);
+        when(message.chat()).thenReturn(chat);
+        when(chat.id()).thenReturn(chatId);
+        when(message.text()).thenReturn(text);
+        return update;
+    }
+
+    @Test
+    @DisplayName("Команда находится по имени без перебора matches, пользователь загружается один раз")
+    void sendMessage_namedCommand_usesIndexAndSingleLookup() {
+        BotCommandHandler history = mock(BotCommandHandler.class);
+        when(history.getCommand()).thenReturn("/history");
+        when(history.isAccessible(any())).thenReturn(true);
+        DefaultMessages messages = new DefaultMessages(messageConverter, registrationStateService, userService,
+                List.of(history), null, null, null, null, null, null, null, null, null);
+
+        Update update = textUpdate(7L, "  /history   extra");
+        User user = new User();
+        when(registrationStateService.getState(7L)).thenReturn(RegistrationState.NONE);
+        when(userService.findOptionalUserByChatId(7L)).thenReturn(Optional.of(user));
+        SendMessage expected = new SendMessage(7L, "history");
+        when(history.handle(eq(update), any(UserContext.class))).thenAnswer(invocation -> {
+            UserContext context = invocation.getArgument(1);
+            assertThat(context.user()).isSameAs(user);
+            return expected;
+        });
+
+        assertThat(messages.sendMessage(update)).isSameAs(expected);
+        verify(history, never()).matches(any());
+        verify(userService, times(1)).findOptionalUserByChatId(7L);
+        verify(userService, never()).existsByChatId(any());
+        verify(userService, never()).findUserByChatId(any());
+    }
+
+    @Test
+    @DisplayName("Команда с состоянием диалога, стоящая раньше в списке, перехватывает сообщение")
+    void sendMessage_statefulCommandBeforeNamed_wins() {
+        BotCommandHandler convert = mock(BotCommandHandler.class);
+        when(convert.isStateful()).thenReturn(true);
+        when(convert.getCommand()).thenReturn("/convert");
+        when(convert.isAccessible(any())).thenReturn(true);
+        BotCommandHandler help = mock(BotCommandHandler.class);
+        when(help.getCommand()).thenReturn("/help");
+        when(help.isAccessible(any())).thenReturn(true);
+        DefaultMessages messages = new DefaultMessages(messageConverter, registrationStateService, userService,
+                List.of(convert, help), null, null, null, null, null, null, null, null, null);
+
+        Update update = textUpdate(8L, "/help");
+        when(registrationStateService.getState(8L)).thenReturn(RegistrationState.NONE);
+        when(userService.findOptionalUserByChatId(8L)).thenReturn(Optional.empty());
+        when(convert.matches(update)).thenReturn(true);
+        SendMessage expected = new SendMessage(8L, "amount");
+        when(convert.handle(eq(update), any(UserContext.class))).thenReturn(expected);
+
+        assertThat(messages.sendMessage(update)).isSameAs(expected);
+        verify(help, never()).handle(any(), any());
+    }
+
+    @Test
+    @DisplayName("Заблокированному пользователю доступ запрещен")
+    void sendMessage_bannedUser_accessDenied() {
+        BotCommandHandler history = mock(BotCommandHandler.class);
+        when(history.getCommand()).thenReturn("/history");
+        when(history.isAccessible(any())).thenReturn(true);
+        DefaultMessages messages = new DefaultMessages(messageConverter, registrationStateService, userService,
+                List.of(history), null, null, null, null, null, null, null, null, null);
+
+        Update update = textUpdate(9L, "/history");
+        User user = new User();
+        user.setBanned(true);
+        when(registrationStateService.getState(9L)).thenReturn(RegistrationState.NONE);
+        when(userService.findOptionalUserByChatId(9L)).thenReturn(Optional.of(user));
+        when(messageConverter.resolve("command.access_denied")).thenReturn("Нет доступа");
+
+        assertThat(messages.sendMessage(update).getParameters().toString()).contains("Нет доступа");
+        verify(history, never()).handle(any(), any());
+    }
+
+    @Test
+    @DisplayName("Имя команды — первое слово сообщения")
+    void commandName_firstWord() {
+        assertThat(DefaultMessages.commandName("/start")).isEqualTo("/start");
+        assertThat(DefaultMessages.commandName("  /convert USD\tRUB ")).isEqualTo("/convert");
+        assertThat(DefaultMessages.commandName("/help\nmore")).isEqualTo("/help");
+        assertThat(DefaultMessages.commandName("   ")).isEmpty();
+    }
+}
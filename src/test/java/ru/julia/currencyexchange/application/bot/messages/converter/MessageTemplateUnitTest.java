@@ -0,0 +1,76 @@
+package ru.julia.currencyexchange.application.bot.messages.converter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MessageTemplateUnitTest {
+    private static String render(String message, Map<String, String> params) {
+        StringBuilder target = new StringBuilder();
+        MessageTemplate.compile(message).appendTo(target, params);
+        return target.toString();
+    }
+
+    @Test
+    @DisplayName("Подстановка нескольких параметров, в том числе повторяющихся")
+    void appendTo_multipleParams() {
+        String result = render("%code% | %name% (%code%)", Map.of("code", "USD", "name", "Доллар"));
+
+        assertThat(result).isEqualTo("USD | Доллар (USD)");
+    }
+
+    @Test
+    @DisplayName("Плейсхолдеры в начале и в конце сообщения")
+    void appendTo_placeholdersAtEdges() {
+        String result = render("%from%→%to%", Map.of("from", "EUR", "to", "RUB"));
+
+        assertThat(result).isEqualTo("EUR→RUB");
+    }
+
+    @Test
+    @DisplayName("Одиночный знак процента остается литералом")
+    void appendTo_singlePercentIsLiteral() {
+        String result = render("Комиссия 5% и 10%%fee%", Map.of("fee", "!"));
+
+        assertThat(result).isEqualTo("Комиссия 5% и 10%!");
+    }
+
+    @Test
+    @DisplayName("Сообщение без плейсхолдеров не имеет параметров")
+    void compile_noPlaceholders() {
+        MessageTemplate template = MessageTemplate.compile("Привет! 100 %");
+
+        assertThat(template.hasParameters()).isFalse();
+        assertThat(template.source()).isEqualTo("Привет! 100 %");
+    }
+
+    @Test
+    @DisplayName("Параметр, которого нет в params, оставляет плейсхолдер")
+    void appendTo_missingParamKeepsPlaceholder() {
+        String result = render("%amount% %code%", Map.of("amount", "10"));
+
+        assertThat(result).isEqualTo("10 %code%");
+    }
+
+    @Test
+    @DisplayName("Значение параметра не разбирается повторно как шаблон")
+    void appendTo_valueIsNotReparsed() {
+        String result = render("%a% %b%", Map.of("a", "%b%", "b", "x"));
+
+        assertThat(result).isEqualTo("%b% x");
+    }
+
+    @Test
+    @DisplayName("Значение null для плейсхолдера — NullPointerException")
+    void appendTo_nullValue() {
+        Map<String, String> params = new HashMap<>();
+        params.put("name", null);
+
+        assertThrows(NullPointerException.class, () -> render("Hello, %name%!", params));
+    }
+}
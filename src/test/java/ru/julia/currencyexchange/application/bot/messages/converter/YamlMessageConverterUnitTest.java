@@ -9,6 +9,7 @@ import org.springframework.context.support.ResourceBundleMessageSource;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -23,7 +24,7 @@ class YamlMessageConverterUnitTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        converter = new YamlMessageConverter(messageSource);
+        converter = new YamlMessageConverter(messageSource, new Properties());
     }
 
     @Test
@@ -88,4 +89,43 @@ class YamlMessageConverterUnitTest {
 
         assertThrows(NullPointerException.class, () -> converter.resolve("with_placeholder", params));
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Сообщения из message.yml разбираются при создании и не запрашиваются у messageSource")
+    void resolve_commonMessagesPrecompiled() {
+        Properties messages = new Properties();
+        messages.setProperty("welcome", "Добро пожаловать, %name%!");
+        messages.setProperty("plain", "Привет!");
+        converter = new YamlMessageConverter(messageSource, messages);
+
+        assertThat(converter.templateCount()).isEqualTo(2);
+        assertThat(converter.resolve("welcome", Map.of("name", "Юлия"))).isEqualTo("Добро пожаловать, Юлия!");
+        assertThat(converter.resolve("plain")).isEqualTo("Привет!");
+        verify(messageSource, never()).getMessage(anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Сообщение не из message.yml запрашивается у messageSource один раз")
+    void resolve_lazyMessageCached() {
+        when(messageSource.getMessage(eq("welcome"), any(), any())).thenReturn("Привет, %name%!");
+
+        converter.resolve("welcome", Map.of("name", "Юлия"));
+        String result = converter.resolve("welcome", Map.of("name", "Анна"));
+
+        assertThat(result).isEqualTo("Привет, Анна!");
+        verify(messageSource, times(1)).getMessage(eq("welcome"), any(), any());
+    }
+
+    @Test
+    @DisplayName("resolveTo дописывает сообщение в переданный StringBuilder")
+    void resolveTo_appendsToTarget() {
+        when(messageSource.getMessage(eq("row"), any(), any())).thenReturn("%code%: %rate%");
+        when(messageSource.getMessage(eq("not_found"), any(), any())).thenThrow(new NoSuchMessageException("not_found"));
+        StringBuilder target = new StringBuilder("> ");
+
+        converter.resolveTo(target, "row", Map.of("code", "USD", "rate", "90"));
+        converter.resolveTo(target, "not_found", Map.of());
+
+        assertThat(target.toString()).isEqualTo("> USD: 90not_found");
+    }
+}
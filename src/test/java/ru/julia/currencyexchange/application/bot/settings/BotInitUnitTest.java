@@ -8,6 +8,9 @@ import org.mockito.InOrder;
 import org.mockito.Mock;
 import ru.julia.currencyexchange.application.bot.listener.MessagesListener;
 import ru.julia.currencyexchange.application.service.bot.CommandRegistryService;
+import ru.julia.currencyexchange.infrastructure.configuration.BotConfig;
+
+import java.time.Duration;
 
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -24,7 +27,16 @@ class BotInitUnitTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        botInit = new BotInit(bot, messagesListener, commandRegistryService);
+        botInit = new BotInit(bot, messagesListener, commandRegistryService, botConfig(false));
+    }
+
+    private static BotConfig botConfig(boolean cluster) {
+        return new BotConfig("token",
+                new BotConfig.Dispatcher(true, 4, 100),
+                new BotConfig.Sender(100, 30, Duration.ofSeconds(1), 3, Duration.ofSeconds(1)),
+                new BotConfig.Conversation(BotConfig.Backend.POSTGRES, Duration.ofMinutes(30), 100, Duration.ofMinutes(1)),
+                new BotConfig.Cluster(cluster, "node", 1, 64, Duration.ofSeconds(5), Duration.ofSeconds(15),
+                        Duration.ofMillis(500), 100, Duration.ofMinutes(10)));
     }
 
     @Test
@@ -41,6 +53,17 @@ class BotInitUnitTest {
         verifyNoMoreInteractions(bot, commandRegistryService);
     }
 
+    @Test
+    @DisplayName("В кластере start не опрашивает Telegram: это делает лидер")
+    void start_clusterMode_doesNotSetUpdatesListener() {
+        botInit = new BotInit(bot, messagesListener, commandRegistryService, botConfig(true));
+
+        botInit.start();
+
+        verify(commandRegistryService).init();
+        verify(bot, never()).setUpdatesListener(any());
+    }
+
     @Test
     @DisplayName("close вызывает shutdown и больше ничего")
     void close_callsOnlyShutdown() {
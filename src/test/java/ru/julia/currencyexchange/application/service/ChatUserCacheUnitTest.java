@@ -0,0 +1,66 @@
+package ru.julia.currencyexchange.application.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.julia.currencyexchange.domain.model.User;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatUserCacheUnitTest {
+    private final AtomicLong now = new AtomicLong();
+    private final ChatUserCache cache = new ChatUserCache(Duration.ofSeconds(30), now::get);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final User user = new User("test@mail.com", "pass");
+
+    private Optional<User> load() {
+        loads.incrementAndGet();
+        return Optional.of(user);
+    }
+
+    @Test
+    @DisplayName("Пользователь загружается один раз в пределах TTL")
+    void get_cachesWithinTtl() {
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+        assertThat(loads).hasValue(1);
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        cache.get(1L, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Отсутствующий пользователь не кэшируется")
+    void get_absentNotCached() {
+        cache.get(1L, Optional::empty);
+
+        assertThat(cache.peek(1L)).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Сброс удаляет запись")
+    void invalidate_removesEntry() {
+        cache.get(1L, this::load);
+        cache.invalidate(1L);
+        cache.get(1L, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Загрузка, пересекшаяся со сбросом, не попадает в кэш")
+    void get_invalidatedDuringLoad_notCached() {
+        cache.get(1L, () -> {
+            cache.invalidate(1L);
+            return Optional.of(user);
+        });
+
+        assertThat(cache.peek(1L)).isEmpty();
+    }
+}
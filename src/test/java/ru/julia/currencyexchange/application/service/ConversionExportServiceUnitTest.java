@@ -0,0 +1,107 @@
+package ru.julia.currencyexchange.application.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.julia.currencyexchange.domain.enums.ExportFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ConversionExportServiceUnitTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ConversionExportService service = new ConversionExportService(jdbcTemplate, 250);
+
+    @Test
+    @DisplayName("CSV: заголовок и по строке на конвертацию")
+    void exportHistory_csv() throws Exception {
+        streamRows(2);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = service.exportHistory("u1", ExportFormat.CSV, output);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                ConversionExportService.CSV_HEADER + "\n" +
+                        "c1,USD,RUB,100.000000,9000.500000,90.005000,2024-01-15T10:30\n" +
+                        "c1,USD,RUB,100.000000,9000.500000,90.005000,2024-01-15T10:30\n");
+    }
+
+    @Test
+    @DisplayName("NDJSON: один JSON-объект на строку без заголовка")
+    void exportHistory_ndjson() throws Exception {
+        streamRows(1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = service.exportHistory("u1", ExportFormat.NDJSON, output);
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":\"c1\",\"sourceCurrency\":\"USD\",\"targetCurrency\":\"RUB\",\"amount\":100.000000," +
+                        "\"convertedAmount\":9000.500000,\"conversionRate\":90.005000," +
+                        "\"timestamp\":\"2024-01-15T10:30\"}\n");
+    }
+
+    @Test
+    @DisplayName("Запрос читается курсором с заданным fetchSize")
+    void exportHistory_setsFetchSize() throws Exception {
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        service.exportHistory("u1", ExportFormat.CSV, new ByteArrayOutputStream());
+        verify(jdbcTemplate).query(creator.capture(), any(RowCallbackHandler.class));
+
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+
+        creator.getValue().createPreparedStatement(connection);
+
+        verify(connection).prepareStatement(ConversionExportService.EXPORT_SQL,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        verify(statement).setFetchSize(250);
+        verify(statement).setString(1, "u1");
+    }
+
+    @Test
+    @DisplayName("Пустая история: в CSV только заголовок")
+    void exportHistory_empty() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = service.exportHistory("u1", ExportFormat.CSV, output);
+
+        assertThat(rows).isZero();
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(ConversionExportService.CSV_HEADER + "\n");
+    }
+
+    private void streamRows(int count) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn("c1");
+        when(rs.getString(2)).thenReturn("USD");
+        when(rs.getString(3)).thenReturn("RUB");
+        when(rs.getBigDecimal(4)).thenReturn(new BigDecimal("100.000000"));
+        when(rs.getBigDecimal(5)).thenReturn(new BigDecimal("9000.500000"));
+        when(rs.getBigDecimal(6)).thenReturn(new BigDecimal("90.005000"));
+        when(rs.getObject(7, LocalDateTime.class)).thenReturn(LocalDateTime.of(2024, 1, 15, 10, 30));
+
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < count; i++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+}
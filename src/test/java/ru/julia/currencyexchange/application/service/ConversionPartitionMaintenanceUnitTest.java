@@ -0,0 +1,74 @@
+package ru.julia.currencyexchange.application.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ConversionPartitionMaintenanceUnitTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-03-15T10:00:00Z"), ZoneOffset.UTC);
+    private static final String CREATE_SQL = "SELECT create_currency_conversion_partition(?)";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    @DisplayName("Создаются секции на текущий и следующие месяцы")
+    void maintain_createsFuturePartitions() {
+        when(jdbcTemplate.queryForObject(eq(CREATE_SQL), eq(Boolean.class), any(Object[].class))).thenReturn(true);
+
+        new ConversionPartitionMaintenance(jdbcTemplate, 2, 0, true, CLOCK).maintain();
+
+        verify(jdbcTemplate).queryForObject(CREATE_SQL, Boolean.class, Date.valueOf(LocalDate.of(2025, 3, 1)));
+        verify(jdbcTemplate).queryForObject(CREATE_SQL, Boolean.class, Date.valueOf(LocalDate.of(2025, 4, 1)));
+        verify(jdbcTemplate).queryForObject(CREATE_SQL, Boolean.class, Date.valueOf(LocalDate.of(2025, 5, 1)));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+    }
+
+    @Test
+    @DisplayName("Секции старше срока хранения отключаются, более новые остаются")
+    void applyRetention_detachesOldPartitions() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "currency_conversions_p202411", "currency_conversions_p202412",
+                "currency_conversions_p202503", "currency_conversions_default"));
+
+        new ConversionPartitionMaintenance(jdbcTemplate, 0, 3, true, CLOCK).applyRetention();
+
+        verify(jdbcTemplate).execute("ALTER TABLE currency_conversions DETACH PARTITION currency_conversions_p202411");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE currency_conversions DETACH PARTITION currency_conversions_p202412");
+        verify(jdbcTemplate, never()).execute(contains("currency_conversions_default"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+    }
+
+    @Test
+    @DisplayName("Без архивации отключенная секция удаляется")
+    void applyRetention_dropsWithoutArchive() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("currency_conversions_p202401"));
+
+        new ConversionPartitionMaintenance(jdbcTemplate, 0, 3, false, CLOCK).applyRetention();
+
+        verify(jdbcTemplate).execute("ALTER TABLE currency_conversions DETACH PARTITION currency_conversions_p202401");
+        verify(jdbcTemplate).execute("DROP TABLE currency_conversions_p202401");
+    }
+
+    @Test
+    @DisplayName("Ошибка обслуживания не пробрасывается в планировщик")
+    void maintain_failureIsLogged() {
+        when(jdbcTemplate.queryForObject(eq(CREATE_SQL), eq(Boolean.class), any(Object[].class)))
+                .thenThrow(new IllegalStateException("db down"));
+
+        new ConversionPartitionMaintenance(jdbcTemplate, 1, 3, true, CLOCK).maintain();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
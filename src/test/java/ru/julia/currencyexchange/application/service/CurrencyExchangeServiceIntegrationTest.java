@@ -8,6 +8,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.julia.currencyexchange.application.exceptions.InvalidDateFormatException;
 import ru.julia.currencyexchange.application.exceptions.UserNotFoundException;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 import ru.julia.currencyexchange.domain.model.User;
@@ -54,31 +55,6 @@ class CurrencyExchangeServiceIntegrationTest extends IntegrationTestBase {
                 .isInstanceOf(UserNotFoundException.class);
     }
 
-    @Test
-    @DisplayName("История пользователя")
-    void getUserHistory_success() {
-        User user = new User();
-        user.setChatId(123456789L);
-        user.setEmail("ituser@mail.com");
-        user.setPassword("pass");
-        user.setUsername("testuser");
-        userRepository.save(user);
-
-        Currency from = currencyRepository.save(new Currency("USD", "Доллар", BigDecimal.valueOf(100)));
-        Currency to = currencyRepository.save(new Currency("RUB", "Рубль", BigDecimal.valueOf(50)));
-        CurrencyConversion conv = conversionRepository.save(new CurrencyConversion(user, from, to, BigDecimal.TEN, BigDecimal.ONE, BigDecimal.ONE));
-        List<CurrencyConversion> result = service.getUserHistory(user.getId());
-
-        assertThat(result).extracting("id").contains(conv.getId());
-    }
-
-    @Test
-    @DisplayName("История пользователя: не найден")
-    void getUserHistory_userNotFound() {
-        assertThatThrownBy(() -> service.getUserHistory("nonexistent"))
-                .isInstanceOf(UserNotFoundException.class);
-    }
-
     @Test
     @DisplayName("Поиск по дате: успешный сценарий")
     void findByCurrencyDate_success() {
@@ -93,7 +69,7 @@ class CurrencyExchangeServiceIntegrationTest extends IntegrationTestBase {
         Currency to = currencyRepository.save(new Currency("RUB", "Рубль", BigDecimal.valueOf(50)));
         CurrencyConversion conv = conversionRepository.save(new CurrencyConversion(user, from, to, BigDecimal.TEN, BigDecimal.ONE, BigDecimal.ONE));
         String today = LocalDate.now().toString();
-        List<CurrencyConversion> result = service.findByCurrencyDate(user.getId(), today);
+        List<ConversionHistoryItem> result = service.findByCurrencyDate(user.getId(), today);
 
         assertThat(result).extracting("id").contains(conv.getId());
     }
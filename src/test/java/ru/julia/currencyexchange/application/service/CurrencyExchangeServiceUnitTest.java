@@ -5,9 +5,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.data.domain.PageRequest;
 import ru.julia.currencyexchange.application.exceptions.CurrencyNotFoundException;
 import ru.julia.currencyexchange.application.exceptions.InvalidDateFormatException;
+import ru.julia.currencyexchange.application.exceptions.InvalidParameterException;
 import ru.julia.currencyexchange.application.exceptions.UserNotFoundException;
+import ru.julia.currencyexchange.application.service.rates.RateSnapshot;
+import ru.julia.currencyexchange.application.service.rates.RateSnapshotService;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 import ru.julia.currencyexchange.domain.model.User;
@@ -17,7 +22,9 @@ import ru.julia.currencyexchange.infrastructure.repository.jpa.UserRepository;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,13 +32,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
 class CurrencyExchangeServiceUnitTest {
     @Mock
-    private CurrencyService currencyService;
+    private RateSnapshotService rateSnapshotService;
     @Mock
     private CurrencyRepository currencyRepository;
     @Mock
@@ -46,6 +56,7 @@ class CurrencyExchangeServiceUnitTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
+        when(rateSnapshotService.getSnapshot()).thenReturn(RateSnapshot.EMPTY);
     }
 
     @Test
@@ -74,6 +85,29 @@ class CurrencyExchangeServiceUnitTest {
         assertThat(result.getConvertedAmount()).isEqualByComparingTo(BigDecimal.valueOf(20.0));
     }
 
+    @Test
+    @DisplayName("Конвертация берет курсы из снимка без обращения к БД")
+    void convert_usesRateSnapshot() {
+        User user = new User();
+        setId(user, "1");
+
+        Currency from = new Currency("USD", "Доллар", BigDecimal.valueOf(100));
+        Currency to = new Currency("RUB", "Рубль", BigDecimal.valueOf(50));
+        RateSnapshot snapshot = RateSnapshot.of(1, List.of(from, to), Instant.now());
+
+        when(rateSnapshotService.getSnapshot()).thenReturn(snapshot);
+        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+        when(settingsService.getGlobalConversionFeePercent()).thenReturn(0.0);
+        when(conversionRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        CurrencyConversion result = service.convert("1", "USD", "RUB", BigDecimal.TEN);
+
+        assertThat(result.getSourceCurrency()).isSameAs(from);
+        assertThat(result.getTargetCurrency()).isSameAs(to);
+        assertThat(result.getConvertedAmount()).isEqualByComparingTo(BigDecimal.valueOf(20.0));
+        verify(currencyRepository, never()).findByCode(anyString());
+    }
+
     private static void setId(Object entity, String id) {
         try {
             Field field = entity.getClass().getDeclaredField("id");
@@ -161,37 +195,48 @@ class CurrencyExchangeServiceUnitTest {
     }
 
     @Test
-    @DisplayName("История пользователя")
-    void getUserHistory_success() {
-        User user = new User();
-        setId(user, "1");
-
-        List<CurrencyConversion> history = List.of(mock(CurrencyConversion.class));
-
-        when(userRepository.findById("1")).thenReturn(Optional.of(user));
-        when(conversionRepository.findConversionByUserId("1")).thenReturn(history);
+    @DisplayName("Поиск по дате: успешный сценарий")
+    void findByCurrencyDate_success() {
+        List<ConversionHistoryItem> list = List.of(mock(ConversionHistoryItem.class));
+        when(conversionRepository.findByTimestampRange("1",
+                LocalDateTime.of(2024, 6, 30, 0, 0), LocalDateTime.of(2024, 7, 1, 0, 0))).thenReturn(list);
 
-        List<CurrencyConversion> result = service.getUserHistory("1");
-        assertThat(result).isEqualTo(history);
+        List<ConversionHistoryItem> result = service.findByCurrencyDate("1", "2024-06-30");
+        assertThat(result).isEqualTo(list);
     }
 
     @Test
-    @DisplayName("История пользователя: не найден")
-    void getUserHistory_userNotFound() {
-        when(userRepository.findById("1")).thenReturn(Optional.empty());
-
-        assertThatThrownBy(() -> service.getUserHistory("1"))
-                .isInstanceOf(UserNotFoundException.class);
+    @DisplayName("Поиск за период: первая страница полуинтервала до начала дня после конечной даты")
+    void findByPeriodBefore_firstPage() {
+        List<ConversionHistoryItem> list = List.of(mock(ConversionHistoryItem.class));
+        when(conversionRepository.findLatestByTimestampRange("1",
+                LocalDateTime.of(2024, 6, 1, 0, 0), LocalDateTime.of(2024, 7, 1, 0, 0), PageRequest.of(0, 20)))
+                .thenReturn(list);
+
+        assertThat(service.findByPeriodBefore("1", LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30),
+                null, null, 20)).isEqualTo(list);
     }
 
     @Test
-    @DisplayName("Поиск по дате: успешный сценарий")
-    void findByCurrencyDate_success() {
-        List<CurrencyConversion> list = List.of(mock(CurrencyConversion.class));
-        when(conversionRepository.findByCurrencyDate(any(LocalDate.class), eq("1"))).thenReturn(list);
+    @DisplayName("Поиск за период: следующая страница читается после курсора")
+    void findByPeriodBefore_nextPage() {
+        List<ConversionHistoryItem> list = List.of(mock(ConversionHistoryItem.class));
+        LocalDateTime cursor = LocalDateTime.of(2024, 6, 15, 12, 0);
+        when(conversionRepository.findByTimestampRangeBefore("1",
+                LocalDateTime.of(2024, 6, 1, 0, 0), LocalDateTime.of(2024, 7, 1, 0, 0), cursor, "c-1",
+                PageRequest.of(0, 20))).thenReturn(list);
+
+        assertThat(service.findByPeriodBefore("1", LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30),
+                cursor, "c-1", 20)).isEqualTo(list);
+    }
 
-        List<CurrencyConversion> result = service.findByCurrencyDate("1", "2024-06-30");
-        assertThat(result).isEqualTo(list);
+    @Test
+    @DisplayName("Поиск за период: конечная дата раньше начальной")
+    void findByPeriodBefore_reversedRange() {
+        assertThatThrownBy(() -> service.findByPeriodBefore("1", LocalDate.of(2024, 6, 30), LocalDate.of(2024, 6, 1),
+                null, null, 20))
+                .isInstanceOf(InvalidParameterException.class);
+        verify(conversionRepository, never()).findLatestByTimestampRange(anyString(), any(), any(), any());
     }
 
     @Test
@@ -202,10 +247,67 @@ class CurrencyExchangeServiceUnitTest {
     }
 
     @Test
-    @DisplayName("Обновление курсов делегируется CurrencyService")
+    @DisplayName("Первая страница истории читается от новых записей без смещения")
+    void getUserHistoryPage_firstPage() {
+        List<ConversionHistoryItem> page = List.of(mock(ConversionHistoryItem.class));
+        when(conversionRepository.findLatestByUserId("1", PageRequest.of(0, 5))).thenReturn(page);
+
+        assertThat(service.getUserHistoryPage("1", 0, 5, 12)).isEqualTo(page);
+        verify(conversionRepository, never()).findOldestByUserId(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Последняя страница истории читается с другого конца и разворачивается")
+    void getUserHistoryPage_lastPage() {
+        ConversionHistoryItem oldest = mock(ConversionHistoryItem.class);
+        ConversionHistoryItem older = mock(ConversionHistoryItem.class);
+        when(conversionRepository.findOldestByUserId("1", PageRequest.of(0, 2))).thenReturn(List.of(oldest, older));
+
+        assertThat(service.getUserHistoryPage("1", 7, 5, 12)).containsExactly(older, oldest);
+        verify(conversionRepository, never()).findLatestByUserId(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Промежуточная страница истории читается через смещение")
+    void getUserHistoryPage_middlePage() {
+        List<ConversionHistoryItem> page = List.of(mock(ConversionHistoryItem.class));
+        when(conversionRepository.findLatestByUserId("1", PageRequest.of(1, 5))).thenReturn(page);
+
+        assertThat(service.getUserHistoryPage("1", 1, 5, 12)).isEqualTo(page);
+    }
+
+    @Test
+    @DisplayName("Пустая история не запрашивается")
+    void getUserHistoryPage_empty() {
+        assertThat(service.getUserHistoryPage("1", 0, 5, 0)).isEmpty();
+        verify(conversionRepository, never()).findLatestByUserId(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Keyset: без курсора возвращаются самые новые, с курсором — следующие за ним")
+    void getUserHistoryBefore() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 6, 30, 12, 0);
+        List<ConversionHistoryItem> latest = List.of(mock(ConversionHistoryItem.class));
+        List<ConversionHistoryItem> next = List.of(mock(ConversionHistoryItem.class));
+        when(conversionRepository.findLatestByUserId("1", PageRequest.of(0, 10))).thenReturn(latest);
+        when(conversionRepository.findByUserIdBefore("1", timestamp, "c1", PageRequest.of(0, 10))).thenReturn(next);
+
+        assertThat(service.getUserHistoryBefore("1", null, null, 10)).isEqualTo(latest);
+        assertThat(service.getUserHistoryBefore("1", timestamp, "c1", 10)).isEqualTo(next);
+    }
+
+    @Test
+    @DisplayName("Страница поиска по дате: невалидная дата")
+    void findByCurrencyDatePage_invalidDate() {
+        assertThatThrownBy(() -> service.findByCurrencyDatePage("1", "bad-date", 0, 5, 1))
+                .isInstanceOf(InvalidDateFormatException.class);
+    }
+
+    @Test
+    @DisplayName("Обновление курсов делегируется RateSnapshotService")
     void updateCurrencyRates_delegates() {
         List<Currency> list = List.of(mock(Currency.class));
-        when(currencyService.updateExchangeRates()).thenReturn(list);
+        when(rateSnapshotService.refresh()).thenReturn(list);
 
         List<Currency> result = service.updateCurrencyRates("1");
         assertThat(result).isEqualTo(list);
@@ -1,9 +1,11 @@
 package ru.julia.currencyexchange.application.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.springframework.dao.DataIntegrityViolationException;
 import ru.julia.currencyexchange.application.dto.CurrencyRate;
@@ -11,10 +13,16 @@ import ru.julia.currencyexchange.application.dto.CurrencyRatesList;
 import ru.julia.currencyexchange.application.exceptions.CurrencyRateFetchException;
 import ru.julia.currencyexchange.application.exceptions.CurrencyRateParsingException;
 import ru.julia.currencyexchange.application.exceptions.CurrencyRateSaveException;
+import ru.julia.currencyexchange.application.service.rates.CbrDailyRates;
+import ru.julia.currencyexchange.application.service.rates.CbrRatesClient;
+import ru.julia.currencyexchange.application.service.rates.CbrRatesXmlParser;
+import ru.julia.currencyexchange.application.service.rates.RateHistoryService;
+import ru.julia.currencyexchange.application.service.rates.RatesFeedLog;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.infrastructure.repository.jpa.CurrencyRepository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,13 +36,31 @@ import static org.mockito.MockitoAnnotations.openMocks;
 class CurrencyServiceUnitTest {
     @Mock
     private CurrencyRepository currencyRepository;
+    @Mock
+    private CbrRatesClient ratesClient;
+    @Mock
+    private RateHistoryService rateHistoryService;
+    @Mock
+    private RatesFeedLog feedLog;
 
-    @InjectMocks
+    private MeterRegistry meterRegistry;
     private CurrencyService currencyService;
 
     @BeforeEach
     void setUp() {
         openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        currencyService = new CurrencyService(currencyRepository, ratesClient, new CbrRatesXmlParser(), rateHistoryService,
+                feedLog, meterRegistry);
+    }
+
+    private void stubFeed(byte[] body) {
+        when(ratesClient.fetchDaily(any(), anyLong()))
+                .thenReturn(new CbrRatesClient.FetchResult(false, body, null, -1));
+    }
+
+    private double fetchCount(String result) {
+        return meterRegistry.get("currency.rates.fetch").tag("result", result).counter().count();
     }
 
     @Test
@@ -46,13 +72,14 @@ class CurrencyServiceUnitTest {
 
         when(ratesList.getValute()).thenReturn(List.of(usd));
 
-        String xml = "xml";
+        byte[] xml = "xml".getBytes();
         CurrencyService spyService = spy(currencyService);
 
-        doReturn(xml).when(spyService).fetchCurrencyRatesXml();
-        doReturn(Map.of("RUB", rub, "USD", usd)).when(spyService).parseCurrencyRates(xml);
+        stubFeed(xml);
+        doReturn(new CbrDailyRates(LocalDate.of(2026, 10, 17), Map.of("RUB", rub, "USD", usd), Map.of()))
+                .when(spyService).parseCurrencyRates(xml);
 
-        doNothing().when(spyService).saveCurrencyRates(anyMap());
+        doReturn(Map.of("USD", BigDecimal.valueOf(90.0))).when(spyService).saveCurrencyRates(anyMap());
 
         when(currencyRepository.findAll()).thenReturn(List.of(new Currency("RUB", "Российский рубль", BigDecimal.ONE), new Currency("USD", "Доллар США", BigDecimal.valueOf(90.0))));
 
@@ -60,6 +87,7 @@ class CurrencyServiceUnitTest {
 
         assertThat(result).hasSize(2);
         assertThat(result).anyMatch(c -> c.getCode().equals("USD") && c.getExchangeRate().compareTo(BigDecimal.valueOf(90.0)) == 0);
+        verify(rateHistoryService).record(LocalDate.of(2026, 10, 17), Map.of("USD", BigDecimal.valueOf(90.0)));
     }
 
     @Test
@@ -67,7 +95,7 @@ class CurrencyServiceUnitTest {
     void updateExchangeRates_fetchError() {
         CurrencyService spyService = spy(currencyService);
 
-        doThrow(new CurrencyRateFetchException("fail")).when(spyService).fetchCurrencyRatesXml();
+        when(ratesClient.fetchDaily(any(), anyLong())).thenThrow(new CurrencyRateFetchException("fail"));
 
         assertThatThrownBy(spyService::updateExchangeRates)
                 .isInstanceOf(CurrencyRateSaveException.class)
@@ -79,9 +107,9 @@ class CurrencyServiceUnitTest {
     void updateExchangeRates_parseError() {
         CurrencyService spyService = spy(currencyService);
 
-        doReturn("xml").when(spyService).fetchCurrencyRatesXml();
+        stubFeed("xml".getBytes());
 
-        doThrow(new CurrencyRateParsingException("parse fail")).when(spyService).parseCurrencyRates(anyString());
+        doThrow(new CurrencyRateParsingException("parse fail")).when(spyService).parseCurrencyRates(any(byte[].class));
 
         assertThatThrownBy(spyService::updateExchangeRates)
                 .isInstanceOf(CurrencyRateSaveException.class)
@@ -96,11 +124,11 @@ class CurrencyServiceUnitTest {
 
         when(ratesList.getValute()).thenReturn(List.of());
 
-        String xml = "xml";
+        byte[] xml = "xml".getBytes();
         CurrencyService spyService = spy(currencyService);
 
-        doReturn(xml).when(spyService).fetchCurrencyRatesXml();
-        doReturn(Map.of("RUB", rub)).when(spyService).parseCurrencyRates(xml);
+        stubFeed(xml);
+        doReturn(new CbrDailyRates(null, Map.of("RUB", rub), Map.of())).when(spyService).parseCurrencyRates(xml);
 
         doThrow(new DataIntegrityViolationException("db fail")).when(spyService).saveCurrencyRates(anyMap());
 
@@ -115,14 +143,127 @@ class CurrencyServiceUnitTest {
         CurrencyRate usd = new CurrencyRate("USD", 1, "Доллар США", "100.0");
         Currency existing = new Currency("USD", "Доллар США", BigDecimal.valueOf(90.0));
 
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(existing));
-        when(currencyRepository.save(any(Currency.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(currencyRepository.findAll()).thenReturn(List.of(existing));
 
-        CurrencyService service = new CurrencyService(currencyRepository);
+        CurrencyService service = currencyService;
         Map<String, CurrencyRate> rates = Map.of("USD", usd);
         service.saveCurrencyRates(rates);
 
         assertThat(existing.getExchangeRate()).isEqualByComparingTo(BigDecimal.valueOf(100.0));
         assertThat(existing.getName()).isEqualTo("Доллар США");
+        verify(currencyRepository).saveAll(List.of(existing));
+        verify(currencyRepository, never()).findByCode(anyString());
+    }
+
+    @Test
+    @DisplayName("Неизмененные валюты не сохраняются повторно")
+    void saveCurrencyRates_skipsUnchanged() {
+        CurrencyRate usd = new CurrencyRate("USD", 1, "Доллар США", "90,0");
+        Currency existing = new Currency("USD", "Доллар США", new BigDecimal("90.000000"));
+
+        when(currencyRepository.findAll()).thenReturn(List.of(existing));
+
+        CurrencyService service = currencyService;
+        service.saveCurrencyRates(Map.of("USD", usd));
+
+        verify(currencyRepository).findAll();
+        verify(currencyRepository, never()).saveAll(anyList());
+        verify(currencyRepository, never()).save(any(Currency.class));
+    }
+
+    @Test
+    @DisplayName("В архив курсов попадают только новые и изменившиеся курсы")
+    void saveCurrencyRates_returnsChangedRates() {
+        Currency usd = new Currency("USD", "Доллар США", new BigDecimal("90.000000"));
+        Currency eur = new Currency("EUR", "Евро", new BigDecimal("100.000000"));
+        when(currencyRepository.findAll()).thenReturn(List.of(usd, eur));
+
+        Map<String, BigDecimal> changed = currencyService.saveCurrencyRates(Map.of(
+                "USD", new CurrencyRate("USD", 1, "Доллар США", "90,0"),
+                "EUR", new CurrencyRate("EUR", 1, "Евро (новое имя)", "100,0"),
+                "JPY", new CurrencyRate("JPY", 100, "Японских иен", "60,0")));
+
+        assertThat(changed).containsOnlyKeys("JPY");
+        assertThat(changed.get("JPY")).isEqualByComparingTo("0.6");
+    }
+
+    @Test
+    @DisplayName("Новые и измененные валюты сохраняются одним пакетом")
+    void saveCurrencyRates_batchesChangedRows() {
+        Currency usd = new Currency("USD", "Доллар США", new BigDecimal("90.000000"));
+        Currency eur = new Currency("EUR", "Евро", new BigDecimal("100.000000"));
+
+        when(currencyRepository.findAll()).thenReturn(List.of(usd, eur));
+
+        CurrencyService service = currencyService;
+        service.saveCurrencyRates(Map.of(
+                "USD", new CurrencyRate("USD", 1, "Доллар США", "90,0"),
+                "EUR", new CurrencyRate("EUR", 1, "Евро", "101,5"),
+                "JPY", new CurrencyRate("JPY", 100, "Японских иен", "60,0")));
+
+        ArgumentCaptor<List<Currency>> captor = ArgumentCaptor.forClass(List.class);
+        verify(currencyRepository, times(1)).saveAll(captor.capture());
+
+        assertThat(captor.getValue())
+                .extracting(Currency::getCode)
+                .containsExactlyInAnyOrder("EUR", "JPY");
+        assertThat(eur.getExchangeRate()).isEqualByComparingTo("101.5");
+    }
+
+    @Test
+    @DisplayName("Парсинг ответа ЦБ РФ в кодировке windows-1251")
+    void parseCurrencyRates_cbrDocument() throws Exception {
+        byte[] xml;
+        try (var in = getClass().getResourceAsStream("/cbr/XML_daily.xml")) {
+            xml = in.readAllBytes();
+        }
+
+        CurrencyService service = currencyService;
+        CbrDailyRates daily = service.parseCurrencyRates(xml);
+        Map<String, CurrencyRate> rates = daily.rates();
+
+        assertThat(daily.date()).isEqualTo(LocalDate.of(2026, 10, 17));
+        assertThat(rates).containsKeys("RUB", "USD", "EUR", "JPY");
+        assertThat(rates.get("USD").getName()).isEqualTo("Доллар США");
+        assertThat(rates.get("USD").getDecimalValue()).isEqualByComparingTo("79.8813");
+        assertThat(rates.get("JPY").getNominal()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Ответ 304 пропускает парсинг и запись в БД, но отмечает успешную загрузку")
+    void updateExchangeRates_notModified() {
+        when(ratesClient.fetchDaily(any(), anyLong()))
+                .thenReturn(CbrRatesClient.FetchResult.notModified("\"etag\"", 1000L));
+        when(currencyRepository.findAll()).thenReturn(List.of());
+
+        CurrencyService spyService = spy(currencyService);
+        spyService.updateExchangeRates();
+
+        verify(spyService, never()).parseCurrencyRates(any());
+        verify(spyService, never()).saveCurrencyRates(anyMap());
+        verify(feedLog).recordFetch(any());
+        assertThat(fetchCount("not_modified")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Повторный неизмененный ответ пропускает парсинг и запись в БД")
+    void updateExchangeRates_unchangedBody() throws Exception {
+        byte[] xml;
+        try (var in = getClass().getResourceAsStream("/cbr/XML_daily.xml")) {
+            xml = in.readAllBytes();
+        }
+        when(ratesClient.fetchDaily(any(), anyLong()))
+                .thenReturn(new CbrRatesClient.FetchResult(false, xml, "\"v1\"", 1000L));
+        when(currencyRepository.findAll()).thenReturn(List.of());
+
+        CurrencyService spyService = spy(currencyService);
+        spyService.updateExchangeRates();
+        spyService.updateExchangeRates();
+
+        verify(spyService, times(1)).parseCurrencyRates(any());
+        verify(spyService, times(1)).saveCurrencyRates(anyMap());
+        verify(ratesClient).fetchDaily("\"v1\"", 1000L);
+        assertThat(fetchCount("changed")).isEqualTo(1.0);
+        assertThat(fetchCount("unchanged")).isEqualTo(1.0);
     }
 }
@@ -9,6 +9,7 @@ import ru.julia.currencyexchange.domain.model.Settings;
 import ru.julia.currencyexchange.infrastructure.repository.jpa.SettingsRepository;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -71,4 +72,68 @@ class SettingsServiceUnitTest {
         double fee = settingsService.getGlobalConversionFeePercent();
         assertThat(fee).isEqualTo(0.0);
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Комиссия читается из БД один раз и далее берется из кэша")
+    void getGlobalConversionFeePercent_cached() {
+        Settings settings = new Settings();
+        settings.setConversionFeePercent(1.5);
+        when(settingsRepository.findFirst()).thenReturn(Optional.of(settings));
+
+        settingsService.getGlobalConversionFeePercent();
+        double fee = settingsService.getGlobalConversionFeePercent();
+
+        assertThat(fee).isEqualTo(1.5);
+        verify(settingsRepository, times(1)).findFirst();
+    }
+
+    @Test
+    @DisplayName("Установка комиссии обновляет кэш без повторного чтения")
+    void setGlobalConversionFee_updatesCache() {
+        when(settingsRepository.findFirst()).thenReturn(Optional.empty());
+        when(settingsRepository.save(any(Settings.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        settingsService.getGlobalConversionFeePercent();
+        settingsService.setGlobalConversionFee(2.0);
+
+        assertThat(settingsService.getGlobalConversionFeePercent()).isEqualTo(2.0);
+        verify(settingsRepository, times(2)).findFirst();
+    }
+
+    @Test
+    @DisplayName("Периодическая сверка подхватывает комиссию, измененную другим экземпляром")
+    void reloadGlobalConversionFee_picksUpExternalChange() {
+        Settings settings = new Settings();
+        settings.setConversionFeePercent(1.0);
+        when(settingsRepository.findFirst()).thenReturn(Optional.of(settings));
+        assertThat(settingsService.getGlobalConversionFeePercent()).isEqualTo(1.0);
+
+        settings.setConversionFeePercent(3.0);
+        assertThat(settingsService.getGlobalConversionFeePercent()).isEqualTo(1.0);
+
+        settingsService.reloadGlobalConversionFee();
+        assertThat(settingsService.getGlobalConversionFeePercent()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Перечитывание, начатое до изменения комиссии, не затирает новое значение")
+    void reloadGlobalConversionFee_doesNotOverwriteConcurrentUpdate() {
+        Settings stored = new Settings();
+        stored.setConversionFeePercent(1.0);
+        AtomicBoolean concurrentUpdate = new AtomicBoolean(true);
+        when(settingsRepository.save(any(Settings.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(settingsRepository.findFirst()).thenAnswer(inv -> {
+            Settings snapshot = new Settings();
+            snapshot.setConversionFeePercent(stored.getConversionFeePercent());
+            // /set_fee завершается, пока перечитывание еще держит старую строку
+            if (concurrentUpdate.getAndSet(false)) {
+                settingsService.setGlobalConversionFee(5.0);
+            }
+            return Optional.of(snapshot);
+        });
+
+        settingsService.reloadGlobalConversionFee();
+
+        assertThat(settingsService.getGlobalConversionFeePercent()).isEqualTo(5.0);
+    }
+}
@@ -3,13 +3,14 @@ package ru.julia.currencyexchange.application.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.jdbc.core.JdbcTemplate;
 import ru.julia.currencyexchange.application.exceptions.UserNotFoundException;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.repository.jpa.UserRepository;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -24,12 +25,17 @@ class UserServiceUnitTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         openMocks(this);
+        ChatUserCache chatUserCache = new ChatUserCache(Duration.ofSeconds(30));
+        userService = new UserService(userRepository, chatUserCache,
+                new UsernameTracker(userRepository, chatUserCache, jdbcTemplate));
     }
 
     @Test
@@ -69,6 +75,64 @@ class UserServiceUnitTest {
         assertThat(userService.existsByChatId(2L)).isFalse();
     }
 
+    @Test
+    @DisplayName("Поиск пользователя по chatId без исключения")
+    void findOptionalUserByChatId() {
+        User user = new User("test@mail.com", "pass");
+        when(userRepository.findByChatId(3L)).thenReturn(Optional.of(user));
+        when(userRepository.findByChatId(4L)).thenReturn(Optional.empty());
+
+        assertThat(userService.findOptionalUserByChatId(3L)).contains(user);
+        assertThat(userService.findOptionalUserByChatId(4L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Повторный поиск по chatId берется из кэша")
+    void findUserByChatId_cached() {
+        User user = new User("test@mail.com", "pass");
+        user.setChatId(5L);
+        user.setUsername("same");
+        when(userRepository.findByChatId(5L)).thenReturn(Optional.of(user));
+
+        userService.findUserByChatId(5L);
+        assertThat(userService.existsByChatId(5L)).isTrue();
+        assertThat(userService.getUserIdByChatId(5L)).isEqualTo(user.getId());
+        userService.updateUsernameIfChanged(5L, "same");
+
+        verify(userRepository, times(1)).findByChatId(5L);
+        verify(userRepository, never()).existsByChatId(any());
+    }
+
+    @Test
+    @DisplayName("Сохранение пользователя (бан) сбрасывает кэш")
+    void saveUser_invalidatesCache() {
+        User user = new User("test@mail.com", "pass");
+        user.setChatId(6L);
+        when(userRepository.findByChatId(6L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        userService.findUserByChatId(6L);
+        user.setBanned(true);
+        userService.saveUser(user);
+        userService.findUserByChatId(6L);
+
+        verify(userRepository, times(2)).findByChatId(6L);
+    }
+
+    @Test
+    @DisplayName("Удаление аккаунта сбрасывает кэш")
+    void softDeleteUserByChatId_invalidatesCache() {
+        User user = new User("test@mail.com", "pass");
+        user.setChatId(7L);
+        when(userRepository.findByChatId(7L)).thenReturn(Optional.of(user));
+
+        userService.findUserByChatId(7L);
+        userService.softDeleteUserByChatId(7L);
+        userService.findUserByChatId(7L);
+
+        verify(userRepository, times(3)).findByChatId(7L);
+    }
+
     @Test
     @DisplayName("Успешное удаление пользователя по id")
     void deleteUserById_success() {
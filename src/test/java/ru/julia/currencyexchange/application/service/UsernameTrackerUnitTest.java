@@ -0,0 +1,111 @@
+package ru.julia.currencyexchange.application.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import ru.julia.currencyexchange.domain.model.User;
+import ru.julia.currencyexchange.infrastructure.repository.jpa.UserRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UsernameTrackerUnitTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private UsernameTracker tracker;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new UsernameTracker(userRepository, new ChatUserCache(Duration.ofSeconds(30)), jdbcTemplate);
+        user = new User("test@mail.com", "pass");
+        user.setChatId(1L);
+        user.setUsername("old");
+        when(userRepository.findByChatId(1L)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    @DisplayName("Первое появление сверяется с базой и сохраняется сразу")
+    void track_firstSighting_savesImmediately() {
+        tracker.track(1L, "new");
+
+        assertThat(user.getUsername()).isEqualTo("new");
+        verify(userRepository).save(user);
+        assertThat(tracker.pendingUpdates()).isZero();
+    }
+
+    @Test
+    @DisplayName("Повторное то же имя не обращается к базе")
+    void track_sameName_noQueries() {
+        tracker.track(1L, "old");
+        tracker.track(1L, "old");
+        tracker.track(1L, "old");
+
+        verify(userRepository, times(1)).findByChatId(1L);
+        verify(userRepository, never()).save(any());
+        tracker.flush();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Незарегистрированный chatId не запоминается")
+    void track_unknownUser_notRemembered() {
+        when(userRepository.findByChatId(2L)).thenReturn(Optional.empty());
+
+        tracker.track(2L, "name");
+        tracker.track(2L, "name");
+
+        verify(userRepository, times(2)).findByChatId(2L);
+        assertThat(tracker.pendingUpdates()).isZero();
+    }
+
+    @Test
+    @DisplayName("Изменения имени записываются одной пачкой с последним значением")
+    @SuppressWarnings("unchecked")
+    void flush_writesLatestNamesInOneBatch() {
+        User other = new User("other@mail.com", "pass");
+        other.setChatId(2L);
+        other.setUsername("b");
+        when(userRepository.findByChatId(2L)).thenReturn(Optional.of(other));
+
+        tracker.track(1L, "old");
+        tracker.track(2L, "b");
+        tracker.track(1L, "x");
+        tracker.track(1L, "y");
+        tracker.track(2L, "c");
+        assertThat(tracker.pendingUpdates()).isEqualTo(2);
+
+        tracker.flush();
+
+        ArgumentCaptor<List<Map.Entry<Long, String>>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(batch.getValue()).containsExactlyInAnyOrder(Map.entry(1L, "y"), Map.entry(2L, "c"));
+        assertThat(tracker.pendingUpdates()).isZero();
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("При ошибке записи изменения остаются в очереди")
+    void flush_failure_keepsPending() {
+        tracker.track(1L, "old");
+        tracker.track(1L, "new");
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("db down"));
+
+        tracker.flush();
+
+        assertThat(tracker.pendingUpdates()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,94 @@
+package ru.julia.currencyexchange.application.service.bot.state;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConversationStateStoreUnitTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+    private MeterRegistry meterRegistry;
+    private ConversationStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new ConversationStateStore(new InMemoryConversationStateBackend(32, nanoTime::get),
+                Duration.ofMinutes(30), meterRegistry);
+    }
+
+    private double gauge(String flow) {
+        return meterRegistry.get("bot.conversation.states").tag("flow", flow).gauge().value();
+    }
+
+    private double evicted(String flow, String cause) {
+        return meterRegistry.get("bot.conversation.evicted").tag("flow", flow).tag("cause", cause).counter().count();
+    }
+
+    @Test
+    @DisplayName("Сценарии не видят состояния друг друга")
+    void flowsAreIsolated() {
+        ConversationStateStore.Flow<String> convert = store.flow("convert", String.class);
+        ConversationStateStore.Flow<String> register = store.flow("registration", String.class);
+
+        convert.put(1L, "USD");
+        register.put(1L, "mail");
+
+        assertThat(convert.get(1L)).isEqualTo("USD");
+        assertThat(register.get(1L)).isEqualTo("mail");
+        assertThat(gauge("convert")).isEqualTo(1);
+
+        convert.remove(1L);
+        assertThat(convert.get(1L)).isNull();
+        assertThat(register.get(1L)).isEqualTo("mail");
+    }
+
+    @Test
+    @DisplayName("Брошенный сценарий истекает через ttl и удаляется очисткой")
+    void abandonedStateExpires() {
+        ConversationStateStore.Flow<String> flow = store.flow("convert", String.class);
+        flow.put(1L, "USD");
+        nanoTime.addAndGet(Duration.ofMinutes(20).toNanos());
+        flow.put(2L, "EUR");
+        nanoTime.addAndGet(Duration.ofMinutes(15).toNanos());
+
+        assertThat(flow.get(1L)).isNull();
+        assertThat(flow.get(2L)).isEqualTo("EUR");
+
+        store.sweep();
+
+        assertThat(flow.size()).isEqualTo(1);
+        assertThat(evicted("convert", "expired")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Число состояний ограничено, вытеснения видны в метриках")
+    void sizeIsBounded() {
+        ConversationStateStore.Flow<String> flow = store.flow("convert", String.class);
+
+        for (long chatId = 0; chatId < 1_000; chatId++) {
+            nanoTime.incrementAndGet();
+            flow.put(chatId, "state");
+        }
+        store.sweep();
+
+        assertThat(flow.size()).isLessThanOrEqualTo(32);
+        assertThat(evicted("convert", "size")).isEqualTo(1_000 - flow.size());
+        assertThat(flow.get(999L)).isEqualTo("state");
+    }
+
+    @Test
+    @DisplayName("Сценарий нельзя зарегистрировать дважды")
+    void duplicateFlow() {
+        store.flow("convert", String.class);
+
+        assertThrows(IllegalStateException.class, () -> store.flow("convert", String.class));
+    }
+}
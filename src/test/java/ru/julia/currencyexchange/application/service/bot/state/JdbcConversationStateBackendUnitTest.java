@@ -0,0 +1,81 @@
+package ru.julia.currencyexchange.application.service.bot.state;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.julia.currencyexchange.application.bot.settings.RegistrationData;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class JdbcConversationStateBackendUnitTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    private JdbcConversationStateBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        backend = new JdbcConversationStateBackend(jdbcTemplate, new ObjectMapper(), 100);
+    }
+
+    @Test
+    @DisplayName("Состояние пишется в JSON без пароля и со сроком жизни в миллисекундах")
+    void put_serializesWithoutPassword() {
+        RegistrationData data = new RegistrationData();
+        data.setEmail("mail@mail.com");
+        data.setPassword("secret");
+
+        backend.put("registration", 7L, data, Duration.ofMinutes(30));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).update(contains("ON CONFLICT"), eq("registration"), eq(7L), payload.capture(),
+                eq(Duration.ofMinutes(30).toMillis()));
+        assertThat((String) payload.getValue()).contains("mail@mail.com").doesNotContain("secret");
+    }
+
+    @Test
+    @DisplayName("Состояние читается из JSON; отсутствующее — null")
+    void get_deserializes() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("registration"), eq(7L)))
+                .thenReturn(List.of("{\"email\":\"mail@mail.com\",\"verificationCode\":\"1234\"}"));
+
+        RegistrationData data = backend.get("registration", 7L, RegistrationData.class);
+
+        assertThat(data.getEmail()).isEqualTo("mail@mail.com");
+        assertThat(data.getVerificationCode()).isEqualTo("1234");
+        assertThat(backend.get("registration", 8L, RegistrationData.class)).isNull();
+    }
+
+    @Test
+    @DisplayName("Нечитаемое состояние удаляется, сценарий начинается заново")
+    void get_unreadableStateDropped() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("registration"), eq(7L)))
+                .thenReturn(List.of("not json"));
+
+        assertThat(backend.get("registration", 7L, RegistrationData.class)).isNull();
+        verify(jdbcTemplate).update(startsWith("DELETE"), eq("registration"), eq(7L));
+    }
+
+    @Test
+    @DisplayName("Очистка удаляет истекшие и лишние записи и запоминает размер")
+    void sweep() {
+        when(jdbcTemplate.update(contains("expires_at <= now()"), eq("convert"))).thenReturn(3);
+        when(jdbcTemplate.update(contains("OFFSET"), eq("convert"), eq("convert"), eq(100))).thenReturn(2);
+        when(jdbcTemplate.queryForObject(contains("count(*)"), eq(Long.class), eq("convert"))).thenReturn(100L);
+
+        ConversationStateBackend.Evictions evictions = backend.sweep("convert");
+
+        assertThat(evictions).isEqualTo(new ConversationStateBackend.Evictions(3, 2));
+        assertThat(backend.size("convert")).isEqualTo(100);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.julia.currencyexchange.application.service.bot.state;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongStateMapUnitTest {
+    private static final long TTL = 1_000;
+
+    @Test
+    @DisplayName("put/get/remove по примитивному ключу, включая 0 и отрицательные chatId")
+    void putGetRemove() {
+        LongStateMap map = new LongStateMap(100);
+
+        map.put(0L, "zero", TTL, 0);
+        map.put(-1001234567890L, "group", TTL, 0);
+        map.put(42L, "user", TTL, 0);
+        map.put(42L, "user2", TTL, 0);
+
+        assertThat(map.get(0L, 0)).isEqualTo("zero");
+        assertThat(map.get(-1001234567890L, 0)).isEqualTo("group");
+        assertThat(map.get(42L, 0)).isEqualTo("user2");
+        assertThat(map.size()).isEqualTo(3);
+
+        assertThat(map.remove(42L)).isTrue();
+        assertThat(map.remove(42L)).isFalse();
+        assertThat(map.get(42L, 0)).isNull();
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Истекшая запись не возвращается и удаляется при очистке")
+    void expiredEntries() {
+        LongStateMap map = new LongStateMap(100);
+        map.put(1L, "old", 100, 0);
+        map.put(2L, "fresh", 500, 0);
+
+        assertThat(map.get(1L, 100)).isNull();
+        assertThat(map.get(2L, 100)).isEqualTo("fresh");
+        assertThat(map.removeExpired(100)).isEqualTo(1);
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(2L, 100)).isEqualTo("fresh");
+    }
+
+    @Test
+    @DisplayName("При переполнении сначала удаляются истекшие, затем истекающая раньше всех запись")
+    void sizeBound() {
+        LongStateMap map = new LongStateMap(3);
+        map.put(1L, "a", 100, 0);
+        map.put(2L, "b", 300, 0);
+        map.put(3L, "c", 200, 0);
+
+        map.put(4L, "d", 400, 0);
+
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get(1L, 0)).isNull();
+        assertThat(map.drainOverflowEvictions()).isEqualTo(1);
+
+        map.put(5L, "e", 500, 250);
+
+        assertThat(map.get(3L, 250)).isNull();
+        assertThat(map.get(2L, 250)).isEqualTo("b");
+        assertThat(map.drainExpiredEvictions()).isEqualTo(1);
+        assertThat(map.drainOverflowEvictions()).isZero();
+    }
+
+    @Test
+    @DisplayName("Случайные операции совпадают с HashMap")
+    void matchesHashMap() {
+        LongStateMap map = new LongStateMap(10_000);
+        Map<Long, Object> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                Integer value = random.nextInt();
+                map.put(key, value, TTL, 0);
+                expected.put(key, value);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key, 0)).isEqualTo(value));
+    }
+}
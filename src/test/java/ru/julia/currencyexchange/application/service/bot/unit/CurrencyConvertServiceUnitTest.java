@@ -1,5 +1,6 @@
 package ru.julia.currencyexchange.application.service.bot.unit;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,8 @@ import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.SettingsService;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.application.service.bot.CurrencyConvertService;
+import ru.julia.currencyexchange.application.service.bot.state.ConversationStateStore;
+import ru.julia.currencyexchange.application.service.bot.state.InMemoryConversationStateBackend;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 import ru.julia.currencyexchange.domain.model.User;
@@ -18,6 +21,7 @@ import ru.julia.currencyexchange.infrastructure.bot.command.utils.CurrencyFormat
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -50,7 +54,9 @@ class CurrencyConvertServiceUnitTest {
                 settingsService,
                 currencyEmojiUtils,
                 currencyFormatUtils,
-                messageConverter
+                messageConverter,
+                new ConversationStateStore(new InMemoryConversationStateBackend(100, System::nanoTime),
+                        Duration.ofMinutes(30), new SimpleMeterRegistry())
         );
     }
 
@@ -1,11 +1,16 @@
 package ru.julia.currencyexchange.application.service.bot.unit;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import ru.julia.currencyexchange.application.bot.settings.RegistrationData;
 import ru.julia.currencyexchange.application.bot.settings.enums.RegistrationState;
 import ru.julia.currencyexchange.application.service.bot.RegistrationStateService;
+import ru.julia.currencyexchange.application.service.bot.state.ConversationStateStore;
+import ru.julia.currencyexchange.application.service.bot.state.InMemoryConversationStateBackend;
+
+import java.time.Duration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -14,7 +19,8 @@ class RegistrationStateServiceUnitTest {
 
     @BeforeEach
     void setUp() {
-        service = new RegistrationStateService();
+        service = new RegistrationStateService(new ConversationStateStore(
+                new InMemoryConversationStateBackend(100, System::nanoTime), Duration.ofMinutes(30), new SimpleMeterRegistry()));
     }
 
     @Test
@@ -1,10 +1,15 @@
 package ru.julia.currencyexchange.application.service.bot.unit;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import ru.julia.currencyexchange.application.bot.settings.enums.SetFeeState;
 import ru.julia.currencyexchange.application.service.bot.SetFeeStateService;
+import ru.julia.currencyexchange.application.service.bot.state.ConversationStateStore;
+import ru.julia.currencyexchange.application.service.bot.state.InMemoryConversationStateBackend;
+
+import java.time.Duration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -13,7 +18,8 @@ class SetFeeStateServiceUnitTest {
 
     @BeforeEach
     void setUp() {
-        service = new SetFeeStateService();
+        service = new SetFeeStateService(new ConversationStateStore(
+                new InMemoryConversationStateBackend(100, System::nanoTime), Duration.ofMinutes(30), new SimpleMeterRegistry()));
     }
 
     @Test
@@ -0,0 +1,80 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.julia.currencyexchange.application.dto.CurrencyRate;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateFetchException;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CbrRateHistoryLoaderUnitTest {
+    private final CbrRatesClient ratesClient = mock(CbrRatesClient.class);
+    private final CbrRatesXmlParser ratesXmlParser = mock(CbrRatesXmlParser.class);
+    private final RateHistoryService rateHistoryService = mock(RateHistoryService.class);
+    private final CbrRateHistoryLoader loader = new CbrRateHistoryLoader(ratesClient, ratesXmlParser, rateHistoryService);
+
+    @Test
+    @DisplayName("Выходные с курсами пятницы записываются один раз")
+    void loadDaily_skipsRepeatedDates() {
+        LocalDate friday = LocalDate.of(2024, 1, 12);
+        when(ratesClient.fetchDailyOn(any())).thenReturn("xml".getBytes(StandardCharsets.UTF_8));
+        when(ratesXmlParser.parseDaily(any(InputStream.class))).thenReturn(new CbrDailyRates(friday, Map.of(
+                "RUB", new CurrencyRate("RUB", 1, "Российский рубль", BigDecimal.ONE),
+                "JPY", new CurrencyRate("JPY", 100, "Японских иен", new BigDecimal("61.5"))), Map.of()));
+
+        int loaded = loader.loadDaily(friday, friday.plusDays(2));
+
+        assertThat(loaded).isEqualTo(1);
+        verify(ratesClient, times(3)).fetchDailyOn(any());
+        ArgumentCaptor<Map<String, BigDecimal>> rates = ArgumentCaptor.forClass(Map.class);
+        verify(rateHistoryService, times(1)).record(eq(friday), rates.capture());
+        assertThat(rates.getValue().get("JPY")).isEqualByComparingTo("0.615");
+        assertThat(rates.getValue().get("RUB")).isEqualByComparingTo("1");
+    }
+
+    @Test
+    @DisplayName("Динамика загружается одним запросом на валюту, рубль добавляется на каждую дату")
+    void loadDynamic_oneRequestPerCurrency() {
+        LocalDate from = LocalDate.of(2024, 1, 9);
+        LocalDate to = LocalDate.of(2024, 1, 10);
+        byte[] usdXml = "usd".getBytes(StandardCharsets.UTF_8);
+        when(ratesClient.fetchDailyOn(to)).thenReturn("daily".getBytes(StandardCharsets.UTF_8));
+        when(ratesXmlParser.parseDaily(any(InputStream.class)))
+                .thenReturn(new CbrDailyRates(to, Map.of(), Map.of("USD", "R01235")));
+        when(ratesClient.fetchDynamic("R01235", from, to)).thenReturn(usdXml);
+        List<RatePoint> usd = List.of(new RatePoint(from, new BigDecimal("90.4153")),
+                new RatePoint(to, new BigDecimal("89.6883")));
+        when(ratesXmlParser.parseDynamic(any(InputStream.class))).thenReturn(usd);
+
+        int loaded = loader.loadDynamic(from, to);
+
+        assertThat(loaded).isEqualTo(4);
+        verify(ratesClient, times(1)).fetchDynamic("R01235", from, to);
+        verify(rateHistoryService).recordSeries("USD", usd);
+        verify(rateHistoryService).recordSeries("RUB", List.of(
+                new RatePoint(from, BigDecimal.ONE), new RatePoint(to, BigDecimal.ONE)));
+    }
+
+    @Test
+    @DisplayName("После истечения времени загрузки новые запросы к ЦБ РФ не отправляются")
+    void loadDaily_stopsAfterDeadline() {
+        LocalDate day = LocalDate.of(2024, 1, 12);
+
+        assertThatThrownBy(() -> loader.loadDaily(day, day.plusDays(5), Instant.now().minusSeconds(1)))
+                .isInstanceOf(CurrencyRateFetchException.class);
+        verifyNoInteractions(ratesClient, rateHistoryService);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.julia.currencyexchange.infrastructure.configuration.RatesConfig;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CbrRatesClientUnitTest {
+    private static final RatesConfig.Http HTTP = new RatesConfig.Http(Duration.ofSeconds(3), Duration.ofSeconds(5),
+            2, Duration.ofSeconds(1), 1, Duration.ofMinutes(5));
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final CbrRatesClient client = new CbrRatesClient(new RatesConfig(false, Duration.ofHours(1),
+            Duration.ofHours(24), RatesConfig.StalenessPolicy.SERVE_STALE, HTTP,
+            new RatesConfig.History(31, Duration.ofMinutes(10))), new SimpleMeterRegistry());
+    private final MutableClock clock = new MutableClock();
+    private final ProviderCircuitBreaker breaker = new ProviderCircuitBreaker(1, Duration.ofMinutes(5), clock);
+    private final Semaphore permits = new Semaphore(1);
+
+    @Test
+    @DisplayName("Неожиданное исключение пробного запроса снова размыкает цепь, а не блокирует запросы навсегда")
+    void guarded_unexpectedExceptionReleasesTrial() {
+        breaker.onFailure();
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThatThrownBy(() -> client.guarded(permits, breaker, () -> {
+            throw new IllegalStateException("parser bug");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(permits.availablePermits()).isEqualTo(1);
+
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThat(client.guarded(permits, breaker, () -> "ok")).isEqualTo("ok");
+        assertThat(breaker.isOpen()).isFalse();
+    }
+}
@@ -0,0 +1,112 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.julia.currencyexchange.application.dto.CurrencyRate;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateParsingException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CbrRatesXmlParserUnitTest {
+    private final CbrRatesXmlParser parser = new CbrRatesXmlParser();
+
+    private static InputStream xml(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Разбор ежедневного файла ЦБ РФ")
+    void parse_dailyFeed() {
+        Map<String, CurrencyRate> rates = parser.parse(getClass().getResourceAsStream("/cbr/XML_daily.xml"));
+
+        assertThat(rates).hasSize(29);
+        assertThat(rates.keySet().iterator().next()).isEqualTo("RUB");
+        assertThat(rates.get("EUR").getDecimalValue()).isEqualByComparingTo("93.2063");
+        assertThat(rates.get("UZS").getNominal()).isEqualTo(10000);
+        assertThat(rates.get("GBP").getName()).isEqualTo("Фунт стерлингов Соединенного королевства");
+    }
+
+    @Test
+    @DisplayName("Десятичная запятая и точка разбираются одинаково")
+    void parse_decimalSeparators() {
+        Map<String, CurrencyRate> rates = parser.parse(xml("""
+                <ValCurs>
+                  <Valute><CharCode>USD</CharCode><Nominal>1</Nominal><Name>Доллар</Name><Value> 90,1234 </Value></Valute>
+                  <Valute><CharCode>EUR</CharCode><Nominal>1</Nominal><Name>Евро</Name><Value>100.5</Value></Valute>
+                </ValCurs>
+                """));
+
+        assertThat(rates.get("USD").getDecimalValue()).isEqualByComparingTo("90.1234");
+        assertThat(rates.get("EUR").getDecimalValue()).isEqualByComparingTo("100.5");
+        assertThat(rates.get("RUB").getDecimalValue()).isEqualByComparingTo("1");
+    }
+
+    @Test
+    @DisplayName("Некорректное значение курса")
+    void parse_invalidValue() {
+        assertThatThrownBy(() -> parser.parse(xml("""
+                <ValCurs><Valute><CharCode>USD</CharCode><Nominal>1</Nominal><Value>9O,1</Value></Valute></ValCurs>
+                """)))
+                .isInstanceOf(CurrencyRateParsingException.class);
+    }
+
+    @Test
+    @DisplayName("Запись без кода валюты")
+    void parse_missingCharCode() {
+        assertThatThrownBy(() -> parser.parse(xml("""
+                <ValCurs><Valute><Nominal>1</Nominal><Value>90,1</Value></Valute></ValCurs>
+                """)))
+                .isInstanceOf(CurrencyRateParsingException.class);
+    }
+
+    @Test
+    @DisplayName("Поврежденный XML")
+    void parse_malformedXml() {
+        assertThatThrownBy(() -> parser.parse(xml("<ValCurs><Valute>")))
+                .isInstanceOf(CurrencyRateParsingException.class);
+    }
+
+    @Test
+    @DisplayName("Дата курсов и внутренние коды валют ЦБ РФ")
+    void parseDaily_dateAndValuteIds() {
+        CbrDailyRates daily = parser.parseDaily(getClass().getResourceAsStream("/cbr/XML_daily.xml"));
+
+        assertThat(daily.date()).isEqualTo(LocalDate.of(2026, 10, 17));
+        assertThat(daily.valuteIds()).containsEntry("AUD", "R01010").containsEntry("AZN", "R01020A");
+        assertThat(daily.valuteIds()).doesNotContainKey("RUB");
+        assertThat(daily.rates()).hasSize(29);
+    }
+
+    @Test
+    @DisplayName("Разбор динамики курса: курс за единицу валюты по датам")
+    void parseDynamic_records() {
+        List<RatePoint> points = parser.parseDynamic(xml("""
+                <ValCurs ID="R01060" DateRange1="09.01.2024" DateRange2="10.01.2024" name="Foreign Currency Market Dynamic">
+                  <Record Date="09.01.2024" Id="R01060"><Nominal>100</Nominal><Value>22,3344</Value><VunitRate>0,223344</VunitRate></Record>
+                  <Record Date="10.01.2024" Id="R01060"><Nominal>100</Nominal><Value>22,5</Value><VunitRate>0,225</VunitRate></Record>
+                </ValCurs>
+                """));
+
+        assertThat(points).extracting(RatePoint::date)
+                .containsExactly(LocalDate.of(2024, 1, 9), LocalDate.of(2024, 1, 10));
+        assertThat(points.get(0).rate()).isEqualByComparingTo("0.223344");
+        assertThat(points.get(1).rate()).isEqualByComparingTo("0.225");
+    }
+
+    @Test
+    @DisplayName("Запись динамики без даты")
+    void parseDynamic_missingDate() {
+        assertThatThrownBy(() -> parser.parseDynamic(xml("""
+                <ValCurs><Record><Nominal>1</Nominal><Value>90,1</Value></Record></ValCurs>
+                """)))
+                .isInstanceOf(CurrencyRateParsingException.class);
+    }
+}
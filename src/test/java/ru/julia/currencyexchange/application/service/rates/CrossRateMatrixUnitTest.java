@@ -0,0 +1,64 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.julia.currencyexchange.domain.model.Currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrossRateMatrixUnitTest {
+    private final Currency rub = new Currency("RUB", "Российский рубль", BigDecimal.ONE);
+    private final Currency usd = new Currency("USD", "Доллар США", new BigDecimal("92.5012"));
+    private final Currency eur = new Currency("EUR", "Евро", new BigDecimal("100.1234"));
+
+    @Test
+    @DisplayName("Кросс-курс совпадает с делением курсов к рублю")
+    void rate_matchesDivision() {
+        CrossRateMatrix matrix = CrossRateMatrix.build(List.of(rub, usd, eur));
+
+        int from = matrix.ordinalOf("EUR");
+        int to = matrix.ordinalOf("USD");
+
+        assertThat(matrix.size()).isEqualTo(3);
+        assertThat(matrix.currency(from)).isSameAs(eur);
+        assertThat(matrix.rate(from, to)).isEqualTo(
+                eur.getExchangeRate().divide(usd.getExchangeRate(), 6, RoundingMode.HALF_UP));
+        assertThat(matrix.rate(to, to)).isEqualByComparingTo(BigDecimal.ONE);
+    }
+
+    @Test
+    @DisplayName("Неизвестный код возвращает UNKNOWN")
+    void ordinalOf_unknownCode() {
+        CrossRateMatrix matrix = CrossRateMatrix.build(List.of(rub));
+
+        assertThat(matrix.ordinalOf("XXX")).isEqualTo(CrossRateMatrix.UNKNOWN);
+        assertThat(matrix.ordinalOf(null)).isEqualTo(CrossRateMatrix.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Нулевой курс целевой валюты не заполняет ячейку")
+    void rate_zeroTargetIsNull() {
+        Currency broken = new Currency("XAU", "Золото", BigDecimal.ZERO);
+        CrossRateMatrix matrix = CrossRateMatrix.build(List.of(usd, broken));
+
+        assertThat(matrix.rate(matrix.ordinalOf("USD"), matrix.ordinalOf("XAU"))).isNull();
+        assertThat(matrix.rate(matrix.ordinalOf("XAU"), matrix.ordinalOf("USD"))).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Обновление курсов строит новую матрицу, неизменный снимок переиспользует прежнюю")
+    void snapshot_publishesMatrixWithRates() {
+        RateSnapshotHolder holder = new RateSnapshotHolder();
+        RateSnapshot first = holder.publish(List.of(rub, usd));
+        RateSnapshot same = holder.publish(List.of(rub, usd));
+        RateSnapshot changed = holder.publish(List.of(rub, usd, eur));
+
+        assertThat(same.crossRates()).isSameAs(first.crossRates());
+        assertThat(changed.crossRates().size()).isEqualTo(3);
+        assertThat(RateSnapshot.EMPTY.crossRates().ordinalOf("USD")).isEqualTo(CrossRateMatrix.UNKNOWN);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProviderCircuitBreakerUnitTest {
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final MutableClock clock = new MutableClock();
+    private final ProviderCircuitBreaker breaker = new ProviderCircuitBreaker(2, Duration.ofMinutes(5), clock);
+
+    @Test
+    @DisplayName("Размыкается после порога подряд идущих ошибок")
+    void opensAfterThreshold() {
+        breaker.onFailure();
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Успешный запрос сбрасывает счетчик ошибок")
+    void successResetsFailures() {
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertThat(breaker.isOpen()).isFalse();
+    }
+
+    @Test
+    @DisplayName("После паузы пропускает один пробный запрос")
+    void halfOpenAllowsSingleTrial() {
+        breaker.onFailure();
+        breaker.onFailure();
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Неудачный пробный запрос снова размыкает цепь")
+    void failedTrialReopens() {
+        breaker.onFailure();
+        breaker.onFailure();
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.tryAcquire()).isFalse();
+        clock.advance(Duration.ofMinutes(6));
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+}
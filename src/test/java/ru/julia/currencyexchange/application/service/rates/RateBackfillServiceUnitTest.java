@@ -0,0 +1,65 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateFetchException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RateBackfillServiceUnitTest {
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 1, 31);
+
+    private final CbrRateHistoryLoader loader = mock(CbrRateHistoryLoader.class);
+    private final List<Runnable> queued = new ArrayList<>();
+    private final RateBackfillService service = new RateBackfillService(loader, Duration.ofMinutes(10),
+            queued::add, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("Загрузка не выполняется в вызывающем потоке, задание сразу доступно по id")
+    void start_returnsQueuedJob() {
+        RateBackfillJob job = service.start(RateBackfillJob.Mode.DYNAMIC, FROM, TO);
+
+        assertThat(job.status()).isEqualTo(RateBackfillJob.Status.QUEUED);
+        assertThat(service.find(job.id())).contains(job);
+        verifyNoInteractions(loader);
+    }
+
+    @Test
+    @DisplayName("Завершенное задание хранит число загруженных записей, отсчет времени идет с запуска")
+    void run_recordsLoadedCount() {
+        when(loader.loadDaily(FROM, TO, NOW.plus(Duration.ofMinutes(10)))).thenReturn(21);
+
+        RateBackfillJob job = service.start(RateBackfillJob.Mode.DAILY, FROM, TO);
+        queued.forEach(Runnable::run);
+
+        RateBackfillJob finished = service.find(job.id()).orElseThrow();
+        assertThat(finished.status()).isEqualTo(RateBackfillJob.Status.COMPLETED);
+        assertThat(finished.loaded()).isEqualTo(21);
+        assertThat(finished.finishedAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    @DisplayName("Ошибка загрузки сохраняется в задании")
+    void run_recordsFailure() {
+        when(loader.loadDynamic(any(), any(), any())).thenThrow(new CurrencyRateFetchException("ЦБ РФ недоступен"));
+
+        RateBackfillJob job = service.start(RateBackfillJob.Mode.DYNAMIC, FROM, TO);
+        queued.forEach(Runnable::run);
+
+        RateBackfillJob failed = service.find(job.id()).orElseThrow();
+        assertThat(failed.status()).isEqualTo(RateBackfillJob.Status.FAILED);
+        assertThat(failed.error()).isEqualTo("ЦБ РФ недоступен");
+    }
+}
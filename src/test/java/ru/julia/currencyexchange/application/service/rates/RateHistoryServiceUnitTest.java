@@ -0,0 +1,119 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import ru.julia.currencyexchange.application.exceptions.CurrencyNotFoundException;
+import ru.julia.currencyexchange.domain.model.Currency;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RateHistoryServiceUnitTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 15);
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-03-15T10:00:00Z"), ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final RateHistoryService service = new RateHistoryService(jdbcTemplate, 7, CLOCK);
+
+    private void stubSnapshot(Currency... currencies) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Date.class))).thenReturn(List.of(currencies));
+    }
+
+    @Test
+    @DisplayName("Снимок на недавнюю дату читается из базы один раз")
+    void snapshotAt_recentDateCached() {
+        stubSnapshot(new Currency("USD", "Доллар США", new BigDecimal("90")));
+
+        RateSnapshot first = service.snapshotAt(TODAY.minusDays(1));
+        RateSnapshot second = service.snapshotAt(TODAY.minusDays(1));
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.find("USD").getExchangeRate()).isEqualByComparingTo("90");
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), any(Date.class));
+    }
+
+    @Test
+    @DisplayName("Старые и будущие даты не кэшируются")
+    void snapshotAt_oldAndFutureDatesNotCached() {
+        stubSnapshot();
+
+        service.snapshotAt(TODAY.minusDays(30));
+        service.snapshotAt(TODAY.minusDays(30));
+        service.snapshotAt(TODAY.plusDays(1));
+
+        assertThat(service.cachedSnapshots()).isZero();
+        verify(jdbcTemplate, times(3)).query(anyString(), any(RowMapper.class), any(Date.class));
+    }
+
+    @Test
+    @DisplayName("Запись курса сбрасывает снимки с этой даты и позже")
+    void record_invalidatesLaterSnapshots() {
+        stubSnapshot();
+        service.snapshotAt(TODAY.minusDays(5));
+        service.snapshotAt(TODAY.minusDays(2));
+        service.snapshotAt(TODAY);
+
+        service.record(TODAY.minusDays(2), Map.of("USD", new BigDecimal("91")));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertThat(service.cachedSnapshots()).isEqualTo(1);
+        service.snapshotAt(TODAY.minusDays(5));
+        verify(jdbcTemplate, times(3)).query(anyString(), any(RowMapper.class), any(Date.class));
+    }
+
+    @Test
+    @DisplayName("Пустой набор курсов не пишется в базу")
+    void record_emptyRatesSkipped() {
+        service.record(TODAY, Map.of());
+        service.recordSeries("USD", List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Кросс-курс на дату считается по архивному снимку")
+    void rateAt_crossRate() {
+        stubSnapshot(new Currency("RUB", "Российский рубль", BigDecimal.ONE),
+                new Currency("USD", "Доллар США", new BigDecimal("90")),
+                new Currency("EUR", "Евро", new BigDecimal("100")));
+
+        assertThat(service.rateAt("EUR", "USD", TODAY.minusDays(1))).isEqualByComparingTo("1.111111");
+        assertThat(service.rateAt("USD", "RUB", TODAY.minusDays(1))).isEqualByComparingTo("90");
+    }
+
+    @Test
+    @DisplayName("Валюты нет в архиве на дату")
+    void rateAt_unknownCurrency() {
+        stubSnapshot(new Currency("RUB", "Российский рубль", BigDecimal.ONE));
+
+        assertThatThrownBy(() -> service.rateAt("USD", "RUB", TODAY.minusDays(1)))
+                .isInstanceOf(CurrencyNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Первая точка графика переносится на начало периода")
+    void series_clampsFirstPoint() {
+        LocalDate from = LocalDate.of(2025, 1, 10);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any(), any(), any())).thenReturn(List.of(
+                new RatePoint(LocalDate.of(2025, 1, 3), new BigDecimal("90")),
+                new RatePoint(LocalDate.of(2025, 1, 12), new BigDecimal("91"))));
+
+        List<RatePoint> points = service.series("USD", from, LocalDate.of(2025, 1, 31));
+
+        assertThat(points).extracting(RatePoint::date).containsExactly(from, LocalDate.of(2025, 1, 12));
+        assertThat(points.get(0).rate()).isEqualByComparingTo("90");
+    }
+}
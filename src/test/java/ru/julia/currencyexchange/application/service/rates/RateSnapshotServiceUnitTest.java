@@ -0,0 +1,275 @@
+package ru.julia.currencyexchange.application.service.rates;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateFetchException;
+import ru.julia.currencyexchange.application.exceptions.CurrencyRateSaveException;
+import ru.julia.currencyexchange.application.service.CurrencyService;
+import ru.julia.currencyexchange.domain.model.Currency;
+import ru.julia.currencyexchange.infrastructure.configuration.RatesConfig;
+import ru.julia.currencyexchange.infrastructure.repository.jpa.CurrencyRepository;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class RateSnapshotServiceUnitTest {
+    private static final RatesConfig.Http HTTP = new RatesConfig.Http(Duration.ofSeconds(3), Duration.ofSeconds(5),
+            2, Duration.ofSeconds(1), 3, Duration.ofMinutes(5));
+    private static final RatesConfig.History HISTORY = new RatesConfig.History(31, Duration.ofMinutes(10));
+
+    @Mock
+    private CurrencyService currencyService;
+    @Mock
+    private CurrencyRepository currencyRepository;
+    @Mock
+    private RatesFeedLog feedLog;
+
+    private RateSnapshotHolder snapshotHolder;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        snapshotHolder = new RateSnapshotHolder();
+    }
+
+    private RateSnapshotService createService(RateSnapshotHolder holder, RatesConfig.StalenessPolicy policy) {
+        RatesConfig config = new RatesConfig(true, Duration.ofHours(1), Duration.ofHours(24), policy, HTTP, HISTORY);
+        return new RateSnapshotService(currencyService, currencyRepository, feedLog, holder, config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Обновление публикует новый снимок курсов")
+    void refresh_publishesSnapshot() {
+        Currency usd = new Currency("USD", "Доллар США", BigDecimal.valueOf(90));
+        when(currencyService.updateExchangeRates()).thenReturn(List.of(usd));
+
+        RateSnapshotService service = createService(snapshotHolder, RatesConfig.StalenessPolicy.SERVE_STALE);
+        service.refresh();
+
+        RateSnapshot snapshot = service.getSnapshot();
+        assertThat(snapshot.version()).isEqualTo(1);
+        assertThat(snapshot.find("USD")).isSameAs(usd);
+    }
+
+    @Test
+    @DisplayName("Неизмененные курсы не меняют версию снимка")
+    void refresh_sameRatesKeepVersion() {
+        when(currencyService.updateExchangeRates())
+                .thenReturn(List.of(new Currency("USD", "Доллар США", BigDecimal.valueOf(90))))
+                .thenReturn(List.of(new Currency("USD", "Доллар США", new BigDecimal("90.000000"))))
+                .thenReturn(List.of(new Currency("USD", "Доллар США", BigDecimal.valueOf(91))));
+
+        RateSnapshotService service = createService(snapshotHolder, RatesConfig.StalenessPolicy.SERVE_STALE);
+
+        service.refresh();
+        service.refresh();
+        assertThat(service.getSnapshot().version()).isEqualTo(1);
+
+        service.refresh();
+        assertThat(service.getSnapshot().version()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Недоступность ЦБ РФ при ручном обновлении возвращает последний снимок")
+    void refresh_providerDegradedFallsBackToSnapshot() {
+        Currency usd = new Currency("USD", "Доллар США", BigDecimal.valueOf(90));
+        snapshotHolder.publish(List.of(usd));
+        when(currencyService.updateExchangeRates()).thenThrow(
+                new CurrencyRateSaveException("fail", new CurrencyRateFetchException("timeout")));
+
+        RateSnapshotService service = createService(snapshotHolder, RatesConfig.StalenessPolicy.SERVE_STALE);
+
+        assertThat(service.refresh()).containsExactly(usd);
+        assertThat(service.getSnapshot().version()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Ошибка записи в БД при ручном обновлении пробрасывается")
+    void refresh_saveErrorPropagates() {
+        snapshotHolder.publish(List.of(new Currency("USD", "Доллар США", BigDecimal.valueOf(90))));
+        when(currencyService.updateExchangeRates()).thenThrow(
+                new CurrencyRateSaveException("fail", new IllegalStateException("db")));
+
+        RateSnapshotService service = createService(snapshotHolder, RatesConfig.StalenessPolicy.SERVE_STALE);
+
+        assertThatThrownBy(service::refresh).isInstanceOf(CurrencyRateSaveException.class);
+    }
+
+    @Test
+    @DisplayName("Параллельные обновления объединяются в один запрос к ЦБ РФ")
+    void refresh_concurrentCallsAreCoalesced() throws Exception {
+        Currency usd = new Currency("USD", "Доллар США", BigDecimal.valueOf(90));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(currencyService.updateExchangeRates()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(usd);
+        });
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RatesConfig config = new RatesConfig(true, Duration.ofHours(1), Duration.ofHours(24),
+                RatesConfig.StalenessPolicy.SERVE_STALE, HTTP, HISTORY);
+        RateSnapshotService service = new RateSnapshotService(currencyService, currencyRepository, feedLog, snapshotHolder,
+                config, registry);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Currency>> leader = executor.submit(service::refresh);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<List<Currency>> follower = executor.submit(service::refresh);
+
+            while (registry.counter("currency.rates.refresh.coalesced").count() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).containsExactly(usd);
+            assertThat(follower.get(5, TimeUnit.SECONDS)).containsExactly(usd);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(currencyService, times(1)).updateExchangeRates();
+        assertThat(snapshotHolder.current().version()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Error в обновлении завершает и присоединившиеся вызовы")
+    void refresh_errorReleasesCoalescedCallers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(currencyService.updateExchangeRates()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new StackOverflowError("parser");
+        });
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RatesConfig config = new RatesConfig(true, Duration.ofHours(1), Duration.ofHours(24),
+                RatesConfig.StalenessPolicy.SERVE_STALE, HTTP, HISTORY);
+        RateSnapshotService service = new RateSnapshotService(currencyService, currencyRepository, feedLog, snapshotHolder,
+                config, registry);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Currency>> leader = executor.submit(service::refresh);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<List<Currency>> follower = executor.submit(service::refresh);
+
+            while (registry.counter("currency.rates.refresh.coalesced").count() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("После завершения обновления следующий вызов запускает новое")
+    void refresh_sequentialCallsAreNotCoalesced() {
+        when(currencyService.updateExchangeRates()).thenReturn(List.of());
+
+        RateSnapshotService service = createService(snapshotHolder, RatesConfig.StalenessPolicy.SERVE_STALE);
+        service.refresh();
+        service.refresh();
+
+        verify(currencyService, times(2)).updateExchangeRates();
+    }
+
+    @Test
+    @DisplayName("Чтение снимка не обращается к ЦБ РФ")
+    void getSnapshot_doesNotFetchRates() {
+        RateSnapshotService service = createService(snapshotHolder, RatesConfig.StalenessPolicy.SERVE_STALE);
+
+        service.getSnapshot();
+        service.getSnapshot();
+
+        verifyNoInteractions(currencyService);
+    }
+
+    @Test
+    @DisplayName("Ошибка планового обновления сохраняет предыдущий снимок")
+    void scheduledRefresh_failureKeepsSnapshot() {
+        snapshotHolder.publish(List.of(new Currency("USD", "Доллар США", BigDecimal.valueOf(90))));
+        when(currencyService.updateExchangeRates()).thenThrow(new CurrencyRateSaveException("fail", null));
+
+        RateSnapshotService service = createService(snapshotHolder, RatesConfig.StalenessPolicy.SERVE_STALE);
+        service.scheduledRefresh();
+
+        assertThat(service.getSnapshot().version()).isEqualTo(1);
+        assertThat(service.getSnapshot().find("USD")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Устаревший снимок отдается при политике SERVE_STALE")
+    void getSnapshot_staleServed() {
+        RateSnapshotHolder staleHolder = new RateSnapshotHolder(Clock.fixed(Instant.parse("2020-01-01T00:00:00Z"), ZoneOffset.UTC));
+        staleHolder.publish(List.of(new Currency("USD", "Доллар США", BigDecimal.valueOf(90))));
+
+        RateSnapshotService service = createService(staleHolder, RatesConfig.StalenessPolicy.SERVE_STALE);
+
+        assertThat(service.getSnapshot().find("USD")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Устаревший снимок отклоняется при политике REJECT")
+    void getSnapshot_staleRejected() {
+        RateSnapshotHolder staleHolder = new RateSnapshotHolder(Clock.fixed(Instant.parse("2020-01-01T00:00:00Z"), ZoneOffset.UTC));
+        staleHolder.publish(List.of(new Currency("USD", "Доллар США", BigDecimal.valueOf(90))));
+
+        RateSnapshotService service = createService(staleHolder, RatesConfig.StalenessPolicy.REJECT);
+
+        assertThatThrownBy(service::getSnapshot)
+                .isInstanceOf(CurrencyRateFetchException.class);
+    }
+
+    @Test
+    @DisplayName("Прогрев загружает снимок из БД")
+    void warmUp_loadsFromDatabase() {
+        when(currencyRepository.findAll()).thenReturn(List.of(new Currency("EUR", "Евро", BigDecimal.valueOf(100))));
+
+        RatesConfig config = new RatesConfig(false, Duration.ofHours(1), Duration.ofHours(24), RatesConfig.StalenessPolicy.SERVE_STALE, HTTP, HISTORY);
+        RateSnapshotService service = new RateSnapshotService(currencyService, currencyRepository, feedLog, snapshotHolder, config, new SimpleMeterRegistry());
+        service.warmUp();
+
+        assertThat(service.getSnapshot().find("EUR")).isNotNull();
+        verifyNoInteractions(currencyService);
+    }
+
+    @Test
+    @DisplayName("Прогрев берет время снимка из последней успешной загрузки курсов: давно не загружавшиеся отклоняются при REJECT")
+    void warmUp_usesLastFetchTime() {
+        when(currencyRepository.findAll()).thenReturn(List.of(new Currency("EUR", "Евро", BigDecimal.valueOf(100))));
+        when(feedLog.lastFetch()).thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(3))));
+
+        RatesConfig config = new RatesConfig(false, Duration.ofHours(1), Duration.ofHours(24), RatesConfig.StalenessPolicy.REJECT, HTTP, HISTORY);
+        RateSnapshotService service = new RateSnapshotService(currencyService, currencyRepository, feedLog, snapshotHolder, config, new SimpleMeterRegistry());
+        service.warmUp();
+
+        assertThat(snapshotHolder.current().find("EUR")).isNotNull();
+        assertThatThrownBy(service::getSnapshot).isInstanceOf(CurrencyRateFetchException.class);
+    }
+}
@@ -48,6 +48,24 @@ class DtoMapperUnitTest {
         assertThat(response.getTimestamp()).isNotNull();
     }
 
+    @Test
+    void mapToCurrencyConversionResponse_fromHistoryItem() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 6, 30, 12, 0);
+        ConversionHistoryItem item = new ConversionHistoryItem("c1", "u1", "USD", "RUB",
+                BigDecimal.TEN, BigDecimal.valueOf(750), BigDecimal.valueOf(75), timestamp);
+
+        CurrencyConversionResponse response = DtoMapper.mapToCurrencyConversionResponse(item);
+
+        assertThat(response.getId()).isEqualTo("c1");
+        assertThat(response.getUserId()).isEqualTo("u1");
+        assertThat(response.getSourceCurrency()).isEqualTo("USD");
+        assertThat(response.getTargetCurrency()).isEqualTo("RUB");
+        assertThat(response.getAmount()).isEqualByComparingTo(BigDecimal.TEN);
+        assertThat(response.getConvertedAmount()).isEqualByComparingTo(BigDecimal.valueOf(750));
+        assertThat(response.getConversionRate()).isEqualByComparingTo(BigDecimal.valueOf(75));
+        assertThat(response.getTimestamp()).isEqualTo(timestamp);
+    }
+
     @Test
     void mapToUserResponse_mapsAllFields() {
         User user = new User();
@@ -1,8 +1,12 @@
 package ru.julia.currencyexchange.application.util;
 
 import org.junit.jupiter.api.Test;
+import ru.julia.currencyexchange.application.exceptions.InvalidDateFormatException;
 import ru.julia.currencyexchange.application.exceptions.InvalidParameterException;
 
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -103,4 +107,18 @@ class ValidationUtilUnitTest {
     void validateUsername_passesOnValid() {
         assertThatCode(() -> ValidationUtil.validateUsername("user123")).doesNotThrowAnyException();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void parseDate_parsesIsoDate() {
+        assertThat(ValidationUtil.parseDate("2024-06-30", "Дата")).isEqualTo(LocalDate.of(2024, 6, 30));
+    }
+
+    @Test
+    void parseDate_throwsOnEmptyOrInvalid() {
+        assertThatThrownBy(() -> ValidationUtil.parseDate(null, "Дата"))
+                .isInstanceOf(InvalidParameterException.class);
+
+        assertThatThrownBy(() -> ValidationUtil.parseDate("2024-13-45", "Дата"))
+                .isInstanceOf(InvalidDateFormatException.class);
+    }
+}
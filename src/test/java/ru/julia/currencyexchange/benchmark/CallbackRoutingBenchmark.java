@@ -0,0 +1,119 @@
+package ru.julia.currencyexchange.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.julia.currencyexchange.application.bot.listener.callback.CallbackArguments;
+import ru.julia.currencyexchange.application.bot.listener.callback.CallbackRouter;
+
+import java.util.concurrent.TimeUnit;
+
+// Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=ru.julia.currencyexchange.benchmark.CallbackRoutingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallbackRoutingBenchmark {
+    // Примерная смесь нажатий: конвертация и курсы к рублю чаще всего, пагинация и админские callback'и реже
+    private static final String[] CALLBACKS = {
+            "convert_currency_USD", "convert_currency_EUR", "convert_amount_100", "convert_to_show_all_USD",
+            "currency_to_rub_USD", "currency_to_rub_CNY", "currency_to_rub_show_all",
+            "currencies_page_2", "history_page_1", "history_page_4",
+            "findByDate_page_2024_01_15_2", "users_page_compact_3", "users_switch_full_0",
+            "ban_user_7f3e0a4c", "set_fee_1.5", "delete_account_confirm", "unknown_callback"
+    };
+
+    private CallbackRouter router;
+    private Blackhole blackhole;
+    private int index;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        router = CallbackRouter.builder()
+                .prefix("currencies_page_", CallbackArguments::page, (update, page) -> consume(page))
+                .prefix("history_page_", CallbackArguments::page, (update, page) -> consume(page))
+                .prefix("findByDate_page_", CallbackArguments::datePage, (update, argument) -> consume(argument))
+                .prefix("users_page_", CallbackArguments::usersPage, (update, argument) -> consume(argument))
+                .prefix("users_switch_", CallbackArguments::usersPage, (update, argument) -> consume(argument))
+                .prefix("ban_user_", CallbackArguments::raw, (update, data) -> consume(data))
+                .prefix("set_fee_", CallbackArguments::raw, (update, data) -> consume(data))
+                .prefix("currency_to_rub_", CallbackArguments::raw, (update, data) -> consume(data))
+                .prefix("convert_", CallbackArguments::raw, (update, data) -> consume(data))
+                .exact("delete_account_confirm", (update, data) -> consume(data))
+                .exact("delete_account_cancel", (update, data) -> consume(data))
+                .build();
+    }
+
+    private boolean consume(Object argument) {
+        blackhole.consume(argument);
+        return true;
+    }
+
+    private String nextCallback() {
+        String data = CALLBACKS[index];
+        index = index + 1 == CALLBACKS.length ? 0 : index + 1;
+        return data;
+    }
+
+    // Прежний MessagesListener.handleCallback: цепочка startsWith и split("_") для составных аргументов
+    @Benchmark
+    public boolean startsWithChain() {
+        String data = nextCallback();
+        try {
+            if (data.startsWith("currencies_page_")) {
+                return consume(Integer.parseInt(data.substring("currencies_page_".length())));
+            }
+            if (data.startsWith("history_page_")) {
+                return consume(Integer.parseInt(data.substring("history_page_".length())));
+            }
+            if (data.startsWith("findByDate_page_")) {
+                String[] parts = data.substring("findByDate_page_".length()).split("_");
+                if (parts.length >= 4) {
+                    return consume(new CallbackArguments.DatePage(parts[0] + "-" + parts[1] + "-" + parts[2],
+                            Integer.parseInt(parts[3])));
+                }
+            }
+            if (data.startsWith("users_page_")) {
+                String[] parts = data.substring("users_page_".length()).split("_");
+                if (parts.length >= 2) {
+                    return consume(new CallbackArguments.UsersPage("compact".equals(parts[0]), Integer.parseInt(parts[1])));
+                }
+            }
+            if (data.startsWith("users_switch_")) {
+                String[] parts = data.substring("users_switch_".length()).split("_");
+                if (parts.length >= 2) {
+                    return consume(new CallbackArguments.UsersPage("compact".equals(parts[0]), Integer.parseInt(parts[1])));
+                }
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (data.startsWith("ban_user_") || data.startsWith("set_fee_")
+                || data.startsWith("currency_to_rub_") || data.startsWith("convert_")) {
+            return consume(data);
+        }
+        if (data.equals("delete_account_confirm") || data.equals("delete_account_cancel")) {
+            return consume(data);
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean prefixTrie() {
+        return router.dispatch(null, nextCallback());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CallbackRoutingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
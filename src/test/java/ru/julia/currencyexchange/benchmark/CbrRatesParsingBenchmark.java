@@ -0,0 +1,68 @@
+package ru.julia.currencyexchange.benchmark;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.julia.currencyexchange.application.dto.CurrencyRate;
+import ru.julia.currencyexchange.application.dto.CurrencyRatesList;
+import ru.julia.currencyexchange.application.service.rates.CbrRatesXmlParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=ru.julia.currencyexchange.benchmark.CbrRatesParsingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CbrRatesParsingBenchmark {
+    private byte[] xmlBytes;
+    private String xmlString;
+    private CbrRatesXmlParser staxParser;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = CbrRatesParsingBenchmark.class.getResourceAsStream("/cbr/XML_daily.xml")) {
+            xmlBytes = in.readAllBytes();
+        }
+        xmlString = new String(xmlBytes, Charset.forName("windows-1251"));
+        staxParser = new CbrRatesXmlParser();
+    }
+
+    // Прежний путь CurrencyService: новый XmlMapper, привязка всего документа и копирование в HashMap
+    @Benchmark
+    public Map<String, CurrencyRate> jacksonBinding() throws IOException {
+        XmlMapper xmlMapper = new XmlMapper();
+        CurrencyRatesList ratesList = xmlMapper.readValue(xmlString, CurrencyRatesList.class);
+
+        Map<String, CurrencyRate> rates = new HashMap<>();
+        rates.put("RUB", new CurrencyRate("RUB", 1, "Российский рубль", "1.0"));
+        for (CurrencyRate rate : ratesList.getValute()) {
+            rates.put(rate.getCharCode(), rate);
+        }
+        return rates;
+    }
+
+    @Benchmark
+    public Map<String, CurrencyRate> staxStreaming() {
+        return staxParser.parse(new ByteArrayInputStream(xmlBytes));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CbrRatesParsingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,140 @@
+package ru.julia.currencyexchange.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import ru.julia.currencyexchange.application.bot.messages.converter.YamlMessageConverter;
+import ru.julia.currencyexchange.infrastructure.configuration.Constants;
+import ru.julia.currencyexchange.infrastructure.configuration.MessageConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Запуск: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=ru.julia.currencyexchange.benchmark.MessageRenderingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageRenderingBenchmark {
+    private static final String ROW_KEY = "command.history.conversion_format";
+    private static final int PAGE_SIZE = 10;
+    private static final int VIRTUAL_BATCH = 1000;
+
+    // Строка истории — самое частое сообщение с параметрами, страница истории — десять таких строк
+    private final Map<String, String> rowParams = Map.of(
+            "from_emoji", "🇺🇸", "from_code", "USD",
+            "to_emoji", "🇪🇺", "to_code", "EUR",
+            "amount", "1 250.00", "result", "1 148.37",
+            "date", "15.01.2024 12:30");
+
+    private ResourceBundleMessageSource messageSource;
+    private YamlMessageConverter converter;
+    private ExecutorService virtualThreads;
+    // Прежний буфер YamlMessageConverter.resolve, переиспользуемый в пределах потока
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    @Setup
+    public void setUp() {
+        MessageConfig config = new MessageConfig();
+        Properties botMessages = config.botMessages();
+        messageSource = config.messageSource(botMessages);
+        converter = new YamlMessageConverter(messageSource, botMessages);
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        virtualThreads.close();
+    }
+
+    private String threadLocalResolve(String id, Map<String, String> params) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        converter.resolveTo(buffer, id, params);
+        return buffer.toString();
+    }
+
+    // Прежний YamlMessageConverter.resolve: поиск в messageSource и String.replace на каждый параметр
+    private String replaceResolve(String id, Map<String, String> params) {
+        String message = messageSource.getMessage(id, null, Locale.of("ru"));
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            String placeholder = Constants.PLACEHOLDER_SYMBOL + entry.getKey() + Constants.PLACEHOLDER_SYMBOL;
+            message = message.replace(placeholder, entry.getValue());
+        }
+        return message;
+    }
+
+    @Benchmark
+    public String rowReplace() {
+        return replaceResolve(ROW_KEY, rowParams);
+    }
+
+    @Benchmark
+    public String rowPrecompiled() {
+        return converter.resolve(ROW_KEY, rowParams);
+    }
+
+    @Benchmark
+    public String pageReplace() {
+        StringBuilder page = new StringBuilder();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.append(replaceResolve(ROW_KEY, rowParams)).append(Constants.LINE_SEPARATOR);
+        }
+        return page.toString();
+    }
+
+    @Benchmark
+    public String pagePrecompiled() {
+        StringBuilder page = new StringBuilder();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            converter.resolveTo(page, ROW_KEY, rowParams);
+            page.append(Constants.LINE_SEPARATOR);
+        }
+        return page.toString();
+    }
+
+    // Как в UpdateDispatcher: каждое сообщение рендерится в новом виртуальном потоке
+    @Benchmark
+    @OperationsPerInvocation(VIRTUAL_BATCH)
+    public void rowThreadLocalOnVirtualThreads(Blackhole blackhole) throws Exception {
+        renderOnVirtualThreads(() -> threadLocalResolve(ROW_KEY, rowParams), blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VIRTUAL_BATCH)
+    public void rowPrecompiledOnVirtualThreads(Blackhole blackhole) throws Exception {
+        renderOnVirtualThreads(() -> converter.resolve(ROW_KEY, rowParams), blackhole);
+    }
+
+    private void renderOnVirtualThreads(Supplier<String> render, Blackhole blackhole) throws Exception {
+        List<Future<String>> messages = new ArrayList<>(VIRTUAL_BATCH);
+        for (int i = 0; i < VIRTUAL_BATCH; i++) {
+            messages.add(virtualThreads.submit(render::get));
+        }
+        for (Future<String> message : messages) {
+            blackhole.consume(message.get());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MessageRenderingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -12,13 +12,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
-import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.CurrenciesCommand;
-import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyMessageBuilder;
-import ru.julia.currencyexchange.infrastructure.bot.command.builder.PaginationKeyboardBuilder;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrenciesPageCache;
 import ru.julia.currencyexchange.infrastructure.bot.command.handler.CurrencyCallbackHandler;
 import ru.julia.currencyexchange.infrastructure.repository.jpa.CurrencyRepository;
 import ru.julia.currencyexchange.infrastructure.repository.jpa.UserRepository;
@@ -43,13 +41,9 @@ class CurrenciesCommandIntegrationTest extends IntegrationTestBase {
     @Autowired
     private CurrencyRepository currencyRepository;
     @Autowired
-    private CurrencyExchangeService currencyExchangeService;
-    @Autowired
     private MessageConverter messageConverter;
     @Autowired
-    private CurrencyMessageBuilder currencyMessageBuilder;
-    @Autowired
-    private PaginationKeyboardBuilder paginationKeyboardBuilder;
+    private CurrenciesPageCache currenciesPageCache;
     @Autowired
     private CurrencyCallbackHandler callbackHandler;
     @Autowired
@@ -62,10 +56,8 @@ class CurrenciesCommandIntegrationTest extends IntegrationTestBase {
         databaseCleaner.resetDatabase();
         command = new CurrenciesCommand(
                 messageConverter,
-                currencyExchangeService,
                 userService,
-                currencyMessageBuilder,
-                paginationKeyboardBuilder,
+                currenciesPageCache,
                 callbackHandler
         );
     }
@@ -10,19 +10,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
-import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
-import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.CurrenciesCommand;
-import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyMessageBuilder;
-import ru.julia.currencyexchange.infrastructure.bot.command.builder.PaginationKeyboardBuilder;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrenciesPageCache;
 import ru.julia.currencyexchange.infrastructure.bot.command.handler.CurrencyCallbackHandler;
 
-import java.math.BigDecimal;
-import java.util.List;
-
-import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -31,13 +24,9 @@ class CurrenciesCommandUnitTest {
     @Mock
     private MessageConverter messageConverter;
     @Mock
-    private CurrencyExchangeService currencyExchangeService;
-    @Mock
     private UserService userService;
     @Mock
-    private CurrencyMessageBuilder currencyMessageBuilder;
-    @Mock
-    private PaginationKeyboardBuilder paginationKeyboardBuilder;
+    private CurrenciesPageCache currenciesPageCache;
     @Mock
     private CurrencyCallbackHandler callbackHandler;
 
@@ -48,10 +37,8 @@ class CurrenciesCommandUnitTest {
         openMocks(this);
         command = new CurrenciesCommand(
                 messageConverter,
-                currencyExchangeService,
                 userService,
-                currencyMessageBuilder,
-                paginationKeyboardBuilder,
+                currenciesPageCache,
                 callbackHandler
         );
     }
@@ -66,16 +53,8 @@ class CurrenciesCommandUnitTest {
         User user = validUser();
         when(userService.findUserByChatId(1L)).thenReturn(user);
 
-        List<Currency> currencies = List.of(
-                new Currency("USD", "Доллар", BigDecimal.valueOf(100)),
-                new Currency("EUR", "Евро", BigDecimal.valueOf(90))
-        );
-
-        when(currencyExchangeService.getAllCurrencies()).thenReturn(currencies);
-        when(currencyMessageBuilder.buildCurrenciesMessage(any(), anyInt(), anyBoolean(), anyInt())).thenReturn("currencies");
-
         InlineKeyboardMarkup keyboard = mock(InlineKeyboardMarkup.class);
-        when(paginationKeyboardBuilder.buildPaginationKeyboard(anyInt(), anyInt(), anyInt())).thenReturn(keyboard);
+        when(currenciesPageCache.page(0)).thenReturn(new CurrenciesPageCache.CurrenciesPage(0, "currencies", keyboard));
 
         SendMessage msg = command.handle(update);
         assertThat(msg.getParameters().get("text")).isEqualTo("currencies");
@@ -113,7 +92,7 @@ class CurrenciesCommandUnitTest {
         User user = validUser();
 
         when(userService.findUserByChatId(2L)).thenReturn(user);
-        when(currencyExchangeService.getAllCurrencies()).thenReturn(emptyList());
+        when(currenciesPageCache.page(0)).thenReturn(null);
         when(messageConverter.resolve("command.currencies.no_currencies")).thenReturn("no_currencies");
 
         SendMessage msg = command.handle(update);
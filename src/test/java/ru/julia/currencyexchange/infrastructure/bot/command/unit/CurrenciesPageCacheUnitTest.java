@@ -0,0 +1,157 @@
+package ru.julia.currencyexchange.infrastructure.bot.command.unit;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardButton;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
+import ru.julia.currencyexchange.application.service.rates.RateSnapshotHolder;
+import ru.julia.currencyexchange.domain.model.Currency;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrenciesPageCache;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyListingCache;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyMessageBuilder;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.PaginationKeyboardBuilder;
+import ru.julia.currencyexchange.infrastructure.configuration.Constants;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class CurrenciesPageCacheUnitTest {
+    @Mock
+    private CurrencyExchangeService currencyExchangeService;
+    @Mock
+    private CurrencyMessageBuilder currencyMessageBuilder;
+    @Mock
+    private PaginationKeyboardBuilder paginationKeyboardBuilder;
+
+    private RateSnapshotHolder snapshotHolder;
+    private CurrencyListingCache listingCache;
+    private CurrenciesPageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        snapshotHolder = new RateSnapshotHolder();
+        listingCache = new CurrencyListingCache(currencyExchangeService, snapshotHolder);
+        cache = new CurrenciesPageCache(listingCache, currencyMessageBuilder, paginationKeyboardBuilder);
+        when(currencyMessageBuilder.buildCurrenciesMessage(any(), anyInt(), anyBoolean(), anyInt()))
+                .thenAnswer(invocation -> "page " + invocation.getArgument(1));
+        when(paginationKeyboardBuilder.buildPaginationKeyboard(anyInt(), anyInt(), anyInt()))
+                .thenReturn(new InlineKeyboardMarkup());
+    }
+
+    private static List<Currency> currencies(int count, int rate) {
+        List<Currency> currencies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            currencies.add(new Currency("C" + i, "Валюта " + i, BigDecimal.valueOf(rate + i)));
+        }
+        return currencies;
+    }
+
+    @Test
+    @DisplayName("Повторное листание страницы берет ее из кэша без базы и рендеринга")
+    void page_cachedWithinSnapshotVersion() {
+        List<Currency> currencies = currencies(15, 10);
+        snapshotHolder.publish(currencies);
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(currencies);
+
+        CurrenciesPageCache.CurrenciesPage first = cache.page(1);
+        CurrenciesPageCache.CurrenciesPage second = cache.page(1);
+        cache.page(0);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.text()).isEqualTo("page 1");
+        assertThat(cache.cachedPages()).isEqualTo(2);
+        verify(currencyExchangeService, times(1)).getAllCurrencies();
+        verify(currencyMessageBuilder, times(1)).buildCurrenciesMessage(any(), eq(1), eq(false),
+                eq(Constants.CURRENCIES_PER_PAGE));
+    }
+
+    @Test
+    @DisplayName("Номер страницы приводится к допустимому диапазону")
+    void page_clampsPageNumber() {
+        List<Currency> currencies = currencies(15, 10);
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(currencies);
+        int maxPage = (currencies.size() - 1) / Constants.CURRENCIES_PER_PAGE;
+
+        assertThat(cache.page(-3).page()).isZero();
+        assertThat(cache.page(100).page()).isEqualTo(maxPage);
+        assertThat(cache.cachedPages()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Новая версия снимка курсов перерисовывает страницы и вытесняет старые")
+    void page_newSnapshotVersionInvalidates() {
+        List<Currency> oldRates = currencies(15, 10);
+        List<Currency> newRates = currencies(15, 20);
+        snapshotHolder.publish(oldRates);
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(oldRates, newRates);
+        CurrenciesPageCache.CurrenciesPage before = cache.page(0);
+
+        snapshotHolder.publish(newRates);
+        CurrenciesPageCache.CurrenciesPage after = cache.page(0);
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(cache.cachedPages()).isEqualTo(1);
+        verify(currencyExchangeService, times(2)).getAllCurrencies();
+        verify(currencyMessageBuilder).buildCurrenciesMessage(eq(newRates), eq(0), anyBoolean(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Много валют — компактный режим")
+    void page_compactForManyCurrencies() {
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(currencies(60, 10));
+
+        cache.page(0);
+
+        verify(currencyMessageBuilder).buildCurrenciesMessage(any(), eq(0), eq(true),
+                eq(Constants.CURRENCIES_PER_PAGE_COMPACT));
+    }
+
+    @Test
+    @DisplayName("Пустой список валют не кэшируется")
+    void page_emptyNotCached() {
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(emptyList(), currencies(2, 10));
+
+        assertThat(cache.page(0)).isNull();
+        assertThat(cache.page(0)).isNotNull();
+        verify(currencyExchangeService, times(2)).getAllCurrencies();
+    }
+
+    @Test
+    @DisplayName("Сброс списка валют сбрасывает и страницы")
+    void invalidateAll_reloads() {
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(currencies(2, 10));
+        cache.page(0);
+
+        listingCache.invalidateAll();
+        cache.page(0);
+
+        assertThat(cache.cachedPages()).isEqualTo(1);
+        verify(currencyExchangeService, times(2)).getAllCurrencies();
+    }
+
+    @Test
+    @DisplayName("Клавиатуру закэшированной страницы нельзя изменить")
+    void page_keyboardIsImmutable() {
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(currencies(15, 10));
+        when(paginationKeyboardBuilder.buildPaginationKeyboard(anyInt(), anyInt(), anyInt()))
+                .thenReturn(new InlineKeyboardMarkup(new InlineKeyboardButton("→").callbackData("currencies_page_1")));
+
+        InlineKeyboardMarkup keyboard = cache.page(0).keyboard();
+        keyboard.inlineKeyboard()[0][0].setCallbackData("changed");
+
+        assertThatThrownBy(() -> keyboard.addRow(new InlineKeyboardButton("x").callbackData("x")))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(cache.page(0).keyboard().inlineKeyboard()[0][0].callbackData()).isEqualTo("currencies_page_1");
+    }
+}
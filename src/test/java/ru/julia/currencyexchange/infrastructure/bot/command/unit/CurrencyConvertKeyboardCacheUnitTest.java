@@ -0,0 +1,146 @@
+package ru.julia.currencyexchange.infrastructure.bot.command.unit;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardButton;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
+import ru.julia.currencyexchange.application.service.rates.RateSnapshotHolder;
+import ru.julia.currencyexchange.domain.model.Currency;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyConvertKeyboardBuilder;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyConvertKeyboardCache;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyListingCache;
+import ru.julia.currencyexchange.infrastructure.bot.command.utils.CurrencyEmojiUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class CurrencyConvertKeyboardCacheUnitTest {
+    @Mock
+    private CurrencyExchangeService currencyExchangeService;
+    @Mock
+    private MessageConverter messageConverter;
+
+    private RateSnapshotHolder snapshotHolder;
+    private CurrencyConvertKeyboardBuilder keyboardBuilder;
+    private CurrencyConvertKeyboardCache cache;
+
+    private final List<Currency> currencies = List.of(
+            new Currency("USD", "Доллар", BigDecimal.valueOf(90)),
+            new Currency("EUR", "Евро", BigDecimal.valueOf(100)),
+            new Currency("KZT", "Тенге", BigDecimal.valueOf(0.2)),
+            new Currency("RUB", "Рубль", BigDecimal.ONE)
+    );
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        snapshotHolder = new RateSnapshotHolder();
+        keyboardBuilder = spy(new CurrencyConvertKeyboardBuilder(new CurrencyEmojiUtils(), messageConverter));
+        cache = new CurrencyConvertKeyboardCache(new CurrencyListingCache(currencyExchangeService, snapshotHolder),
+                keyboardBuilder);
+        when(messageConverter.resolve(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(currencies);
+        snapshotHolder.publish(currencies);
+    }
+
+    private static List<String> callbacks(InlineKeyboardMarkup keyboard) {
+        return Arrays.stream(keyboard.inlineKeyboard())
+                .flatMap(Arrays::stream)
+                .map(InlineKeyboardButton::callbackData)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Клавиатура выбора исходной валюты строится один раз на версию снимка")
+    void fromCurrencyKeyboard_cached() {
+        InlineKeyboardMarkup first = cache.fromCurrencyKeyboard(true);
+        InlineKeyboardMarkup second = cache.fromCurrencyKeyboard(true);
+
+        assertThat(second).isSameAs(first);
+        assertThat(callbacks(first)).containsExactly("convert_currency_USD", "convert_currency_EUR",
+                "convert_currency_RUB", "convert_from_show_all");
+        verify(keyboardBuilder, times(1)).buildFromCurrencyKeyboard(any());
+        verify(currencyExchangeService, times(1)).getAllCurrencies();
+    }
+
+    @Test
+    @DisplayName("Клавиатуры целевой валюты различаются по исходной валюте и режиму")
+    void toCurrencyKeyboard_keyedByFromCurrency() {
+        InlineKeyboardMarkup usdPopular = cache.toCurrencyKeyboard("USD", true);
+        InlineKeyboardMarkup eurAll = cache.toCurrencyKeyboard("EUR", false);
+
+        assertThat(cache.toCurrencyKeyboard("USD", true)).isSameAs(usdPopular);
+        assertThat(callbacks(usdPopular)).endsWith("convert_to_show_all_USD");
+        assertThat(callbacks(eurAll)).contains("convert_currency_KZT").endsWith("convert_to_show_popular_EUR");
+        assertThat(cache.cachedKeyboards()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Неизвестная исходная валюта из callback-данных не кэшируется")
+    void toCurrencyKeyboard_unknownCurrencyNotCached() {
+        InlineKeyboardMarkup keyboard = cache.toCurrencyKeyboard("XXX", true);
+
+        assertThat(callbacks(keyboard)).endsWith("convert_to_show_all_XXX");
+        assertThat(cache.cachedKeyboards()).isZero();
+    }
+
+    @Test
+    @DisplayName("Новая версия снимка курсов перестраивает клавиатуры")
+    void newSnapshotVersionInvalidates() {
+        InlineKeyboardMarkup before = cache.fromCurrencyKeyboard(false);
+        List<Currency> updated = List.of(new Currency("USD", "Доллар", BigDecimal.valueOf(91)));
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(updated);
+        snapshotHolder.publish(updated);
+
+        InlineKeyboardMarkup after = cache.fromCurrencyKeyboard(false);
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(callbacks(after)).containsExactly("convert_currency_USD", "convert_from_show_popular");
+        assertThat(cache.cachedKeyboards()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Клавиатура по пустому списку валют не кэшируется")
+    void fromCurrencyKeyboard_emptyNotCached() {
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(List.of(), currencies);
+        snapshotHolder.publish(List.of());
+
+        cache.fromCurrencyKeyboard(false);
+        InlineKeyboardMarkup afterLoad = cache.fromCurrencyKeyboard(false);
+
+        assertThat(callbacks(afterLoad)).contains("convert_currency_KZT");
+        assertThat(cache.cachedKeyboards()).isEqualTo(1);
+        verify(currencyExchangeService, times(2)).getAllCurrencies();
+    }
+
+    @Test
+    @DisplayName("Клавиатуру из кэша нельзя изменить")
+    void cachedKeyboardIsImmutable() {
+        InlineKeyboardMarkup keyboard = cache.fromCurrencyKeyboard(true);
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> keyboard.addRow(new InlineKeyboardButton("x").callbackData("x")));
+    }
+
+    @Test
+    @DisplayName("Кнопки, полученные из клавиатуры кэша, — копии: их изменение не попадает в кэш")
+    void cachedKeyboardReturnsButtonCopies() {
+        InlineKeyboardMarkup keyboard = cache.fromCurrencyKeyboard(true);
+        String original = keyboard.inlineKeyboard()[0][0].callbackData();
+
+        keyboard.inlineKeyboard()[0][0].setCallbackData("changed");
+        keyboard.inlineKeyboard()[0] = new InlineKeyboardButton[0];
+
+        assertThat(cache.fromCurrencyKeyboard(true).inlineKeyboard()[0][0].callbackData()).isEqualTo(original);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.julia.currencyexchange.infrastructure.bot.command.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
+import ru.julia.currencyexchange.application.service.rates.RateSnapshotHolder;
+import ru.julia.currencyexchange.domain.model.Currency;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyListingCache;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class CurrencyListingCacheUnitTest {
+    @Mock
+    private CurrencyExchangeService currencyExchangeService;
+
+    private RateSnapshotHolder snapshotHolder;
+    private CurrencyListingCache cache;
+
+    private final List<Currency> currencies = List.of(
+            new Currency("USD", "Доллар", BigDecimal.valueOf(90)),
+            new Currency("KZT", "Тенге", BigDecimal.valueOf(0.2))
+    );
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        snapshotHolder = new RateSnapshotHolder();
+        cache = new CurrencyListingCache(currencyExchangeService, snapshotHolder);
+        snapshotHolder.publish(currencies);
+    }
+
+    @Test
+    @DisplayName("Список валют и построенные по нему значения загружаются один раз на версию снимка")
+    void current_cachedWithinSnapshotVersion() {
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(currencies);
+        AtomicInteger builds = new AtomicInteger();
+
+        CurrencyListingCache.CurrencyListing first = cache.current();
+        first.computeIfAbsent("key", builds::incrementAndGet);
+        CurrencyListingCache.CurrencyListing second = cache.current();
+        second.computeIfAbsent("key", builds::incrementAndGet);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.popular()).extracting(Currency::getCode).containsExactly("USD");
+        assertThat(first.codes()).containsExactlyInAnyOrder("USD", "KZT");
+        assertThat(builds).hasValue(1);
+        verify(currencyExchangeService, times(1)).getAllCurrencies();
+    }
+
+    @Test
+    @DisplayName("Новая версия снимка загружает список заново без старых значений")
+    void current_newSnapshotVersionReloads() {
+        List<Currency> updated = List.of(new Currency("USD", "Доллар", BigDecimal.valueOf(91)));
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(currencies, updated);
+        cache.current().computeIfAbsent("key", () -> "old");
+
+        snapshotHolder.publish(updated);
+        CurrencyListingCache.CurrencyListing reloaded = cache.current();
+
+        assertThat(reloaded.currencies()).isEqualTo(updated);
+        assertThat(reloaded.<String>computeIfAbsent("key", () -> "new")).isEqualTo("new");
+    }
+
+    @Test
+    @DisplayName("Пустой список и значения по нему не кэшируются")
+    void current_emptyNotCached() {
+        when(currencyExchangeService.getAllCurrencies()).thenReturn(List.of(), currencies);
+        AtomicInteger builds = new AtomicInteger();
+
+        CurrencyListingCache.CurrencyListing empty = cache.current();
+        empty.computeIfAbsent("key", builds::incrementAndGet);
+        empty.computeIfAbsent("key", builds::incrementAndGet);
+
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(builds).hasValue(2);
+        assertThat(cache.current().currencies()).isEqualTo(currencies);
+        verify(currencyExchangeService, times(2)).getAllCurrencies();
+    }
+
+    @Test
+    @DisplayName("Список, загруженный во время сброса, не попадает в кэш")
+    void invalidateAll_duringLoadDiscardsLoadedListing() {
+        when(currencyExchangeService.getAllCurrencies())
+                .thenAnswer(invocation -> {
+                    cache.invalidateAll();
+                    return currencies;
+                })
+                .thenReturn(currencies);
+
+        CurrencyListingCache.CurrencyListing stale = cache.current();
+
+        assertThat(cache.current()).isNotSameAs(stale);
+        verify(currencyExchangeService, times(2)).getAllCurrencies();
+    }
+}
@@ -0,0 +1,199 @@
+package ru.julia.currencyexchange.infrastructure.bot.command.unit;
+
+import com.pengrad.telegrambot.model.Chat;
+import com.pengrad.telegrambot.model.Message;
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.BaseRequest;
+import com.pengrad.telegrambot.request.SendDocument;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.response.SendResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.julia.currencyexchange.application.bot.executor.interfaces.Executor;
+import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
+import ru.julia.currencyexchange.application.service.ConversionExportService;
+import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
+import ru.julia.currencyexchange.application.service.UserService;
+import ru.julia.currencyexchange.domain.enums.ExportFormat;
+import ru.julia.currencyexchange.domain.model.User;
+import ru.julia.currencyexchange.infrastructure.bot.command.ExportCommand;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExportCommandUnitTest {
+    @Mock
+    private MessageConverter messageConverter;
+    @Mock
+    private CurrencyExchangeService currencyExchangeService;
+    @Mock
+    private ConversionExportService conversionExportService;
+    @Mock
+    private UserService userService;
+    @Mock
+    private Executor executor;
+    @InjectMocks
+    private ExportCommand command;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(messageConverter.resolve(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(messageConverter.resolve(anyString(), anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Сначала уходит уведомление, затем документ; временный файл удаляется после отправки")
+    void handle_sendsDocument() throws Exception {
+        Update update = mockUpdate(1L, "/export ndjson");
+        User user = mockUser(false, false, true);
+        when(currencyExchangeService.countUserHistory("u1")).thenReturn(2L);
+        when(conversionExportService.exportHistory(eq("u1"), eq(ExportFormat.NDJSON), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream output = invocation.getArgument(2);
+                    output.write("{}\n{}\n".getBytes(StandardCharsets.UTF_8));
+                    return 2L;
+                });
+        CompletableFuture<Object> sent = new CompletableFuture<>();
+        doReturn(sent).when(executor).executeAsync(any(SendDocument.class));
+
+        SendMessage msg = command.handle(update, UserContext.of(1L, user));
+
+        assertThat(msg).isNull();
+        ArgumentCaptor<BaseRequest> requests = ArgumentCaptor.forClass(BaseRequest.class);
+        verify(executor, times(2)).executeAsync(requests.capture());
+        SendMessage notice = (SendMessage) requests.getAllValues().get(0);
+        SendDocument document = (SendDocument) requests.getAllValues().get(1);
+        assertThat(notice.getParameters().get("text")).isEqualTo("command.export.sending");
+        assertThat(document.getFileName()).isEqualTo("conversions.ndjson");
+        File file = (File) document.getParameters().get("document");
+        assertThat(file).exists();
+
+        SendResponse ok = mock(SendResponse.class);
+        when(ok.isOk()).thenReturn(true);
+        sent.complete(ok);
+        assertThat(file).doesNotExist();
+        verify(executor, times(2)).executeAsync(any());
+    }
+
+    @Test
+    @DisplayName("Ошибка загрузки документа сообщается пользователю")
+    void handle_uploadFailureReported() throws Exception {
+        Update update = mockUpdate(1L, "/export");
+        User user = mockUser(false, false, true);
+        when(currencyExchangeService.countUserHistory("u1")).thenReturn(1L);
+        CompletableFuture<Object> sent = new CompletableFuture<>();
+        doReturn(sent).when(executor).executeAsync(any(SendDocument.class));
+
+        command.handle(update, UserContext.of(1L, user));
+        sent.completeExceptionally(new RuntimeException("upload failed"));
+
+        ArgumentCaptor<SendMessage> messages = ArgumentCaptor.forClass(SendMessage.class);
+        verify(executor, times(2)).executeAsync(messages.capture());
+        assertThat(messages.getAllValues().getLast().getParameters().get("text")).isEqualTo("command.export.error");
+    }
+
+    @Test
+    @DisplayName("Формат по умолчанию — CSV")
+    void handle_defaultFormatCsv() {
+        Update update = mockUpdate(1L, "/export");
+        User user = mockUser(false, false, true);
+        when(currencyExchangeService.countUserHistory("u1")).thenReturn(1L);
+        doReturn(new CompletableFuture<>()).when(executor).executeAsync(any(SendDocument.class));
+
+        command.handle(update, UserContext.of(1L, user));
+
+        verify(conversionExportService).exportHistory(eq("u1"), eq(ExportFormat.CSV), any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("Неизвестный формат")
+    void handle_unknownFormat() {
+        Update update = mockUpdate(1L, "/export xml");
+        User user = mockUser(false, false, true);
+
+        SendMessage msg = command.handle(update, UserContext.of(1L, user));
+
+        assertThat(msg.getParameters().get("text")).isEqualTo("command.export.usage");
+        verifyNoInteractions(conversionExportService, executor);
+    }
+
+    @Test
+    @DisplayName("Нет конвертаций — файл не создается")
+    void handle_noConversions() {
+        Update update = mockUpdate(1L, "/export");
+        User user = mockUser(false, false, true);
+        when(currencyExchangeService.countUserHistory("u1")).thenReturn(0L);
+
+        SendMessage msg = command.handle(update, UserContext.of(1L, user));
+
+        assertThat(msg.getParameters().get("text")).isEqualTo("command.export.no_conversions");
+        verifyNoInteractions(conversionExportService, executor);
+    }
+
+    @Test
+    @DisplayName("Пользователь забанен")
+    void handle_banned() {
+        Update update = mockUpdate(1L, "/export");
+        User user = mockUser(true, false, true);
+
+        SendMessage msg = command.handle(update, UserContext.of(1L, user));
+
+        assertThat(msg.getParameters().get("text")).isEqualTo("command.export.error");
+    }
+
+    @Test
+    @DisplayName("Пользователь не зарегистрирован")
+    void handle_notRegistered() {
+        Update update = mockUpdate(2L, "/export");
+        when(userService.existsByChatId(2L)).thenReturn(false);
+
+        SendMessage msg = command.handle(update);
+
+        assertThat(msg.getParameters().get("text")).isEqualTo("command.export.error");
+    }
+
+    private Update mockUpdate(Long chatId, String text) {
+        Update update = mock(Update.class);
+        Message message = mock(Message.class);
+        Chat chat = mock(Chat.class);
+
+        when(update.message()).thenReturn(message);
+        when(message.chat()).thenReturn(chat);
+        when(chat.id()).thenReturn(chatId);
+        when(chat.username()).thenReturn("user");
+        when(message.text()).thenReturn(text);
+
+        return update;
+    }
+
+    private User mockUser(boolean banned, boolean deleted, boolean verified) {
+        User user = mock(User.class);
+
+        when(user.getId()).thenReturn("u1");
+        when(user.isBanned()).thenReturn(banned);
+        when(user.isDeleted()).thenReturn(deleted);
+        when(user.isVerified()).thenReturn(verified);
+
+        return user;
+    }
+}
@@ -14,7 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
 import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
-import ru.julia.currencyexchange.domain.model.CurrencyConversion;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.infrastructure.bot.command.FindByDateCommand;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.HistoryMessageBuilder;
@@ -22,7 +22,6 @@ import ru.julia.currencyexchange.infrastructure.bot.command.builder.PaginationKe
 
 import java.util.List;
 
-import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -59,9 +58,12 @@ class FindByDateCommandUnitTest {
         when(userService.existsByChatId(chatId)).thenReturn(true);
         when(userService.findUserByChatId(chatId)).thenReturn(user);
 
-        List<CurrencyConversion> conversions = List.of(mock(CurrencyConversion.class));
-        when(currencyExchangeService.findByCurrencyDate("u1", date)).thenReturn(conversions);
-        when(historyMessageBuilder.buildFindByDateMessage(anyList(), eq(0), anyBoolean(), anyInt(), eq(date))).thenReturn("MSG");
+        List<ConversionHistoryItem> conversions = List.of(mock(ConversionHistoryItem.class));
+        when(currencyExchangeService.countByCurrencyDate("u1", date)).thenReturn(1L);
+        when(currencyExchangeService.findByCurrencyDatePage(eq("u1"), eq(date), eq(0), anyInt(), eq(1L)))
+                .thenReturn(conversions);
+        when(historyMessageBuilder.buildFindByDateMessage(eq(conversions), eq(0), anyBoolean(), anyInt(), eq(1L), eq(date)))
+                .thenReturn("MSG");
 
         InlineKeyboardMarkup keyboard = mock(InlineKeyboardMarkup.class);
         when(paginationKeyboardBuilder.buildFindByDatePaginationKeyboard(anyInt(), anyInt(), anyInt(), eq(date))).thenReturn(keyboard);
@@ -169,7 +171,7 @@ class FindByDateCommandUnitTest {
         when(user.isVerified()).thenReturn(true);
         when(userService.existsByChatId(chatId)).thenReturn(true);
         when(userService.findUserByChatId(chatId)).thenReturn(user);
-        when(currencyExchangeService.findByCurrencyDate("u6", date)).thenReturn(emptyList());
+        when(currencyExchangeService.countByCurrencyDate("u6", date)).thenReturn(0L);
         when(messageConverter.resolve(eq("command.findByDate.no_conversions"), anyMap())).thenReturn("NO_CONV");
 
         SendMessage msg = command.handle(update);
@@ -191,7 +193,7 @@ class FindByDateCommandUnitTest {
         when(user.isVerified()).thenReturn(true);
         when(userService.existsByChatId(chatId)).thenReturn(true);
         when(userService.findUserByChatId(chatId)).thenReturn(user);
-        when(currencyExchangeService.findByCurrencyDate("u7", date)).thenThrow(new RuntimeException("fail"));
+        when(currencyExchangeService.countByCurrencyDate("u7", date)).thenThrow(new RuntimeException("fail"));
         when(messageConverter.resolve("command.findByDate.error")).thenReturn("ERROR");
 
         SendMessage msg = command.handle(update);
@@ -15,18 +15,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import ru.julia.currencyexchange.application.bot.messages.converter.interfaces.MessageConverter;
+import ru.julia.currencyexchange.application.bot.settings.UserContext;
 import ru.julia.currencyexchange.application.service.CurrencyExchangeService;
 import ru.julia.currencyexchange.application.service.UserService;
-import ru.julia.currencyexchange.domain.model.CurrencyConversion;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.Role;
 import ru.julia.currencyexchange.domain.model.User;
 import ru.julia.currencyexchange.domain.model.UserRole;
 import ru.julia.currencyexchange.infrastructure.bot.command.HistoryCommand;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.HistoryMessageBuilder;
 import ru.julia.currencyexchange.infrastructure.bot.command.builder.PaginationKeyboardBuilder;
+import ru.julia.currencyexchange.infrastructure.configuration.Constants;
 import ru.julia.currencyexchange.infrastructure.bot.command.handler.HistoryCallbackHandler;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -70,9 +71,12 @@ class HistoryCommandUnitTest {
         when(userService.findUserByChatId(chatId)).thenReturn(user);
         doNothing().when(userService).updateUsernameIfChanged(chatId, username);
 
-        CurrencyConversion conv = mock(CurrencyConversion.class);
-        when(currencyExchangeService.getUserHistory("u1")).thenReturn(List.of(conv));
-        when(historyMessageBuilder.buildHistoryMessage(anyList(), anyInt(), anyBoolean(), anyInt())).thenReturn("MSG");
+        ConversionHistoryItem conv = mock(ConversionHistoryItem.class);
+        when(currencyExchangeService.countUserHistory("u1")).thenReturn(1L);
+        when(currencyExchangeService.getUserHistoryPage("u1", 0, Constants.DEFAULT_CONVERSIONS_PER_PAGE, 1L))
+                .thenReturn(List.of(conv));
+        when(historyMessageBuilder.buildHistoryMessage(eq(List.of(conv)), eq(0), eq(false), anyInt(), eq(1L)))
+                .thenReturn("MSG");
 
         InlineKeyboardMarkup keyboard = mock(InlineKeyboardMarkup.class);
         when(paginationKeyboardBuilder.buildHistoryPaginationKeyboard(anyInt(), anyInt(), anyInt())).thenReturn(keyboard);
@@ -82,6 +86,45 @@ class HistoryCommandUnitTest {
         assertThat(msg.getParameters().get("reply_markup")).isEqualTo(keyboard);
     }
 
+    @Test
+    @DisplayName("Много конвертаций: загружается только первая страница в компактном формате")
+    void handle_largeHistory_loadsFirstPageOnly() {
+        Long chatId = 1L;
+        Update update = mockUpdate(chatId, "user");
+        User user = mockUser("u1", false, false, true, Set.of("USER"));
+
+        when(currencyExchangeService.countUserHistory("u1")).thenReturn(1000L);
+        when(currencyExchangeService.getUserHistoryPage("u1", 0, Constants.COMPACT_CONVERSIONS_PER_PAGE, 1000L))
+                .thenReturn(List.of(mock(ConversionHistoryItem.class)));
+        when(historyMessageBuilder.buildHistoryMessage(anyList(), eq(0), eq(true),
+                eq(Constants.COMPACT_CONVERSIONS_PER_PAGE), eq(1000L))).thenReturn("MSG");
+
+        SendMessage msg = command.handle(update, UserContext.of(chatId, user));
+
+        assertThat(msg.getParameters().get("text")).isEqualTo("MSG");
+        verify(paginationKeyboardBuilder).buildHistoryPaginationKeyboard(1000, 0, Constants.COMPACT_CONVERSIONS_PER_PAGE);
+    }
+
+    @Test
+    @DisplayName("Пользователь из контекста обновления не запрашивается повторно")
+    void handle_userContext_noLookups() {
+        Long chatId = 1L;
+        Update update = mockUpdate(chatId, "user");
+        User user = mockUser("u1", false, false, true, Set.of("USER"));
+
+        when(currencyExchangeService.countUserHistory("u1")).thenReturn(1L);
+        when(currencyExchangeService.getUserHistoryPage(eq("u1"), eq(0), anyInt(), eq(1L)))
+                .thenReturn(List.of(mock(ConversionHistoryItem.class)));
+        when(historyMessageBuilder.buildHistoryMessage(anyList(), anyInt(), anyBoolean(), anyInt(), anyLong()))
+                .thenReturn("MSG");
+
+        SendMessage msg = command.handle(update, UserContext.of(chatId, user));
+
+        assertThat(msg.getParameters().get("text")).isEqualTo("MSG");
+        verify(userService, never()).existsByChatId(any());
+        verify(userService, never()).findUserByChatId(any());
+    }
+
     private Update mockUpdate(Long chatId, String username) {
         Update update = mock(Update.class);
         Message message = mock(Message.class);
@@ -190,7 +233,7 @@ class HistoryCommandUnitTest {
 
         doNothing().when(userService).updateUsernameIfChanged(chatId, "user6");
 
-        when(currencyExchangeService.getUserHistory("u6")).thenReturn(Collections.emptyList());
+        when(currencyExchangeService.countUserHistory("u6")).thenReturn(0L);
 
         SendMessage msg = command.handle(update);
         assertThat(msg.getParameters().get("text")).isEqualTo("command.history.no_conversions");
@@ -209,7 +252,7 @@ class HistoryCommandUnitTest {
 
         doNothing().when(userService).updateUsernameIfChanged(chatId, "user7");
 
-        when(currencyExchangeService.getUserHistory("u7")).thenThrow(new RuntimeException("fail"));
+        when(currencyExchangeService.countUserHistory("u7")).thenThrow(new RuntimeException("fail"));
 
         SendMessage msg = command.handle(update);
         assertThat(msg.getParameters().get("text")).isEqualTo("command.history.error");
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import ru.julia.currencyexchange.domain.model.ConversionHistoryItem;
 import ru.julia.currencyexchange.domain.model.Currency;
 import ru.julia.currencyexchange.domain.model.CurrencyConversion;
 import ru.julia.currencyexchange.domain.model.User;
@@ -61,41 +63,54 @@ class ConversionRepositoryIntegrationTest extends IntegrationTestBase {
         conversion.setConversionRate(BigDecimal.valueOf(120.0));
         conversionRepository.save(conversion);
 
-        List<CurrencyConversion> found = conversionRepository.findByCurrencyDate(LocalDate.now(), user.getId());
+        LocalDate today = LocalDate.now();
+        List<ConversionHistoryItem> found = conversionRepository.findByTimestampRange(user.getId(),
+                today.atStartOfDay(), today.plusDays(1).atStartOfDay());
 
         assertThat(found).isNotEmpty();
-        assertThat(found.getFirst().getUser().getUsername()).isEqualTo("convuser");
+        assertThat(found.getFirst().userId()).isEqualTo(user.getId());
+        assertThat(found.getFirst().sourceCurrencyCode()).isEqualTo("GBP");
     }
 
     @Test
-    @DisplayName("Поиск конвертаций по userId")
-    void findConversionByUserId() {
+    @DisplayName("Keyset-пагинация истории по (timestamp, id) и подсчет")
+    void keysetHistoryPagination() {
         User user = new User();
-        user.setUsername("convuser2");
-        user.setEmail("conv2@example.com");
-        user.setChatId(55555L);
+        user.setUsername("pageuser");
+        user.setEmail("page@example.com");
+        user.setChatId(66666L);
         user.setPassword("testpass");
         userRepository.save(user);
 
         Currency currency = new Currency();
-        currency.setCode("JPY");
-        currency.setName("Yen");
-        currency.setExchangeRate(BigDecimal.valueOf(0.5));
+        currency.setCode("SEK");
+        currency.setName("Krona");
+        currency.setExchangeRate(BigDecimal.valueOf(9.0));
         currencyRepository.save(currency);
 
-        CurrencyConversion conversion = new CurrencyConversion();
-        conversion.setUser(user);
-        conversion.setSourceCurrency(currency);
-        conversion.setTargetCurrency(currency);
-        conversion.setAmount(BigDecimal.valueOf(200));
-        conversion.setConvertedAmount(BigDecimal.valueOf(100));
-        conversion.setConversionRate(BigDecimal.valueOf(0.5));
-        conversionRepository.save(conversion);
-
-        List<CurrencyConversion> found = conversionRepository.findConversionByUserId(user.getId());
-
-        assertThat(found).isNotEmpty();
-        assertThat(found.getFirst().getUser().getUsername()).isEqualTo("convuser2");
+        for (int i = 1; i <= 3; i++) {
+            CurrencyConversion conversion = new CurrencyConversion();
+            conversion.setUser(user);
+            conversion.setSourceCurrency(currency);
+            conversion.setTargetCurrency(currency);
+            conversion.setAmount(BigDecimal.valueOf(i));
+            conversion.setConvertedAmount(BigDecimal.valueOf(i));
+            conversion.setConversionRate(BigDecimal.ONE);
+            conversionRepository.save(conversion);
+        }
+
+        List<ConversionHistoryItem> firstPage = conversionRepository.findLatestByUserId(user.getId(), PageRequest.of(0, 2));
+        ConversionHistoryItem last = firstPage.getLast();
+        List<ConversionHistoryItem> nextPage = conversionRepository.findByUserIdBefore(
+                user.getId(), last.timestamp(), last.id(), PageRequest.of(0, 2));
+
+        assertThat(conversionRepository.countByUserId(user.getId())).isEqualTo(3);
+        assertThat(firstPage).extracting(ConversionHistoryItem::amount)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.valueOf(3), BigDecimal.valueOf(2));
+        assertThat(nextPage).extracting(ConversionHistoryItem::amount)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.valueOf(1));
     }
 
     @Test
@@ -8,6 +8,11 @@ import liquibase.integration.spring.SpringLiquibase;
 import liquibase.resource.ClassLoaderResourceAccessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import ru.julia.currencyexchange.application.service.ChatUserCache;
+import ru.julia.currencyexchange.application.service.SettingsService;
+import ru.julia.currencyexchange.application.service.UsernameTracker;
+import ru.julia.currencyexchange.application.service.rates.RateHistoryService;
+import ru.julia.currencyexchange.infrastructure.bot.command.builder.CurrencyListingCache;
 
 import javax.sql.DataSource;
 
@@ -20,6 +25,21 @@ public class DatabaseCleaner {
     @Autowired
     private SpringLiquibase springLiquibase;
 
+    @Autowired
+    private SettingsService settingsService;
+
+    @Autowired
+    private ChatUserCache chatUserCache;
+
+    @Autowired
+    private UsernameTracker usernameTracker;
+
+    @Autowired
+    private RateHistoryService rateHistoryService;
+
+    @Autowired
+    private CurrencyListingCache currencyListingCache;
+
     public void resetDatabase() {
         try (var connection = dataSource.getConnection()) {
             Database database = DatabaseFactory.getInstance()
@@ -35,6 +55,11 @@ public class DatabaseCleaner {
 
             liquibase.dropAll();
             liquibase.update();
+            settingsService.reloadGlobalConversionFee();
+            chatUserCache.invalidateAll();
+            usernameTracker.clear();
+            rateHistoryService.clearCache();
+            currencyListingCache.invalidateAll();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }